@@ -28,4 +28,19 @@ public class Constants {
     public static final String ANONYMOUS_VALUE = "anonymous";
     public static final String UNKNOWN_VALUE = "UNKNOWN";
     public static final int UNKNOWN_INT_VALUE = -1;
+
+    public static final String ASYNC_PUBLISHING_ENABLED = "publisher.async.enabled";
+    public static final String ASYNC_PUBLISHING_WORKER_THREADS = "publisher.async.worker_threads";
+    public static final String ASYNC_PUBLISHING_QUEUE_SIZE = "publisher.async.queue_size";
+    public static final String ASYNC_PUBLISHING_DROP_POLICY = "publisher.async.drop_policy";
+    public static final String ASYNC_PUBLISHING_SHUTDOWN_TIMEOUT = "publisher.async.shutdown_timeout";
+    public static final String DROP_POLICY_DROP_OLDEST = "drop_oldest";
+    public static final int DEFAULT_ASYNC_PUBLISHING_WORKER_THREADS = 1;
+    public static final int DEFAULT_ASYNC_PUBLISHING_QUEUE_SIZE = 10000;
+    public static final long DEFAULT_ASYNC_PUBLISHING_SHUTDOWN_TIMEOUT = 10000;
+
+    public static final String SAMPLING_RATE = "publisher.sampling.rate";
+    public static final String TENANT_SAMPLING_RATE_PREFIX = "publisher.sampling.tenant.";
+    public static final String API_SAMPLING_RATE_PREFIX = "publisher.sampling.api.";
+    public static final String SAMPLING_RATE_SUFFIX = ".rate";
 }
@@ -17,8 +17,6 @@
 
 package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.am.analytics.publisher.exception.MetricReportingException;
@@ -27,23 +25,38 @@ import org.wso2.am.analytics.publisher.reporter.MetricEventBuilder;
 import org.wso2.carbon.apimgt.common.analytics.publishers.RequestDataPublisher;
 import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Event;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Abstract implementation to publish an event.
  */
 public abstract class AbstractRequestDataPublisher implements RequestDataPublisher {
 
-    protected static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-    protected static final TypeReference<Map<String, Object>> MAP_TYPE_REFERENCE =
-            new TypeReference<Map<String, Object>>() {
-            };
     private static final Log log = LogFactory.getLog(AbstractRequestDataPublisher.class);
 
     @Override
     public void publish(Event analyticsEvent) {
 
-        Map<String, Object> dataMap = OBJECT_MAPPER.convertValue(analyticsEvent, MAP_TYPE_REFERENCE);
+        AnalyticsDataPublisher dataPublisher = AnalyticsDataPublisher.getInstance();
+        AnalyticsEventSampler eventSampler = dataPublisher.getEventSampler();
+        if (eventSampler != null && !eventSampler.isSampled(analyticsEvent)) {
+            return;
+        }
+        // The event is fully collected by now and is not modified afterwards, so it can be published by another thread
+        AnalyticsEventDispatcher eventDispatcher = dataPublisher.getEventDispatcher();
+        if (eventDispatcher != null) {
+            eventDispatcher.dispatch(() -> publishEvent(analyticsEvent));
+        } else {
+            publishEvent(analyticsEvent);
+        }
+    }
+
+    /**
+     * Publishes the event to all the metric reporters.
+     *
+     * @param analyticsEvent analytics event
+     */
+    protected void publishEvent(Event analyticsEvent) {
+
         List<CounterMetric> multipleCounterMetrics = this.getMultipleCounterMetrics();
         if (multipleCounterMetrics == null) {
             log.error("All the counterMetrics are invalid. Event will be dropped.");
@@ -54,26 +67,18 @@ public abstract class AbstractRequestDataPublisher implements RequestDataPublish
             if (counterMetric == null) {
                 log.error("counterMetric cannot be null.");
             } else {
-                String counterMetricClassName = counterMetric.getClass().toString().
-                        replaceAll("[\r\n]", "").split(" ")[1];
-                boolean caughtException = false;
                 MetricEventBuilder builder = counterMetric.getEventBuilder();
-                for (Map.Entry<String, Object> entry : dataMap.entrySet()) {
-                    try {
-                        builder.addAttribute(entry.getKey(), entry.getValue());
-                    } catch (MetricReportingException e) {
-                        caughtException = true;
-                        log.error("Error adding data to the event stream. counterMetric: " + counterMetricClassName
-                                , e);
-                        break;
-                    }
+                try {
+                    AnalyticsEventEncoder.encode(analyticsEvent, builder);
+                } catch (MetricReportingException e) {
+                    log.error("Error adding data to the event stream. counterMetric: "
+                            + counterMetric.getClass().getName(), e);
+                    continue;
                 }
-                if (!caughtException) {
-                    try {
-                        counterMetric.incrementCount(builder);
-                    } catch (MetricReportingException e) {
-                        log.error("Error occurred when publishing event.", e);
-                    }
+                try {
+                    counterMetric.incrementCount(builder);
+                } catch (MetricReportingException e) {
+                    log.error("Error occurred when publishing event.", e);
                 }
             }
         }
@@ -43,6 +43,8 @@ public class AnalyticsDataPublisher {
 
     private List<CounterMetric> successMetricReporters;
     private List<CounterMetric> faultyMetricReporters;
+    private volatile AnalyticsEventSampler eventSampler;
+    private volatile AnalyticsEventDispatcher eventDispatcher;
 
     private AnalyticsDataPublisher() {
 
@@ -92,6 +94,7 @@ public class AnalyticsDataPublisher {
 
     public void initialize(AnalyticsCommonConfiguration commonConfig) {
         Map<String, String> configs = commonConfig.getConfigurations();
+        initializeEventDispatching(configs);
         String reporterClass = configs.get("publisher.reporter.class");
         String reporterType = configs.get("type");
         List<String> reporterClasses = getReportersClassesOrNull(configs);
@@ -149,6 +152,77 @@ public class AnalyticsDataPublisher {
         }
     }
 
+    private void initializeEventDispatching(Map<String, String> configs) {
+
+        this.eventSampler = new AnalyticsEventSampler(configs);
+        if (this.eventDispatcher != null) {
+            this.eventDispatcher.shutdown();
+            this.eventDispatcher = null;
+        }
+        String asyncPublishingEnabled = configs.get(Constants.ASYNC_PUBLISHING_ENABLED);
+        if (asyncPublishingEnabled == null || Boolean.parseBoolean(asyncPublishingEnabled.trim())) {
+            int workerThreads = (int) getPositiveNumber(configs, Constants.ASYNC_PUBLISHING_WORKER_THREADS,
+                    Constants.DEFAULT_ASYNC_PUBLISHING_WORKER_THREADS);
+            int queueSize = (int) getPositiveNumber(configs, Constants.ASYNC_PUBLISHING_QUEUE_SIZE,
+                    Constants.DEFAULT_ASYNC_PUBLISHING_QUEUE_SIZE);
+            long shutdownTimeout = getPositiveNumber(configs, Constants.ASYNC_PUBLISHING_SHUTDOWN_TIMEOUT,
+                    Constants.DEFAULT_ASYNC_PUBLISHING_SHUTDOWN_TIMEOUT);
+            boolean dropOldest = Constants.DROP_POLICY_DROP_OLDEST.equalsIgnoreCase(
+                    StringUtils.trim(configs.get(Constants.ASYNC_PUBLISHING_DROP_POLICY)));
+            this.eventDispatcher = new AnalyticsEventDispatcher(workerThreads, queueSize, dropOldest,
+                    shutdownTimeout);
+            if (log.isDebugEnabled()) {
+                log.debug("Analytics events are published asynchronously by " + workerThreads
+                        + " threads with a queue of " + queueSize + " events.");
+            }
+        }
+    }
+
+    private static long getPositiveNumber(Map<String, String> configs, String key, long defaultValue) {
+
+        String value = configs.get(key);
+        if (!StringUtils.isBlank(value)) {
+            try {
+                long number = Long.parseLong(value.trim());
+                if (number > 0) {
+                    return number;
+                }
+            } catch (NumberFormatException e) {
+                // handled below
+            }
+            log.warn("Invalid value " + value + " for analytics configuration " + key + ". Using " + defaultValue
+                    + " instead.");
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Returns the sampler of the events to be published, or null if the publisher is not initialized.
+     */
+    public AnalyticsEventSampler getEventSampler() {
+
+        return eventSampler;
+    }
+
+    /**
+     * Returns the dispatcher of the events to be published asynchronously, or null if events are published by the
+     * request threads.
+     */
+    public AnalyticsEventDispatcher getEventDispatcher() {
+
+        return eventDispatcher;
+    }
+
+    /**
+     * Publishes the queued events and stops the publisher threads.
+     */
+    public void shutdown() {
+
+        if (eventDispatcher != null) {
+            eventDispatcher.shutdown();
+        }
+    }
+
     public List<CounterMetric> getSuccessMetricReporters() throws MetricCreationException {
 
         if (this.successMetricReporters.isEmpty()) {
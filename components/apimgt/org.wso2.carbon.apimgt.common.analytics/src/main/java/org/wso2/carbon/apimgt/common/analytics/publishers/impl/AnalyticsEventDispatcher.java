@@ -0,0 +1,150 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands analytics events over from the request threads to dedicated publisher threads.
+ * <p>
+ * Events wait in a bounded queue, so a slow analytics backend does not hold up the request threads. When the queue is
+ * full, either the event being dispatched or the oldest queued event is dropped, and the dropped events are counted.
+ * On shutdown, the queued events are published before the publisher threads stop, unless the shutdown times out.
+ */
+public class AnalyticsEventDispatcher {
+
+    private static final Log log = LogFactory.getLog(AnalyticsEventDispatcher.class);
+    private static final long DROPPED_EVENTS_LOG_INTERVAL = 1000;
+
+    private final ThreadPoolExecutor executor;
+    private final long shutdownTimeout;
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    public AnalyticsEventDispatcher(int workerThreads, int queueSize, boolean dropOldest, long shutdownTimeout) {
+
+        this.shutdownTimeout = shutdownTimeout;
+        this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), new PublisherThreadFactory(), new DropPolicy(dropOldest));
+    }
+
+    /**
+     * Queues the publishing of an event. The event is dropped if the queue is full and the drop policy does not make
+     * room for it.
+     *
+     * @param publishTask task publishing the event
+     */
+    public void dispatch(Runnable publishTask) {
+
+        executor.execute(publishTask);
+    }
+
+    /**
+     * Returns the number of events dropped because the queue was full or the dispatcher was shut down.
+     */
+    public long getDroppedEvents() {
+
+        return droppedEvents.get();
+    }
+
+    /**
+     * Returns the number of events waiting to be published.
+     */
+    public int getQueuedEvents() {
+
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops accepting events and waits for the queued events to be published.
+     */
+    public void shutdown() {
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+                int pendingEvents = executor.shutdownNow().size();
+                droppedEvents.addAndGet(pendingEvents);
+                log.warn("Analytics event publishing did not complete within " + shutdownTimeout + " ms. "
+                        + pendingEvents + " queued events were dropped.");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Analytics event dispatcher shut down. Dropped events: " + droppedEvents.get());
+        }
+    }
+
+    private void onDropped(String reason) {
+
+        long dropped = droppedEvents.incrementAndGet();
+        if (dropped == 1 || dropped % DROPPED_EVENTS_LOG_INTERVAL == 0) {
+            log.warn("Analytics event dropped as " + reason + ". Total dropped events: " + dropped);
+        }
+    }
+
+    private class DropPolicy implements RejectedExecutionHandler {
+
+        private final boolean dropOldest;
+
+        private DropPolicy(boolean dropOldest) {
+
+            this.dropOldest = dropOldest;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable publishTask, ThreadPoolExecutor executor) {
+
+            if (executor.isShutdown()) {
+                onDropped("the publisher is shut down");
+            } else if (dropOldest) {
+                if (executor.getQueue().poll() != null) {
+                    onDropped("the publisher queue is full");
+                }
+                if (!executor.getQueue().offer(publishTask)) {
+                    onDropped("the publisher queue is full");
+                }
+            } else {
+                onDropped("the publisher queue is full");
+            }
+        }
+    }
+
+    private static class PublisherThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, "AnalyticsEventPublisher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
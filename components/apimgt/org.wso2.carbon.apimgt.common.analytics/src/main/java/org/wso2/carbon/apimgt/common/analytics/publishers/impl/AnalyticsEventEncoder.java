@@ -0,0 +1,167 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.wso2.am.analytics.publisher.exception.MetricReportingException;
+import org.wso2.am.analytics.publisher.reporter.MetricEventBuilder;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.API;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Application;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Error;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Event;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.ExtendedAPI;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Latencies;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.MetaInfo;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Operation;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Target;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Encodes analytics events into the event builders of the metric reporters.
+ * <p>
+ * Attributes are written straight from the getters of the event and of its components, with the names and values the
+ * event used to have when it was converted to a map with Jackson: components are unwrapped into the event, components
+ * that are not set add no attributes, and enums are written with their names. Fields added to the event DTOs must be
+ * added here as well.
+ */
+public final class AnalyticsEventEncoder {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE_REFERENCE =
+            new TypeReference<Map<String, Object>>() {
+            };
+
+    private static final List<Component<?>> COMPONENTS = Collections.unmodifiableList(Arrays.asList(
+            new Component<>(Event::getApi)
+                    .attribute("apiId", API::getApiId)
+                    .attribute("apiType", API::getApiType)
+                    .attribute("apiName", API::getApiName)
+                    .attribute("apiVersion", API::getApiVersion)
+                    .attribute("apiCreator", API::getApiCreator)
+                    .attribute("apiCreatorTenantDomain", API::getApiCreatorTenantDomain),
+            new Component<>(event -> event.getApi() instanceof ExtendedAPI ? (ExtendedAPI) event.getApi() : null)
+                    .attribute("organizationId", ExtendedAPI::getOrganizationId)
+                    .attribute("apiContext", ExtendedAPI::getApiContext),
+            new Component<>(Event::getOperation)
+                    .attribute("apiMethod", Operation::getApiMethod)
+                    .attribute("apiResourceTemplate", Operation::getApiResourceTemplate),
+            new Component<>(Event::getTarget)
+                    .attribute("targetResponseCode", Target::getTargetResponseCode)
+                    .attribute("responseCacheHit", Target::isResponseCacheHit)
+                    .attribute("destination", Target::getDestination),
+            new Component<>(Event::getApplication)
+                    .attribute("keyType", Application::getKeyType)
+                    .attribute("applicationId", Application::getApplicationId)
+                    .attribute("applicationName", Application::getApplicationName)
+                    .attribute("applicationOwner", Application::getApplicationOwner),
+            new Component<>(Event::getLatencies)
+                    .attribute("responseLatency", Latencies::getResponseLatency)
+                    .attribute("backendLatency", Latencies::getBackendLatency)
+                    .attribute("requestMediationLatency", Latencies::getRequestMediationLatency)
+                    .attribute("responseMediationLatency", Latencies::getResponseMediationLatency),
+            new Component<>(Event::getMetaInfo)
+                    .attribute("correlationId", MetaInfo::getCorrelationId)
+                    .attribute("regionId", MetaInfo::getRegionId)
+                    .attribute("gatewayType", MetaInfo::getGatewayType),
+            new Component<>(Event::getError)
+                    .attribute("errorCode", Error::getErrorCode)
+                    .attribute("errorMessage", error -> getEnumName(error.getErrorMessage())),
+            new Component<>(event -> event)
+                    .attribute("proxyResponseCode", Event::getProxyResponseCode)
+                    .attribute("requestTimestamp", Event::getRequestTimestamp)
+                    .attribute("userAgentHeader", Event::getUserAgentHeader)
+                    .attribute("userName", Event::getUserName)
+                    .attribute("userIp", Event::getUserIp)
+                    .attribute("errorType", Event::getErrorType)
+                    .attribute("properties", event -> getProperties(event.getProperties()))));
+
+    private AnalyticsEventEncoder() {
+
+    }
+
+    /**
+     * Adds the attributes of the event to the event builder.
+     *
+     * @param event   analytics event
+     * @param builder event builder of the metric reporter
+     * @throws MetricReportingException if the builder rejects an attribute
+     */
+    public static void encode(Event event, MetricEventBuilder builder) throws MetricReportingException {
+
+        for (Component<?> component : COMPONENTS) {
+            component.encode(event, builder);
+        }
+    }
+
+    private static Object getEnumName(Object value) {
+
+        return value instanceof Enum ? ((Enum<?>) value).name() : value;
+    }
+
+    private static Map<String, Object> getProperties(Map<String, Object> properties) {
+
+        if (properties == null) {
+            return null;
+        }
+        for (Object value : properties.values()) {
+            if (value != null && !(value instanceof String) && !(value instanceof Number)
+                    && !(value instanceof Boolean)) {
+                // Custom properties may hold arbitrary objects, which have to be converted as before
+                return OBJECT_MAPPER.convertValue(properties, MAP_TYPE_REFERENCE);
+            }
+        }
+        return properties;
+    }
+
+    private static final class Component<T> {
+
+        private final Function<Event, T> getter;
+        private final List<String> names = new ArrayList<>();
+        private final List<Function<T, Object>> accessors = new ArrayList<>();
+
+        private Component(Function<Event, T> getter) {
+
+            this.getter = getter;
+        }
+
+        private Component<T> attribute(String name, Function<T, Object> accessor) {
+
+            names.add(name);
+            accessors.add(accessor);
+            return this;
+        }
+
+        private void encode(Event event, MetricEventBuilder builder) throws MetricReportingException {
+
+            T value = getter.apply(event);
+            if (value == null) {
+                return;
+            }
+            for (int i = 0; i < names.size(); i++) {
+                builder.addAttribute(names.get(i), accessors.get(i).apply(value));
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.common.analytics.Constants;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.API;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Event;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples analytics events before they are published.
+ * <p>
+ * The sampling rate of an event is the rate configured for its API, or else the rate configured for the tenant of the
+ * API, or else the default rate. Rates are fractions between 0 and 1, and the default rate is 1, which publishes every
+ * event. Events are sampled as they are handed over for publishing, regardless of whether they succeeded or failed.
+ */
+public class AnalyticsEventSampler {
+
+    private static final Log log = LogFactory.getLog(AnalyticsEventSampler.class);
+
+    private final double defaultRate;
+    private final Map<String, Double> tenantRates = new HashMap<>();
+    private final Map<String, Double> apiRates = new HashMap<>();
+    private final AtomicLong sampledOutEvents = new AtomicLong();
+
+    public AnalyticsEventSampler(Map<String, String> configs) {
+
+        this.defaultRate = getRate(Constants.SAMPLING_RATE, configs.get(Constants.SAMPLING_RATE), 1);
+        for (Map.Entry<String, String> config : configs.entrySet()) {
+            String key = config.getKey();
+            if (!key.endsWith(Constants.SAMPLING_RATE_SUFFIX)) {
+                continue;
+            }
+            if (key.startsWith(Constants.TENANT_SAMPLING_RATE_PREFIX)) {
+                tenantRates.put(key.substring(Constants.TENANT_SAMPLING_RATE_PREFIX.length(),
+                        key.length() - Constants.SAMPLING_RATE_SUFFIX.length()),
+                        getRate(key, config.getValue(), defaultRate));
+            } else if (key.startsWith(Constants.API_SAMPLING_RATE_PREFIX)) {
+                apiRates.put(key.substring(Constants.API_SAMPLING_RATE_PREFIX.length(),
+                        key.length() - Constants.SAMPLING_RATE_SUFFIX.length()),
+                        getRate(key, config.getValue(), defaultRate));
+            }
+        }
+    }
+
+    /**
+     * Returns whether the event is sampled for publishing.
+     *
+     * @param event analytics event
+     * @return true if the event has to be published, false if it has to be dropped
+     */
+    public boolean isSampled(Event event) {
+
+        double rate = getRate(event);
+        if (rate >= 1) {
+            return true;
+        }
+        if (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate) {
+            return true;
+        }
+        sampledOutEvents.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Returns the number of events dropped by sampling.
+     */
+    public long getSampledOutEvents() {
+
+        return sampledOutEvents.get();
+    }
+
+    private double getRate(Event event) {
+
+        API api = event.getApi();
+        if (api == null) {
+            return defaultRate;
+        }
+        Double rate = null;
+        if (!apiRates.isEmpty() && api.getApiId() != null) {
+            rate = apiRates.get(api.getApiId());
+        }
+        if (rate == null && !tenantRates.isEmpty() && api.getApiCreatorTenantDomain() != null) {
+            rate = tenantRates.get(api.getApiCreatorTenantDomain());
+        }
+        return rate != null ? rate : defaultRate;
+    }
+
+    private static double getRate(String key, String value, double defaultValue) {
+
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            double rate = Double.parseDouble(value.trim());
+            if (rate >= 0 && rate <= 1) {
+                return rate;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+        log.warn("Invalid analytics sampling rate " + value + " for " + key + ". Using " + defaultValue
+                + " instead.");
+        return defaultValue;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AnalyticsEventDispatcherTest {
+
+    @Test
+    public void testDispatchDoesNotWaitForSlowBackend() throws InterruptedException {
+
+        AnalyticsEventDispatcher dispatcher = new AnalyticsEventDispatcher(1, 10, false, 10000);
+        CountDownLatch backendReleased = new CountDownLatch(1);
+        List<Integer> publishedEvents = new CopyOnWriteArrayList<>();
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            int event = i;
+            dispatcher.dispatch(() -> {
+                awaitQuietly(backendReleased);
+                publishedEvents.add(event);
+            });
+        }
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) < 1000);
+        Assert.assertTrue(publishedEvents.isEmpty());
+
+        backendReleased.countDown();
+        dispatcher.shutdown();
+        Assert.assertEquals(5, publishedEvents.size());
+        Assert.assertEquals(0, dispatcher.getDroppedEvents());
+    }
+
+    @Test
+    public void testDropNewestEventsWhenQueueIsFull() throws InterruptedException {
+
+        AnalyticsEventDispatcher dispatcher = new AnalyticsEventDispatcher(1, 2, false, 10000);
+        CountDownLatch backendReleased = new CountDownLatch(1);
+        CountDownLatch backendBlocked = new CountDownLatch(1);
+        List<Integer> publishedEvents = new CopyOnWriteArrayList<>();
+
+        dispatcher.dispatch(() -> {
+            backendBlocked.countDown();
+            awaitQuietly(backendReleased);
+            publishedEvents.add(0);
+        });
+        Assert.assertTrue(backendBlocked.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i <= 4; i++) {
+            int event = i;
+            dispatcher.dispatch(() -> publishedEvents.add(event));
+        }
+        Assert.assertEquals(2, dispatcher.getDroppedEvents());
+
+        backendReleased.countDown();
+        dispatcher.shutdown();
+        Assert.assertEquals(3, publishedEvents.size());
+        Assert.assertEquals(Integer.valueOf(1), publishedEvents.get(1));
+        Assert.assertEquals(Integer.valueOf(2), publishedEvents.get(2));
+    }
+
+    @Test
+    public void testDropOldestEventsWhenQueueIsFull() throws InterruptedException {
+
+        AnalyticsEventDispatcher dispatcher = new AnalyticsEventDispatcher(1, 2, true, 10000);
+        CountDownLatch backendReleased = new CountDownLatch(1);
+        CountDownLatch backendBlocked = new CountDownLatch(1);
+        List<Integer> publishedEvents = new CopyOnWriteArrayList<>();
+
+        dispatcher.dispatch(() -> {
+            backendBlocked.countDown();
+            awaitQuietly(backendReleased);
+            publishedEvents.add(0);
+        });
+        Assert.assertTrue(backendBlocked.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i <= 4; i++) {
+            int event = i;
+            dispatcher.dispatch(() -> publishedEvents.add(event));
+        }
+        Assert.assertEquals(2, dispatcher.getDroppedEvents());
+
+        backendReleased.countDown();
+        dispatcher.shutdown();
+        Assert.assertEquals(3, publishedEvents.size());
+        Assert.assertEquals(Integer.valueOf(3), publishedEvents.get(1));
+        Assert.assertEquals(Integer.valueOf(4), publishedEvents.get(2));
+    }
+
+    @Test
+    public void testDropEventsAfterShutdown() {
+
+        AnalyticsEventDispatcher dispatcher = new AnalyticsEventDispatcher(1, 2, false, 10000);
+        dispatcher.shutdown();
+        dispatcher.dispatch(() -> Assert.fail("Event published after shutdown"));
+        Assert.assertEquals(1, dispatcher.getDroppedEvents());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.am.analytics.publisher.exception.MetricReportingException;
+import org.wso2.am.analytics.publisher.reporter.MetricEventBuilder;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Application;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Error;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Event;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.ExtendedAPI;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Latencies;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.MetaInfo;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Operation;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Target;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.enums.FaultSubCategories;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class AnalyticsEventEncoderTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE_REFERENCE =
+            new TypeReference<Map<String, Object>>() {
+            };
+
+    @Test
+    public void testEncodeSuccessEvent() throws MetricReportingException {
+
+        Event event = getEvent();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("userName", "admin");
+        properties.put("apiContext", null);
+        event.setProperties(properties);
+
+        assertEncodedAsMap(event);
+    }
+
+    @Test
+    public void testEncodeFaultyEvent() throws MetricReportingException {
+
+        Event event = getEvent();
+        event.setTarget(null);
+        event.setLatencies(null);
+        Error error = new Error();
+        error.setErrorCode(900800);
+        error.setErrorMessage(FaultSubCategories.Throttling.APPLICATION_LEVEL_LIMIT_EXCEEDED);
+        event.setError(error);
+        event.setErrorType("THROTTLED");
+        event.setProperties(Collections.singletonMap("custom", Collections.singletonMap("key", "value")));
+
+        assertEncodedAsMap(event);
+    }
+
+    private static void assertEncodedAsMap(Event event) throws MetricReportingException {
+
+        RecordingEventBuilder builder = new RecordingEventBuilder();
+        AnalyticsEventEncoder.encode(event, builder);
+        Assert.assertEquals(OBJECT_MAPPER.convertValue(event, MAP_TYPE_REFERENCE), builder.attributes);
+    }
+
+    private static Event getEvent() {
+
+        ExtendedAPI api = new ExtendedAPI();
+        api.setApiId("c5b7f1e4-8a2f-4a44-a9c5-0a1d9f4d2b61");
+        api.setApiType("HTTP");
+        api.setApiName("PizzaShackAPI");
+        api.setApiVersion("1.0.0");
+        api.setApiCreator("admin");
+        api.setApiCreatorTenantDomain("carbon.super");
+        api.setOrganizationId("carbon.super");
+        api.setApiContext("/pizzashack/1.0.0");
+        Operation operation = new Operation();
+        operation.setApiMethod("GET");
+        operation.setApiResourceTemplate("/menu");
+        Target target = new Target();
+        target.setTargetResponseCode(200);
+        target.setResponseCacheHit(false);
+        target.setDestination("https://localhost:9443/am/sample/pizzashack/v1/api/");
+        Application application = new Application();
+        application.setKeyType("PRODUCTION");
+        application.setApplicationId("1");
+        application.setApplicationName("DefaultApplication");
+        application.setApplicationOwner("admin");
+        Latencies latencies = new Latencies();
+        latencies.setResponseLatency(120L);
+        latencies.setBackendLatency(100L);
+        latencies.setRequestMediationLatency(12L);
+        latencies.setResponseMediationLatency(8L);
+        MetaInfo metaInfo = new MetaInfo();
+        metaInfo.setCorrelationId("6c3fbd2d-7ad2-4c79-9bd1-1e6b4d6a3f10");
+        metaInfo.setRegionId("default");
+        metaInfo.setGatewayType("SYNAPSE");
+
+        Event event = new Event();
+        event.setApi(api);
+        event.setOperation(operation);
+        event.setTarget(target);
+        event.setApplication(application);
+        event.setLatencies(latencies);
+        event.setMetaInfo(metaInfo);
+        event.setProxyResponseCode(200);
+        event.setRequestTimestamp("2021-06-01T10:15:30.000Z");
+        event.setUserAgentHeader("curl/7.68.0");
+        event.setUserIp("127.0.0.1");
+        return event;
+    }
+
+    private static class RecordingEventBuilder implements MetricEventBuilder {
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        @Override
+        public Map<String, Object> build() {
+
+            return attributes;
+        }
+
+        @Override
+        public boolean validate() {
+
+            return true;
+        }
+
+        @Override
+        public MetricEventBuilder addAttribute(String key, Object value) {
+
+            attributes.put(key, value);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.API;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Event;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class AnalyticsEventSamplerTest {
+
+    @Test
+    public void testSampleAllEventsByDefault() {
+
+        AnalyticsEventSampler sampler = new AnalyticsEventSampler(new HashMap<>());
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(sampler.isSampled(getEvent("api1", "carbon.super")));
+            Assert.assertTrue(sampler.isSampled(new Event()));
+        }
+        Assert.assertEquals(0, sampler.getSampledOutEvents());
+    }
+
+    @Test
+    public void testSampleByApiAndTenantRates() {
+
+        Map<String, String> configs = new HashMap<>();
+        configs.put("publisher.sampling.rate", "0");
+        configs.put("publisher.sampling.tenant.wso2.com.rate", "1");
+        configs.put("publisher.sampling.api.api2.rate", "0");
+        configs.put("publisher.sampling.api.api3.rate", "1");
+        AnalyticsEventSampler sampler = new AnalyticsEventSampler(configs);
+
+        Assert.assertFalse(sampler.isSampled(getEvent("api1", "carbon.super")));
+        Assert.assertTrue(sampler.isSampled(getEvent("api1", "wso2.com")));
+        Assert.assertFalse(sampler.isSampled(getEvent("api2", "wso2.com")));
+        Assert.assertTrue(sampler.isSampled(getEvent("api3", "carbon.super")));
+        Assert.assertFalse(sampler.isSampled(new Event()));
+        Assert.assertEquals(3, sampler.getSampledOutEvents());
+    }
+
+    @Test
+    public void testIgnoreInvalidRates() {
+
+        Map<String, String> configs = new HashMap<>();
+        configs.put("publisher.sampling.rate", "2");
+        configs.put("publisher.sampling.api.api1.rate", "none");
+        AnalyticsEventSampler sampler = new AnalyticsEventSampler(configs);
+
+        Assert.assertTrue(sampler.isSampled(getEvent("api1", "carbon.super")));
+        Assert.assertTrue(sampler.isSampled(getEvent("api2", "carbon.super")));
+    }
+
+    @Test
+    public void testSampleFractionOfEvents() {
+
+        Map<String, String> configs = new HashMap<>();
+        configs.put("publisher.sampling.rate", "0.5");
+        AnalyticsEventSampler sampler = new AnalyticsEventSampler(configs);
+
+        int sampledEvents = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (sampler.isSampled(getEvent("api1", "carbon.super"))) {
+                sampledEvents++;
+            }
+        }
+        Assert.assertTrue(sampledEvents > 4000 && sampledEvents < 6000);
+        Assert.assertEquals(10000 - sampledEvents, sampler.getSampledOutEvents());
+    }
+
+    private static Event getEvent(String apiId, String tenantDomain) {
+
+        API api = new API();
+        api.setApiId(apiId);
+        api.setApiCreatorTenantDomain(tenantDomain);
+        Event event = new Event();
+        event.setApi(api);
+        return event;
+    }
+}
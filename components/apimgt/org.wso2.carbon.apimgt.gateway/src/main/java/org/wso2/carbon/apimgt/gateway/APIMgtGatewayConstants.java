@@ -35,6 +35,7 @@ public class APIMgtGatewayConstants {
     public static final String API_PUBLISHER = "api.ut.apiPublisher";
     public static final String OPEN_API_OBJECT = "OPEN_API_OBJECT";
     public static final String OPEN_API_STRING = "OPEN_API_STRING";
+    public static final String GRAPHQL_QUERY_ANALYSIS = "GRAPHQL_QUERY_ANALYSIS";
     public static final String APPLICATION_NAME = "api.ut.application.name";
     public static final String APPLICATION_ID = "api.ut.application.id";
     public static final String REQUEST_START_TIME = "api.ut.requestTime";
@@ -37,6 +37,7 @@ import org.wso2.carbon.apimgt.api.gateway.GraphQLSchemaDTO;
 import org.wso2.carbon.apimgt.api.model.API;
 import org.wso2.carbon.apimgt.api.model.APIIdentifier;
 import org.wso2.carbon.apimgt.api.model.APIProductIdentifier;
+import org.wso2.carbon.apimgt.gateway.handlers.throttling.ThrottleConditionPlanCache;
 import org.wso2.carbon.apimgt.gateway.internal.DataHolder;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.gateway.service.APIGatewayAdmin;
@@ -60,6 +61,11 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class contains the methods used to retrieve artifacts from a storage and deploy and undeploy the API in gateway.
@@ -67,14 +73,24 @@ import java.util.UUID;
 public class InMemoryAPIDeployer {
 
     private static final Log log = LogFactory.getLog(InMemoryAPIDeployer.class);
+    private static final Gson gson = new Gson();
+    // The Synapse configuration and the internal data holder are not safe to change concurrently, so APIs are
+    // deployed and undeployed one at a time. Retrieving and decoding the artifacts happens outside this lock.
+    private static final Object DEPLOYMENT_LOCK = new Object();
     ArtifactRetriever artifactRetriever;
     GatewayArtifactSynchronizerProperties gatewayArtifactSynchronizerProperties;
 
     public InMemoryAPIDeployer() {
 
-        this.artifactRetriever = ServiceReferenceHolder.getInstance().getArtifactRetriever();
-        this.gatewayArtifactSynchronizerProperties = ServiceReferenceHolder
-                .getInstance().getAPIManagerConfiguration().getGatewayArtifactSynchronizerProperties();
+        this(ServiceReferenceHolder.getInstance().getArtifactRetriever(), ServiceReferenceHolder
+                .getInstance().getAPIManagerConfiguration().getGatewayArtifactSynchronizerProperties());
+    }
+
+    InMemoryAPIDeployer(ArtifactRetriever artifactRetriever,
+                        GatewayArtifactSynchronizerProperties gatewayArtifactSynchronizerProperties) {
+
+        this.artifactRetriever = artifactRetriever;
+        this.gatewayArtifactSynchronizerProperties = gatewayArtifactSynchronizerProperties;
     }
 
     /**
@@ -90,16 +106,21 @@ public class InMemoryAPIDeployer {
         try {
             GatewayAPIDTO gatewayAPIDTO = retrieveArtifact(apiId, gatewayLabels);
             if (gatewayAPIDTO != null) {
+                GraphQLSchemaDTO graphQLSchemaDTO = buildGraphQLSchemaDTO(gatewayAPIDTO);
                 APIGatewayAdmin apiGatewayAdmin = new APIGatewayAdmin();
                 MessageContext.setCurrentMessageContext(
                         org.wso2.carbon.apimgt.gateway.utils.GatewayUtils.createAxis2MessageContext());
-                unDeployAPI(apiGatewayAdmin, gatewayEvent);
-                apiGatewayAdmin.deployAPI(gatewayAPIDTO);
-                addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
-                addDeployedGraphqlQLToAPI(gatewayAPIDTO);
-                DataHolder.getInstance().addKeyManagerToAPIMapping(apiId, gatewayAPIDTO.getKeyManagers());
-                DataHolder.getInstance().addAPIMetaData(gatewayEvent);
-                DataHolder.getInstance().markAPIAsDeployed(gatewayAPIDTO);
+                synchronized (DEPLOYMENT_LOCK) {
+                    unDeployAPI(apiGatewayAdmin, gatewayEvent);
+                    apiGatewayAdmin.deployAPI(gatewayAPIDTO);
+                    addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
+                    if (graphQLSchemaDTO != null) {
+                        DataHolder.getInstance().addApiToGraphQLSchemaDTO(apiId, graphQLSchemaDTO);
+                    }
+                    DataHolder.getInstance().addKeyManagerToAPIMapping(apiId, gatewayAPIDTO.getKeyManagers());
+                    DataHolder.getInstance().addAPIMetaData(gatewayEvent);
+                    DataHolder.getInstance().markAPIAsDeployed(gatewayAPIDTO);
+                }
                 if (log.isDebugEnabled()) {
                     log.debug("API with " + apiId + " is deployed in gateway with the labels " + String.join(",",
                             gatewayLabels));
@@ -131,11 +152,13 @@ public class InMemoryAPIDeployer {
                 APIGatewayAdmin apiGatewayAdmin = new APIGatewayAdmin();
                 MessageContext.setCurrentMessageContext(
                         org.wso2.carbon.apimgt.gateway.utils.GatewayUtils.createAxis2MessageContext());
-                apiGatewayAdmin.deployAPI(gatewayAPIDTO);
-                addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
-                addDeployedGraphqlQLToAPI(gatewayAPIDTO);
-                DataHolder.getInstance().addKeyManagerToAPIMapping(apiId, gatewayAPIDTO.getKeyManagers());
-                DataHolder.getInstance().markAPIAsDeployed(gatewayAPIDTO);
+                synchronized (DEPLOYMENT_LOCK) {
+                    apiGatewayAdmin.deployAPI(gatewayAPIDTO);
+                    addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
+                    addDeployedGraphqlQLToAPI(gatewayAPIDTO);
+                    DataHolder.getInstance().addKeyManagerToAPIMapping(apiId, gatewayAPIDTO.getKeyManagers());
+                    DataHolder.getInstance().markAPIAsDeployed(gatewayAPIDTO);
+                }
                 if (log.isDebugEnabled()) {
                     log.debug("API with " + apiId + " is deployed in gateway with the labels " + String.join(",",
                             gatewayLabels));
@@ -163,7 +186,7 @@ public class InMemoryAPIDeployer {
             try {
                 String gatewayRuntimeArtifact = artifactRetriever.retrieveArtifact(apiId, encodedString);
                 if (StringUtils.isNotEmpty(gatewayRuntimeArtifact)) {
-                    result = new Gson().fromJson(gatewayRuntimeArtifact, GatewayAPIDTO.class);
+                    result = gson.fromJson(gatewayRuntimeArtifact, GatewayAPIDTO.class);
                 } else {
                     String msg = "Error retrieving artifacts for API " + apiId + ". Storage returned null";
                     log.error(msg);
@@ -198,10 +221,8 @@ public class InMemoryAPIDeployer {
         if (gatewayArtifactSynchronizerProperties.isRetrieveFromStorageEnabled()) {
             if (artifactRetriever != null) {
                 try {
-                    int errorCount = 0;
                     String labelString = String.join("|", assignedGatewayLabels);
                     String encodedString = Base64.encodeBase64URLSafeString(labelString.getBytes());
-                    APIGatewayAdmin apiGatewayAdmin = new APIGatewayAdmin();
                     MessageContext.setCurrentMessageContext(org.wso2.carbon.apimgt.gateway.utils.GatewayUtils.createAxis2MessageContext());
                     PrivilegedCarbonContext.startTenantFlow();
                     PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain, true);
@@ -210,24 +231,7 @@ public class InMemoryAPIDeployer {
                     if (gatewayRuntimeArtifacts.size() == 0) {
                         return true;
                     }
-                    for (String runtimeArtifact : gatewayRuntimeArtifacts) {
-                        GatewayAPIDTO gatewayAPIDTO = null;
-                        try {
-                            if (StringUtils.isNotEmpty(runtimeArtifact)) {
-                                gatewayAPIDTO = new Gson().fromJson(runtimeArtifact, GatewayAPIDTO.class);
-                                log.info("Deploying synapse artifacts of " + gatewayAPIDTO.getName());
-                                apiGatewayAdmin.deployAPI(gatewayAPIDTO);
-                                addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
-                                addDeployedGraphqlQLToAPI(gatewayAPIDTO);
-                                DataHolder.getInstance().addKeyManagerToAPIMapping(gatewayAPIDTO.getApiId(),
-                                        gatewayAPIDTO.getKeyManagers());
-                                DataHolder.getInstance().markAPIAsDeployed(gatewayAPIDTO);
-                            }
-                        } catch (AxisFault axisFault) {
-                            log.error("Error in deploying " + gatewayAPIDTO.getName() + " to the Gateway ", axisFault);
-                            errorCount++;
-                        }
-                    }
+                    int errorCount = deployArtifacts(new APIGatewayAdmin(), gatewayRuntimeArtifacts, tenantDomain);
                     // reload dynamic profiles to avoid delays in loading certs in mutual ssl enabled APIs upon
                     // server restart
                     DynamicProfileReloaderHolder.getInstance().reloadAllHandlers();
@@ -256,6 +260,98 @@ public class InMemoryAPIDeployer {
         return result;
     }
 
+    /**
+     * Deploys the given API artifacts. The artifacts are decoded and their GraphQL schemas are parsed concurrently,
+     * while the APIs are deployed one at a time from the calling thread, in the order of the given artifacts. Each
+     * API is deployed as soon as its artifact is decoded, so decoding the following artifacts overlaps with it.
+     *
+     * @param apiGatewayAdmin  gateway admin used to deploy the APIs
+     * @param runtimeArtifacts API artifacts to deploy
+     * @param tenantDomain     tenant domain of the APIs
+     * @return number of APIs which failed to deploy
+     */
+    int deployArtifacts(APIGatewayAdmin apiGatewayAdmin, List<String> runtimeArtifacts, String tenantDomain) {
+
+        int threadCount = Math.max(1,
+                Math.min(gatewayArtifactSynchronizerProperties.getDeploymentThreadCount(), runtimeArtifacts.size()));
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "GatewayStartupAPIDeployer-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long startTime = System.currentTimeMillis();
+        int errorCount = 0;
+        int deployedCount = 0;
+        try {
+            List<Future<DecodedArtifact>> decodedArtifacts = new ArrayList<>(runtimeArtifacts.size());
+            for (String runtimeArtifact : runtimeArtifacts) {
+                if (StringUtils.isNotEmpty(runtimeArtifact)) {
+                    decodedArtifacts.add(executorService.submit(() -> decodeArtifact(runtimeArtifact)));
+                }
+            }
+            for (Future<DecodedArtifact> future : decodedArtifacts) {
+                DecodedArtifact decodedArtifact;
+                try {
+                    decodedArtifact = future.get();
+                } catch (ExecutionException e) {
+                    log.error("Error in decoding API artifact of tenant " + tenantDomain, e.getCause());
+                    errorCount++;
+                    continue;
+                }
+                if (deployArtifact(apiGatewayAdmin, decodedArtifact)) {
+                    deployedCount++;
+                } else {
+                    errorCount++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while deploying APIs of tenant " + tenantDomain + " to the Gateway");
+            errorCount = runtimeArtifacts.size() - deployedCount;
+        } finally {
+            executorService.shutdownNow();
+        }
+        log.info("Deployed " + deployedCount + " APIs of tenant " + tenantDomain + " in "
+                + (System.currentTimeMillis() - startTime) + " ms, decoding artifacts using " + threadCount
+                + " threads. " + errorCount + " API deployments failed");
+        return errorCount;
+    }
+
+    private DecodedArtifact decodeArtifact(String runtimeArtifact) {
+
+        GatewayAPIDTO gatewayAPIDTO = gson.fromJson(runtimeArtifact, GatewayAPIDTO.class);
+        return new DecodedArtifact(gatewayAPIDTO, buildGraphQLSchemaDTO(gatewayAPIDTO));
+    }
+
+    private boolean deployArtifact(APIGatewayAdmin apiGatewayAdmin, DecodedArtifact decodedArtifact) {
+
+        long startTime = System.currentTimeMillis();
+        GatewayAPIDTO gatewayAPIDTO = decodedArtifact.gatewayAPIDTO;
+        log.info("Deploying synapse artifacts of " + gatewayAPIDTO.getName());
+        synchronized (DEPLOYMENT_LOCK) {
+            try {
+                apiGatewayAdmin.deployAPI(gatewayAPIDTO);
+            } catch (AxisFault axisFault) {
+                log.error("Error in deploying " + gatewayAPIDTO.getName() + " to the Gateway ", axisFault);
+                return false;
+            }
+            addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
+            if (decodedArtifact.graphQLSchemaDTO != null) {
+                DataHolder.getInstance().addApiToGraphQLSchemaDTO(gatewayAPIDTO.getApiId(),
+                        decodedArtifact.graphQLSchemaDTO);
+            }
+            DataHolder.getInstance().addKeyManagerToAPIMapping(gatewayAPIDTO.getApiId(),
+                    gatewayAPIDTO.getKeyManagers());
+            DataHolder.getInstance().markAPIAsDeployed(gatewayAPIDTO);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Deployed synapse artifacts of " + gatewayAPIDTO.getName() + ":"
+                    + gatewayAPIDTO.getVersion() + " in " + (System.currentTimeMillis() - startTime) + " ms");
+        }
+        return true;
+    }
+
     private void unDeployAPI(APIGatewayAdmin apiGatewayAdmin, DeployAPIInGatewayEvent gatewayEvent)
             throws AxisFault {
             if (gatewayArtifactSynchronizerProperties.isRetrieveFromStorageEnabled()) {
@@ -302,6 +398,9 @@ public class InMemoryAPIDeployer {
                 apiGatewayAdmin.unDeployAPI(gatewayAPIDTO);
                 DataHolder.getInstance().getApiToCertificatesMap().remove(gatewayEvent.getUuid());
                 DataHolder.getInstance().removeKeyManagerToAPIMapping(gatewayAPIDTO.getApiId());
+                // Condition groups of the API are rebuilt when it is deployed again, so the compiled condition plans
+                // are stale.
+                ThrottleConditionPlanCache.getInstance().invalidateAll();
             }
     }
 
@@ -310,7 +409,9 @@ public class InMemoryAPIDeployer {
         try {
             APIGatewayAdmin apiGatewayAdmin = new APIGatewayAdmin();
             MessageContext.setCurrentMessageContext(org.wso2.carbon.apimgt.gateway.utils.GatewayUtils.createAxis2MessageContext());
-            unDeployAPI(apiGatewayAdmin, gatewayEvent);
+            synchronized (DEPLOYMENT_LOCK) {
+                unDeployAPI(apiGatewayAdmin, gatewayEvent);
+            }
         } catch (AxisFault axisFault) {
             throw new ArtifactSynchronizerException("Error while unDeploying api ", axisFault);
         } finally {
@@ -381,14 +482,21 @@ public class InMemoryAPIDeployer {
      */
     private void addDeployedGraphqlQLToAPI(GatewayAPIDTO gatewayAPIDTO) {
 
+        GraphQLSchemaDTO schemaDTO = buildGraphQLSchemaDTO(gatewayAPIDTO);
+        if (schemaDTO != null) {
+            DataHolder.getInstance().addApiToGraphQLSchemaDTO(gatewayAPIDTO.getApiId(), schemaDTO);
+        }
+    }
+
+    private GraphQLSchemaDTO buildGraphQLSchemaDTO(GatewayAPIDTO gatewayAPIDTO) {
+
         if (gatewayAPIDTO != null && gatewayAPIDTO.getGraphQLSchema() != null) {
-            String apiId = gatewayAPIDTO.getApiId();
             SchemaParser schemaParser = new SchemaParser();
             TypeDefinitionRegistry registry = schemaParser.parse(gatewayAPIDTO.getGraphQLSchema());
             GraphQLSchema schema = UnExecutableSchemaGenerator.makeUnExecutableSchema(registry);
-            GraphQLSchemaDTO schemaDTO = new GraphQLSchemaDTO(schema, registry);
-            DataHolder.getInstance().addApiToGraphQLSchemaDTO(apiId, schemaDTO);
+            return new GraphQLSchemaDTO(schema, registry);
         }
+        return null;
     }
 
     private void setClientCertificatesToRemoveIntoGatewayDTO(GatewayAPIDTO gatewayDTO) {
@@ -440,4 +548,16 @@ public class InMemoryAPIDeployer {
             }
         }
     }
+
+    private static class DecodedArtifact {
+
+        private final GatewayAPIDTO gatewayAPIDTO;
+        private final GraphQLSchemaDTO graphQLSchemaDTO;
+
+        private DecodedArtifact(GatewayAPIDTO gatewayAPIDTO, GraphQLSchemaDTO graphQLSchemaDTO) {
+
+            this.gatewayAPIDTO = gatewayAPIDTO;
+            this.graphQLSchemaDTO = graphQLSchemaDTO;
+        }
+    }
 }
@@ -23,16 +23,50 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.commons.throttle.core.DistributedCounterManager;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.Response;
-import redis.clients.jedis.Transaction;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Redis Base Distributed Counter Manager for Throttler.
+ * <p>
+ * Each operation is a single Redis command, or a single server side script where more than one command has to be
+ * applied atomically. Counter increments, alterations and expiry updates are queued and sent to Redis in pipelines:
+ * while a pipeline is in flight, further operations of any counter accumulate and are sent together in the next one.
+ * Concurrent increments of the same counter are coalesced into a single INCRBY, and an expiry update of a counter
+ * with a pending increment is applied by the same command as the increment.
  */
 public class RedisBaseDistributedCountManager implements DistributedCounterManager {
 
     private static final Log log = LogFactory.getLog(RedisBaseDistributedCountManager.class);
+
+    /**
+     * Increments the counter and sets its expiry to the end of the window in one atomic step, so that a counter
+     * never exists without an expiry.
+     */
+    static final String INCREMENT_WITH_EXPIRY_SCRIPT =
+            "local count = redis.call('INCRBY', KEYS[1], ARGV[1]) " +
+            "redis.call('PEXPIREAT', KEYS[1], ARGV[2]) " +
+            "return count";
+    static final int MAX_PIPELINE_SIZE = 512;
+
     JedisPool redisPool;
+    private volatile String incrementWithExpiryScriptSha;
+    private final ConcurrentHashMap<String, CoalescedIncrement> openIncrements = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PendingOperation> pendingOperations = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
 
     public RedisBaseDistributedCountManager(JedisPool redisPool) {
 
@@ -89,13 +123,9 @@ public class RedisBaseDistributedCountManager implements DistributedCounterManag
             startTime = System.currentTimeMillis();
             try (Jedis jedis = redisPool.getResource()) {
 
-                Transaction transaction = jedis.multi();
-                Response<String> previousResponse = transaction.get(key);
-                Response<Long> incrementedValueResponse = transaction.incrBy(key, value);
-                transaction.exec();
-                Long incrementedValue = incrementedValueResponse.get();
+                long incrementedValue = jedis.incrBy(key, value);
                 if (log.isDebugEnabled()) {
-                    log.debug(String.format("%s Key increased from %s to %s", key, previousResponse.get(),
+                    log.debug(String.format("%s Key increased from %s to %s", key, incrementedValue - value,
                             incrementedValue));
                 }
                 return incrementedValue;
@@ -117,9 +147,7 @@ public class RedisBaseDistributedCountManager implements DistributedCounterManag
 
             try (Jedis jedis = redisPool.getResource()) {
 
-                Transaction transaction = jedis.multi();
-                transaction.del(key);
-                transaction.exec();
+                jedis.del(key);
                 if (log.isDebugEnabled()) {
                     log.debug(String.format("%s Key Removed", key));
                 }
@@ -138,21 +166,13 @@ public class RedisBaseDistributedCountManager implements DistributedCounterManag
         try {
             startTime = System.currentTimeMillis();
 
-            try (Jedis jedis = redisPool.getResource()) {
-                long current = 0;
-                Transaction transaction = jedis.multi();
-                Response<String> currentValue = transaction.get(key);
-
-                Response<Long> incrementedValue = transaction.incrBy(key, value);
-                transaction.exec();
-                if (currentValue != null && currentValue.get() != null) {
-                    current = Long.parseLong(currentValue.get());
-                }
-                if (log.isDebugEnabled()) {
-                    log.info(String.format("%s Key increased from %s to %s", key, current, incrementedValue.get()));
-                }
-                return current;
+            PendingAddition addition = addToIncrement(key, value);
+            flushPendingOperations();
+            long current = addition.await();
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("%s Key increased from %s to %s", key, current, current + value));
             }
+            return current;
         } finally {
             if (log.isDebugEnabled()) {
                 log.debug("Time Taken to asyncGetAndAddDistributedCounter :" + (System.currentTimeMillis() - startTime));
@@ -168,23 +188,14 @@ public class RedisBaseDistributedCountManager implements DistributedCounterManag
         try {
             startTime = System.currentTimeMillis();
 
-            try (Jedis jedis = redisPool.getResource()) {
-
-                long current = 0;
-                Transaction transaction = jedis.multi();
-                Response<String> currentValue = transaction.get(key);
-                transaction.del(key);
-                Response<Long> incrementedValue = transaction.incrBy(key, value);
-                transaction.exec();
-
-                if (currentValue != null && currentValue.get() != null) {
-                    current = Long.parseLong(currentValue.get());
-                }
-                if (log.isDebugEnabled()) {
-                    log.info(String.format("%s Key increased from %s to %s", key, current, incrementedValue.get()));
-                }
-                return current;
+            CounterAlteration alteration = new CounterAlteration(key, value);
+            pendingOperations.add(alteration);
+            flushPendingOperations();
+            long current = alteration.await();
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("%s Key altered from %s to %s", key, current, value));
             }
+            return current;
         } finally {
             if (log.isDebugEnabled()) {
                 log.debug("Time Taken to asyncGetAndAlterDistributedCounter :" + (System.currentTimeMillis() - startTime));
@@ -223,9 +234,7 @@ public class RedisBaseDistributedCountManager implements DistributedCounterManag
 
             try (Jedis jedis = redisPool.getResource()) {
 
-                Transaction transaction = jedis.multi();
-                transaction.set(key, String.valueOf(timeStamp));
-                transaction.exec();
+                jedis.set(key, String.valueOf(timeStamp));
             }
         } finally {
             if (log.isDebugEnabled()) {
@@ -243,9 +252,7 @@ public class RedisBaseDistributedCountManager implements DistributedCounterManag
 
             try (Jedis jedis = redisPool.getResource()) {
 
-                Transaction transaction = jedis.multi();
-                transaction.del(key);
-                transaction.exec();
+                jedis.del(key);
             }
         } finally {
             if (log.isDebugEnabled()) {
@@ -261,10 +268,16 @@ public class RedisBaseDistributedCountManager implements DistributedCounterManag
         try {
             startTime = System.currentTimeMillis();
 
-            try (Jedis jedis = redisPool.getResource()) {
-                Transaction transaction = jedis.multi();
-                transaction.pexpireAt(key, expiryTimeStamp);
-                transaction.exec();
+            CoalescedIncrement increment = openIncrements.get(key);
+            if (increment != null && increment.attachExpiry(expiryTimeStamp)) {
+                // The expiry is set by the same command as the pending increment of the counter
+                flushPendingOperations();
+                increment.await();
+            } else {
+                ExpiryUpdate expiryUpdate = new ExpiryUpdate(key, expiryTimeStamp);
+                pendingOperations.add(expiryUpdate);
+                flushPendingOperations();
+                expiryUpdate.await();
             }
         } finally {
             if (log.isDebugEnabled()) {
@@ -273,6 +286,238 @@ public class RedisBaseDistributedCountManager implements DistributedCounterManag
         }
     }
 
+    /**
+     * Atomically increments the counter of a throttle window and sets its expiry to the end of the window, in a
+     * single round trip.
+     *
+     * @param key             counter key
+     * @param value           value to add
+     * @param expiryTimeStamp end of the window, in milliseconds since epoch
+     * @return value of the counter after the increment
+     */
+    public long addAndGetCounterWithExpiry(String key, long value, long expiryTimeStamp) {
+
+        long startTime = 0;
+        try {
+            startTime = System.currentTimeMillis();
+
+            try (Jedis jedis = redisPool.getResource()) {
+                return incrementWithExpiry(jedis, key, value, expiryTimeStamp);
+            }
+        } finally {
+            if (log.isDebugEnabled()) {
+                log.debug("Time Taken to addAndGetCounterWithExpiry :" + (System.currentTimeMillis() - startTime));
+            }
+        }
+    }
+
+    /**
+     * Adds the given values to the counters. The additions are sent in a single pipeline, together with the pending
+     * operations of other callers.
+     *
+     * @param values values to add, by counter key
+     * @return values of the counters before the addition, by counter key
+     */
+    public Map<String, Long> asyncGetAndAddCounters(Map<String, Long> values) {
+
+        long startTime = 0;
+        try {
+            startTime = System.currentTimeMillis();
+
+            Map<String, PendingAddition> additions = new LinkedHashMap<>();
+            for (Map.Entry<String, Long> entry : values.entrySet()) {
+                additions.put(entry.getKey(), addToIncrement(entry.getKey(), entry.getValue()));
+            }
+            flushPendingOperations();
+            Map<String, Long> currentValues = new HashMap<>(additions.size());
+            for (Map.Entry<String, PendingAddition> entry : additions.entrySet()) {
+                currentValues.put(entry.getKey(), entry.getValue().await());
+            }
+            return currentValues;
+        } finally {
+            if (log.isDebugEnabled()) {
+                log.debug("Time Taken to asyncGetAndAddDistributedCounters :" + (System.currentTimeMillis() -
+                        startTime));
+            }
+        }
+    }
+
+    /**
+     * Replaces the values of the counters. The replacements are sent in a single pipeline, together with the
+     * pending operations of other callers.
+     *
+     * @param values new values, by counter key
+     * @return values of the counters before the replacement, by counter key
+     */
+    public Map<String, Long> asyncGetAndAlterCounters(Map<String, Long> values) {
+
+        long startTime = 0;
+        try {
+            startTime = System.currentTimeMillis();
+
+            Map<String, CounterAlteration> alterations = new LinkedHashMap<>();
+            for (Map.Entry<String, Long> entry : values.entrySet()) {
+                CounterAlteration alteration = new CounterAlteration(entry.getKey(), entry.getValue());
+                alterations.put(entry.getKey(), alteration);
+                pendingOperations.add(alteration);
+            }
+            flushPendingOperations();
+            Map<String, Long> currentValues = new HashMap<>(alterations.size());
+            for (Map.Entry<String, CounterAlteration> entry : alterations.entrySet()) {
+                currentValues.put(entry.getKey(), entry.getValue().await());
+            }
+            return currentValues;
+        } finally {
+            if (log.isDebugEnabled()) {
+                log.debug("Time Taken to asyncGetAndAlterDistributedCounters :" + (System.currentTimeMillis() -
+                        startTime));
+            }
+        }
+    }
+
+    /**
+     * Adds the value to the open increment of the counter, queueing a new increment if there is none. Additions
+     * keep accumulating in the increment until it is taken into a pipeline. Each caller gets the value the counter
+     * would have had before its own addition had the additions been sent one by one.
+     */
+    private PendingAddition addToIncrement(String key, long value) {
+
+        CoalescedIncrement increment;
+        long offset;
+        boolean first;
+        while (true) {
+            increment = openIncrements.computeIfAbsent(key, CoalescedIncrement::new);
+            synchronized (increment) {
+                if (increment.closed) {
+                    continue;
+                }
+                offset = increment.delta;
+                increment.delta += value;
+                first = !increment.queued;
+                increment.queued = true;
+            }
+            break;
+        }
+        if (first) {
+            pendingOperations.add(increment);
+        }
+        return new PendingAddition(increment, offset);
+    }
+
+    /**
+     * Sends the pending operations to Redis unless another caller is already doing so. Operations are sent in
+     * pipelines, one at a time and in the order they were queued, so the operations of a counter are applied in
+     * order. No lock is held while waiting for Redis; callers wait only for their own operations.
+     */
+    void flushPendingOperations() {
+
+        while (!pendingOperations.isEmpty() && flushing.compareAndSet(false, true)) {
+            try {
+                List<PendingOperation> batch = new ArrayList<>();
+                PendingOperation operation;
+                while (batch.size() < MAX_PIPELINE_SIZE && (operation = pendingOperations.poll()) != null) {
+                    batch.add(operation);
+                }
+                if (!batch.isEmpty()) {
+                    send(batch);
+                }
+            } finally {
+                flushing.set(false);
+            }
+        }
+    }
+
+    private void send(List<PendingOperation> batch) {
+
+        boolean scriptRequired = false;
+        for (PendingOperation operation : batch) {
+            // Further additions to the counter go to a new increment
+            openIncrements.remove(operation.key, operation);
+            operation.close();
+            scriptRequired |= operation.requiresScript();
+        }
+        try (Jedis jedis = redisPool.getResource()) {
+            String scriptSha = scriptRequired ? getIncrementWithExpiryScriptSha(jedis) : null;
+            List<Response<?>> responses = new ArrayList<>(batch.size());
+            Pipeline pipeline = jedis.pipelined();
+            for (PendingOperation operation : batch) {
+                responses.add(operation.send(pipeline, scriptSha));
+            }
+            pipeline.sync();
+            for (int i = 0; i < batch.size(); i++) {
+                PendingOperation operation = batch.get(i);
+                try {
+                    operation.complete(operation.resultOf(responses.get(i).get()));
+                } catch (JedisDataException e) {
+                    if (operation.requiresScript() && isNoScript(e)) {
+                        // Script cache of the server has been flushed or the server has failed over
+                        incrementWithExpiryScriptSha = null;
+                        resendIncrementWithExpiry(jedis, (CoalescedIncrement) operation);
+                    } else {
+                        operation.fail(e);
+                    }
+                } catch (RuntimeException e) {
+                    operation.fail(e);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (PendingOperation operation : batch) {
+                if (!operation.isDone()) {
+                    operation.fail(e);
+                }
+            }
+        }
+    }
+
+    private void resendIncrementWithExpiry(Jedis jedis, CoalescedIncrement increment) {
+
+        try {
+            increment.complete(increment.resultOf(incrementWithExpiry(jedis, increment.key, increment.delta,
+                    increment.expiryTimeStamp)));
+        } catch (RuntimeException e) {
+            increment.fail(e);
+        }
+    }
+
+    private long incrementWithExpiry(Jedis jedis, String key, long value, long expiryTimeStamp) {
+
+        List<String> keys = Collections.singletonList(key);
+        List<String> args = Arrays.asList(String.valueOf(value), String.valueOf(expiryTimeStamp));
+        try {
+            return (Long) jedis.evalsha(getIncrementWithExpiryScriptSha(jedis), keys, args);
+        } catch (JedisDataException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            // Script cache of the server has been flushed or the server has failed over
+            incrementWithExpiryScriptSha = jedis.scriptLoad(INCREMENT_WITH_EXPIRY_SCRIPT);
+            return (Long) jedis.evalsha(incrementWithExpiryScriptSha, keys, args);
+        }
+    }
+
+    private String getIncrementWithExpiryScriptSha(Jedis jedis) {
+
+        String sha = incrementWithExpiryScriptSha;
+        if (sha == null) {
+            sha = jedis.scriptLoad(INCREMENT_WITH_EXPIRY_SCRIPT);
+            incrementWithExpiryScriptSha = sha;
+        }
+        return sha;
+    }
+
+    private static boolean isNoScript(JedisDataException e) {
+
+        return e.getMessage() != null && e.getMessage().startsWith("NOSCRIPT");
+    }
+
+    private static long toLong(String value) {
+
+        if (value != null) {
+            return Long.parseLong(value);
+        }
+        return 0;
+    }
+
     @Override
 
     public boolean isEnable() {
@@ -285,5 +530,200 @@ public class RedisBaseDistributedCountManager implements DistributedCounterManag
 
         return "redis";
     }
-}
 
+    /**
+     * Counter operation waiting to be sent to Redis in a pipeline.
+     */
+    private abstract static class PendingOperation {
+
+        final String key;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile long result;
+        private volatile RuntimeException failure;
+
+        PendingOperation(String key) {
+
+            this.key = key;
+        }
+
+        /**
+         * Called when the operation is taken into a pipeline, before it is sent.
+         */
+        void close() {
+
+        }
+
+        boolean requiresScript() {
+
+            return false;
+        }
+
+        abstract Response<?> send(Pipeline pipeline, String incrementWithExpiryScriptSha);
+
+        abstract long resultOf(Object reply);
+
+        void complete(long result) {
+
+            this.result = result;
+            done.countDown();
+        }
+
+        void fail(RuntimeException failure) {
+
+            this.failure = failure;
+            done.countDown();
+        }
+
+        boolean isDone() {
+
+            return done.getCount() == 0;
+        }
+
+        long await() {
+
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Additions to a counter which are sent to Redis as a single INCRBY, or as a single script invocation when an
+     * expiry update of the counter has been attached to them. The result is the value of the counter before the
+     * additions.
+     */
+    private static final class CoalescedIncrement extends PendingOperation {
+
+        private long delta;
+        private long expiryTimeStamp;
+        private boolean queued;
+        private boolean closed;
+
+        CoalescedIncrement(String key) {
+
+            super(key);
+        }
+
+        synchronized boolean attachExpiry(long expiryTimeStamp) {
+
+            if (closed) {
+                return false;
+            }
+            this.expiryTimeStamp = expiryTimeStamp;
+            return true;
+        }
+
+        @Override
+        synchronized void close() {
+
+            closed = true;
+        }
+
+        @Override
+        synchronized boolean requiresScript() {
+
+            return expiryTimeStamp > 0;
+        }
+
+        @Override
+        Response<?> send(Pipeline pipeline, String incrementWithExpiryScriptSha) {
+
+            if (requiresScript()) {
+                return pipeline.evalsha(incrementWithExpiryScriptSha, Collections.singletonList(key),
+                        Arrays.asList(String.valueOf(delta), String.valueOf(expiryTimeStamp)));
+            }
+            return pipeline.incrBy(key, delta);
+        }
+
+        @Override
+        long resultOf(Object reply) {
+
+            return (Long) reply - delta;
+        }
+    }
+
+    /**
+     * Replacement of the value of a counter, sent to Redis as a GETSET. The result is the previous value.
+     */
+    private static final class CounterAlteration extends PendingOperation {
+
+        private final long value;
+
+        CounterAlteration(String key, long value) {
+
+            super(key);
+            this.value = value;
+        }
+
+        @Override
+        Response<?> send(Pipeline pipeline, String incrementWithExpiryScriptSha) {
+
+            return pipeline.getSet(key, String.valueOf(value));
+        }
+
+        @Override
+        long resultOf(Object reply) {
+
+            return toLong((String) reply);
+        }
+    }
+
+    /**
+     * Expiry update of a counter without a pending increment, sent to Redis as a PEXPIREAT.
+     */
+    private static final class ExpiryUpdate extends PendingOperation {
+
+        private final long expiryTimeStamp;
+
+        ExpiryUpdate(String key, long expiryTimeStamp) {
+
+            super(key);
+            this.expiryTimeStamp = expiryTimeStamp;
+        }
+
+        @Override
+        Response<?> send(Pipeline pipeline, String incrementWithExpiryScriptSha) {
+
+            return pipeline.pexpireAt(key, expiryTimeStamp);
+        }
+
+        @Override
+        long resultOf(Object reply) {
+
+            return 0;
+        }
+    }
+
+    /**
+     * Share of a caller in a coalesced increment.
+     */
+    private static final class PendingAddition {
+
+        private final CoalescedIncrement increment;
+        private final long offset;
+
+        PendingAddition(CoalescedIncrement increment, long offset) {
+
+            this.increment = increment;
+            this.offset = offset;
+        }
+
+        long await() {
+
+            return increment.await() + offset;
+        }
+    }
+}
@@ -32,12 +32,12 @@ import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dto.GatewayArtifactSynchronizerProperties;
 import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.exception.ArtifactSynchronizerException;
 import org.wso2.carbon.apimgt.keymgt.model.entity.API;
+import org.wso2.carbon.apimgt.keymgt.model.impl.APIContextTrie;
 import org.wso2.carbon.inbound.endpoint.protocol.websocket.InboundWebsocketConstants;
 
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
 /**
  * Default API Handler to handle Default Version.
@@ -52,11 +52,11 @@ public class DefaultAPIHandler extends AbstractSynapseHandler {
         org.apache.axis2.context.MessageContext axis2MessageContext =
                 ((Axis2MessageContext) messageContext).getAxis2MessageContext();
         String path = ApiUtils.getFullRequestPath(messageContext);
-        TreeMap<String, API> selectedAPIS = Utils.getSelectedAPIList(path, GatewayUtils.getTenantDomain());
-        if (selectedAPIS.size() > 0) {
+        APIContextTrie.Match selectedMatch = Utils.getSelectedAPI(path, GatewayUtils.getTenantDomain());
+        if (selectedMatch != null) {
             Object transportInUrl = axis2MessageContext.getProperty(APIConstants.TRANSPORT_URL_IN);
-            String selectedPath = selectedAPIS.firstKey();
-            API selectedAPI = selectedAPIS.get(selectedPath);
+            String selectedPath = selectedMatch.getContext();
+            API selectedAPI = selectedMatch.getApi();
             if (selectedAPI != null) {
                 if (GatewayUtils.isOnDemandLoading()) {
                     if (!selectedAPI.isDeployed()) {
@@ -62,6 +62,7 @@ import org.wso2.carbon.apimgt.impl.dto.APIKeyValidationInfoDTO;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 import org.wso2.carbon.apimgt.keymgt.SubscriptionDataHolder;
 import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataStore;
+import org.wso2.carbon.apimgt.keymgt.model.impl.APIContextTrie;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
@@ -641,6 +642,27 @@ public class Utils {
 
         return selectedAPIMap;
     }
+
+    /**
+     * Finds the API of the tenant with the longest context, or default version context, matching the request path.
+     *
+     * @param path         request path
+     * @param tenantDomain tenant domain
+     * @return matched context and API, or null if there is no matching API
+     */
+    public static APIContextTrie.Match getSelectedAPI(String path, String tenantDomain) {
+
+        if (GatewayUtils.isOnDemandLoading()) {
+            return DataHolder.getInstance().getAPIByRequestPath(path, tenantDomain);
+        }
+        SubscriptionDataStore tenantSubscriptionStore =
+                SubscriptionDataHolder.getInstance().getTenantSubscriptionStore(tenantDomain);
+        if (tenantSubscriptionStore != null) {
+            return tenantSubscriptionStore.getApiByRequestPath(path);
+        }
+        return null;
+    }
+
     private static class ContextLengthSorter implements Comparator<String> {
 
         @Override
@@ -22,36 +22,41 @@ import graphql.language.Document;
 import graphql.language.OperationDefinition;
 import graphql.parser.InvalidSyntaxException;
 import graphql.parser.Parser;
-import graphql.schema.GraphQLFieldDefinition;
-import graphql.schema.GraphQLObjectType;
-import graphql.schema.GraphQLType;
 import graphql.validation.Validator;
 import org.apache.axiom.om.OMElement;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
 import org.apache.synapse.Mediator;
 import org.apache.synapse.MessageContext;
 import org.apache.synapse.SynapseConstants;
+import org.apache.synapse.commons.json.JsonUtil;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.apache.synapse.rest.AbstractHandler;
 import org.apache.synapse.transport.passthru.util.RelayUtils;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
 import org.wso2.carbon.apimgt.common.gateway.constants.GraphQLConstants;
 import org.wso2.carbon.apimgt.api.gateway.GraphQLSchemaDTO;
 import org.wso2.carbon.apimgt.common.gateway.graphql.QueryValidator;
 import org.wso2.carbon.apimgt.gateway.handlers.Utils;
 import org.wso2.carbon.apimgt.common.gateway.graphql.GraphQLProcessorUtil;
+import org.wso2.carbon.apimgt.gateway.APIMgtGatewayConstants;
 import org.wso2.carbon.apimgt.gateway.internal.DataHolder;
+import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
+import org.wso2.carbon.apimgt.impl.utils.LRUCache;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
-import java.util.ArrayList;
-import java.util.Base64;
-import java.util.HashMap;
-import java.util.Set;
+import java.util.Map;
 
 import static org.apache.axis2.Constants.Configuration.HTTP_METHOD;
 
@@ -59,14 +64,21 @@ public class GraphQLAPIHandler extends AbstractHandler {
 
     private static final String QUERY_PATH_STRING = "/?query=";
     private static final String QUERY_PAYLOAD_STRING = "query";
+    private static final String EXTENSIONS_PAYLOAD_STRING = "extensions";
+    private static final String PERSISTED_QUERY_STRING = "persistedQuery";
+    private static final String SHA256_HASH_STRING = "sha256Hash";
+    private static final String PERSISTED_QUERY_NOT_FOUND_RESPONSE = "{\"errors\":[{\"message\":"
+            + "\"PersistedQueryNotFound\",\"extensions\":{\"code\":\"PERSISTED_QUERY_NOT_FOUND\"}}]}";
     private static final String REST_SUB_REQUEST_PATH = "REST_SUB_REQUEST_PATH";
     private static final String GRAPHQL_API = "GRAPHQL";
     private static final String HTTP_VERB = "HTTP_VERB";
     private static final String UNICODE_TRANSFORMATION_FORMAT = "UTF-8";
+    private static final int MAX_CACHED_QUERIES = 1000;
     private static final Log log = LogFactory.getLog(GraphQLAPIHandler.class);
-    private GraphQLSchemaDTO graphQLSchemaDTO;
     private String apiUUID;
     private QueryValidator queryValidator;
+    private volatile GraphQLSchemaContext schemaContext;
+    private volatile GraphQLPersistedQueryStore persistedQueryStore;
 
     public GraphQLAPIHandler() {
 
@@ -91,22 +103,30 @@ public class GraphQLAPIHandler extends AbstractHandler {
                 }
                 return true;
             }
-            String payload;
-            Parser parser = new Parser();
+            String payload = null;
+            String persistedQueryHash = null;
             org.apache.axis2.context.MessageContext axis2MC = ((Axis2MessageContext) messageContext).
                     getAxis2MessageContext();
             String requestPath = messageContext.getProperty(REST_SUB_REQUEST_PATH).toString();
             if (requestPath != null && !requestPath.isEmpty()) {
-                String[] queryParams = ((Axis2MessageContext) messageContext).getProperties().
-                        get(REST_SUB_REQUEST_PATH).toString().split(QUERY_PATH_STRING);
+                String subRequestPath = ((Axis2MessageContext) messageContext).getProperties().
+                        get(REST_SUB_REQUEST_PATH).toString();
+                String[] queryParams = subRequestPath.split(QUERY_PATH_STRING);
+                String extensions = getQueryParameter(subRequestPath, EXTENSIONS_PAYLOAD_STRING);
+                if (extensions != null) {
+                    persistedQueryHash = getPersistedQueryHash(extensions);
+                }
                 if (queryParams.length > 1) {
-                    payload = URLDecoder.decode(queryParams[1], UNICODE_TRANSFORMATION_FORMAT);
-                } else {
+                    payload = getQueryParameter(subRequestPath, QUERY_PAYLOAD_STRING);
+                } else if (persistedQueryHash == null) {
                     RelayUtils.buildMessage(axis2MC);
                     OMElement body = axis2MC.getEnvelope().getBody().getFirstElement();
+                    if (body != null) {
+                        persistedQueryHash = getPersistedQueryHash(body);
+                    }
                     if (body != null && body.getFirstChildWithName(QName.valueOf(QUERY_PAYLOAD_STRING)) != null){
                         payload = body.getFirstChildWithName(QName.valueOf(QUERY_PAYLOAD_STRING)).getText();
-                    } else {
+                    } else if (persistedQueryHash == null) {
                         if (log.isDebugEnabled()) {
                             log.debug("Invalid query parameter " + queryParams[0]);
                         }
@@ -114,45 +134,57 @@ public class GraphQLAPIHandler extends AbstractHandler {
                         return false;
                     }
                 }
+                if (persistedQueryHash != null) {
+                    // Resolve the query of an automatic persisted query, or persist the query sent with its hash
+                    GraphQLPersistedQueryStore persistedQueryStore = getPersistedQueryStore();
+                    if (payload == null) {
+                        payload = persistedQueryStore.get(persistedQueryHash);
+                        if (payload == null) {
+                            if (log.isDebugEnabled()) {
+                                log.debug("Persisted query not found for hash " + persistedQueryHash);
+                            }
+                            handlePersistedQueryNotFound(messageContext);
+                            return false;
+                        }
+                    } else if (!persistedQueryStore.put(persistedQueryHash, payload)) {
+                        handleFailure(messageContext, "Provided sha256Hash does not match the query");
+                        return false;
+                    }
+                }
                 messageContext.setProperty(APIConstants.GRAPHQL_PAYLOAD, payload);
             } else {
                 handleFailure(messageContext, "Request path cannot be empty");
                 return false;
             }
 
+            GraphQLSchemaContext schemaContext = getSchemaContext();
+            ParsedQuery parsedQuery = parseQuery(schemaContext, payload);
+
             // Validate payload with graphQLSchema
-            Document document = parser.parseDocument(payload);
-
-            if (validatePayloadWithSchema(messageContext, document)) {
-                supportForBasicAndAuthentication(messageContext);
-
-                // Extract the operation type and operations from the payload
-                for (Definition definition : document.getDefinitions()) {
-                    if (definition instanceof OperationDefinition) {
-                        OperationDefinition operation = (OperationDefinition) definition;
-                        if (operation.getOperation() != null) {
-                            String httpVerb = ((Axis2MessageContext) messageContext).getAxis2MessageContext().
-                                    getProperty(HTTP_METHOD).toString();
-                            messageContext.setProperty(HTTP_VERB, httpVerb);
-                            ((Axis2MessageContext) messageContext).getAxis2MessageContext().setProperty(HTTP_METHOD,
-                                    operation.getOperation().toString());
-                            String operationList = GraphQLProcessorUtil.getOperationListAsString(operation,
-                                    graphQLSchemaDTO.getTypeDefinitionRegistry());
-                            messageContext.setProperty(APIConstants.API_ELECTED_RESOURCE, operationList);
-                            if (log.isDebugEnabled()) {
-                                log.debug("Operation list has been successfully added to elected property");
-                            }
-                            return true;
-                        }
-                    } else {
-                        handleFailure(messageContext, "Operation definition cannot be empty");
-                        return false;
-                    }
+            if (parsedQuery.validationErrorMessage != null) {
+                handleFailure(messageContext, parsedQuery.validationErrorMessage);
+                return false;
+            }
+            supportForBasicAndAuthentication(messageContext, schemaContext);
+
+            // Extract the operation type and operations from the payload
+            if (parsedQuery.operation != null) {
+                String httpVerb = ((Axis2MessageContext) messageContext).getAxis2MessageContext().
+                        getProperty(HTTP_METHOD).toString();
+                messageContext.setProperty(HTTP_VERB, httpVerb);
+                ((Axis2MessageContext) messageContext).getAxis2MessageContext().setProperty(HTTP_METHOD,
+                        parsedQuery.operation);
+                messageContext.setProperty(APIConstants.API_ELECTED_RESOURCE, parsedQuery.operationList);
+                messageContext.setProperty(APIMgtGatewayConstants.GRAPHQL_QUERY_ANALYSIS, parsedQuery.queryAnalysis);
+                if (log.isDebugEnabled()) {
+                    log.debug("Operation list has been successfully added to elected property");
                 }
-            } else {
+                return true;
+            } else if (parsedQuery.hasInvalidDefinition) {
+                handleFailure(messageContext, "Operation definition cannot be empty");
                 return false;
             }
-        } catch (IOException | XMLStreamException | InvalidSyntaxException e) {
+        } catch (IOException | XMLStreamException | InvalidSyntaxException | ParseException e) {
             log.error(e.getMessage());
             handleFailure(messageContext, e.getMessage());
         }
@@ -160,120 +192,193 @@ public class GraphQLAPIHandler extends AbstractHandler {
     }
 
     /**
-     * Support GraphQL APIs for basic,JWT  authentication, this method extract the scopes and operations from
-     * local Entry and set them to properties. If the operations have scopes, scopes operation mapping and scope
-     * role mappings are added to schema as additional types before adding them to local entry
+     * Support GraphQL APIs for basic,JWT  authentication, this method sets the scopes and operations extracted from
+     * local Entry to properties. If the operations have scopes, scopes operation mapping and scope role mappings are
+     * added to schema as additional types before adding them to local entry
      *
      * @param messageContext message context of the request
+     * @param schemaContext  GraphQL schema of the API with its operation mappings
      */
-    private void supportForBasicAndAuthentication(MessageContext messageContext) {
-        @SuppressWarnings("MismatchedQueryAndUpdateOfCollection")
-        HashMap<String, String> operationThrottlingMappingList = new HashMap<>();
-        @SuppressWarnings("MismatchedQueryAndUpdateOfCollection")
-        HashMap<String, Boolean> operationAuthSchemeMappingList = new HashMap<>();
-        HashMap<String, String> operationScopeMappingList = new HashMap<>();
-        HashMap<String, ArrayList<String>> scopeRoleMappingList = new HashMap<>();
-        String graphQLAccessControlPolicy = null;
-
-        if (graphQLSchemaDTO.getGraphQLSchema() != null) {
-            Set<GraphQLType> additionalTypes = graphQLSchemaDTO.getGraphQLSchema().getAdditionalTypes();
-            for (Object additionalType : additionalTypes.toArray()) {
-                if (additionalType instanceof GraphQLObjectType) {
-                    String additionalTypeName = ((GraphQLObjectType) additionalType).getName();
-                    if (additionalTypeName.startsWith(APIConstants.GRAPHQL_ADDITIONAL_TYPE_PREFIX)) {
-                        ArrayList<String> roleArrayList = new ArrayList<>();
-                        String[] additionalTypeNameArray = additionalTypeName.split("_", 2);
-                        String typeValue;
-                        if (additionalTypeNameArray.length > 1) {
-                            typeValue = additionalTypeNameArray[1];
-                        } else {
-                            typeValue = additionalTypeNameArray[0];
-                        }
+    private void supportForBasicAndAuthentication(MessageContext messageContext,
+                                                  GraphQLSchemaContext schemaContext) {
 
-                        String base64DecodedTypeValue = new String(Base64.getUrlDecoder().decode(typeValue));
-                        for (GraphQLFieldDefinition fieldDefinition : ((GraphQLObjectType) additionalType)
-                                .getFieldDefinitions()) {
-                            if (additionalTypeName.contains(APIConstants.GRAPHQL_ACCESS_CONTROL_POLICY)) {
-                                graphQLAccessControlPolicy = new String(
-                                        Base64.getUrlDecoder().decode(fieldDefinition.getName()));
-                            }
-                            // Fill in each list according to the relevant field definition
-                            setMappingList(additionalTypeName, base64DecodedTypeValue, fieldDefinition,
-                                    operationThrottlingMappingList, operationAuthSchemeMappingList,
-                                    operationScopeMappingList, roleArrayList);
-                        }
-                        if (!roleArrayList.isEmpty()) {
-                            scopeRoleMappingList.put(base64DecodedTypeValue, roleArrayList);
-                            if (log.isDebugEnabled()) {
-                                log.debug("Added scope " + base64DecodedTypeValue + "with role list " + String
-                                        .join(",", roleArrayList));
-                            }
-                        }
-                    }
+        GraphQLOperationMappings operationMappings = schemaContext.operationMappings;
+        messageContext.setProperty(APIConstants.SCOPE_ROLE_MAPPING, operationMappings.getScopeRoleMappingList());
+        messageContext.setProperty(APIConstants.SCOPE_OPERATION_MAPPING,
+                operationMappings.getOperationScopeMappingList());
+        messageContext.setProperty(APIConstants.OPERATION_THROTTLING_MAPPING,
+                operationMappings.getOperationThrottlingMappingList());
+        messageContext.setProperty(APIConstants.OPERATION_AUTH_SCHEME_MAPPING,
+                operationMappings.getOperationAuthSchemeMappingList());
+        messageContext.setProperty(APIConstants.GRAPHQL_ACCESS_CONTROL_POLICY,
+                operationMappings.getGraphQLAccessControlPolicy());
+        messageContext.setProperty(APIConstants.API_TYPE, GRAPHQL_API);
+        messageContext.setProperty(APIConstants.GRAPHQL_SCHEMA, schemaContext.graphQLSchemaDTO.getGraphQLSchema());
+    }
+
+    /**
+     * This method returns the GraphQL schema of the API from the gateway internal data holder, along with the operation
+     * mappings and parsed queries of the schema. These are rebuilt only when the API is deployed with a new schema.
+     *
+     * @return GraphQL schema context of the API
+     */
+    private GraphQLSchemaContext getSchemaContext() {
+
+        GraphQLSchemaDTO graphQLSchemaDTO = DataHolder.getInstance().getApiToGraphQLSchemaDTOMap().get(apiUUID);
+        GraphQLSchemaContext context = schemaContext;
+        if (context == null || context.graphQLSchemaDTO != graphQLSchemaDTO) {
+            synchronized (this) {
+                context = schemaContext;
+                if (context == null || context.graphQLSchemaDTO != graphQLSchemaDTO) {
+                    context = new GraphQLSchemaContext(graphQLSchemaDTO);
+                    schemaContext = context;
                 }
             }
         }
-
-        messageContext.setProperty(APIConstants.SCOPE_ROLE_MAPPING, scopeRoleMappingList);
-        messageContext.setProperty(APIConstants.SCOPE_OPERATION_MAPPING, operationScopeMappingList);
-        messageContext.setProperty(APIConstants.OPERATION_THROTTLING_MAPPING, operationThrottlingMappingList);
-        messageContext.setProperty(APIConstants.OPERATION_AUTH_SCHEME_MAPPING, operationAuthSchemeMappingList);
-        messageContext.setProperty(APIConstants.GRAPHQL_ACCESS_CONTROL_POLICY, graphQLAccessControlPolicy);
-        messageContext.setProperty(APIConstants.API_TYPE, GRAPHQL_API);
-        messageContext.setProperty(APIConstants.GRAPHQL_SCHEMA, graphQLSchemaDTO.getGraphQLSchema());
+        return context;
     }
 
-    private void setMappingList(String additionalTypeName, String base64DecodedTypeValue,
-            GraphQLFieldDefinition fieldDefinition, HashMap<String, String> operationThrottlingMappingList,
-            HashMap<String, Boolean> operationAuthSchemeMappingList, HashMap<String, String> operationScopeMappingList,
-            ArrayList<String> roleArrayList) {
+    /**
+     * This method parses and validates the payload against the schema, reusing the result of an earlier request with
+     * the same payload if it is still cached.
+     *
+     * @param schemaContext GraphQL schema context of the API
+     * @param payload       payload of the request
+     * @return parsed query
+     */
+    private ParsedQuery parseQuery(GraphQLSchemaContext schemaContext, String payload) {
 
-        String base64DecodedURLTypeName = new String(Base64.getUrlDecoder().decode(fieldDefinition.getName()));
-        if (additionalTypeName.contains(APIConstants.SCOPE_ROLE_MAPPING)) {
-            roleArrayList.add(base64DecodedURLTypeName);
-            if (log.isDebugEnabled()) {
-                log.debug("Added scope " + base64DecodedTypeValue + "with role " + base64DecodedURLTypeName);
+        ParsedQuery parsedQuery = schemaContext.parsedQueries.get(payload);
+        if (parsedQuery != null) {
+            return parsedQuery;
+        }
+        Document document = new Parser().parseDocument(payload);
+        String validationErrorMessage = queryValidator.validatePayload(
+                schemaContext.graphQLSchemaDTO.getGraphQLSchema(), document);
+        parsedQuery = new ParsedQuery(document, validationErrorMessage);
+        if (validationErrorMessage == null) {
+            for (Definition definition : document.getDefinitions()) {
+                if (definition instanceof OperationDefinition) {
+                    OperationDefinition operation = (OperationDefinition) definition;
+                    if (operation.getOperation() != null) {
+                        parsedQuery.operation = operation.getOperation().toString();
+                        parsedQuery.operationList = GraphQLProcessorUtil.getOperationListAsString(operation,
+                                schemaContext.graphQLSchemaDTO.getTypeDefinitionRegistry());
+                        break;
+                    }
+                } else {
+                    parsedQuery.hasInvalidDefinition = true;
+                    break;
+                }
             }
-        } else if (additionalTypeName.contains(APIConstants.SCOPE_OPERATION_MAPPING)) {
-            operationScopeMappingList.put(base64DecodedTypeValue, base64DecodedURLTypeName);
-            if (log.isDebugEnabled()) {
-                log.debug("Added operation " + base64DecodedTypeValue + "with scope " + base64DecodedURLTypeName);
+        }
+        schemaContext.parsedQueries.put(payload, parsedQuery);
+        return parsedQuery;
+    }
+
+    /**
+     * This method returns the store of the persisted queries of the API.
+     *
+     * @return persisted query store of the API
+     */
+    private GraphQLPersistedQueryStore getPersistedQueryStore() {
+
+        if (persistedQueryStore == null) {
+            synchronized (this) {
+                if (persistedQueryStore == null) {
+                    APIManagerConfiguration apiManagerConfiguration =
+                            ServiceReferenceHolder.getInstance().getAPIManagerConfiguration();
+                    boolean persistedQueryCacheEnabled = apiManagerConfiguration != null && Boolean.parseBoolean(
+                            apiManagerConfiguration.getFirstProperty(
+                                    APIConstants.GATEWAY_GRAPHQL_PERSISTED_QUERY_CACHE_ENABLED));
+                    persistedQueryStore = new GraphQLPersistedQueryStore(apiUUID, MAX_CACHED_QUERIES,
+                            persistedQueryCacheEnabled);
+                }
             }
-        } else if (additionalTypeName.contains(APIConstants.OPERATION_THROTTLING_MAPPING)) {
-            operationThrottlingMappingList.put(base64DecodedTypeValue, base64DecodedURLTypeName);
-            if (log.isDebugEnabled()) {
-                log.debug("Added operation " + base64DecodedTypeValue + "with throttling " + base64DecodedURLTypeName);
+        }
+        return persistedQueryStore;
+    }
+
+    /**
+     * This method returns the URL decoded value of a query parameter of the request path.
+     *
+     * @param requestPath request path
+     * @param name        name of the query parameter
+     * @return value of the query parameter, or null if the request path does not have the query parameter
+     */
+    private static String getQueryParameter(String requestPath, String name) throws UnsupportedEncodingException {
+
+        int queryIndex = requestPath.indexOf('?');
+        if (queryIndex < 0) {
+            return null;
+        }
+        for (String parameter : requestPath.substring(queryIndex + 1).split("&")) {
+            if (parameter.startsWith(name + "=")) {
+                return URLDecoder.decode(parameter.substring(name.length() + 1), UNICODE_TRANSFORMATION_FORMAT);
             }
-        } else if (additionalTypeName.contains(APIConstants.OPERATION_AUTH_SCHEME_MAPPING)) {
-            boolean isSecurityEnabled = true;
-            if (APIConstants.OPERATION_SECURITY_DISABLED.equalsIgnoreCase(fieldDefinition.getName())) {
-                isSecurityEnabled = false;
+        }
+        return null;
+    }
+
+    /**
+     * This method returns the hash of the persisted query from the extensions query parameter.
+     *
+     * @param extensions extensions of the request as a JSON string
+     * @return SHA-256 hash of the query, or null if the request is not a persisted query request
+     */
+    private static String getPersistedQueryHash(String extensions) throws ParseException {
+
+        Object extensionsObject = new JSONParser().parse(extensions);
+        if (extensionsObject instanceof JSONObject) {
+            Object persistedQuery = ((JSONObject) extensionsObject).get(PERSISTED_QUERY_STRING);
+            if (persistedQuery instanceof JSONObject) {
+                Object sha256Hash = ((JSONObject) persistedQuery).get(SHA256_HASH_STRING);
+                return sha256Hash != null ? sha256Hash.toString() : null;
             }
-            operationAuthSchemeMappingList.put(base64DecodedTypeValue, isSecurityEnabled);
-            if (log.isDebugEnabled()) {
-                log.debug("Added operation " + base64DecodedTypeValue + "with security " + isSecurityEnabled);
+        }
+        return null;
+    }
+
+    /**
+     * This method returns the hash of the persisted query from the extensions of the request body.
+     *
+     * @param body request body
+     * @return SHA-256 hash of the query, or null if the request is not a persisted query request
+     */
+    private static String getPersistedQueryHash(OMElement body) {
+
+        OMElement extensions = body.getFirstChildWithName(QName.valueOf(EXTENSIONS_PAYLOAD_STRING));
+        if (extensions != null) {
+            OMElement persistedQuery = extensions.getFirstChildWithName(QName.valueOf(PERSISTED_QUERY_STRING));
+            if (persistedQuery != null) {
+                OMElement sha256Hash = persistedQuery.getFirstChildWithName(QName.valueOf(SHA256_HASH_STRING));
+                return sha256Hash != null ? sha256Hash.getText() : null;
             }
         }
+        return null;
     }
 
     /**
-     * This method validate the payload
+     * This method responds with the PersistedQueryNotFound error, upon which the client sends the query along with its
+     * hash.
      *
      * @param messageContext message context of the request
-     * @param document       graphQL schema of the request
-     * @return true or false
      */
-    private boolean validatePayloadWithSchema(MessageContext messageContext, Document document) {
-
-        String validationErrorMessage;
-        // Get GraphQL schema data from gateway internal data holder
-        graphQLSchemaDTO = DataHolder.getInstance().getApiToGraphQLSchemaDTOMap().get(apiUUID);
-        validationErrorMessage = queryValidator.validatePayload(graphQLSchemaDTO.getGraphQLSchema(), document);
-        if (validationErrorMessage != null) {
-            handleFailure(messageContext, validationErrorMessage);
-            return false;
+    private void handlePersistedQueryNotFound(MessageContext messageContext) {
+
+        org.apache.axis2.context.MessageContext axis2MC = ((Axis2MessageContext) messageContext).
+                getAxis2MessageContext();
+        try {
+            JsonUtil.removeJsonPayload(axis2MC);
+            JsonUtil.getNewJsonPayload(axis2MC, PERSISTED_QUERY_NOT_FOUND_RESPONSE, true, true);
+            axis2MC.setProperty(Constants.Configuration.MESSAGE_TYPE, APIConstants.APPLICATION_JSON_MEDIA_TYPE);
+            axis2MC.removeProperty(APIConstants.NO_ENTITY_BODY);
+        } catch (AxisFault e) {
+            log.error("Error while setting the persisted query not found response", e);
+            handleFailure(messageContext, "Persisted query not found");
+            return;
         }
-        return true;
+        Utils.send(messageContext, HttpStatus.SC_OK);
     }
 
     /**
@@ -297,6 +402,41 @@ public class GraphQLAPIHandler extends AbstractHandler {
     public boolean handleResponse(MessageContext messageContext) {
         return true;
     }
-}
+
+    /**
+     * GraphQL schema of the API together with the operation mappings and the queries parsed against it.
+     */
+    private static class GraphQLSchemaContext {
+
+        private final GraphQLSchemaDTO graphQLSchemaDTO;
+        private final GraphQLOperationMappings operationMappings;
+        private final Map<String, ParsedQuery> parsedQueries = new LRUCache<>(MAX_CACHED_QUERIES);
+
+        private GraphQLSchemaContext(GraphQLSchemaDTO graphQLSchemaDTO) {
+
+            this.graphQLSchemaDTO = graphQLSchemaDTO;
+            this.operationMappings = new GraphQLOperationMappings(graphQLSchemaDTO.getGraphQLSchema());
+        }
+    }
+
+    /**
+     * Payload parsed into a document, with the result of validating it against the schema and the operation it
+     * requests.
+     */
+    private static class ParsedQuery {
+
+        private final Document document;
+        private final String validationErrorMessage;
+        private final GraphQLQueryAnalysis queryAnalysis = new GraphQLQueryAnalysis();
+        private String operation;
+        private String operationList;
+        private boolean hasInvalidDefinition;
+
+        private ParsedQuery(Document document, String validationErrorMessage) {
+
+            this.document = document;
+            this.validationErrorMessage = validationErrorMessage;
+        }
+    }
 
 
@@ -0,0 +1,146 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.handlers.graphQL;
+
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Scope, throttling and security mappings of the operations of a GraphQL API.
+ * <p>
+ * The mappings are added to the schema of the API as additional types with Base64 encoded names before the schema is
+ * added to the local entry. They are decoded once per deployed schema and shared by the requests of the API, so the
+ * maps must not be modified.
+ */
+public class GraphQLOperationMappings {
+
+    private static final Log log = LogFactory.getLog(GraphQLOperationMappings.class);
+
+    private final HashMap<String, String> operationThrottlingMappingList = new HashMap<>();
+    private final HashMap<String, Boolean> operationAuthSchemeMappingList = new HashMap<>();
+    private final HashMap<String, String> operationScopeMappingList = new HashMap<>();
+    private final HashMap<String, ArrayList<String>> scopeRoleMappingList = new HashMap<>();
+    private String graphQLAccessControlPolicy;
+
+    public GraphQLOperationMappings(GraphQLSchema graphQLSchema) {
+
+        if (graphQLSchema == null) {
+            return;
+        }
+        Set<GraphQLType> additionalTypes = graphQLSchema.getAdditionalTypes();
+        for (Object additionalType : additionalTypes.toArray()) {
+            if (additionalType instanceof GraphQLObjectType) {
+                String additionalTypeName = ((GraphQLObjectType) additionalType).getName();
+                if (additionalTypeName.startsWith(APIConstants.GRAPHQL_ADDITIONAL_TYPE_PREFIX)) {
+                    ArrayList<String> roleArrayList = new ArrayList<>();
+                    String[] additionalTypeNameArray = additionalTypeName.split("_", 2);
+                    String typeValue;
+                    if (additionalTypeNameArray.length > 1) {
+                        typeValue = additionalTypeNameArray[1];
+                    } else {
+                        typeValue = additionalTypeNameArray[0];
+                    }
+
+                    String base64DecodedTypeValue = new String(Base64.getUrlDecoder().decode(typeValue));
+                    for (GraphQLFieldDefinition fieldDefinition : ((GraphQLObjectType) additionalType)
+                            .getFieldDefinitions()) {
+                        if (additionalTypeName.contains(APIConstants.GRAPHQL_ACCESS_CONTROL_POLICY)) {
+                            graphQLAccessControlPolicy = new String(
+                                    Base64.getUrlDecoder().decode(fieldDefinition.getName()));
+                        }
+                        // Fill in each list according to the relevant field definition
+                        setMappingList(additionalTypeName, base64DecodedTypeValue, fieldDefinition, roleArrayList);
+                    }
+                    if (!roleArrayList.isEmpty()) {
+                        scopeRoleMappingList.put(base64DecodedTypeValue, roleArrayList);
+                        if (log.isDebugEnabled()) {
+                            log.debug("Added scope " + base64DecodedTypeValue + "with role list " + String
+                                    .join(",", roleArrayList));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void setMappingList(String additionalTypeName, String base64DecodedTypeValue,
+            GraphQLFieldDefinition fieldDefinition, ArrayList<String> roleArrayList) {
+
+        String base64DecodedURLTypeName = new String(Base64.getUrlDecoder().decode(fieldDefinition.getName()));
+        if (additionalTypeName.contains(APIConstants.SCOPE_ROLE_MAPPING)) {
+            roleArrayList.add(base64DecodedURLTypeName);
+            if (log.isDebugEnabled()) {
+                log.debug("Added scope " + base64DecodedTypeValue + "with role " + base64DecodedURLTypeName);
+            }
+        } else if (additionalTypeName.contains(APIConstants.SCOPE_OPERATION_MAPPING)) {
+            operationScopeMappingList.put(base64DecodedTypeValue, base64DecodedURLTypeName);
+            if (log.isDebugEnabled()) {
+                log.debug("Added operation " + base64DecodedTypeValue + "with scope " + base64DecodedURLTypeName);
+            }
+        } else if (additionalTypeName.contains(APIConstants.OPERATION_THROTTLING_MAPPING)) {
+            operationThrottlingMappingList.put(base64DecodedTypeValue, base64DecodedURLTypeName);
+            if (log.isDebugEnabled()) {
+                log.debug("Added operation " + base64DecodedTypeValue + "with throttling " + base64DecodedURLTypeName);
+            }
+        } else if (additionalTypeName.contains(APIConstants.OPERATION_AUTH_SCHEME_MAPPING)) {
+            boolean isSecurityEnabled = true;
+            if (APIConstants.OPERATION_SECURITY_DISABLED.equalsIgnoreCase(fieldDefinition.getName())) {
+                isSecurityEnabled = false;
+            }
+            operationAuthSchemeMappingList.put(base64DecodedTypeValue, isSecurityEnabled);
+            if (log.isDebugEnabled()) {
+                log.debug("Added operation " + base64DecodedTypeValue + "with security " + isSecurityEnabled);
+            }
+        }
+    }
+
+    public HashMap<String, String> getOperationThrottlingMappingList() {
+
+        return operationThrottlingMappingList;
+    }
+
+    public HashMap<String, Boolean> getOperationAuthSchemeMappingList() {
+
+        return operationAuthSchemeMappingList;
+    }
+
+    public HashMap<String, String> getOperationScopeMappingList() {
+
+        return operationScopeMappingList;
+    }
+
+    public HashMap<String, ArrayList<String>> getScopeRoleMappingList() {
+
+        return scopeRoleMappingList;
+    }
+
+    public String getGraphQLAccessControlPolicy() {
+
+        return graphQLAccessControlPolicy;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.handlers.graphQL;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.impl.caching.CacheProvider;
+import org.wso2.carbon.apimgt.impl.utils.LRUCache;
+
+import java.util.Map;
+import javax.cache.Cache;
+
+/**
+ * Store of the persisted queries of a GraphQL API, keyed by the SHA-256 hash of the query.
+ * <p>
+ * Queries are kept in a bounded in-memory store of the API. If the persisted query cache is enabled, they are also
+ * put in the API Manager cache, so that a query registered through one gateway node can be resolved by the others.
+ */
+public class GraphQLPersistedQueryStore {
+
+    private static final Log log = LogFactory.getLog(GraphQLPersistedQueryStore.class);
+
+    private final String apiUUID;
+    private final Map<String, String> queries;
+    private final boolean persistedQueryCacheEnabled;
+
+    public GraphQLPersistedQueryStore(String apiUUID, int maxQueries, boolean persistedQueryCacheEnabled) {
+
+        this.apiUUID = apiUUID;
+        this.queries = new LRUCache<>(maxQueries);
+        this.persistedQueryCacheEnabled = persistedQueryCacheEnabled;
+    }
+
+    /**
+     * Returns the query persisted with the hash.
+     *
+     * @param sha256Hash SHA-256 hash of the query in hex
+     * @return query, or null if no query has been persisted with the hash
+     */
+    public String get(String sha256Hash) {
+
+        String hash = sha256Hash.toLowerCase();
+        String query = queries.get(hash);
+        if (query == null && persistedQueryCacheEnabled) {
+            query = (String) getPersistedQueryCache().get(getCacheKey(hash));
+            if (query != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Found persisted query in cache for key: " + getCacheKey(hash));
+                }
+                queries.put(hash, query);
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Persists the query with the hash.
+     *
+     * @param sha256Hash SHA-256 hash of the query in hex, as sent by the client
+     * @param query      query
+     * @return true if the hash is the hash of the query and the query was persisted, false otherwise
+     */
+    public boolean put(String sha256Hash, String query) {
+
+        String hash = sha256Hash.toLowerCase();
+        if (!hash.equals(DigestUtils.sha256Hex(query))) {
+            return false;
+        }
+        if (queries.get(hash) == null) {
+            queries.put(hash, query);
+            if (persistedQueryCacheEnabled) {
+                getPersistedQueryCache().put(getCacheKey(hash), query);
+            }
+        }
+        return true;
+    }
+
+    private String getCacheKey(String hash) {
+
+        return apiUUID + ":" + hash;
+    }
+
+    protected Cache getPersistedQueryCache() {
+
+        return CacheProvider.getGatewayGraphQLPersistedQueryCache();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.handlers.graphQL;
+
+import org.wso2.carbon.apimgt.common.gateway.dto.QueryAnalyzerResponseDTO;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Depth and complexity analysis results of a GraphQL query, keyed by the limit the query was analysed against.
+ * <p>
+ * The results only depend on the query, the schema and the complexity values of the API, so they are kept with the
+ * parsed query of a schema and reused by later requests with the same query. Limits come from the subscription
+ * policies of the API, hence only a few results are kept per query.
+ */
+public class GraphQLQueryAnalysis {
+
+    private static final int MAX_RESULTS = 16;
+
+    private final Map<Integer, QueryAnalyzerResponseDTO> depthAnalysis = new ConcurrentHashMap<>();
+    private final Map<Integer, QueryAnalyzerResponseDTO> complexityAnalysis = new ConcurrentHashMap<>();
+
+    public QueryAnalyzerResponseDTO getDepthAnalysis(int maxQueryDepth) {
+
+        return depthAnalysis.get(maxQueryDepth);
+    }
+
+    public void addDepthAnalysis(int maxQueryDepth, QueryAnalyzerResponseDTO responseDTO) {
+
+        if (depthAnalysis.size() < MAX_RESULTS) {
+            depthAnalysis.put(maxQueryDepth, responseDTO);
+        }
+    }
+
+    public QueryAnalyzerResponseDTO getComplexityAnalysis(int maxQueryComplexity) {
+
+        return complexityAnalysis.get(maxQueryComplexity);
+    }
+
+    public void addComplexityAnalysis(int maxQueryComplexity, QueryAnalyzerResponseDTO responseDTO) {
+
+        if (complexityAnalysis.size() < MAX_RESULTS) {
+            complexityAnalysis.put(maxQueryComplexity, responseDTO);
+        }
+    }
+}
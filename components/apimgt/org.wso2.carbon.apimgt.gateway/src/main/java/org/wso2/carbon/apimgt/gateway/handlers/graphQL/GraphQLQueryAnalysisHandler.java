@@ -29,6 +29,7 @@ import org.json.simple.parser.ParseException;
 import org.wso2.carbon.apimgt.common.gateway.constants.GraphQLConstants;
 import org.wso2.carbon.apimgt.common.gateway.dto.QueryAnalyzerResponseDTO;
 import org.wso2.carbon.apimgt.common.gateway.graphql.QueryAnalyzer;
+import org.wso2.carbon.apimgt.gateway.APIMgtGatewayConstants;
 import org.wso2.carbon.apimgt.gateway.handlers.Utils;
 import org.wso2.carbon.apimgt.gateway.handlers.security.APISecurityConstants;
 import org.wso2.carbon.apimgt.impl.APIConstants;
@@ -84,7 +85,18 @@ public class GraphQLQueryAnalysisHandler extends AbstractHandler {
         if (messageContext.getPropertyKeySet().contains(GraphQLConstants.MAXIMUM_QUERY_DEPTH)) {
             maxQueryDepth = (int) messageContext.getProperty(GraphQLConstants.MAXIMUM_QUERY_DEPTH);
         }
-        QueryAnalyzerResponseDTO responseDTO = queryAnalyzer.analyseQueryDepth(maxQueryDepth, payload);
+        GraphQLQueryAnalysis queryAnalysis =
+                (GraphQLQueryAnalysis) messageContext.getProperty(APIMgtGatewayConstants.GRAPHQL_QUERY_ANALYSIS);
+        QueryAnalyzerResponseDTO responseDTO = null;
+        if (queryAnalysis != null) {
+            responseDTO = queryAnalysis.getDepthAnalysis(maxQueryDepth);
+        }
+        if (responseDTO == null) {
+            responseDTO = queryAnalyzer.analyseQueryDepth(maxQueryDepth, payload);
+            if (queryAnalysis != null) {
+                queryAnalysis.addDepthAnalysis(maxQueryDepth, responseDTO);
+            }
+        }
         if (!responseDTO.isSuccess() && !responseDTO.getErrorList().isEmpty()) {
             handleFailure(GraphQLConstants.GRAPHQL_QUERY_TOO_DEEP, messageContext,
                     GraphQLConstants.GRAPHQL_QUERY_TOO_DEEP_MESSAGE, responseDTO.getErrorList().toString());
@@ -101,9 +113,20 @@ public class GraphQLQueryAnalysisHandler extends AbstractHandler {
         }
         String complexityInfoJson = (String) messageContext
                 .getProperty(APIConstants.GRAPHQL_ACCESS_CONTROL_POLICY);
+        GraphQLQueryAnalysis queryAnalysis =
+                (GraphQLQueryAnalysis) messageContext.getProperty(APIMgtGatewayConstants.GRAPHQL_QUERY_ANALYSIS);
         QueryAnalyzerResponseDTO responseDTO = null;
+        if (queryAnalysis != null) {
+            responseDTO = queryAnalysis.getComplexityAnalysis(queryComplexity);
+        }
         try {
-            responseDTO = queryAnalyzer.analyseQueryMutationComplexity(payload, queryComplexity, complexityInfoJson);
+            if (responseDTO == null) {
+                responseDTO = queryAnalyzer.analyseQueryMutationComplexity(payload, queryComplexity,
+                        complexityInfoJson);
+                if (queryAnalysis != null) {
+                    queryAnalysis.addComplexityAnalysis(queryComplexity, responseDTO);
+                }
+            }
         } catch (ParseException e) {
             String errorMessage = "Policy definition parsing failed. ";
             handleFailure(GraphQLConstants.GRAPHQL_INVALID_QUERY, messageContext, errorMessage, errorMessage);
@@ -29,11 +29,11 @@ import org.wso2.carbon.apimgt.gateway.handlers.Utils;
 import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.keymgt.model.entity.API;
+import org.wso2.carbon.apimgt.keymgt.model.impl.APIContextTrie;
 
 import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
 import java.util.Map;
-import java.util.TreeMap;
 
 public class APILogHandler {
     private static final Log log = LogFactory.getLog(APILogHandler.class);
@@ -81,10 +81,9 @@ public class APILogHandler {
 
         // Get API details and set custom properties to ThreadContext
         String path = ApiUtils.getFullRequestPath(messageContext);
-        TreeMap<String, API> selectedApis = Utils.getSelectedAPIList(path, GatewayUtils.getTenantDomain());
-        if (selectedApis.size() > 0) {
-            String selectedPath = selectedApis.firstKey();
-            API selectedApi = selectedApis.get(selectedPath);
+        APIContextTrie.Match selectedMatch = Utils.getSelectedAPI(path, GatewayUtils.getTenantDomain());
+        if (selectedMatch != null) {
+            API selectedApi = selectedMatch.getApi();
             ThreadContext.put("apiId", selectedApi.getUuid());
             ThreadContext.put("apiName", selectedApi.getApiName());
             ThreadContext.put("apiContext", selectedApi.getContext());
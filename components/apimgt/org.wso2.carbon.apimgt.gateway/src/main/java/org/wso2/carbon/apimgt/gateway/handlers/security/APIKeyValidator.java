@@ -82,6 +82,8 @@ public class APIKeyValidator {
 
     private ArrayList<URITemplate> uriTemplates = null;
 
+    private volatile ResourceMatcher resourceMatcher = null;
+
     public APIKeyValidator() {
 
         this.dataStore = new WSAPIKeyDataStore();
@@ -311,8 +313,6 @@ public class APIKeyValidator {
 
     public List<VerbInfoDTO> findMatchingVerb(MessageContext synCtx) throws ResourceNotFoundException, APISecurityException {
 
-        List<VerbInfoDTO>  verbInfoList =  new ArrayList<>();
-        String resourceCacheKey;
         String httpMethod = (String) ((Axis2MessageContext) synCtx).getAxis2MessageContext().
                 getProperty(Constants.Configuration.HTTP_METHOD);
         String apiContext = (String) synCtx.getProperty(RESTConstants.REST_API_CONTEXT);
@@ -340,38 +340,7 @@ public class APIKeyValidator {
         synCtx.setProperty(RESTConstants.REST_SUB_REQUEST_PATH, requestPath);
 
 
-        //This function is used by more than one handler. If on one execution of this function, it has found and placed
-        //the matching verb in the cache, the same can be re-used from all handlers since all handlers share the same
-        //MessageContext. The API_RESOURCE_CACHE_KEY property will be set in the MessageContext to indicate that the
-        //verb has been put into the cache.
-        if (resourceArray != null) {
-            for (String resourceString : resourceArray) {
-                VerbInfoDTO verbInfo;
-                if (isGatewayAPIResourceValidationEnabled) {
-                    String apiCacheKey = APIUtil.getAPIInfoDTOCacheKey(apiContext, apiVersion);
-                    if (!getResourceCache().containsKey(apiCacheKey)) {
-                        break;
-                    }
-                    resourceCacheKey = APIUtil.getResourceInfoDTOCacheKey(apiContext, apiVersion,
-                            resourceString, httpMethod);
-                    verbInfo = (VerbInfoDTO) getResourceCache().get(resourceCacheKey);
-                    //Cache hit
-                    if (verbInfo != null) {
-                        if (log.isDebugEnabled()) {
-                            log.debug("Found resource in Cache for key: " + resourceCacheKey);
-                        }
-                        verbInfoList.add(verbInfo);
-                    } else {
-                        if (log.isDebugEnabled()) {
-                            log.debug("Resource not found in cache for key: " + resourceCacheKey);
-                        }
-                    }
-                }
-            }
-            if (resourceArray.size() == verbInfoList.size()) {
-                return verbInfoList;
-            }
-        } else {
+        if (resourceArray == null) {
             API selectedApi = Utils.getSelectedAPI(synCtx);
             Resource selectedResource = null;
             String resourceString;
@@ -409,9 +378,8 @@ public class APIKeyValidator {
 
             resourceString = selectedResource.getDispatcherHelper().getString();
             resourceArray = new ArrayList<>(Arrays.asList(resourceString));
-            resourceCacheKey = APIUtil.getResourceInfoDTOCacheKey(apiContext, apiVersion, resourceString, httpMethod);
-            synCtx.setProperty(APIConstants.API_ELECTED_RESOURCE, resourceString);
-            synCtx.setProperty(APIConstants.API_RESOURCE_CACHE_KEY, resourceCacheKey);
+            synCtx.setProperty(APIConstants.API_RESOURCE_CACHE_KEY,
+                    getResourceMatcher(synCtx, apiContext, apiVersion).getRequestKey(resourceString, httpMethod));
             synCtx.setProperty(APIConstants.REST_METHOD, httpMethod);
 
             if (log.isDebugEnabled()) {
@@ -419,77 +387,43 @@ public class APIKeyValidator {
             }
             //Set the elected resource
             synCtx.setProperty(APIConstants.API_ELECTED_RESOURCE, resourceString);
-            if (isGatewayAPIResourceValidationEnabled) {
-                VerbInfoDTO verbInfo;
-                verbInfo = (VerbInfoDTO) getResourceCache().get(resourceCacheKey);
-                //Cache hit
-                if (verbInfo != null) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Got Resource from cache for key: " + resourceCacheKey);
-                    }
-                    verbInfoList.add(verbInfo);
-                    return verbInfoList;
-                } else if (log.isDebugEnabled()) {
-                    log.debug("Cache miss for Resource for key: " + resourceCacheKey);
-                }
-            }
         }
 
-        String apiCacheKey = APIUtil.getAPIInfoDTOCacheKey(apiContext, apiVersion);
-        APIInfoDTO apiInfoDTO = null;
-
+        List<VerbInfoDTO> verbInfoList = getResourceMatcher(synCtx, apiContext, apiVersion)
+                .match(resourceArray, httpMethod);
+        if (verbInfoList.isEmpty()) {
+            return null;
+        }
         if (isGatewayAPIResourceValidationEnabled) {
-            apiInfoDTO = (APIInfoDTO) getResourceCache().get(apiCacheKey);
+            //Set the key of the verb in the message context so that it can be used by the subsequent handlers.
+            synCtx.setProperty(APIConstants.API_RESOURCE_CACHE_KEY,
+                    verbInfoList.get(verbInfoList.size() - 1).getRequestKey());
         }
+        return verbInfoList;
+    }
 
-        //Cache miss
-        if (apiInfoDTO == null) {
-            if (log.isDebugEnabled()) {
-                log.debug("Could not find API object in cache for key: " + apiCacheKey);
-            }
-
-            String apiType = (String) synCtx.getProperty(APIMgtGatewayConstants.API_TYPE);
-
-            if (APIConstants.ApiTypes.PRODUCT_API.name().equalsIgnoreCase(apiType)) {
-                apiInfoDTO = doGetAPIProductInfo(synCtx, apiContext, apiVersion);
-            } else {
-                apiInfoDTO = doGetAPIInfo(synCtx, apiContext, apiVersion);
-            }
+    /**
+     * Returns the resource matcher of the API, compiling it from the URI templates of the API on first use. As an
+     * instance of this class serves a single deployed API, the matcher is built once per API revision.
+     */
+    private ResourceMatcher getResourceMatcher(MessageContext synCtx, String apiContext, String apiVersion)
+            throws APISecurityException {
 
-            if (isGatewayAPIResourceValidationEnabled) {
-                getResourceCache().put(apiCacheKey, apiInfoDTO);
-            }
-        }
-        if (apiInfoDTO.getResources() != null) {
-            for (ResourceInfoDTO resourceInfoDTO : apiInfoDTO.getResources()) {
-                Set<VerbInfoDTO> verbDTOList = resourceInfoDTO.getHttpVerbs();
-                for (VerbInfoDTO verb : verbDTOList) {
-                    if (verb.getHttpVerb().equals(httpMethod)) {
-                        for (String resourceString : resourceArray) {
-                            if (isResourcePathMatching(resourceString, resourceInfoDTO)) {
-                                resourceCacheKey = APIUtil.getResourceInfoDTOCacheKey(apiContext, apiVersion,
-                                        resourceString, httpMethod);
-                                verb.setRequestKey(resourceCacheKey);
-                                verbInfoList.add(verb);
-                                if (isGatewayAPIResourceValidationEnabled) {
-                                    //Store verb in cache
-                                    //Set cache key in the message c\ontext so that it can be used by the subsequent handlers.
-                                    if (log.isDebugEnabled()) {
-                                        log.debug("Putting resource object in cache with key: " + resourceCacheKey);
-                                    }
-                                    getResourceCache().put(resourceCacheKey, verb);
-                                    synCtx.setProperty(APIConstants.API_RESOURCE_CACHE_KEY, resourceCacheKey);
-                                }
-                            }
-                        }
+        if (resourceMatcher == null) {
+            synchronized (this) {
+                if (resourceMatcher == null) {
+                    String apiType = (String) synCtx.getProperty(APIMgtGatewayConstants.API_TYPE);
+                    APIInfoDTO apiInfoDTO;
+                    if (APIConstants.ApiTypes.PRODUCT_API.name().equalsIgnoreCase(apiType)) {
+                        apiInfoDTO = doGetAPIProductInfo(synCtx, apiContext, apiVersion);
+                    } else {
+                        apiInfoDTO = doGetAPIInfo(synCtx, apiContext, apiVersion);
                     }
+                    resourceMatcher = new ResourceMatcher(apiInfoDTO, apiContext, apiVersion);
                 }
             }
         }
-        if (verbInfoList.size() == 0) {
-            verbInfoList = null;
-        }
-        return verbInfoList;
+        return resourceMatcher;
     }
 
     private String getRequestPath(MessageContext synCtx, String apiContext, String apiVersion, String fullRequestPath) {
@@ -506,24 +440,6 @@ public class APIKeyValidator {
         return requestPath;
     }
 
-    private boolean isResourcePathMatching(String resourceString, ResourceInfoDTO resourceInfoDTO) {
-        String resource = resourceString.trim();
-        String urlPattern = resourceInfoDTO.getUrlPattern().trim();
-
-        if (resource.equalsIgnoreCase(urlPattern)) {
-            return true;
-        }
-
-        // If the urlPattern is only one character longer than the resource and the urlPattern ends with a '/'
-        if (resource.length() + 1 == urlPattern.length() && urlPattern.endsWith("/")) {
-            // Check if resource is equal to urlPattern if the trailing '/' of the urlPattern is ignored
-            String urlPatternWithoutSlash = urlPattern.substring(0, urlPattern.length() - 1);
-            return resource.equalsIgnoreCase(urlPatternWithoutSlash);
-        }
-
-        return false;
-    }
-
     @MethodStats
     private APIInfoDTO doGetAPIInfo(MessageContext messageContext, String context, String apiVersion) throws APISecurityException {
         ArrayList<URITemplate> uriTemplates = getAllURITemplates(messageContext, context, apiVersion);
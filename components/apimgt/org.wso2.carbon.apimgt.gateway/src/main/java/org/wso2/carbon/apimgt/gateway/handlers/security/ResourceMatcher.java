@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.handlers.security;
+
+import org.wso2.carbon.apimgt.impl.dto.APIInfoDTO;
+import org.wso2.carbon.apimgt.impl.dto.ResourceInfoDTO;
+import org.wso2.carbon.apimgt.impl.dto.VerbInfoDTO;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Table of the verbs of an API, keyed by the URI template of the resource and the HTTP method.
+ * <p>
+ * The table is compiled once from the resources of a deployed API, so resolving the verbs of the resource elected for
+ * a request neither builds cache keys nor looks up the resource cache. Resource templates are matched ignoring case,
+ * and a template ending with a '/' also matches the resource without the trailing '/'. The verbs of the table are
+ * copies of the verbs of the API with their request keys set, and are not changed once the table is compiled. A
+ * resource matched with a different case gets new copies of its verbs, as its request key differs.
+ */
+public class ResourceMatcher {
+
+    private final Map<String, ResourceVerbs> resources = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final String apiContext;
+    private final String apiVersion;
+
+    public ResourceMatcher(APIInfoDTO apiInfoDTO, String apiContext, String apiVersion) {
+
+        this.apiContext = apiContext;
+        this.apiVersion = apiVersion;
+        if (apiInfoDTO == null || apiInfoDTO.getResources() == null) {
+            return;
+        }
+        for (ResourceInfoDTO resourceInfoDTO : apiInfoDTO.getResources()) {
+            String urlPattern = resourceInfoDTO.getUrlPattern().trim();
+            addVerbs(urlPattern, resourceInfoDTO);
+            if (urlPattern.endsWith("/")) {
+                addVerbs(urlPattern.substring(0, urlPattern.length() - 1), resourceInfoDTO);
+            }
+        }
+    }
+
+    /**
+     * Returns the verbs of the given resources for the HTTP method, with their request keys set.
+     *
+     * @param resourceStrings URI templates of the elected resources
+     * @param httpMethod      HTTP method of the request
+     * @return matched verbs in the order of the given resources, or an empty list if none matched
+     */
+    public List<VerbInfoDTO> match(List<String> resourceStrings, String httpMethod) {
+
+        List<VerbInfoDTO> verbInfoList = null;
+        for (String resourceString : resourceStrings) {
+            String resource = resourceString.trim();
+            ResourceVerbs resourceVerbs = resources.get(resource);
+            if (resourceVerbs == null) {
+                continue;
+            }
+            List<VerbInfoDTO> verbs = resourceVerbs.verbs.get(httpMethod);
+            if (verbs == null) {
+                continue;
+            }
+            if (verbInfoList == null) {
+                verbInfoList = new ArrayList<>(verbs.size());
+            }
+            if (resourceVerbs.resource.equals(resourceString)) {
+                verbInfoList.addAll(verbs);
+            } else {
+                String requestKey = APIUtil.getResourceInfoDTOCacheKey(apiContext, apiVersion, resourceString,
+                        httpMethod);
+                for (VerbInfoDTO verbInfoDTO : verbs) {
+                    verbInfoList.add(copyVerb(verbInfoDTO, requestKey));
+                }
+            }
+        }
+        return verbInfoList != null ? verbInfoList : Collections.emptyList();
+    }
+
+    /**
+     * Returns the request key of the verb of the resource, which is the key the verb used to be cached with.
+     */
+    public String getRequestKey(String resourceString, String httpMethod) {
+
+        ResourceVerbs resourceVerbs = resources.get(resourceString.trim());
+        if (resourceVerbs != null && resourceVerbs.resource.equals(resourceString)) {
+            List<VerbInfoDTO> verbs = resourceVerbs.verbs.get(httpMethod);
+            if (verbs != null) {
+                return verbs.get(0).getRequestKey();
+            }
+        }
+        return APIUtil.getResourceInfoDTOCacheKey(apiContext, apiVersion, resourceString, httpMethod);
+    }
+
+    private void addVerbs(String resource, ResourceInfoDTO resourceInfoDTO) {
+
+        if (resourceInfoDTO.getHttpVerbs() == null) {
+            return;
+        }
+        ResourceVerbs resourceVerbs = resources.computeIfAbsent(resource, key -> new ResourceVerbs(resource));
+        for (VerbInfoDTO verbInfoDTO : resourceInfoDTO.getHttpVerbs()) {
+            String requestKey = APIUtil.getResourceInfoDTOCacheKey(apiContext, apiVersion, resourceVerbs.resource,
+                    verbInfoDTO.getHttpVerb());
+            resourceVerbs.verbs.computeIfAbsent(verbInfoDTO.getHttpVerb(), key -> new ArrayList<>())
+                    .add(copyVerb(verbInfoDTO, requestKey));
+        }
+    }
+
+    private static VerbInfoDTO copyVerb(VerbInfoDTO verbInfoDTO, String requestKey) {
+
+        VerbInfoDTO copy = new VerbInfoDTO();
+        copy.setHttpVerb(verbInfoDTO.getHttpVerb());
+        copy.setAuthType(verbInfoDTO.getAuthType());
+        copy.setThrottling(verbInfoDTO.getThrottling());
+        copy.setApplicableLevel(verbInfoDTO.getApplicableLevel());
+        copy.setThrottlingConditions(verbInfoDTO.getThrottlingConditions());
+        copy.setConditionGroups(verbInfoDTO.getConditionGroups());
+        copy.setContentAware(verbInfoDTO.isContentAware());
+        copy.setRequestKey(requestKey);
+        return copy;
+    }
+
+    private static class ResourceVerbs {
+
+        private final String resource;
+        private final Map<String, List<VerbInfoDTO>> verbs = new HashMap<>();
+
+        private ResourceVerbs(String resource) {
+
+            this.resource = resource;
+        }
+    }
+}
@@ -28,15 +28,27 @@ import org.wso2.carbon.apimgt.gateway.APIMgtGatewayConstants;
 import org.wso2.carbon.apimgt.gateway.handlers.security.model.OpenAPIRequest;
 import org.wso2.carbon.apimgt.gateway.handlers.security.model.OpenAPIResponse;
 import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+import org.wso2.carbon.metrics.manager.Timer;
 
 /**
  * This SchemaValidator handler validates the request/response messages against schema defined in the swagger.
+ * <p>
+ * Building an OpenApiInteractionValidator walks the whole OpenAPI definition, so the validator is built once and
+ * reused for the messages of the API. A handler instance is bound to a single deployed API revision, hence the
+ * validator is dropped together with the handler when the API is redeployed or undeployed.
  */
 public class SchemaValidator extends AbstractHandler {
 
     private static final String INTERNAL_ERROR_CODE = "500";
     private static final Log logger = LogFactory.getLog(SchemaValidator.class);
     private static final String HTTP_SC_CODE = "400";
+    private static final String VALIDATE_REQUEST = "VALIDATE_REQUEST";
+    private static final String VALIDATE_RESPONSE = "VALIDATE_RESPONSE";
+
+    private volatile OpenAPIValidator openAPIValidator;
 
     /**
      * Method to generate OpenApiInteractionValidator when the openAPI is provided.
@@ -44,7 +56,7 @@ public class SchemaValidator extends AbstractHandler {
      * @param openAPI openAPI
      * @return OpenApiInteractionValidator object for the provided swagger.
      */
-    private static OpenApiInteractionValidator getOpenAPIValidator(OpenAPI openAPI) {
+    private static OpenApiInteractionValidator createOpenAPIValidator(OpenAPI openAPI) {
 
         return OpenApiInteractionValidator
                 .createFor(openAPI)
@@ -57,6 +69,33 @@ public class SchemaValidator extends AbstractHandler {
                 .build();
     }
 
+    /**
+     * Method to get the OpenApiInteractionValidator of the openAPI, building it only if the openAPI differs from the
+     * one the current validator was built for.
+     *
+     * @param openAPI openAPI
+     * @return OpenApiInteractionValidator object for the provided swagger.
+     */
+    private OpenApiInteractionValidator getOpenAPIValidator(OpenAPI openAPI) {
+
+        OpenAPIValidator validator = openAPIValidator;
+        if (validator == null || validator.openAPI != openAPI) {
+            synchronized (this) {
+                validator = openAPIValidator;
+                if (validator == null || validator.openAPI != openAPI) {
+                    long startTime = System.currentTimeMillis();
+                    validator = new OpenAPIValidator(openAPI, createOpenAPIValidator(openAPI));
+                    openAPIValidator = validator;
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Time to build the schema validator(ms) : "
+                                + (System.currentTimeMillis() - startTime));
+                    }
+                }
+            }
+        }
+        return validator.validator;
+    }
+
     @Override
     public boolean handleRequest(MessageContext messageContext) {
 
@@ -64,9 +103,15 @@ public class SchemaValidator extends AbstractHandler {
         OpenAPI openAPI = (OpenAPI) messageContext.getProperty(APIMgtGatewayConstants.OPEN_API_OBJECT);
         if (openAPI != null) {
             OpenApiInteractionValidator validator = getOpenAPIValidator(openAPI);
-            OpenAPIRequest request = new OpenAPIRequest(messageContext);
-
-            ValidationReport validationReport = validator.validateRequest(request);
+            Timer.Context context = getTimer(MetricManager.name(
+                    APIConstants.METRICS_PREFIX, this.getClass().getSimpleName(), VALIDATE_REQUEST)).start();
+            ValidationReport validationReport;
+            try {
+                OpenAPIRequest request = new OpenAPIRequest(messageContext);
+                validationReport = validator.validateRequest(request);
+            } finally {
+                context.stop();
+            }
             if (validationReport.hasErrors()) {
                 StringBuilder finalMessage = new StringBuilder();
                 for (ValidationReport.Message message : validationReport.getMessages()) {
@@ -86,10 +131,15 @@ public class SchemaValidator extends AbstractHandler {
         OpenAPI openAPI = (OpenAPI) messageContext.getProperty(APIMgtGatewayConstants.OPEN_API_OBJECT);
         if (openAPI != null) {
             OpenApiInteractionValidator validator = getOpenAPIValidator(openAPI);
-            OpenAPIResponse response = new OpenAPIResponse(messageContext);
-
-            ValidationReport validationReport = validator.validateResponse(response.getPath(), response.getMethod(),
-                    response);
+            Timer.Context context = getTimer(MetricManager.name(
+                    APIConstants.METRICS_PREFIX, this.getClass().getSimpleName(), VALIDATE_RESPONSE)).start();
+            ValidationReport validationReport;
+            try {
+                OpenAPIResponse response = new OpenAPIResponse(messageContext);
+                validationReport = validator.validateResponse(response.getPath(), response.getMethod(), response);
+            } finally {
+                context.stop();
+            }
             if (validationReport.hasErrors()) {
                 StringBuilder finalMessage = new StringBuilder();
                 for (ValidationReport.Message message : validationReport.getMessages()) {
@@ -102,4 +152,24 @@ public class SchemaValidator extends AbstractHandler {
         }
         return true;
     }
+
+    protected Timer getTimer(String name) {
+
+        return MetricManager.timer(Level.INFO, name);
+    }
+
+    /**
+     * OpenApiInteractionValidator together with the openAPI it was built for.
+     */
+    private static class OpenAPIValidator {
+
+        private final OpenAPI openAPI;
+        private final OpenApiInteractionValidator validator;
+
+        private OpenAPIValidator(OpenAPI openAPI, OpenApiInteractionValidator validator) {
+
+            this.openAPI = openAPI;
+            this.validator = validator;
+        }
+    }
 }
@@ -23,7 +23,6 @@ package org.wso2.carbon.apimgt.gateway.handlers.throttling;
 import org.apache.axis2.context.MessageContext;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
-import org.wso2.carbon.apimgt.api.dto.ConditionDTO;
 import org.wso2.carbon.apimgt.api.dto.ConditionGroupDTO;
 import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
 import org.wso2.carbon.apimgt.common.gateway.util.JWTUtil;
@@ -39,8 +38,6 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * This class is used by {@code ThrottleHandler} to determine Applicability of Throttling Conditions.
@@ -103,35 +100,32 @@ public class ThrottleConditionEvaluator {
                                                AuthenticationContext authenticationContext,
                                                ConditionGroupDTO conditionGroup) {
 
-        ConditionDTO[] conditions = conditionGroup.getConditions();
-
-        boolean evaluationState = true;
+        ThrottleConditionPlanCache.CompiledCondition[] conditions = ThrottleConditionPlanCache.getInstance()
+                .getPlan(conditionGroup).getConditions();
 
         if (conditions.length == 0) {
-            evaluationState = false;
+            return false;
         }
 
-        // When multiple conditions have been specified, all the conditions should occur.
-        for (ConditionDTO condition : conditions) {
-            evaluationState = evaluationState & isConditionApplicable(synapseContext, authenticationContext, condition);
+        org.apache.axis2.context.MessageContext axis2MessageContext = ((Axis2MessageContext) synapseContext)
+                .getAxis2MessageContext();
 
-            // If one of the conditions are false, rest will evaluate to false. So no need to check the rest.
-            if (!evaluationState) {
+        // When multiple conditions have been specified, all the conditions should occur. Conditions are ordered by
+        // evaluation cost, so if one of the cheaper conditions is false, the rest need not be checked.
+        for (ThrottleConditionPlanCache.CompiledCondition condition : conditions) {
+            if (!isConditionApplicable(axis2MessageContext, authenticationContext, condition)) {
                 return false;
             }
         }
-        return evaluationState;
+        return true;
     }
 
-    private boolean isConditionApplicable(org.apache.synapse.MessageContext synapseContext,
+    private boolean isConditionApplicable(MessageContext axis2MessageContext,
                                           AuthenticationContext authenticationContext,
-                                          ConditionDTO condition) {
-
-        org.apache.axis2.context.MessageContext axis2MessageContext = ((Axis2MessageContext) synapseContext)
-                .getAxis2MessageContext();
+                                          ThrottleConditionPlanCache.CompiledCondition condition) {
 
         boolean state = false;
-        switch (condition.getConditionType()) {
+        switch (condition.getType()) {
             case PolicyConstants.IP_RANGE_TYPE: {
                 state = isWithinIP(axis2MessageContext, condition);
                 break;
@@ -161,37 +155,37 @@ public class ThrottleConditionEvaluator {
         return state;
     }
 
-    private boolean isHeaderPresent(MessageContext messageContext, ConditionDTO condition) {
+    private boolean isHeaderPresent(MessageContext messageContext,
+                                    ThrottleConditionPlanCache.CompiledCondition condition) {
 
         Map<String, String> transportHeaderMap = (Map<String, String>) messageContext
                 .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
         if (transportHeaderMap != null) {
-            String value = transportHeaderMap.get(condition.getConditionName());
+            String value = transportHeaderMap.get(condition.getName());
             if (value == null) {
                 return false;
             }
-            Pattern pattern = Pattern.compile(condition.getConditionValue());
-            Matcher matcher = pattern.matcher(value);
-            return matcher.find();
+            return condition.getPattern().find(value);
         }
         return false;
     }
 
-    private boolean isHeaderPresent(MessageContext messageContext, ConditionDto.HeaderConditions condition) {
+    private boolean isHeaderPresent(MessageContext messageContext, ConditionDto.HeaderConditions condition,
+                                    ThrottleConditionPlanCache.ConditionDtoPlan plan) {
 
         Map<String, String> transportHeaderMap = (Map<String, String>) messageContext
                 .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
         boolean status = true;
-        for (Map.Entry<String, String> headerEntry : condition.getValues().entrySet()) {
+        String[] headerNames = plan.getHeaderNames();
+        ThrottleConditionPlanCache.ConditionPattern[] headerPatterns = plan.getHeaderPatterns();
+        for (int i = 0; i < headerNames.length; i++) {
             if (transportHeaderMap != null) {
-                String value = transportHeaderMap.get(headerEntry.getKey());
+                String value = transportHeaderMap.get(headerNames[i]);
                 if (StringUtils.isEmpty(value)) {
                     status = false;
                     break;
                 } else {
-                    Pattern pattern = Pattern.compile(headerEntry.getValue());
-                    Matcher matcher = pattern.matcher(value);
-                    status = status && matcher.find();
+                    status = status && headerPatterns[i].find(value);
                 }
             }
         }
@@ -203,25 +197,24 @@ public class ThrottleConditionEvaluator {
         }
     }
 
-    private boolean isJWTClaimPresent(AuthenticationContext authenticationContext, ConditionDTO condition) {
+    private boolean isJWTClaimPresent(AuthenticationContext authenticationContext,
+                                      ThrottleConditionPlanCache.CompiledCondition condition) {
 
         Map<String, String> assertions = JWTUtil.getJWTClaims(authenticationContext.getCallerToken());
         if (assertions != null) {
-            String value = assertions.get(condition.getConditionName());
+            String value = assertions.get(condition.getName());
             if (value == null) {
                 return false;
             } else {
-                Pattern pattern = Pattern.compile(condition.getConditionValue());
-                Matcher matcher = pattern.matcher(value);
-                return matcher.find();
+                return condition.getPattern().find(value);
             }
         }
         return false;
     }
 
     private boolean isJWTClaimPresent(AuthenticationContext authenticationContext, ConditionDto.JWTClaimConditions
-            condition) {
-                
+            condition, ThrottleConditionPlanCache.ConditionDtoPlan plan) {
+
         if (authenticationContext.getCallerToken() == null) {
             return false;
         }
@@ -229,15 +222,15 @@ public class ThrottleConditionEvaluator {
         Map<String, String> assertions = JWTUtil.getJWTClaims(authenticationContext.getCallerToken());
         boolean status = true;
 
-        for (Map.Entry<String, String> jwtClaim : condition.getValues().entrySet()) {
-            String value = assertions.get(jwtClaim.getKey());
+        String[] claimNames = plan.getJwtClaimNames();
+        ThrottleConditionPlanCache.ConditionPattern[] claimPatterns = plan.getJwtClaimPatterns();
+        for (int i = 0; i < claimNames.length; i++) {
+            String value = assertions.get(claimNames[i]);
             if (value == null) {
                 status = false;
                 break;
             } else {
-                Pattern pattern = Pattern.compile(jwtClaim.getValue());
-                Matcher matcher = pattern.matcher(value);
-                status = status && matcher.find();
+                status = status && claimPatterns[i].find(value);
             }
         }
         if (condition.isInvert()) {
@@ -247,19 +240,21 @@ public class ThrottleConditionEvaluator {
         }
     }
 
-    private boolean isQueryParamPresent(MessageContext messageContext, ConditionDto.QueryParamConditions condition) {
+    private boolean isQueryParamPresent(MessageContext messageContext, ConditionDto.QueryParamConditions condition,
+                                        ThrottleConditionPlanCache.ConditionDtoPlan plan) {
 
         Map<String, String> queryParamMap = GatewayUtils.getQueryParams(messageContext);
         boolean status = true;
 
-        for (Map.Entry<String, String> queryParam : condition.getValues().entrySet()) {
-            if (queryParamMap == null || queryParamMap.get(queryParam.getKey()) == null) {
+        String[] queryParamNames = plan.getQueryParamNames();
+        ThrottleConditionPlanCache.ConditionPattern[] queryParamPatterns = plan.getQueryParamPatterns();
+        for (int i = 0; i < queryParamNames.length; i++) {
+            String value = queryParamMap != null ? queryParamMap.get(queryParamNames[i]) : null;
+            if (value == null) {
                 status = false;
                 break;
             } else {
-                Pattern pattern = Pattern.compile(queryParam.getValue());
-                Matcher matcher = pattern.matcher(queryParamMap.get(queryParam.getKey()));
-                status = status && matcher.find();
+                status = status && queryParamPatterns[i].find(value);
             }
         }
         if (condition.isInvert()) {
@@ -269,38 +264,37 @@ public class ThrottleConditionEvaluator {
         }
     }
 
-    private boolean isQueryParamPresent(MessageContext messageContext, ConditionDTO condition) {
+    private boolean isQueryParamPresent(MessageContext messageContext,
+                                        ThrottleConditionPlanCache.CompiledCondition condition) {
 
         Map<String, String> queryParamMap = GatewayUtils.getQueryParams(messageContext);
 
         if (queryParamMap != null) {
-            String value = queryParamMap.get(condition.getConditionName());
+            String value = queryParamMap.get(condition.getName());
             if (value == null) {
                 return false;
             }
-            Pattern pattern = Pattern.compile(condition.getConditionValue());
-            Matcher matcher = pattern.matcher(value);
-            return matcher.find();
+            return condition.getPattern().find(value);
         }
         return false;
     }
 
-    private boolean isMatchingIP(MessageContext messageContext, ConditionDTO condition) {
+    private boolean isMatchingIP(MessageContext messageContext,
+                                 ThrottleConditionPlanCache.CompiledCondition condition) {
 
         String currentIpString = GatewayUtils.getIp(messageContext);
-        return currentIpString.equals(condition.getConditionValue());
+        return currentIpString.equals(condition.getValue());
     }
 
-    private boolean isWithinIP(MessageContext messageContext, ConditionDTO condition) {
-        // For an IP Range Condition, starting IP is set as a the name, ending IP as the value.
-        BigInteger startIp = APIUtil.ipToBigInteger(condition.getConditionName());
-        BigInteger endIp = APIUtil.ipToBigInteger(condition.getConditionValue());
+    private boolean isWithinIP(MessageContext messageContext,
+                               ThrottleConditionPlanCache.CompiledCondition condition) {
 
         String currentIpString = GatewayUtils.getIp(messageContext);
         if (!currentIpString.isEmpty()) {
             BigInteger currentIp = APIUtil.ipToBigInteger(currentIpString);
 
-            return startIp.compareTo(currentIp) <= 0 && endIp.compareTo(currentIp) >= 0;
+            return condition.getStartingIp().compareTo(currentIp) <= 0
+                    && condition.getEndingIp().compareTo(currentIp) >= 0;
         }
         return false;
     }
@@ -371,9 +365,11 @@ public class ThrottleConditionEvaluator {
                                                List<ConditionDto> conditionDtoList) {
 
         ThrottleProperties throttleProperties = ServiceReferenceHolder.getInstance().getThrottleProperties();
+        ThrottleConditionPlanCache planCache = ThrottleConditionPlanCache.getInstance();
         boolean status = true;
         for (ConditionDto condition : conditionDtoList) {
             status = true;
+            ThrottleConditionPlanCache.ConditionDtoPlan plan = planCache.getPlan(condition);
             if (condition.getIpCondition() != null) {
                 if (!isMatchingIP(axis2MessageContext, condition.getIpCondition())) {
                     status = false;
@@ -385,19 +381,20 @@ public class ThrottleConditionEvaluator {
             }
             if (condition.getHeaderConditions() != null && throttleProperties.isEnableHeaderConditions() &&
                     !condition.getHeaderConditions().getValues().isEmpty()) {
-                if (!isHeaderPresent(axis2MessageContext, condition.getHeaderConditions())) {
+                if (!isHeaderPresent(axis2MessageContext, condition.getHeaderConditions(), plan)) {
                     status = false;
                 }
             }
             if (condition.getJwtClaimConditions() != null && throttleProperties.isEnableJwtConditions() &&
                     !condition.getJwtClaimConditions().getValues().isEmpty()) {
-                if (!isJWTClaimPresent(authContext, condition.getJwtClaimConditions())) {
+                if (!isJWTClaimPresent(authContext, condition.getJwtClaimConditions(), plan)) {
                     status = false;
                 }
             }
             if (condition.getQueryParameterConditions() != null && throttleProperties.isEnableQueryParamConditions() &&
                     !condition.getQueryParameterConditions().getValues().isEmpty()) {
-                if (!isQueryParamPresent(axis2MessageContext, condition.getQueryParameterConditions())) {
+                if (!isQueryParamPresent(axis2MessageContext, condition.getQueryParameterConditions(),
+                        plan)) {
                     status = false;
                 }
             }
@@ -0,0 +1,410 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.throttling;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.dto.ConditionDTO;
+import org.wso2.carbon.apimgt.api.dto.ConditionGroupDTO;
+import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
+import org.wso2.carbon.apimgt.impl.dto.ConditionDto;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+import org.wso2.carbon.apimgt.impl.utils.LRUCache;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Holds pre-compiled evaluation plans for the throttling conditions used by {@link ThrottleConditionEvaluator}.
+ * A plan contains the regular expressions, the parsed IP boundaries and an evaluation order where the cheapest checks
+ * run first, so that a condition group can be rejected without touching the more expensive attributes of the request.
+ * A regular expression is compiled when its condition is first evaluated, so conditions which are disabled or skipped
+ * by a cheaper condition are never compiled. An invalid regular expression is logged once and never matches.
+ * <p>
+ * Plans are keyed by the identity of the {@link ConditionGroupDTO} / {@link ConditionDto} they were built from. Neither
+ * of these classes override {@code equals}, hence a new policy revision always results in a new plan. A condition
+ * group plan is also rebuilt if the conditions of the group are replaced. Entries are removed when the throttle data
+ * holder drops the evaluated conditions, and the whole cache is cleared on policy events and when an API is
+ * redeployed or undeployed. Each map keeps at most {@link #MAX_PLAN_COUNT} plans, evicting the oldest plans first.
+ */
+public class ThrottleConditionPlanCache {
+
+    private static final Log log = LogFactory.getLog(ThrottleConditionPlanCache.class);
+    static final int MAX_PLAN_COUNT = 10000;
+
+    private static final int COST_IP = 0;
+    private static final int COST_HEADER = 1;
+    private static final int COST_QUERY_PARAM = 2;
+    private static final int COST_JWT_CLAIM = 3;
+
+    private final Map<ConditionGroupDTO, ConditionGroupPlan> conditionGroupPlans = new LRUCache<>(MAX_PLAN_COUNT);
+    private final Map<ConditionDto, ConditionDtoPlan> conditionDtoPlans = new LRUCache<>(MAX_PLAN_COUNT);
+
+    private ThrottleConditionPlanCache() {
+
+    }
+
+    private static class ThrottleConditionPlanCacheHolder {
+
+        private static final ThrottleConditionPlanCache instance = new ThrottleConditionPlanCache();
+    }
+
+    public static ThrottleConditionPlanCache getInstance() {
+
+        return ThrottleConditionPlanCacheHolder.instance;
+    }
+
+    /**
+     * Returns the compiled plan of the given condition group, building it on first use.
+     *
+     * @param conditionGroup condition group attached to the invoked resource
+     * @return compiled plan of the condition group
+     */
+    public ConditionGroupPlan getPlan(ConditionGroupDTO conditionGroup) {
+
+        ConditionGroupPlan plan = conditionGroupPlans.get(conditionGroup);
+        if (plan == null || plan.conditionDTOs != conditionGroup.getConditions()) {
+            plan = new ConditionGroupPlan(conditionGroup.getConditions());
+            conditionGroupPlans.put(conditionGroup, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Returns the compiled plan of the given evaluated condition, building it on first use.
+     *
+     * @param condition evaluated condition received from the traffic manager
+     * @return compiled plan of the condition
+     */
+    public ConditionDtoPlan getPlan(ConditionDto condition) {
+
+        ConditionDtoPlan plan = conditionDtoPlans.get(condition);
+        if (plan == null) {
+            plan = new ConditionDtoPlan(condition);
+            conditionDtoPlans.put(condition, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Builds the plans of the given evaluated conditions so that the first request does not pay for it.
+     *
+     * @param conditions evaluated conditions received from the traffic manager
+     */
+    public void compile(Collection<ConditionDto> conditions) {
+
+        if (conditions != null) {
+            for (ConditionDto condition : conditions) {
+                getPlan(condition);
+            }
+        }
+    }
+
+    /**
+     * Removes the plans of the given evaluated conditions.
+     *
+     * @param conditions evaluated conditions which are no longer used
+     */
+    public void invalidate(Collection<ConditionDto> conditions) {
+
+        if (conditions != null) {
+            for (ConditionDto condition : conditions) {
+                conditionDtoPlans.remove(condition);
+            }
+        }
+    }
+
+    /**
+     * Removes all the compiled plans. Invoked when throttling policies are changed.
+     */
+    public void invalidateAll() {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Clearing throttle condition plans. Condition group plans : " + conditionGroupPlans.size()
+                    + ", evaluated condition plans : " + conditionDtoPlans.size());
+        }
+        conditionGroupPlans.clear();
+        conditionDtoPlans.clear();
+    }
+
+    int size() {
+
+        return conditionGroupPlans.size() + conditionDtoPlans.size();
+    }
+
+    private static ConditionPattern[] toPatterns(Map<String, String> values) {
+
+        ConditionPattern[] patterns = new ConditionPattern[values.size()];
+        int i = 0;
+        for (String regex : values.values()) {
+            patterns[i++] = new ConditionPattern(regex);
+        }
+        return patterns;
+    }
+
+    /**
+     * Regular expression of a condition, compiled when it is first matched.
+     */
+    public static class ConditionPattern {
+
+        private final String regex;
+        private volatile Pattern pattern;
+        private volatile boolean invalid;
+
+        ConditionPattern(String regex) {
+
+            this.regex = regex;
+        }
+
+        /**
+         * Returns whether the regular expression is found in the given value. An invalid regular expression is
+         * logged when it is first matched, and is never found.
+         *
+         * @param value value of the request attribute
+         * @return whether the regular expression is found in the value
+         */
+        public boolean find(String value) {
+
+            Pattern compiledPattern = pattern;
+            if (compiledPattern == null) {
+                compiledPattern = compile();
+                if (compiledPattern == null) {
+                    return false;
+                }
+            }
+            return compiledPattern.matcher(value).find();
+        }
+
+        private synchronized Pattern compile() {
+
+            if (pattern == null && !invalid) {
+                try {
+                    pattern = Pattern.compile(regex);
+                } catch (PatternSyntaxException e) {
+                    invalid = true;
+                    log.error("Invalid regular expression in the throttle condition : " + regex
+                            + ". The condition will never match.", e);
+                }
+            }
+            return pattern;
+        }
+    }
+
+    /**
+     * Compiled form of a {@link ConditionGroupDTO}. Conditions are ordered by evaluation cost.
+     */
+    public static class ConditionGroupPlan {
+
+        private final ConditionDTO[] conditionDTOs;
+        private final CompiledCondition[] conditions;
+
+        ConditionGroupPlan(ConditionDTO[] conditionDTOs) {
+
+            this.conditionDTOs = conditionDTOs;
+            conditions = new CompiledCondition[conditionDTOs.length];
+            for (int i = 0; i < conditionDTOs.length; i++) {
+                conditions[i] = new CompiledCondition(conditionDTOs[i]);
+            }
+            Arrays.sort(conditions, Comparator.comparingInt(CompiledCondition::getCost));
+        }
+
+        public CompiledCondition[] getConditions() {
+
+            return conditions;
+        }
+    }
+
+    /**
+     * Compiled form of a single {@link ConditionDTO}.
+     */
+    public static class CompiledCondition {
+
+        private final String type;
+        private final String name;
+        private final String value;
+        private final boolean inverted;
+        private final ConditionPattern pattern;
+        private final BigInteger startingIp;
+        private final BigInteger endingIp;
+        private final int cost;
+
+        CompiledCondition(ConditionDTO condition) {
+
+            type = condition.getConditionType();
+            name = condition.getConditionName();
+            value = condition.getConditionValue();
+            inverted = condition.isInverted();
+            switch (type) {
+                case PolicyConstants.IP_RANGE_TYPE:
+                    // For an IP Range Condition, starting IP is set as a the name, ending IP as the value.
+                    startingIp = APIUtil.ipToBigInteger(name);
+                    endingIp = APIUtil.ipToBigInteger(value);
+                    pattern = null;
+                    cost = COST_IP;
+                    break;
+                case PolicyConstants.IP_SPECIFIC_TYPE:
+                    startingIp = null;
+                    endingIp = null;
+                    pattern = null;
+                    cost = COST_IP;
+                    break;
+                case PolicyConstants.HEADER_TYPE:
+                    startingIp = null;
+                    endingIp = null;
+                    pattern = new ConditionPattern(value);
+                    cost = COST_HEADER;
+                    break;
+                case PolicyConstants.QUERY_PARAMETER_TYPE:
+                    startingIp = null;
+                    endingIp = null;
+                    pattern = new ConditionPattern(value);
+                    cost = COST_QUERY_PARAM;
+                    break;
+                case PolicyConstants.JWT_CLAIMS_TYPE:
+                    startingIp = null;
+                    endingIp = null;
+                    pattern = new ConditionPattern(value);
+                    cost = COST_JWT_CLAIM;
+                    break;
+                default:
+                    startingIp = null;
+                    endingIp = null;
+                    pattern = null;
+                    cost = COST_IP;
+            }
+        }
+
+        public String getType() {
+
+            return type;
+        }
+
+        public String getName() {
+
+            return name;
+        }
+
+        public String getValue() {
+
+            return value;
+        }
+
+        public boolean isInverted() {
+
+            return inverted;
+        }
+
+        public ConditionPattern getPattern() {
+
+            return pattern;
+        }
+
+        public BigInteger getStartingIp() {
+
+            return startingIp;
+        }
+
+        public BigInteger getEndingIp() {
+
+            return endingIp;
+        }
+
+        public int getCost() {
+
+            return cost;
+        }
+    }
+
+    /**
+     * Compiled form of an evaluated {@link ConditionDto}. Patterns are stored in the iteration order of the
+     * corresponding value maps.
+     */
+    public static class ConditionDtoPlan {
+
+        private final String[] headerNames;
+        private final ConditionPattern[] headerPatterns;
+        private final String[] queryParamNames;
+        private final ConditionPattern[] queryParamPatterns;
+        private final String[] jwtClaimNames;
+        private final ConditionPattern[] jwtClaimPatterns;
+
+        ConditionDtoPlan(ConditionDto condition) {
+
+            if (condition.getHeaderConditions() != null) {
+                Map<String, String> values = condition.getHeaderConditions().getValues();
+                headerNames = values.keySet().toArray(new String[0]);
+                headerPatterns = toPatterns(values);
+            } else {
+                headerNames = new String[0];
+                headerPatterns = new ConditionPattern[0];
+            }
+            if (condition.getQueryParameterConditions() != null) {
+                Map<String, String> values = condition.getQueryParameterConditions().getValues();
+                queryParamNames = values.keySet().toArray(new String[0]);
+                queryParamPatterns = toPatterns(values);
+            } else {
+                queryParamNames = new String[0];
+                queryParamPatterns = new ConditionPattern[0];
+            }
+            if (condition.getJwtClaimConditions() != null) {
+                Map<String, String> values = condition.getJwtClaimConditions().getValues();
+                jwtClaimNames = values.keySet().toArray(new String[0]);
+                jwtClaimPatterns = toPatterns(values);
+            } else {
+                jwtClaimNames = new String[0];
+                jwtClaimPatterns = new ConditionPattern[0];
+            }
+        }
+
+        public String[] getHeaderNames() {
+
+            return headerNames;
+        }
+
+        public ConditionPattern[] getHeaderPatterns() {
+
+            return headerPatterns;
+        }
+
+        public String[] getQueryParamNames() {
+
+            return queryParamNames;
+        }
+
+        public ConditionPattern[] getQueryParamPatterns() {
+
+            return queryParamPatterns;
+        }
+
+        public String[] getJwtClaimNames() {
+
+            return jwtClaimNames;
+        }
+
+        public ConditionPattern[] getJwtClaimPatterns() {
+
+            return jwtClaimPatterns;
+        }
+    }
+}
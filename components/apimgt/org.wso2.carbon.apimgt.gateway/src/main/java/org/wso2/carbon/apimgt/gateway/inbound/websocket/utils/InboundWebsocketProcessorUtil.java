@@ -55,6 +55,7 @@ import org.wso2.carbon.apimgt.impl.dto.ResourceInfoDTO;
 import org.wso2.carbon.apimgt.impl.dto.VerbInfoDTO;
 import org.wso2.carbon.apimgt.impl.jwt.SignedJWTInfo;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+import org.wso2.carbon.apimgt.keymgt.model.impl.APIContextTrie;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.ganalytics.publisher.GoogleAnalyticsData;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
@@ -66,7 +67,6 @@ import java.text.ParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import javax.cache.Cache;
 
 /**
@@ -305,11 +305,11 @@ public class InboundWebsocketProcessorUtil {
     public static API getApi(MessageContext synCtx, InboundMessageContext inboundMessageContext) {
 
         String requestPath = inboundMessageContext.getFullRequestPath();
-        TreeMap<String, org.wso2.carbon.apimgt.keymgt.model.entity.API> selectedAPIS =
-                Utils.getSelectedAPIList(requestPath, inboundMessageContext.getTenantDomain());
-        if (selectedAPIS.size() > 0) {
-            String selectedPath = selectedAPIS.firstKey();
-            org.wso2.carbon.apimgt.keymgt.model.entity.API selectedAPI = selectedAPIS.get(selectedPath);
+        APIContextTrie.Match selectedMatch =
+                Utils.getSelectedAPI(requestPath, inboundMessageContext.getTenantDomain());
+        if (selectedMatch != null) {
+            String selectedPath = selectedMatch.getContext();
+            org.wso2.carbon.apimgt.keymgt.model.entity.API selectedAPI = selectedMatch.getApi();
             API api = synCtx.getEnvironment().getSynapseConfiguration()
                     .getAPI(GatewayUtils.getQualifiedApiName(selectedAPI.getApiName(),
                             selectedAPI.getApiVersion()));
@@ -29,9 +29,11 @@ import org.wso2.carbon.apimgt.keymgt.SubscriptionDataHolder;
 import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataLoader;
 import org.wso2.carbon.apimgt.keymgt.model.entity.API;
 import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+import org.wso2.carbon.apimgt.keymgt.model.impl.APIContextTrie;
 import org.wso2.carbon.apimgt.keymgt.model.impl.SubscriptionDataLoaderImpl;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DataHolder {
     private static final Log log  = LogFactory.getLog(DataHolder.class);
@@ -41,6 +43,7 @@ public class DataHolder {
     private Map<String, GraphQLSchemaDTO> apiToGraphQLSchemaDTOMap = new HashMap<>();
     private Map<String, List<String>> apiToKeyManagersMap = new HashMap<>();
     private Map<String,Map<String, API>> tenantAPIMap  = new HashMap<>();
+    private Map<String, APIContextTrie> tenantAPIContextTrieMap = new ConcurrentHashMap<>();
     private boolean isAllApisDeployed = false;
 
     private DataHolder() {
@@ -125,7 +128,7 @@ public class DataHolder {
         return apiToKeyManagersMap.get(apiUUID);
     }
 
-    public void addAPIMetaData(API api) {
+    public synchronized void addAPIMetaData(API api) {
         if (log.isDebugEnabled()) {
             log.debug("Adding meta data of API : " + api.getApiName());
         }
@@ -141,21 +144,25 @@ public class DataHolder {
         } else {
             apiMap = new HashMap<>();
         }
+        APIContextTrie apiContextTrie =
+                tenantAPIContextTrieMap.computeIfAbsent(api.getOrganization(), key -> new APIContextTrie());
         API oldAPI = apiMap.get(api.getContext());
         if (oldAPI != null) {
             apiMap.remove(api.getContext());
             if (oldAPI.isDefaultVersion()) {
                 apiMap.remove(defaultContext);
             }
+            apiContextTrie.remove(oldAPI);
         }
         apiMap.put(api.getContext(), api);
         if (api.isDefaultVersion()) {
             apiMap.put(defaultContext, api);
         }
+        apiContextTrie.add(api);
         tenantAPIMap.put(api.getOrganization(), apiMap);
     }
 
-    public void markAPIAsDeployed(GatewayAPIDTO gatewayAPIDTO) {
+    public synchronized void markAPIAsDeployed(GatewayAPIDTO gatewayAPIDTO) {
         Map<String, API> apiMap = tenantAPIMap.get(gatewayAPIDTO.getTenantDomain());
         if (apiMap != null) {
             API api = apiMap.get(gatewayAPIDTO.getApiContext());
@@ -172,12 +179,25 @@ public class DataHolder {
         return tenantAPIMap;
     }
 
-    public void removeAPIFromAllTenantMap(String apiContext, String tenantDomain) {
+    /**
+     * Finds the API of the tenant with the longest context, or default version context, matching the request path.
+     */
+    public APIContextTrie.Match getAPIByRequestPath(String path, String tenantDomain) {
+
+        APIContextTrie apiContextTrie = tenantAPIContextTrieMap.get(tenantDomain);
+        return apiContextTrie != null ? apiContextTrie.match(path) : null;
+    }
+
+    public synchronized void removeAPIFromAllTenantMap(String apiContext, String tenantDomain) {
         Map<String, API> apiMap = tenantAPIMap.get(tenantDomain);
         if (apiMap != null) {
             API api = apiMap.get(apiContext);
             if (api != null) {
                 apiMap.remove(apiContext);
+                APIContextTrie apiContextTrie = tenantAPIContextTrieMap.get(tenantDomain);
+                if (apiContextTrie != null) {
+                    apiContextTrie.remove(api);
+                }
                 if (api.isDefaultVersion()) {
                     if (api.isDefaultVersion()) {
                         String context = api.getContext();
@@ -214,7 +234,7 @@ public class DataHolder {
         }
     }
 
-    public void markApisAsUnDeployedInTenant(String tenantDomain) {
+    public synchronized void markApisAsUnDeployedInTenant(String tenantDomain) {
         if (tenantAPIMap.containsKey(tenantDomain)) {
             Map<String, API> apiMap = tenantAPIMap.get(tenantDomain);
             apiMap.values().forEach(api -> api.setDeployed(false));
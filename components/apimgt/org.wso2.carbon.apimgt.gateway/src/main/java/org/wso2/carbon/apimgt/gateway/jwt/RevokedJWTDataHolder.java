@@ -19,17 +19,17 @@ package org.wso2.carbon.apimgt.gateway.jwt;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import org.wso2.carbon.apimgt.impl.utils.JWTUtil;
 
 /**
- *  Singleton which stores the revoked JWT map
+ *  Singleton which stores the revoked JWT map.
+ *  Revoked JWTs are kept in a {@link RevokedJWTIndex}, which stores a fixed size hash of each signature rather than
+ *  the signature itself.
  */
 public class RevokedJWTDataHolder {
 
     private static final Log log = LogFactory.getLog(RevokedJWTDataHolder.class);
-    private static Map<String, Long> revokedJWTMap = new ConcurrentHashMap<>();
+    private static RevokedJWTIndex revokedJWTIndex = new RevokedJWTIndex();
     private static RevokedJWTDataHolder instance = new RevokedJWTDataHolder();
 
     /**
@@ -40,7 +40,9 @@ public class RevokedJWTDataHolder {
     public void addRevokedJWTToMap(String key, Long value) {
         if (key != null && value != null) {
             log.debug("Adding revoked JWT key, value pair to the revoked map :" + key + " , " + value);
-            revokedJWTMap.put(key, value);
+            revokedJWTIndex.add(key, value);
+            // Revoked tokens are rejected before their signature is verified, so their signature need not be kept
+            JWTUtil.removeVerifiedSignature(key);
         }
     }
 
@@ -50,7 +52,7 @@ public class RevokedJWTDataHolder {
      * @return true if it exists and false otherwise.
      */
     public static boolean isJWTTokenSignatureExistsInRevokedMap(String jwtSignature) {
-        return revokedJWTMap.containsKey(jwtSignature);
+        return revokedJWTIndex.contains(jwtSignature);
     }
 
     private RevokedJWTDataHolder() {
@@ -58,11 +60,12 @@ public class RevokedJWTDataHolder {
     }
 
     /**
-     * Fetches the revoke map.
-     * @return
+     * Removes the revoked JWTs which have expired.
+     * @param currentTime current time in milliseconds.
+     * @return number of removed JWTs.
      */
-    Map<String, Long> getRevokedJWTMap() {
-        return revokedJWTMap;
+    int removeExpiredRevokedJWTs(long currentTime) {
+        return revokedJWTIndex.removeExpired(currentTime);
     }
 
     /**
@@ -0,0 +1,252 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.jwt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Index of revoked JWTs, keyed by a 128 bit hash of the token signature or JTI.
+ * <p>
+ * Lookups go through a Bloom filter first, so the tokens of most requests, which are not revoked, are not looked up in
+ * the index. The index keeps the hash and the expiry time of each revoked token, grouped by expiry time, so expired
+ * tokens are removed without going through the tokens that have not expired. The Bloom filter is rebuilt from the
+ * index when it has grown beyond its capacity, or when most of the tokens added to it have since been removed.
+ * Lookups do not lock, while additions and removals are serialized.
+ */
+final class RevokedJWTIndex {
+
+    static final long EXPIRY_BUCKET_SIZE = TimeUnit.MINUTES.toMillis(1);
+    private static final int MIN_FILTER_CAPACITY = 10000;
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final Map<Key, Long> expiryTimes = new ConcurrentHashMap<>();
+    private final NavigableMap<Long, List<Key>> expiryBuckets = new TreeMap<>();
+    private final Object updateLock = new Object();
+    private volatile BloomFilter filter = new BloomFilter(MIN_FILTER_CAPACITY);
+
+    /**
+     * Adds a revoked token.
+     *
+     * @param token      token signature or JTI
+     * @param expiryTime expiry time of the token in milliseconds
+     */
+    void add(String token, long expiryTime) {
+
+        Key key = Key.of(token);
+        synchronized (updateLock) {
+            Long previousExpiryTime = expiryTimes.put(key, expiryTime);
+            if (previousExpiryTime == null || getExpiryBucket(previousExpiryTime) != getExpiryBucket(expiryTime)) {
+                expiryBuckets.computeIfAbsent(getExpiryBucket(expiryTime), bucket -> new ArrayList<>()).add(key);
+            }
+            if (previousExpiryTime == null) {
+                if (filter.isFull()) {
+                    rebuildFilter();
+                } else {
+                    filter.add(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the token is revoked.
+     *
+     * @param token token signature or JTI
+     * @return true if the token was added and has not been removed yet
+     */
+    boolean contains(String token) {
+
+        Key key = Key.of(token);
+        return filter.mightContain(key) && expiryTimes.containsKey(key);
+    }
+
+    /**
+     * Removes the tokens that expired before the given time.
+     *
+     * @param currentTime current time in milliseconds
+     * @return number of removed tokens
+     */
+    int removeExpired(long currentTime) {
+
+        int removed = 0;
+        synchronized (updateLock) {
+            Iterator<Map.Entry<Long, List<Key>>> buckets =
+                    expiryBuckets.headMap(getExpiryBucket(currentTime), true).entrySet().iterator();
+            while (buckets.hasNext()) {
+                Map.Entry<Long, List<Key>> bucket = buckets.next();
+                Iterator<Key> keys = bucket.getValue().iterator();
+                while (keys.hasNext()) {
+                    Key key = keys.next();
+                    Long expiryTime = expiryTimes.get(key);
+                    if (expiryTime != null && currentTime > expiryTime) {
+                        expiryTimes.remove(key);
+                        keys.remove();
+                        removed++;
+                    } else if (expiryTime == null || getExpiryBucket(expiryTime) != bucket.getKey()) {
+                        // The token was added again with an expiry time in another bucket
+                        keys.remove();
+                    }
+                }
+                if (bucket.getValue().isEmpty()) {
+                    buckets.remove();
+                }
+            }
+            if (removed > 0 && filter.isMostlyRemoved(expiryTimes.size())) {
+                rebuildFilter();
+            }
+        }
+        return removed;
+    }
+
+    int size() {
+
+        return expiryTimes.size();
+    }
+
+    private void rebuildFilter() {
+
+        BloomFilter rebuiltFilter = new BloomFilter(Math.max(MIN_FILTER_CAPACITY, expiryTimes.size() * 2));
+        for (Key key : expiryTimes.keySet()) {
+            rebuiltFilter.add(key);
+        }
+        filter = rebuiltFilter;
+    }
+
+    private static long getExpiryBucket(long expiryTime) {
+
+        return Math.floorDiv(expiryTime, EXPIRY_BUCKET_SIZE);
+    }
+
+    private static final class Key {
+
+        private final long high;
+        private final long low;
+
+        private Key(long high, long low) {
+
+            this.high = high;
+            this.low = low;
+        }
+
+        private static Key of(String token) {
+
+            MessageDigest messageDigest;
+            try {
+                messageDigest = MessageDigest.getInstance(HASH_ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+            }
+            ByteBuffer hash = ByteBuffer.wrap(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new Key(hash.getLong(), hash.getLong());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return high == key.high && low == key.low;
+        }
+
+        @Override
+        public int hashCode() {
+
+            return (int) (low ^ (low >>> 32));
+        }
+    }
+
+    /**
+     * Bloom filter sized for a false positive rate of about 1% at its capacity.
+     */
+    private static final class BloomFilter {
+
+        private static final int BITS_PER_KEY = 10;
+        private static final int HASH_FUNCTIONS = 7;
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int capacity;
+        private int addedKeys;
+
+        private BloomFilter(int capacity) {
+
+            this.capacity = capacity;
+            this.bits = new AtomicLongArray((int) (((long) capacity * BITS_PER_KEY + 63) / 64));
+            this.bitCount = (long) bits.length() * 64;
+        }
+
+        private void add(Key key) {
+
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                long bit = getBit(key, i);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value = bits.get(word);
+                while ((value & mask) == 0 && !bits.compareAndSet(word, value, value | mask)) {
+                    value = bits.get(word);
+                }
+            }
+            addedKeys++;
+        }
+
+        private boolean mightContain(Key key) {
+
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                long bit = getBit(key, i);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isFull() {
+
+            return addedKeys >= capacity;
+        }
+
+        private boolean isMostlyRemoved(int remainingKeys) {
+
+            return capacity > MIN_FILTER_CAPACITY && remainingKeys < addedKeys / 2;
+        }
+
+        private long getBit(Key key, int i) {
+
+            // Derives the hash functions from the two halves of the key
+            return ((key.low + i * key.high) & Long.MAX_VALUE) % bitCount;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.listeners;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.metrics.manager.Counter;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
+import org.wso2.carbon.metrics.manager.Timer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dispatches the events received by the gateway to a bounded thread pool, while keeping the events of the same
+ * partition in the order they were received.
+ * <p>
+ * Events are partitioned by the entity they change, such as an API or an application. The events of a partition are
+ * handled one at a time, and different partitions are handled in parallel. An event which is the same as the last
+ * queued event of its partition, such as a repeated deployment of an API, replaces that event instead of being
+ * queued again.
+ */
+public class GatewayEventDispatcher {
+
+    private static final Log log = LogFactory.getLog(GatewayEventDispatcher.class);
+    private static final String QUEUE_DEPTH = "QueueDepth";
+    private static final String LAG = "Lag";
+
+    private final String name;
+    private final ExecutorService executor;
+    private final Map<String, Partition> partitions = new HashMap<>();
+
+    public GatewayEventDispatcher(String name, int threadCount) {
+
+        this.name = name;
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = Executors.newFixedThreadPool(Math.max(1, threadCount), threadFactory);
+    }
+
+    /**
+     * Dispatches an event to be handled after the events already dispatched to its partition.
+     *
+     * @param partitionKey key of the entity changed by the event
+     * @param coalesceKey  key identifying events that can replace each other, or null if the event should always
+     *                     be handled
+     * @param handler      handler of the event
+     */
+    public void dispatch(String partitionKey, String coalesceKey, Runnable handler) {
+
+        boolean schedule = false;
+        synchronized (partitions) {
+            Partition partition = partitions.get(partitionKey);
+            if (partition == null) {
+                partition = new Partition(partitionKey);
+                partitions.put(partitionKey, partition);
+                schedule = true;
+            }
+            DispatchedEvent lastEvent = partition.events.peekLast();
+            if (coalesceKey != null && lastEvent != null && coalesceKey.equals(lastEvent.coalesceKey)) {
+                lastEvent.handler = handler;
+                if (log.isDebugEnabled()) {
+                    log.debug("Event " + coalesceKey + " replaced a queued event of partition " + partitionKey);
+                }
+                return;
+            }
+            partition.events.add(new DispatchedEvent(coalesceKey, handler, getTimer(LAG).start()));
+            getCounter(QUEUE_DEPTH).inc();
+            if (schedule) {
+                executor.execute(partition);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of events waiting to be handled.
+     *
+     * @return number of queued events
+     */
+    public int getQueueDepth() {
+
+        int queueDepth = 0;
+        synchronized (partitions) {
+            for (Partition partition : partitions.values()) {
+                queueDepth += partition.events.size();
+            }
+        }
+        return queueDepth;
+    }
+
+    /**
+     * Stops the dispatcher. Events already queued are dropped.
+     */
+    public void shutdown() {
+
+        executor.shutdownNow();
+    }
+
+    protected Timer getTimer(String name) {
+
+        return MetricManager.timer(Level.INFO, MetricManager.name(APIConstants.METRICS_PREFIX, this.name, name));
+    }
+
+    protected Counter getCounter(String name) {
+
+        return MetricManager.counter(Level.INFO, MetricManager.name(APIConstants.METRICS_PREFIX, this.name, name));
+    }
+
+    /**
+     * Handles the next event of the partition, and queues the partition again if it has more events. Queuing the
+     * partition again instead of handling all its events lets the other partitions progress meanwhile.
+     */
+    private final class Partition implements Runnable {
+
+        private final String key;
+        private final Deque<DispatchedEvent> events = new ArrayDeque<>();
+
+        private Partition(String key) {
+
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+
+            DispatchedEvent event;
+            synchronized (partitions) {
+                event = events.poll();
+            }
+            getCounter(QUEUE_DEPTH).dec();
+            event.lagContext.stop();
+            try {
+                event.handler.run();
+            } catch (RuntimeException e) {
+                log.error("Error while handling an event of partition " + key, e);
+            } finally {
+                // Scheduled even if the handler failed with an error, so that the partition is not left without a
+                // task while it has events queued.
+                synchronized (partitions) {
+                    if (events.isEmpty()) {
+                        partitions.remove(key);
+                    } else {
+                        executor.execute(this);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class DispatchedEvent {
+
+        private final String coalesceKey;
+        private final Timer.Context lagContext;
+        private Runnable handler;
+
+        private DispatchedEvent(String coalesceKey, Runnable handler, Timer.Context lagContext) {
+
+            this.coalesceKey = coalesceKey;
+            this.handler = handler;
+            this.lagContext = lagContext;
+        }
+    }
+}
@@ -31,6 +31,7 @@ import org.wso2.carbon.apimgt.gateway.APILoggerManager;
 import org.wso2.carbon.apimgt.gateway.EndpointCertificateDeployer;
 import org.wso2.carbon.apimgt.gateway.GoogleAnalyticsConfigDeployer;
 import org.wso2.carbon.apimgt.gateway.InMemoryAPIDeployer;
+import org.wso2.carbon.apimgt.gateway.handlers.throttling.ThrottleConditionPlanCache;
 import org.wso2.carbon.apimgt.gateway.internal.DataHolder;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.impl.APIConstants;
@@ -59,8 +60,7 @@ import org.wso2.carbon.context.PrivilegedCarbonContext;
 
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.TreeSet;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageListener;
@@ -70,13 +70,20 @@ import javax.jms.Topic;
 public class GatewayJMSMessageListener implements MessageListener {
 
     private static final Log log = LogFactory.getLog(GatewayJMSMessageListener.class);
+    private static final String API_PARTITION_PREFIX = "API:";
+    static final String SUBSCRIPTION_DATA_PARTITION = "SubscriptionData";
     private boolean debugEnabled = log.isDebugEnabled();
     private InMemoryAPIDeployer inMemoryApiDeployer = new InMemoryAPIDeployer();
     private EventHubConfigurationDto eventHubConfigurationDto = ServiceReferenceHolder.getInstance()
             .getAPIManagerConfiguration().getEventHubConfigurationDto();
     private GatewayArtifactSynchronizerProperties gatewayArtifactSynchronizerProperties = ServiceReferenceHolder
             .getInstance().getAPIManagerConfiguration().getGatewayArtifactSynchronizerProperties();
-    ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "DeploymentThread"));
+    GatewayEventDispatcher deploymentEventDispatcher = new GatewayEventDispatcher("GatewayDeploymentEventDispatcher",
+            gatewayArtifactSynchronizerProperties.getEventDispatcherThreadCount());
+    // Events changing the subscription data are handled in the order they were received, as they refer to each other,
+    // without waiting for API deployments.
+    GatewayEventDispatcher subscriptionDataEventDispatcher =
+            new GatewayEventDispatcher("GatewaySubscriptionDataEventDispatcher", 1);
 
     public void onMessage(Message message) {
 
@@ -146,151 +153,77 @@ public class GatewayJMSMessageListener implements MessageListener {
 
         if (APIConstants.EventType.DEPLOY_API_IN_GATEWAY.name().equals(eventType)
                 || APIConstants.EventType.REMOVE_API_FROM_GATEWAY.name().equals(eventType)) {
-            executor.submit(new Runnable() {
-                @Override
-                public void run() {
-
-                    DeployAPIInGatewayEvent gatewayEvent = new Gson().fromJson(new String(eventDecoded),
-                            DeployAPIInGatewayEvent.class);
-                    String tenantDomain = gatewayEvent.getTenantDomain();
-                    boolean tenantLoaded = ServiceReferenceHolder.getInstance().isTenantLoaded(tenantDomain);
-                    if (!tenantLoaded) {
-                        String syncKey = tenantDomain.concat("__").concat(this.getClass().getName());
-                        synchronized (syncKey.intern()) {
-                            tenantLoaded = ServiceReferenceHolder.getInstance().isTenantLoaded(tenantDomain);
-                            if (!tenantLoaded) {
-                                APIUtil.loadTenantConfigBlockingMode(tenantDomain);
-                            }
-                        }
-                    }
-
-                    if (tenantLoaded) {
-                        Set<String> systemConfiguredGatewayLabels = new HashSet(gatewayEvent.getGatewayLabels());
-                        systemConfiguredGatewayLabels.retainAll(gatewayArtifactSynchronizerProperties.getGatewayLabels());
-                        if (!systemConfiguredGatewayLabels.isEmpty()) {
-                            ServiceReferenceHolder.getInstance().getKeyManagerDataService().updateDeployedAPIRevision(gatewayEvent);
-                            if (EventType.DEPLOY_API_IN_GATEWAY.name().equals(eventType)) {
-                                boolean tenantFlowStarted = false;
-                                try {
-                                    startTenantFlow(tenantDomain);
-                                    tenantFlowStarted = true;
-                                    inMemoryApiDeployer.deployAPI(gatewayEvent);
-                                } catch (ArtifactSynchronizerException e) {
-                                    log.error("Error in deploying artifacts for " + gatewayEvent.getUuid() +
-                                            "in the Gateway");
-                                } finally {
-                                    if (tenantFlowStarted) {
-                                        endTenantFlow();
-                                    }
-                                }
-                            }
-                            if (APIConstants.EventType.REMOVE_API_FROM_GATEWAY.name().equals(eventType)) {
-                                boolean tenantFlowStarted = false;
-                                try {
-                                    startTenantFlow(tenantDomain);
-                                    tenantFlowStarted = true;
-                                    inMemoryApiDeployer.unDeployAPI(gatewayEvent);
-                                } catch (ArtifactSynchronizerException e) {
-                                    log.error("Error in undeploying artifacts");
-                                } finally {
-                                    if (tenantFlowStarted) {
-                                        endTenantFlow();
-                                    }
-                                }
-                                DataHolder.getInstance().removeAPIFromAllTenantMap(gatewayEvent.getContext(),
-                                        gatewayEvent.getTenantDomain());
-                            }
-                        }
-
-                        if (debugEnabled) {
-                            log.debug("Event with ID " + gatewayEvent.getEventId() + " is received and " +
-                                    gatewayEvent.getUuid() + " is successfully deployed/undeployed");
-                        }
-                    }
-                }
-            });
-        }
-        if (EventType.APPLICATION_CREATE.toString().equals(eventType)
+            DeployAPIInGatewayEvent gatewayEvent = new Gson().fromJson(eventJson, DeployAPIInGatewayEvent.class);
+            // A queued deployment of the same API to the same gateways is superseded, as the latest artifacts of
+            // the API are retrieved when it is deployed.
+            String coalesceKey = null;
+            if (EventType.DEPLOY_API_IN_GATEWAY.name().equals(eventType)) {
+                coalesceKey = eventType + ":" + gatewayEvent.getUuid() + ":"
+                        + new TreeSet<>(gatewayEvent.getGatewayLabels());
+            }
+            deploymentEventDispatcher.dispatch(API_PARTITION_PREFIX + gatewayEvent.getUuid(), coalesceKey,
+                    () -> handleDeploymentEvent(eventType, gatewayEvent));
+        } else if (EventType.APPLICATION_CREATE.toString().equals(eventType)
                 || EventType.APPLICATION_UPDATE.toString().equals(eventType)) {
             ApplicationEvent event = new Gson().fromJson(eventJson, ApplicationEvent.class);
-            ServiceReferenceHolder.getInstance().getKeyManagerDataService().addOrUpdateApplication(event);
+            subscriptionDataEventDispatcher.dispatch(SUBSCRIPTION_DATA_PARTITION, null,
+                    () -> ServiceReferenceHolder.getInstance().getKeyManagerDataService()
+                            .addOrUpdateApplication(event));
         } else if (EventType.SUBSCRIPTIONS_CREATE.toString().equals(eventType)
                 || EventType.SUBSCRIPTIONS_UPDATE.toString().equals(eventType)) {
             SubscriptionEvent event = new Gson().fromJson(eventJson, SubscriptionEvent.class);
-            ServiceReferenceHolder.getInstance().getKeyManagerDataService().addOrUpdateSubscription(event);
+            subscriptionDataEventDispatcher.dispatch(SUBSCRIPTION_DATA_PARTITION, null,
+                    () -> ServiceReferenceHolder.getInstance().getKeyManagerDataService()
+                            .addOrUpdateSubscription(event));
         } else if (EventType.API_UPDATE.toString().equals(eventType)) {
             APIEvent event = new Gson().fromJson(eventJson, APIEvent.class);
-            ServiceReferenceHolder.getInstance().getKeyManagerDataService().addOrUpdateAPI(event);
-            DataHolder.getInstance().addAPIMetaData(event);
+            subscriptionDataEventDispatcher.dispatch(SUBSCRIPTION_DATA_PARTITION, null, () -> {
+                ServiceReferenceHolder.getInstance().getKeyManagerDataService().addOrUpdateAPI(event);
+                DataHolder.getInstance().addAPIMetaData(event);
+            });
         } else if (EventType.API_LIFECYCLE_CHANGE.toString().equals(eventType)) {
             APIEvent event = new Gson().fromJson(eventJson, APIEvent.class);
-            if (APIStatus.RETIRED.toString().equals(event.getApiStatus())) {
-                ServiceReferenceHolder.getInstance().getKeyManagerDataService().removeAPI(event);
-                DataHolder.getInstance().removeAPIFromAllTenantMap(event.getApiContext(), event.getTenantDomain());
-            } else {
-                ServiceReferenceHolder.getInstance().getKeyManagerDataService().addOrUpdateAPI(event);
-            }
+            subscriptionDataEventDispatcher.dispatch(SUBSCRIPTION_DATA_PARTITION, null, () -> {
+                if (APIStatus.RETIRED.toString().equals(event.getApiStatus())) {
+                    ServiceReferenceHolder.getInstance().getKeyManagerDataService().removeAPI(event);
+                    DataHolder.getInstance().removeAPIFromAllTenantMap(event.getApiContext(),
+                            event.getTenantDomain());
+                } else {
+                    ServiceReferenceHolder.getInstance().getKeyManagerDataService().addOrUpdateAPI(event);
+                }
+            });
         } else if (EventType.APPLICATION_REGISTRATION_CREATE.toString().equals(eventType)) {
             ApplicationRegistrationEvent event = new Gson().fromJson(eventJson, ApplicationRegistrationEvent.class);
-            ServiceReferenceHolder.getInstance().getKeyManagerDataService().addOrUpdateApplicationKeyMapping(event);
+            subscriptionDataEventDispatcher.dispatch(SUBSCRIPTION_DATA_PARTITION, null,
+                    () -> ServiceReferenceHolder.getInstance().getKeyManagerDataService()
+                            .addOrUpdateApplicationKeyMapping(event));
         } else if (EventType.SUBSCRIPTIONS_DELETE.toString().equals(eventType)) {
             SubscriptionEvent event = new Gson().fromJson(eventJson, SubscriptionEvent.class);
-            ServiceReferenceHolder.getInstance().getKeyManagerDataService().removeSubscription(event);
+            subscriptionDataEventDispatcher.dispatch(SUBSCRIPTION_DATA_PARTITION, null,
+                    () -> ServiceReferenceHolder.getInstance().getKeyManagerDataService().removeSubscription(event));
         } else if (EventType.APPLICATION_DELETE.toString().equals(eventType)) {
             ApplicationEvent event = new Gson().fromJson(eventJson, ApplicationEvent.class);
-            ServiceReferenceHolder.getInstance().getKeyManagerDataService().removeApplication(event);
+            subscriptionDataEventDispatcher.dispatch(SUBSCRIPTION_DATA_PARTITION, null,
+                    () -> ServiceReferenceHolder.getInstance().getKeyManagerDataService().removeApplication(event));
         } else if (EventType.REMOVE_APPLICATION_KEYMAPPING.toString().equals(eventType)) {
             ApplicationRegistrationEvent event = new Gson().fromJson(eventJson, ApplicationRegistrationEvent.class);
-            ServiceReferenceHolder.getInstance().getKeyManagerDataService().removeApplicationKeyMapping(event);
-        } else if (EventType.SCOPE_CREATE.toString().equals(eventType)) {
-            ScopeEvent event = new Gson().fromJson(eventJson, ScopeEvent.class);
-            ServiceReferenceHolder.getInstance().getKeyManagerDataService().addScope(event);
-        } else if (EventType.SCOPE_UPDATE.toString().equals(eventType)) {
+            subscriptionDataEventDispatcher.dispatch(SUBSCRIPTION_DATA_PARTITION, null,
+                    () -> ServiceReferenceHolder.getInstance().getKeyManagerDataService()
+                            .removeApplicationKeyMapping(event));
+        } else if (EventType.SCOPE_CREATE.toString().equals(eventType)
+                || EventType.SCOPE_UPDATE.toString().equals(eventType)) {
             ScopeEvent event = new Gson().fromJson(eventJson, ScopeEvent.class);
-            ServiceReferenceHolder.getInstance().getKeyManagerDataService().addScope(event);
+            subscriptionDataEventDispatcher.dispatch(SUBSCRIPTION_DATA_PARTITION, null,
+                    () -> ServiceReferenceHolder.getInstance().getKeyManagerDataService().addScope(event));
         } else if (EventType.SCOPE_DELETE.toString().equals(eventType)) {
             ScopeEvent event = new Gson().fromJson(eventJson, ScopeEvent.class);
-            ServiceReferenceHolder.getInstance().getKeyManagerDataService().deleteScope(event);
+            subscriptionDataEventDispatcher.dispatch(SUBSCRIPTION_DATA_PARTITION, null,
+                    () -> ServiceReferenceHolder.getInstance().getKeyManagerDataService().deleteScope(event));
         } else if (EventType.POLICY_CREATE.toString().equals(eventType) ||
                 EventType.POLICY_DELETE.toString().equals(eventType) ||
                 EventType.POLICY_UPDATE.toString().equals(eventType)) {
-            PolicyEvent event = new Gson().fromJson(eventJson, PolicyEvent.class);
-            boolean updatePolicy = false;
-            boolean deletePolicy = false;
-            if (EventType.POLICY_CREATE.toString().equals(eventType)
-                    || EventType.POLICY_UPDATE.toString().equals(eventType)) {
-                updatePolicy = true;
-            } else if (EventType.POLICY_DELETE.toString().equals(eventType)) {
-                deletePolicy = true;
-            }
-            if (event.getPolicyType() == PolicyType.API) {
-                APIPolicyEvent policyEvent = new Gson().fromJson(eventJson, APIPolicyEvent.class);
-                if (updatePolicy) {
-                    ServiceReferenceHolder.getInstance().getKeyManagerDataService()
-                            .addOrUpdateAPIPolicy(policyEvent);
-                } else if (deletePolicy) {
-                    ServiceReferenceHolder.getInstance().getKeyManagerDataService()
-                            .removeAPIPolicy(policyEvent);
-                }
-            } else if (event.getPolicyType() == PolicyType.SUBSCRIPTION) {
-                SubscriptionPolicyEvent policyEvent = new Gson().fromJson(eventJson, SubscriptionPolicyEvent.class);
-                if (updatePolicy) {
-                    ServiceReferenceHolder.getInstance().getKeyManagerDataService()
-                            .addOrUpdateSubscriptionPolicy(policyEvent);
-                } else if (deletePolicy) {
-                    ServiceReferenceHolder.getInstance().getKeyManagerDataService()
-                            .removeSubscriptionPolicy(policyEvent);
-                }
-            } else if (event.getPolicyType() == PolicyType.APPLICATION) {
-                ApplicationPolicyEvent policyEvent = new Gson().fromJson(eventJson, ApplicationPolicyEvent.class);
-                if (updatePolicy) {
-                    ServiceReferenceHolder.getInstance().getKeyManagerDataService()
-                            .addOrUpdateApplicationPolicy(policyEvent);
-                } else if (deletePolicy) {
-                    ServiceReferenceHolder.getInstance().getKeyManagerDataService()
-                            .removeApplicationPolicy(policyEvent);
-                }
-            }
+            subscriptionDataEventDispatcher.dispatch(SUBSCRIPTION_DATA_PARTITION, null,
+                    () -> handlePolicyEvent(eventType, eventJson));
         } else if (EventType.ENDPOINT_CERTIFICATE_ADD.toString().equals(eventType) ||
                 EventType.ENDPOINT_CERTIFICATE_REMOVE.toString().equals(eventType)) {
             CertificateEvent certificateEvent = new Gson().fromJson(eventJson, CertificateEvent.class);
@@ -350,6 +283,108 @@ public class GatewayJMSMessageListener implements MessageListener {
         }
     }
 
+    private void handlePolicyEvent(String eventType, String eventJson) {
+
+        PolicyEvent event = new Gson().fromJson(eventJson, PolicyEvent.class);
+        boolean updatePolicy = false;
+        boolean deletePolicy = false;
+        if (EventType.POLICY_CREATE.toString().equals(eventType)
+                || EventType.POLICY_UPDATE.toString().equals(eventType)) {
+            updatePolicy = true;
+        } else if (EventType.POLICY_DELETE.toString().equals(eventType)) {
+            deletePolicy = true;
+        }
+        if (event.getPolicyType() == PolicyType.API) {
+            // Condition groups of the updated policy are rebuilt, so the compiled condition plans are stale.
+            ThrottleConditionPlanCache.getInstance().invalidateAll();
+            APIPolicyEvent policyEvent = new Gson().fromJson(eventJson, APIPolicyEvent.class);
+            if (updatePolicy) {
+                ServiceReferenceHolder.getInstance().getKeyManagerDataService()
+                        .addOrUpdateAPIPolicy(policyEvent);
+            } else if (deletePolicy) {
+                ServiceReferenceHolder.getInstance().getKeyManagerDataService()
+                        .removeAPIPolicy(policyEvent);
+            }
+        } else if (event.getPolicyType() == PolicyType.SUBSCRIPTION) {
+            SubscriptionPolicyEvent policyEvent = new Gson().fromJson(eventJson, SubscriptionPolicyEvent.class);
+            if (updatePolicy) {
+                ServiceReferenceHolder.getInstance().getKeyManagerDataService()
+                        .addOrUpdateSubscriptionPolicy(policyEvent);
+            } else if (deletePolicy) {
+                ServiceReferenceHolder.getInstance().getKeyManagerDataService()
+                        .removeSubscriptionPolicy(policyEvent);
+            }
+        } else if (event.getPolicyType() == PolicyType.APPLICATION) {
+            ApplicationPolicyEvent policyEvent = new Gson().fromJson(eventJson, ApplicationPolicyEvent.class);
+            if (updatePolicy) {
+                ServiceReferenceHolder.getInstance().getKeyManagerDataService()
+                        .addOrUpdateApplicationPolicy(policyEvent);
+            } else if (deletePolicy) {
+                ServiceReferenceHolder.getInstance().getKeyManagerDataService()
+                        .removeApplicationPolicy(policyEvent);
+            }
+        }
+    }
+
+    private void handleDeploymentEvent(String eventType, DeployAPIInGatewayEvent gatewayEvent) {
+
+        String tenantDomain = gatewayEvent.getTenantDomain();
+        boolean tenantLoaded = ServiceReferenceHolder.getInstance().isTenantLoaded(tenantDomain);
+        if (!tenantLoaded) {
+            String syncKey = tenantDomain.concat("__").concat(this.getClass().getName());
+            synchronized (syncKey.intern()) {
+                tenantLoaded = ServiceReferenceHolder.getInstance().isTenantLoaded(tenantDomain);
+                if (!tenantLoaded) {
+                    APIUtil.loadTenantConfigBlockingMode(tenantDomain);
+                }
+            }
+        }
+
+        if (tenantLoaded) {
+            Set<String> systemConfiguredGatewayLabels = new HashSet(gatewayEvent.getGatewayLabels());
+            systemConfiguredGatewayLabels.retainAll(gatewayArtifactSynchronizerProperties.getGatewayLabels());
+            if (!systemConfiguredGatewayLabels.isEmpty()) {
+                ServiceReferenceHolder.getInstance().getKeyManagerDataService().updateDeployedAPIRevision(gatewayEvent);
+                if (EventType.DEPLOY_API_IN_GATEWAY.name().equals(eventType)) {
+                    boolean tenantFlowStarted = false;
+                    try {
+                        startTenantFlow(tenantDomain);
+                        tenantFlowStarted = true;
+                        inMemoryApiDeployer.deployAPI(gatewayEvent);
+                    } catch (ArtifactSynchronizerException e) {
+                        log.error("Error in deploying artifacts for " + gatewayEvent.getUuid() +
+                                "in the Gateway");
+                    } finally {
+                        if (tenantFlowStarted) {
+                            endTenantFlow();
+                        }
+                    }
+                }
+                if (APIConstants.EventType.REMOVE_API_FROM_GATEWAY.name().equals(eventType)) {
+                    boolean tenantFlowStarted = false;
+                    try {
+                        startTenantFlow(tenantDomain);
+                        tenantFlowStarted = true;
+                        inMemoryApiDeployer.unDeployAPI(gatewayEvent);
+                    } catch (ArtifactSynchronizerException e) {
+                        log.error("Error in undeploying artifacts");
+                    } finally {
+                        if (tenantFlowStarted) {
+                            endTenantFlow();
+                        }
+                    }
+                    DataHolder.getInstance().removeAPIFromAllTenantMap(gatewayEvent.getContext(),
+                            gatewayEvent.getTenantDomain());
+                }
+            }
+
+            if (debugEnabled) {
+                log.debug("Event with ID " + gatewayEvent.getEventId() + " is received and " +
+                        gatewayEvent.getUuid() + " is successfully deployed/undeployed");
+            }
+        }
+    }
+
     private void endTenantFlow() {
 
         PrivilegedCarbonContext.endTenantFlow();
@@ -273,6 +273,9 @@ public class GatewayStartupListener extends AbstractAxis2ConfigurationContextObs
     public void invoke() {
 
         CertificateReLoaderUtil.shutDownCertificateReLoader();
+        if (ServiceReferenceHolder.getInstance().getThrottleDataPublisher() != null) {
+            ServiceReferenceHolder.getInstance().getThrottleDataPublisher().shutdown();
+        }
         if (jmsTransportHandlerForTrafficManager != null) {
             // This method will make shutdown the Listener.
             log.debug("Unsubscribe from JMS Events...");
@@ -0,0 +1,260 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.gateway.dto.IPRange;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+
+import java.math.BigInteger;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable lookup structure built from the IP blocking conditions of a tenant.
+ * <p>
+ * Every address is represented as an unsigned 128 bit number split into two longs, where IPv4 addresses only use the
+ * lower long. This gives the same ordering as {@link APIUtil#ipToBigInteger(String)} without allocating a
+ * {@link BigInteger} per range. Non inverted ranges are merged into a sorted array of disjoint intervals which is
+ * binary searched, fixed IPs are kept in hash sets and inverted conditions are reduced to the single interval (or
+ * single IP) a request must fall into to avoid being blocked.
+ * <p>
+ * Range bounds are exclusive, matching the original linear evaluation of the conditions.
+ */
+public final class IPBlockingIndex {
+
+    private static final Log log = LogFactory.getLog(IPBlockingIndex.class);
+    static final IPBlockingIndex EMPTY = new IPBlockingIndex(Collections.<IPRange>emptySet());
+
+    private final boolean empty;
+    private final Set<String> blockedIps;
+    private final Set<String> allowedIps;
+    // Disjoint open intervals sorted by the start address.
+    private final long[] rangeStartHigh;
+    private final long[] rangeStartLow;
+    private final long[] rangeEndHigh;
+    private final long[] rangeEndLow;
+    // Intersection of the inverted ranges. Requests outside of this open interval are blocked.
+    private final boolean hasInvertedRanges;
+    private final long allowedStartHigh;
+    private final long allowedStartLow;
+    private final long allowedEndHigh;
+    private final long allowedEndLow;
+
+    IPBlockingIndex(Collection<IPRange> ipRanges) {
+
+        Set<String> fixedIps = new HashSet<>();
+        Set<String> invertedFixedIps = new HashSet<>();
+        List<long[]> ranges = new ArrayList<>();
+        boolean invertedRangesPresent = false;
+        long[] allowedStart = {0L, 0L};
+        long[] allowedEnd = {-1L, -1L};
+        for (IPRange ipRange : ipRanges) {
+            if (APIConstants.BLOCKING_CONDITIONS_IP.equals(ipRange.getType())) {
+                if (ipRange.getFixedIp() == null) {
+                    continue;
+                }
+                if (ipRange.isInvert()) {
+                    invertedFixedIps.add(ipRange.getFixedIp());
+                } else {
+                    fixedIps.add(ipRange.getFixedIp());
+                }
+            } else if (APIConstants.BLOCK_CONDITION_IP_RANGE.equals(ipRange.getType())) {
+                if (ipRange.getStartingIpBigIntValue() == null || ipRange.getEndingIpBigIntValue() == null) {
+                    log.warn("Ignoring incomplete IP range blocking condition " + ipRange.getId() + " of tenant "
+                            + ipRange.getTenantDomain());
+                    continue;
+                }
+                long[] start = toLongs(ipRange.getStartingIpBigIntValue());
+                long[] end = toLongs(ipRange.getEndingIpBigIntValue());
+                if (ipRange.isInvert()) {
+                    invertedRangesPresent = true;
+                    if (compare(start[0], start[1], allowedStart[0], allowedStart[1]) > 0) {
+                        allowedStart = start;
+                    }
+                    if (compare(end[0], end[1], allowedEnd[0], allowedEnd[1]) < 0) {
+                        allowedEnd = end;
+                    }
+                } else if (compare(start[0], start[1], end[0], end[1]) < 0) {
+                    ranges.add(new long[]{start[0], start[1], end[0], end[1]});
+                }
+            }
+        }
+        ranges.sort((first, second) -> compare(first[0], first[1], second[0], second[1]));
+        List<long[]> merged = new ArrayList<>(ranges.size());
+        for (long[] range : ranges) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            // Open intervals can only be merged when they overlap, as (a, b) and (b, c) both exclude b.
+            if (last != null && compare(range[0], range[1], last[2], last[3]) < 0) {
+                if (compare(range[2], range[3], last[2], last[3]) > 0) {
+                    last[2] = range[2];
+                    last[3] = range[3];
+                }
+            } else {
+                merged.add(range);
+            }
+        }
+        rangeStartHigh = new long[merged.size()];
+        rangeStartLow = new long[merged.size()];
+        rangeEndHigh = new long[merged.size()];
+        rangeEndLow = new long[merged.size()];
+        for (int i = 0; i < merged.size(); i++) {
+            long[] range = merged.get(i);
+            rangeStartHigh[i] = range[0];
+            rangeStartLow[i] = range[1];
+            rangeEndHigh[i] = range[2];
+            rangeEndLow[i] = range[3];
+        }
+        blockedIps = fixedIps;
+        allowedIps = invertedFixedIps;
+        hasInvertedRanges = invertedRangesPresent;
+        allowedStartHigh = allowedStart[0];
+        allowedStartLow = allowedStart[1];
+        allowedEndHigh = allowedEnd[0];
+        allowedEndLow = allowedEnd[1];
+        empty = blockedIps.isEmpty() && allowedIps.isEmpty() && merged.isEmpty() && !hasInvertedRanges;
+    }
+
+    /**
+     * Checks whether the given client IP is blocked by any of the conditions of this index.
+     *
+     * @param ip client IP of the request
+     * @return true if the request should be blocked
+     */
+    public boolean isBlocked(String ip) {
+
+        if (empty) {
+            return false;
+        }
+        if (blockedIps.contains(ip)) {
+            return true;
+        }
+        // An inverted fixed IP blocks every other IP, hence two distinct inverted IPs block all requests.
+        if (allowedIps.size() > 1 || (allowedIps.size() == 1 && !allowedIps.contains(ip))) {
+            return true;
+        }
+        if (rangeStartHigh.length == 0 && !hasInvertedRanges) {
+            return false;
+        }
+        long[] address = parse(ip);
+        long high = address[0];
+        long low = address[1];
+        if (hasInvertedRanges && (compare(high, low, allowedStartHigh, allowedStartLow) <= 0
+                || compare(high, low, allowedEndHigh, allowedEndLow) >= 0)) {
+            return true;
+        }
+        // Find the last interval starting before the address.
+        int lowIndex = 0;
+        int highIndex = rangeStartHigh.length - 1;
+        int candidate = -1;
+        while (lowIndex <= highIndex) {
+            int mid = (lowIndex + highIndex) >>> 1;
+            if (compare(rangeStartHigh[mid], rangeStartLow[mid], high, low) < 0) {
+                candidate = mid;
+                lowIndex = mid + 1;
+            } else {
+                highIndex = mid - 1;
+            }
+        }
+        return candidate >= 0 && compare(high, low, rangeEndHigh[candidate], rangeEndLow[candidate]) < 0;
+    }
+
+    boolean isEmpty() {
+
+        return empty;
+    }
+
+    private static int compare(long firstHigh, long firstLow, long secondHigh, long secondLow) {
+
+        int result = Long.compareUnsigned(firstHigh, secondHigh);
+        if (result != 0) {
+            return result;
+        }
+        return Long.compareUnsigned(firstLow, secondLow);
+    }
+
+    private static long[] toLongs(BigInteger value) {
+
+        return new long[]{value.shiftRight(Long.SIZE).longValue(), value.longValue()};
+    }
+
+    /**
+     * Converts the given IP to its numeric form. Dotted IPv4 addresses are parsed without going through
+     * {@link java.net.InetAddress}. Unparsable addresses map to zero, in line with {@link APIUtil#ipToBigInteger}.
+     */
+    static long[] parse(String ip) {
+
+        long ipv4 = parseIPv4(ip);
+        if (ipv4 >= 0) {
+            return new long[]{0L, ipv4};
+        }
+        try {
+            byte[] bytes = APIUtil.getAddress(ip).getAddress();
+            long high = 0L;
+            long low = 0L;
+            int lowStart = Math.max(0, bytes.length - 8);
+            for (int i = 0; i < lowStart; i++) {
+                high = (high << 8) | (bytes[i] & 0xFF);
+            }
+            for (int i = lowStart; i < bytes.length; i++) {
+                low = (low << 8) | (bytes[i] & 0xFF);
+            }
+            return new long[]{high, low};
+        } catch (UnknownHostException e) {
+            log.error("Error while parsing host IP " + ip, e);
+        }
+        return new long[]{0L, 0L};
+    }
+
+    private static long parseIPv4(String ip) {
+
+        if (ip == null || ip.isEmpty()) {
+            return -1;
+        }
+        long value = 0;
+        int octet = -1;
+        int dots = 0;
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && dots < 3) {
+                value = (value << 8) | octet;
+                octet = -1;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+        if (dots != 3 || octet < 0) {
+            return -1;
+        }
+        return (value << 8) | octet;
+    }
+}
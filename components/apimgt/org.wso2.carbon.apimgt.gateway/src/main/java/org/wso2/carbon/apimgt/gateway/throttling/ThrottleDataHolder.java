@@ -25,17 +25,20 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.apimgt.gateway.dto.IPRange;
+import org.wso2.carbon.apimgt.gateway.handlers.throttling.ThrottleConditionPlanCache;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dto.ConditionDto;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 
-import java.math.BigInteger;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * This class will hold throttle data per given node. All throttle handler objects should refer values from this.
@@ -46,13 +49,16 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ThrottleDataHolder {
 
     private static final Log log = LogFactory.getLog(ThrottleDataHolder.class);
+    private static final Pattern KEY_TEMPLATE_PLACEHOLDER = Pattern.compile("\\$([\\w.-]+)");
     private Map<String, String> blockedAPIConditionsMap = new ConcurrentHashMap<String, String>();
     private Map<String, String> blockedApplicationConditionsMap = new ConcurrentHashMap<String, String>();
     private Map<String, String> blockedUserConditionsMap = new ConcurrentHashMap<String, String>();
     private Map<String, Set<IPRange>> blockedIpConditionsMap = new ConcurrentHashMap<>();
+    private Map<String, IPBlockingIndex> ipBlockingIndexMap = new ConcurrentHashMap<>();
     private Map<String, String> keyTemplateMap = new ConcurrentHashMap<String, String>();
     private boolean isBlockingConditionsPresent = true;
     private boolean isKeyTemplatesPresent = false;
+    private volatile Set<String> keyTemplatePlaceholders = Collections.emptySet();
     private Map<String, Long> throttleDataMap = new ConcurrentHashMap<String, Long>();
     private Map<String,Long> throttledAPIKeysMap = new ConcurrentHashMap<String, Long>();
     private Map<String, Map<String, List<ConditionDto>>> conditionDtoMap = new ConcurrentHashMap<>();
@@ -79,6 +85,7 @@ public class ThrottleDataHolder {
             conditionDtoMap.put(key, conditionMap);
         }
         if (!conditionMap.containsKey(conditionKey)) {
+            ThrottleConditionPlanCache.getInstance().compile(conditionValue);
             conditionMap.put(conditionKey, conditionValue);
         }
     }
@@ -86,7 +93,7 @@ public class ThrottleDataHolder {
     public void removeThrottledApiConditions(String key, String conditionKey) {
         if (conditionDtoMap.containsKey(key)) {
             Map<String, List<ConditionDto>> conditionMap = conditionDtoMap.get(key);
-            conditionMap.remove(conditionKey);
+            ThrottleConditionPlanCache.getInstance().invalidate(conditionMap.remove(conditionKey));
             if (conditionMap.isEmpty()) {
                 conditionDtoMap.remove(key);
             }
@@ -120,7 +127,12 @@ public class ThrottleDataHolder {
                 return isThrottled;
             } else {
                 this.throttledAPIKeysMap.remove(apiKey);
-                this.conditionDtoMap.remove(apiKey);
+                Map<String, List<ConditionDto>> conditionMap = this.conditionDtoMap.remove(apiKey);
+                if (conditionMap != null) {
+                    for (List<ConditionDto> conditions : conditionMap.values()) {
+                        ThrottleConditionPlanCache.getInstance().invalidate(conditions);
+                    }
+                }
                 return false;
             }
         } else {
@@ -153,15 +165,34 @@ public class ThrottleDataHolder {
         blockedUserConditionsMap.put(name, value);
     }
 
-    public void addIpBlockingCondition(String tenantDomain, int conditionId, String value, String type) {
+    public synchronized void addIpBlockingCondition(String tenantDomain, int conditionId, String value, String type) {
 
-        Set<IPRange> ipRanges = blockedIpConditionsMap.get(tenantDomain);
-        if (ipRanges == null){
-            ipRanges = new HashSet<>();
+        Set<IPRange> ipRanges = new HashSet<>();
+        Set<IPRange> existingIpRanges = blockedIpConditionsMap.get(tenantDomain);
+        if (existingIpRanges != null) {
+            ipRanges.addAll(existingIpRanges);
         }
 
         ipRanges.add(convertValueToIPRange(tenantDomain, conditionId, value, type));
-        blockedIpConditionsMap.put(tenantDomain, ipRanges);
+        updateIpBlockingConditions(tenantDomain, ipRanges);
+    }
+
+    /**
+     * Replaces the IP blocking conditions of a tenant along with the lookup index built from them. The given set is
+     * never modified afterwards, so the request path can read the index without any locking.
+     *
+     * @param tenantDomain tenant domain of the blocking conditions
+     * @param ipRanges     complete set of IP blocking conditions of the tenant
+     */
+    private void updateIpBlockingConditions(String tenantDomain, Set<IPRange> ipRanges) {
+
+        if (ipRanges.isEmpty()) {
+            blockedIpConditionsMap.remove(tenantDomain);
+            ipBlockingIndexMap.remove(tenantDomain);
+        } else {
+            blockedIpConditionsMap.put(tenantDomain, Collections.unmodifiableSet(ipRanges));
+            ipBlockingIndexMap.put(tenantDomain, new IPBlockingIndex(ipRanges));
+        }
     }
 
     private IPRange convertValueToIPRange(String tenantDomain, int conditionId, String value, String type) {
@@ -200,9 +231,9 @@ public class ThrottleDataHolder {
         }
     }
 
-    public void addIplockingConditionsFromMap(Map<String, Set<IPRange>> data) {
-        if(data.size() > 0) {
-            blockedIpConditionsMap.putAll(data);
+    public synchronized void addIplockingConditionsFromMap(Map<String, Set<IPRange>> data) {
+        for (Map.Entry<String, Set<IPRange>> ipRanges : data.entrySet()) {
+            updateIpBlockingConditions(ipRanges.getKey(), new HashSet<>(ipRanges.getValue()));
         }
     }
 
@@ -231,15 +262,17 @@ public class ThrottleDataHolder {
         blockedUserConditionsMap.remove(name);
     }
 
-    public void removeIpBlockingCondition(String tenantDomain, int conditionId) {
+    public synchronized void removeIpBlockingCondition(String tenantDomain, int conditionId) {
 
-        Set<IPRange> ipRanges = blockedIpConditionsMap.get(tenantDomain);
-        if (ipRanges != null) {
+        Set<IPRange> existingIpRanges = blockedIpConditionsMap.get(tenantDomain);
+        if (existingIpRanges != null) {
+            Set<IPRange> ipRanges = new HashSet<>(existingIpRanges);
             Iterator<IPRange> iterator = ipRanges.iterator();
             while (iterator.hasNext()) {
                 IPRange ipRange = iterator.next();
                 if (ipRange.getId() == conditionId) {
                     iterator.remove();
+                    updateIpBlockingConditions(tenantDomain, ipRanges);
                     break;
                 }
             }
@@ -249,12 +282,14 @@ public class ThrottleDataHolder {
     public void addKeyTemplate(String key, String value) {
         keyTemplateMap.put(key, value);
         isKeyTemplatesPresent = true;
+        updateKeyTemplatePlaceholders();
     }
 
     public void addKeyTemplateFromMap(Map<String, String> data) {
         if(data.size() > 0) {
             keyTemplateMap.putAll(data);
             isKeyTemplatesPresent = true;
+            updateKeyTemplatePlaceholders();
         }
     }
 
@@ -265,6 +300,26 @@ public class ThrottleDataHolder {
         } else {
             isKeyTemplatesPresent = false;
         }
+        updateKeyTemplatePlaceholders();
+    }
+
+    /**
+     * Returns the names of the placeholders, such as {@code userId} in {@code $userId:$apiContext}, used by the
+     * deployed key templates.
+     */
+    public Set<String> getKeyTemplatePlaceholders() {
+        return keyTemplatePlaceholders;
+    }
+
+    private synchronized void updateKeyTemplatePlaceholders() {
+        Set<String> placeholders = new HashSet<>();
+        for (String keyTemplate : keyTemplateMap.keySet()) {
+            Matcher matcher = KEY_TEMPLATE_PLACEHOLDER.matcher(keyTemplate);
+            while (matcher.find()) {
+                placeholders.add(matcher.group(1));
+            }
+        }
+        keyTemplatePlaceholders = Collections.unmodifiableSet(placeholders);
     }
 
     public Map<String, String> getKeyTemplateMap() {
@@ -282,39 +337,12 @@ public class ThrottleDataHolder {
 
     private boolean isIpLevelBlocked(String apiTenantDomain, String ip) {
 
-        Set<IPRange> ipRanges = blockedIpConditionsMap.get(apiTenantDomain);
-        if (ipRanges != null && ipRanges.size() > 0) {
-            log.debug("Tenant " + apiTenantDomain + " contains block conditions");
-            for (IPRange ipRange : ipRanges) {
-                if (APIConstants.BLOCKING_CONDITIONS_IP.equals(ipRange.getType())) {
-                    if (ip.equals(ipRange.getFixedIp())) {
-                        if (!ipRange.isInvert()) {
-                            log.debug("Block IP selected for Blocked");
-                            return true;
-                        }
-                    } else {
-                        if (ipRange.isInvert()) {
-                            log.debug("Block IP selected for Blocked");
-                            return true;
-                        }
-                    }
-                } else if (APIConstants.BLOCK_CONDITION_IP_RANGE.equals(ipRange.getType())) {
-                    BigInteger ipBigIntegerValue = APIUtil.ipToBigInteger(ip);
-
-                    if (((ipBigIntegerValue.compareTo(ipRange.getStartingIpBigIntValue()) > 0) &&
-                            (ipBigIntegerValue.compareTo(ipRange.getEndingIpBigIntValue()) < 0))) {
-                        if (!ipRange.isInvert()) {
-                            log.debug("Block IPRange selected for Blocked");
-                            return true;
-                        }
-                    } else {
-                        if (ipRange.isInvert()) {
-                            log.debug("Block IPRange selected for Blocked");
-                            return true;
-                        }
-                    }
-                }
+        IPBlockingIndex ipBlockingIndex = ipBlockingIndexMap.get(apiTenantDomain);
+        if (ipBlockingIndex != null && ipBlockingIndex.isBlocked(ip)) {
+            if (log.isDebugEnabled()) {
+                log.debug("IP " + ip + " of tenant " + apiTenantDomain + " selected for Blocked");
             }
+            return true;
         }
         return false;
     }
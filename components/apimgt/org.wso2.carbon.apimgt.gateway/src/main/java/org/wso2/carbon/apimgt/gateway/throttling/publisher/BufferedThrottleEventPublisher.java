@@ -0,0 +1,546 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.apache.axiom.soap.SOAPBody;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.MessageContext;
+import org.apache.synapse.core.axis2.Axis2MessageContext;
+import org.apache.synapse.transport.nhttp.NhttpConstants;
+import org.apache.synapse.transport.passthru.util.RelayUtils;
+import org.json.simple.JSONObject;
+import org.wso2.carbon.apimgt.api.dto.ConditionDTO;
+import org.wso2.carbon.apimgt.api.dto.ConditionGroupDTO;
+import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
+import org.wso2.carbon.apimgt.common.gateway.util.JWTUtil;
+import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
+import org.wso2.carbon.apimgt.gateway.handlers.throttling.APIThrottleConstants;
+import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.gateway.throttling.ThrottleDataHolder;
+import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
+import org.wso2.carbon.apimgt.impl.dto.VerbInfoDTO;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes throttle events to the traffic manager through a bounded buffer drained by a single publisher thread.
+ * <p>
+ * Unlike the {@link DataProcessAndPublishingAgent} based flow, the request thread only captures a
+ * {@link ThrottleEvent} holding the same attributes, and hands it over to the buffer. The publisher thread drains the
+ * buffer in batches, builds the databridge events and publishes them. When the traffic manager slows down and the
+ * buffer fills up, new events are dropped instead of piling up in an unbounded queue; the number of dropped events is
+ * exposed for monitoring.
+ * <p>
+ * Only the transport headers the traffic manager may evaluate are captured: those referenced by the header conditions
+ * of the invoked resource and, when custom policies are deployed, those referenced by their key templates and the
+ * configured custom policy headers. All headers are captured when publishing all headers is configured.
+ * <p>
+ * When event merging is enabled, the events of a batch which publish exactly the same attributes are merged into a
+ * single event carrying the number of requests it represents in the {@code requestCount} property, as done by the
+ * {@link ThrottleEventAggregator}. Otherwise each event of the batch is published on its own.
+ */
+public class BufferedThrottleEventPublisher {
+
+    private static final Log log = LogFactory.getLog(BufferedThrottleEventPublisher.class);
+    private static final String STREAM_ID = "org.wso2.throttle.request.stream:1.0.0";
+    private static final long DROP_LOG_FREQUENCY = 10000;
+    /**
+     * Placeholders of key templates which are resolved from the request attributes rather than from its headers.
+     */
+    private static final Set<String> KEY_TEMPLATE_ATTRIBUTES = new HashSet<>(Arrays.asList("resourceKey", "userId",
+            "apiContext", "apiVersion", "appTenant", "apiTenant", "appId", "clientIp"));
+
+    private final BlockingQueue<ThrottleEvent> buffer;
+    private final int batchSize;
+    private final long flushInterval;
+    private final AtomicLong acceptedEventCount = new AtomicLong();
+    private final AtomicLong droppedEventCount = new AtomicLong();
+    private final AtomicLong publishedEventCount = new AtomicLong();
+    private final AtomicLong failedEventCount = new AtomicLong();
+    private final boolean mergeEvents;
+    private final boolean publishAllHeaders;
+    private final String[] customPolicyHeaders;
+    private final Thread publisherThread;
+    private volatile boolean running = true;
+
+    public BufferedThrottleEventPublisher(ThrottleProperties.DataPublisherEventBuffer eventBufferConfiguration) {
+
+        this(eventBufferConfiguration, false);
+    }
+
+    /**
+     * @param eventBufferConfiguration configuration of the event buffer
+     * @param mergeEvents              whether to merge the events of a batch publishing the same attributes. Only
+     *                                 to be enabled when the traffic manager counts requests through the
+     *                                 {@code requestCount} property
+     */
+    public BufferedThrottleEventPublisher(ThrottleProperties.DataPublisherEventBuffer eventBufferConfiguration,
+                                          boolean mergeEvents) {
+
+        this.mergeEvents = mergeEvents;
+        this.publishAllHeaders = eventBufferConfiguration.isPublishAllHeaders();
+        this.customPolicyHeaders = eventBufferConfiguration.getCustomPolicyHeaders();
+        this.buffer = new ArrayBlockingQueue<>(eventBufferConfiguration.getSize());
+        this.batchSize = Math.max(1, eventBufferConfiguration.getBatchSize());
+        this.flushInterval = Math.max(1, eventBufferConfiguration.getFlushInterval());
+        this.publisherThread = new Thread(this::publishEvents, "ThrottleEventPublisher");
+        this.publisherThread.setDaemon(true);
+    }
+
+    public void start() {
+
+        publisherThread.start();
+    }
+
+    /**
+     * Captures the attributes of the current request needed by the traffic manager and adds them to the buffer.
+     * Never blocks; if the buffer is full, the event is dropped.
+     *
+     * @return true if the event was added to the buffer
+     */
+    public boolean publish(String applicationLevelThrottleKey, String applicationLevelTier,
+                           String apiLevelThrottleKey, String apiLevelTier,
+                           String subscriptionLevelThrottleKey, String subscriptionLevelTier,
+                           String resourceLevelThrottleKey, String resourceLevelTier,
+                           String authorizedUser, String apiContext, String apiVersion, String appTenant,
+                           String apiTenant, String appId, MessageContext messageContext,
+                           AuthenticationContext authenticationContext) {
+
+        ThrottleEvent event = capture(applicationLevelThrottleKey, applicationLevelTier, apiLevelThrottleKey,
+                apiLevelTier, subscriptionLevelThrottleKey, subscriptionLevelTier, resourceLevelThrottleKey,
+                resourceLevelTier, authorizedUser, apiContext, apiVersion, appTenant, apiTenant, appId,
+                messageContext, authenticationContext);
+        return offer(event);
+    }
+
+    boolean offer(ThrottleEvent event) {
+
+        if (running && buffer.offer(event)) {
+            acceptedEventCount.incrementAndGet();
+            return true;
+        }
+        long dropped = droppedEventCount.incrementAndGet();
+        if (dropped % DROP_LOG_FREQUENCY == 1) {
+            log.warn("Throttle event buffer is full. " + dropped + " throttle events have been dropped so far.");
+        }
+        return false;
+    }
+
+    ThrottleEvent capture(String applicationLevelThrottleKey, String applicationLevelTier,
+                          String apiLevelThrottleKey, String apiLevelTier,
+                          String subscriptionLevelThrottleKey, String subscriptionLevelTier,
+                          String resourceLevelThrottleKey, String resourceLevelTier,
+                          String authorizedUser, String apiContext, String apiVersion, String appTenant,
+                          String apiTenant, String appId, MessageContext messageContext,
+                          AuthenticationContext authenticationContext) {
+
+        if (!StringUtils.isEmpty(apiLevelTier)) {
+            resourceLevelTier = apiLevelTier;
+            resourceLevelThrottleKey = apiLevelThrottleKey;
+        }
+        org.apache.axis2.context.MessageContext axis2MessageContext = ((Axis2MessageContext) messageContext)
+                .getAxis2MessageContext();
+        Map<String, String> transportHeaderMap = (Map<String, String>) axis2MessageContext
+                .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
+        List<VerbInfoDTO> verbInfoList = (List<VerbInfoDTO>) messageContext.getProperty(APIConstants.VERB_INFO_DTO);
+        ThrottleProperties throttleProperties = getThrottleProperties();
+
+        ThrottleEvent.Builder builder = new ThrottleEvent.Builder()
+                .messageId(messageContext.getMessageID())
+                .applicationLevel(applicationLevelThrottleKey, applicationLevelTier)
+                .apiLevel(apiLevelThrottleKey, apiLevelTier)
+                .subscriptionLevel(subscriptionLevelThrottleKey, subscriptionLevelTier)
+                .resourceLevel(resourceLevelThrottleKey, resourceLevelTier)
+                .authorizedUser(authorizedUser)
+                .api(apiContext, apiVersion, GatewayUtils.getAPINameFromContextAndVersion(messageContext))
+                .tenants(appTenant, apiTenant)
+                .appId(appId)
+                .ipAddress(GatewayUtils.getIp(axis2MessageContext));
+
+        if (throttleProperties.isEnableHeaderConditions() && transportHeaderMap != null) {
+            if (publishAllHeaders) {
+                builder.headers(new HashMap<>(transportHeaderMap));
+            } else {
+                builder.headers(getRequiredHeaders(transportHeaderMap, verbInfoList, getThrottleDataHolder()));
+            }
+        }
+        Object customProperty = messageContext.getProperty(APIThrottleConstants.CUSTOM_PROPERTY);
+        if (customProperty instanceof Map && !((Map) customProperty).isEmpty()) {
+            builder.customProperties(new HashMap<>((Map<String, Object>) customProperty));
+        }
+        if (throttleProperties.isEnableQueryParamConditions()) {
+            builder.queryString((String) axis2MessageContext.getProperty(NhttpConstants.REST_URL_POSTFIX));
+        }
+        if (throttleProperties.isEnableJwtConditions()) {
+            builder.callerToken(authenticationContext.getCallerToken());
+        }
+
+        boolean isVerbInfoContentAware = verbInfoList != null && !verbInfoList.isEmpty()
+                && verbInfoList.get(0).isContentAware();
+        if (authenticationContext.isContentAwareTierPresent() || isVerbInfoContentAware) {
+            String subscriptionType = APIConstants.API_SUBSCRIPTION_TYPE;
+            if (!StringUtils.isEmpty(authenticationContext.getProductName()) && !StringUtils
+                    .isEmpty(authenticationContext.getProductProvider())) {
+                subscriptionType = APIConstants.API_PRODUCT_SUBSCRIPTION_TYPE;
+            }
+            builder.contentAware(getMessageSize(messageContext, axis2MessageContext, transportHeaderMap),
+                    authenticationContext.getApplicationName(), subscriptionType);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the headers of the request referenced by the header conditions of the invoked resource, and when custom
+     * policies are deployed, by their key templates and the configured custom policy headers.
+     */
+    Map<String, String> getRequiredHeaders(Map<String, String> transportHeaderMap, List<VerbInfoDTO> verbInfoList,
+                                           ThrottleDataHolder throttleDataHolder) {
+
+        Map<String, String> headers = null;
+        if (verbInfoList != null) {
+            for (VerbInfoDTO verbInfoDTO : verbInfoList) {
+                ConditionGroupDTO[] conditionGroups = verbInfoDTO.getConditionGroups();
+                if (conditionGroups == null) {
+                    continue;
+                }
+                for (ConditionGroupDTO conditionGroup : conditionGroups) {
+                    if (conditionGroup.getConditions() == null) {
+                        continue;
+                    }
+                    for (ConditionDTO condition : conditionGroup.getConditions()) {
+                        if (PolicyConstants.HEADER_TYPE.equals(condition.getConditionType())) {
+                            headers = addHeader(headers, transportHeaderMap, condition.getConditionName());
+                        }
+                    }
+                }
+            }
+        }
+        if (throttleDataHolder != null && throttleDataHolder.isKeyTemplatesPresent()) {
+            for (String placeholder : throttleDataHolder.getKeyTemplatePlaceholders()) {
+                if (!KEY_TEMPLATE_ATTRIBUTES.contains(placeholder)) {
+                    headers = addHeader(headers, transportHeaderMap, placeholder);
+                }
+            }
+            for (String customPolicyHeader : customPolicyHeaders) {
+                headers = addHeader(headers, transportHeaderMap, customPolicyHeader);
+            }
+        }
+        return headers;
+    }
+
+    private static Map<String, String> addHeader(Map<String, String> headers, Map<String, String> transportHeaderMap,
+                                                 String name) {
+
+        String value = transportHeaderMap.get(name);
+        if (value != null) {
+            if (headers == null) {
+                headers = new HashMap<>();
+            }
+            headers.put(name, value);
+        }
+        return headers;
+    }
+
+    private long getMessageSize(MessageContext messageContext,
+                                org.apache.axis2.context.MessageContext axis2MessageContext,
+                                Map<String, String> transportHeaderMap) {
+
+        Object contentLength = null;
+        if (transportHeaderMap != null) {
+            contentLength = transportHeaderMap.get(APIThrottleConstants.CONTENT_LENGTH);
+        }
+        if (contentLength != null) {
+            return Long.parseLong(contentLength.toString());
+        }
+        try {
+            RelayUtils.buildMessage(axis2MessageContext);
+        } catch (Exception ex) {
+            //In case of any exception, it won't be propagated up,and set response size to 0
+            log.error("Error occurred while building the message to calculate the response body size", ex);
+        }
+        SOAPEnvelope env = messageContext.getEnvelope();
+        if (env != null) {
+            SOAPBody soapbody = env.getBody();
+            if (soapbody != null) {
+                return soapbody.toString().getBytes(Charset.defaultCharset()).length;
+            }
+        }
+        return 0;
+    }
+
+    private void publishEvents() {
+
+        List<ThrottleEvent> batch = new ArrayList<>(batchSize);
+        JSONObject properties = new JSONObject();
+        while (running || !buffer.isEmpty()) {
+            try {
+                ThrottleEvent first = buffer.poll(flushInterval, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                publishBatch(batch, properties);
+            } catch (InterruptedException e) {
+                if (running) {
+                    log.warn("Throttle event publisher thread interrupted", e);
+                }
+            } catch (Throwable e) {
+                log.error("Error while publishing throttling events to global policy server", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publishBatch(List<ThrottleEvent> batch, JSONObject properties) {
+
+        DataPublisher dataPublisher = getDataPublisher();
+        if (dataPublisher == null) {
+            failedEventCount.addAndGet(batch.size());
+            return;
+        }
+        if (mergeEvents) {
+            publishMergedBatch(dataPublisher, batch);
+        } else {
+            for (ThrottleEvent throttleEvent : batch) {
+                properties.clear();
+                if (dataPublisher.tryPublish(toDatabridgeEvent(throttleEvent, properties))) {
+                    publishedEventCount.incrementAndGet();
+                } else {
+                    failedEventCount.incrementAndGet();
+                }
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Published a batch of " + batch.size() + " throttle events. Buffered events : "
+                    + buffer.size());
+        }
+    }
+
+    /**
+     * Publishes one event for each set of events in the batch publishing the same attributes, other than the message
+     * ID and the message size.
+     */
+    private void publishMergedBatch(DataPublisher dataPublisher, List<ThrottleEvent> batch) {
+
+        Map<List<Object>, MergedEvent> mergedEvents = new LinkedHashMap<>();
+        for (ThrottleEvent throttleEvent : batch) {
+            JSONObject properties = new JSONObject();
+            addProperties(throttleEvent, properties);
+            Object messageSize = properties.remove(APIThrottleConstants.MESSAGE_SIZE);
+            List<Object> key = Arrays.asList(throttleEvent.getApplicationLevelThrottleKey(),
+                    throttleEvent.getApplicationLevelTier(), throttleEvent.getApiLevelThrottleKey(),
+                    throttleEvent.getApiLevelTier(), throttleEvent.getSubscriptionLevelThrottleKey(),
+                    throttleEvent.getSubscriptionLevelTier(), throttleEvent.getResourceLevelThrottleKey(),
+                    throttleEvent.getResourceLevelTier(), throttleEvent.getAuthorizedUser(),
+                    throttleEvent.getApiContext(), throttleEvent.getApiVersion(), throttleEvent.getAppTenant(),
+                    throttleEvent.getApiTenant(), throttleEvent.getAppId(), throttleEvent.getApiName(), properties);
+            MergedEvent mergedEvent = mergedEvents.get(key);
+            if (mergedEvent == null) {
+                mergedEvent = new MergedEvent(throttleEvent, properties);
+                mergedEvents.put(key, mergedEvent);
+            }
+            mergedEvent.requestCount++;
+            if (messageSize != null) {
+                mergedEvent.messageSize += ((Number) messageSize).longValue();
+            }
+        }
+        for (MergedEvent mergedEvent : mergedEvents.values()) {
+            JSONObject properties = new JSONObject();
+            properties.putAll(mergedEvent.properties);
+            if (mergedEvent.requestCount > 1) {
+                properties.put(APIThrottleConstants.REQUEST_COUNT, mergedEvent.requestCount);
+            }
+            if (mergedEvent.first.isContentAware()) {
+                properties.put(APIThrottleConstants.MESSAGE_SIZE, mergedEvent.messageSize);
+            }
+            if (dataPublisher.tryPublish(createEvent(mergedEvent.first, properties))) {
+                publishedEventCount.addAndGet(mergedEvent.requestCount);
+            } else {
+                failedEventCount.addAndGet(mergedEvent.requestCount);
+            }
+        }
+    }
+
+    Event toDatabridgeEvent(ThrottleEvent throttleEvent, JSONObject properties) {
+
+        addProperties(throttleEvent, properties);
+        return createEvent(throttleEvent, properties);
+    }
+
+    private void addProperties(ThrottleEvent throttleEvent, JSONObject properties) {
+
+        String ipAddress = throttleEvent.getIpAddress();
+        if (ipAddress != null && ipAddress.length() > 0) {
+            if (ipAddress.contains(":") && ipAddress.split(":").length == 2) {
+                ipAddress = ipAddress.split(":")[0];
+            }
+            try {
+                InetAddress address = APIUtil.getAddress(ipAddress);
+                if (address instanceof Inet4Address) {
+                    properties.put(APIThrottleConstants.IP, APIUtil.ipToLong(ipAddress));
+                    properties.put(APIThrottleConstants.IPv6, 0);
+                } else if (address instanceof Inet6Address) {
+                    properties.put(APIThrottleConstants.IPv6, APIUtil.ipToBigInteger(ipAddress));
+                    properties.put(APIThrottleConstants.IP, 0);
+                }
+            } catch (UnknownHostException e) {
+                //send empty value as ip
+                log.error("Error while parsing host IP " + ipAddress, e);
+                properties.put(APIThrottleConstants.IPv6, 0);
+                properties.put(APIThrottleConstants.IP, 0);
+            }
+        }
+        if (throttleEvent.getHeaders() != null) {
+            properties.putAll(throttleEvent.getHeaders());
+        }
+        if (throttleEvent.getCustomProperties() != null) {
+            properties.putAll(throttleEvent.getCustomProperties());
+        }
+        Map<String, String> queryParams = GatewayUtils.getQueryParams(throttleEvent.getQueryString());
+        if (queryParams != null) {
+            properties.putAll(queryParams);
+        }
+        if (throttleEvent.getCallerToken() != null) {
+            Map<String, String> assertions = JWTUtil.getJWTClaims(throttleEvent.getCallerToken());
+            if (assertions != null) {
+                properties.putAll(assertions);
+            }
+        }
+        if (throttleEvent.isContentAware()) {
+            properties.put(APIThrottleConstants.MESSAGE_SIZE, throttleEvent.getMessageSizeInBytes());
+            if (!StringUtils.isEmpty(throttleEvent.getApplicationName())) {
+                properties.put(APIThrottleConstants.APPLICATION_NAME, throttleEvent.getApplicationName());
+            }
+            properties.put(APIThrottleConstants.SUBSCRIPTION_TYPE, throttleEvent.getSubscriptionType());
+        }
+    }
+
+    private Event createEvent(ThrottleEvent throttleEvent, JSONObject properties) {
+
+        Object[] payload = new Object[]{throttleEvent.getMessageId(),
+                throttleEvent.getApplicationLevelThrottleKey(), throttleEvent.getApplicationLevelTier(),
+                throttleEvent.getApiLevelThrottleKey(), throttleEvent.getApiLevelTier(),
+                throttleEvent.getSubscriptionLevelThrottleKey(), throttleEvent.getSubscriptionLevelTier(),
+                throttleEvent.getResourceLevelThrottleKey(), throttleEvent.getResourceLevelTier(),
+                throttleEvent.getAuthorizedUser(), throttleEvent.getApiContext(), throttleEvent.getApiVersion(),
+                throttleEvent.getAppTenant(), throttleEvent.getApiTenant(), throttleEvent.getAppId(),
+                throttleEvent.getApiName(), properties.toString()};
+        return new Event(STREAM_ID, throttleEvent.getTimestamp(), null, null, payload);
+    }
+
+    /**
+     * Stops accepting new events and publishes the events remaining in the buffer.
+     */
+    public void shutdown() {
+
+        running = false;
+        publisherThread.interrupt();
+        try {
+            publisherThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!buffer.isEmpty()) {
+            log.warn(buffer.size() + " throttle events were not published before shutting down the publisher");
+        }
+    }
+
+    public long getAcceptedEventCount() {
+
+        return acceptedEventCount.get();
+    }
+
+    public long getDroppedEventCount() {
+
+        return droppedEventCount.get();
+    }
+
+    public long getPublishedEventCount() {
+
+        return publishedEventCount.get();
+    }
+
+    public long getFailedEventCount() {
+
+        return failedEventCount.get();
+    }
+
+    public int getBufferedEventCount() {
+
+        return buffer.size();
+    }
+
+    protected ThrottleProperties getThrottleProperties() {
+
+        return ServiceReferenceHolder.getInstance().getThrottleProperties();
+    }
+
+    protected ThrottleDataHolder getThrottleDataHolder() {
+
+        return ServiceReferenceHolder.getInstance().getThrottleDataHolder();
+    }
+
+    protected DataPublisher getDataPublisher() {
+
+        return ThrottleDataPublisher.getDataPublisher();
+    }
+
+    /**
+     * Events of a batch publishing the same attributes.
+     */
+    private static final class MergedEvent {
+
+        private final ThrottleEvent first;
+        private final Map<Object, Object> properties;
+        private long requestCount;
+        private long messageSize;
+
+        private MergedEvent(ThrottleEvent first, Map<Object, Object> properties) {
+
+            this.first = first;
+            this.properties = properties;
+        }
+    }
+}
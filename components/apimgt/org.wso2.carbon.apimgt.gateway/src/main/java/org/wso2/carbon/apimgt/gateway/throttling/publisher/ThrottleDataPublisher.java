@@ -57,6 +57,10 @@ public class ThrottleDataPublisher {
 
     Executor executor;
 
+    private BufferedThrottleEventPublisher bufferedEventPublisher;
+
+    private ThrottleEventAggregator eventAggregator;
+
     /**
      * This method will initialize throttle data publisher. Inside this we will start executor and initialize data
      * publisher which we used to publish throttle data.
@@ -67,22 +71,44 @@ public class ThrottleDataPublisher {
             ThrottleProperties.DataPublisher dataPublisherConfiguration = ServiceReferenceHolder.getInstance()
                     .getThrottleProperties().getDataPublisher();
             if (dataPublisherConfiguration != null && dataPublisherConfiguration.isEnabled()) {
-                dataPublisherPool = ThrottleDataPublisherPool.getInstance();
+                ThrottleProperties.DataPublisherEventBuffer eventBufferConfiguration = throttleProperties
+                        .getDataPublisherEventBuffer();
+                boolean eventBufferEnabled = eventBufferConfiguration != null && eventBufferConfiguration.isEnabled();
+                if (!eventBufferEnabled) {
+                    dataPublisherPool = ThrottleDataPublisherPool.getInstance();
+                }
                 ThrottleProperties.DataPublisherThreadPool dataPublisherThreadPoolConfiguration = ServiceReferenceHolder
                         .getInstance().getThrottleProperties().getDataPublisherThreadPool();
 
                 try {
-                    executor = new DataPublisherThreadPoolExecutor(dataPublisherThreadPoolConfiguration.getCorePoolSize(),
-                            dataPublisherThreadPoolConfiguration.getMaximumPoolSize(), dataPublisherThreadPoolConfiguration
-                            .getKeepAliveTime(),
-                            TimeUnit
-                                    .SECONDS,
-                            new LinkedBlockingDeque<Runnable>() {
-                            });
+                    if (eventBufferEnabled) {
+                        // The traffic manager counts the requestCount property of the events when aggregation is
+                        // enabled, hence the buffered events publishing the same attributes can be merged as well.
+                        ThrottleProperties.DataPublisherEventAggregation aggregationConfiguration =
+                                throttleProperties.getDataPublisherEventAggregation();
+                        bufferedEventPublisher = new BufferedThrottleEventPublisher(eventBufferConfiguration,
+                                aggregationConfiguration != null && aggregationConfiguration.isEnabled());
+                    } else {
+                        executor = new DataPublisherThreadPoolExecutor(
+                                dataPublisherThreadPoolConfiguration.getCorePoolSize(),
+                                dataPublisherThreadPoolConfiguration.getMaximumPoolSize(),
+                                dataPublisherThreadPoolConfiguration.getKeepAliveTime(), TimeUnit.SECONDS,
+                                new LinkedBlockingDeque<Runnable>() {
+                                });
+                    }
                     dataPublisher = new DataPublisher(dataPublisherConfiguration.getType(), dataPublisherConfiguration
                             .getReceiverUrlGroup(), dataPublisherConfiguration.getAuthUrlGroup(), dataPublisherConfiguration
                             .getUsername(),
                             dataPublisherConfiguration.getPassword());
+                    if (bufferedEventPublisher != null) {
+                        bufferedEventPublisher.start();
+                    }
+                    ThrottleProperties.DataPublisherEventAggregation eventAggregationConfiguration =
+                            throttleProperties.getDataPublisherEventAggregation();
+                    if (eventAggregationConfiguration != null && eventAggregationConfiguration.isEnabled()) {
+                        eventAggregator = new ThrottleEventAggregator(eventAggregationConfiguration);
+                        eventAggregator.start();
+                    }
 
                 } catch (DataEndpointAgentConfigurationException e) {
                     log.error("Error in initializing binary data-publisher to send requests to global throttling engine " +
@@ -118,7 +144,22 @@ public class ThrottleDataPublisher {
             String appId, MessageContext messageContext,
             AuthenticationContext authenticationContext) {
         try {
-            if (dataPublisherPool != null) {
+            if (eventAggregator != null && eventAggregator.aggregate(applicationLevelThrottleKey,
+                    applicationLevelTier, apiLevelThrottleKey, apiLevelTier,
+                    subscriptionLevelThrottleKey, subscriptionLevelTier,
+                    resourceLevelThrottleKey, resourceLevelTier,
+                    authorizedUser, apiContext, apiVersion, appTenant, apiTenant, appId, messageContext,
+                    authenticationContext)) {
+                return;
+            }
+            if (bufferedEventPublisher != null) {
+                bufferedEventPublisher.publish(applicationLevelThrottleKey, applicationLevelTier,
+                        apiLevelThrottleKey, apiLevelTier,
+                        subscriptionLevelThrottleKey, subscriptionLevelTier,
+                        resourceLevelThrottleKey, resourceLevelTier,
+                        authorizedUser, apiContext, apiVersion, appTenant, apiTenant, appId, messageContext,
+                        authenticationContext);
+            } else if (dataPublisherPool != null) {
                 DataProcessAndPublishingAgent agent = dataPublisherPool.get();
                 agent.setDataReference(applicationLevelThrottleKey, applicationLevelTier,
                         apiLevelThrottleKey, apiLevelTier,
@@ -145,6 +186,37 @@ public class ThrottleDataPublisher {
         }
     }
 
+    /**
+     * Returns the buffered publisher used when the throttle event buffer is enabled.
+     *
+     * @return buffered event publisher or null if events are published through the data publisher thread pool
+     */
+    public BufferedThrottleEventPublisher getBufferedEventPublisher() {
+        return bufferedEventPublisher;
+    }
+
+    /**
+     * Returns the aggregator used when gateway side aggregation of throttle events is enabled.
+     *
+     * @return event aggregator or null if every request is published on its own
+     */
+    public ThrottleEventAggregator getEventAggregator() {
+        return eventAggregator;
+    }
+
+    /**
+     * Publishes the aggregated and buffered throttle events, if any, and stops the aggregator and the buffered
+     * event publisher.
+     */
+    public void shutdown() {
+        if (eventAggregator != null) {
+            eventAggregator.shutdown();
+        }
+        if (bufferedEventPublisher != null) {
+            bufferedEventPublisher.shutdown();
+        }
+    }
+
     /**
      * This class will act as thread pool executor and after executing each thread it will return runnable
      * object back to pool. This implementation specifically used to minimize number of objectes created during
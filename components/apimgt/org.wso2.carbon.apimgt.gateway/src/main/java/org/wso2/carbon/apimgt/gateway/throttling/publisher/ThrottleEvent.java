@@ -0,0 +1,361 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the request attributes published to the traffic manager for a non throttled request. The
+ * snapshot is captured on the request thread and only refers to values which are not modified afterwards, so that
+ * the expensive parts of building the event (JWT decoding, query parameter parsing, JSON encoding) can happen on the
+ * publisher thread.
+ */
+public class ThrottleEvent {
+
+    private final String messageId;
+    private final String applicationLevelThrottleKey;
+    private final String applicationLevelTier;
+    private final String apiLevelThrottleKey;
+    private final String apiLevelTier;
+    private final String subscriptionLevelThrottleKey;
+    private final String subscriptionLevelTier;
+    private final String resourceLevelThrottleKey;
+    private final String resourceLevelTier;
+    private final String authorizedUser;
+    private final String apiContext;
+    private final String apiVersion;
+    private final String appTenant;
+    private final String apiTenant;
+    private final String appId;
+    private final String apiName;
+    private final String ipAddress;
+    private final Map<String, String> headers;
+    private final Map<String, Object> customProperties;
+    private final String queryString;
+    private final String callerToken;
+    private final boolean contentAware;
+    private final long messageSizeInBytes;
+    private final String applicationName;
+    private final String subscriptionType;
+    private final long timestamp;
+
+    private ThrottleEvent(Builder builder) {
+
+        this.messageId = builder.messageId;
+        this.applicationLevelThrottleKey = builder.applicationLevelThrottleKey;
+        this.applicationLevelTier = builder.applicationLevelTier;
+        this.apiLevelThrottleKey = builder.apiLevelThrottleKey;
+        this.apiLevelTier = builder.apiLevelTier;
+        this.subscriptionLevelThrottleKey = builder.subscriptionLevelThrottleKey;
+        this.subscriptionLevelTier = builder.subscriptionLevelTier;
+        this.resourceLevelThrottleKey = builder.resourceLevelThrottleKey;
+        this.resourceLevelTier = builder.resourceLevelTier;
+        this.authorizedUser = builder.authorizedUser;
+        this.apiContext = builder.apiContext;
+        this.apiVersion = builder.apiVersion;
+        this.appTenant = builder.appTenant;
+        this.apiTenant = builder.apiTenant;
+        this.appId = builder.appId;
+        this.apiName = builder.apiName;
+        this.ipAddress = builder.ipAddress;
+        this.headers = builder.headers;
+        this.customProperties = builder.customProperties;
+        this.queryString = builder.queryString;
+        this.callerToken = builder.callerToken;
+        this.contentAware = builder.contentAware;
+        this.messageSizeInBytes = builder.messageSizeInBytes;
+        this.applicationName = builder.applicationName;
+        this.subscriptionType = builder.subscriptionType;
+        this.timestamp = builder.timestamp;
+    }
+
+    public String getMessageId() {
+
+        return messageId;
+    }
+
+    public String getApplicationLevelThrottleKey() {
+
+        return applicationLevelThrottleKey;
+    }
+
+    public String getApplicationLevelTier() {
+
+        return applicationLevelTier;
+    }
+
+    public String getApiLevelThrottleKey() {
+
+        return apiLevelThrottleKey;
+    }
+
+    public String getApiLevelTier() {
+
+        return apiLevelTier;
+    }
+
+    public String getSubscriptionLevelThrottleKey() {
+
+        return subscriptionLevelThrottleKey;
+    }
+
+    public String getSubscriptionLevelTier() {
+
+        return subscriptionLevelTier;
+    }
+
+    public String getResourceLevelThrottleKey() {
+
+        return resourceLevelThrottleKey;
+    }
+
+    public String getResourceLevelTier() {
+
+        return resourceLevelTier;
+    }
+
+    public String getAuthorizedUser() {
+
+        return authorizedUser;
+    }
+
+    public String getApiContext() {
+
+        return apiContext;
+    }
+
+    public String getApiVersion() {
+
+        return apiVersion;
+    }
+
+    public String getAppTenant() {
+
+        return appTenant;
+    }
+
+    public String getApiTenant() {
+
+        return apiTenant;
+    }
+
+    public String getAppId() {
+
+        return appId;
+    }
+
+    public String getApiName() {
+
+        return apiName;
+    }
+
+    public String getIpAddress() {
+
+        return ipAddress;
+    }
+
+    public Map<String, String> getHeaders() {
+
+        return headers;
+    }
+
+    public Map<String, Object> getCustomProperties() {
+
+        return customProperties;
+    }
+
+    public String getQueryString() {
+
+        return queryString;
+    }
+
+    public String getCallerToken() {
+
+        return callerToken;
+    }
+
+    public boolean isContentAware() {
+
+        return contentAware;
+    }
+
+    public long getMessageSizeInBytes() {
+
+        return messageSizeInBytes;
+    }
+
+    public String getApplicationName() {
+
+        return applicationName;
+    }
+
+    public String getSubscriptionType() {
+
+        return subscriptionType;
+    }
+
+    public long getTimestamp() {
+
+        return timestamp;
+    }
+
+    /**
+     * Builder of {@link ThrottleEvent}.
+     */
+    public static class Builder {
+
+        private String messageId;
+        private String applicationLevelThrottleKey;
+        private String applicationLevelTier;
+        private String apiLevelThrottleKey;
+        private String apiLevelTier;
+        private String subscriptionLevelThrottleKey;
+        private String subscriptionLevelTier;
+        private String resourceLevelThrottleKey;
+        private String resourceLevelTier;
+        private String authorizedUser;
+        private String apiContext;
+        private String apiVersion;
+        private String appTenant;
+        private String apiTenant;
+        private String appId;
+        private String apiName;
+        private String ipAddress;
+        private Map<String, String> headers;
+        private Map<String, Object> customProperties;
+        private String queryString;
+        private String callerToken;
+        private boolean contentAware;
+        private long messageSizeInBytes;
+        private String applicationName;
+        private String subscriptionType;
+        private long timestamp = System.currentTimeMillis();
+
+        public Builder messageId(String messageId) {
+
+            this.messageId = messageId;
+            return this;
+        }
+
+        public Builder applicationLevel(String throttleKey, String tier) {
+
+            this.applicationLevelThrottleKey = throttleKey;
+            this.applicationLevelTier = tier;
+            return this;
+        }
+
+        public Builder apiLevel(String throttleKey, String tier) {
+
+            this.apiLevelThrottleKey = throttleKey;
+            this.apiLevelTier = tier;
+            return this;
+        }
+
+        public Builder subscriptionLevel(String throttleKey, String tier) {
+
+            this.subscriptionLevelThrottleKey = throttleKey;
+            this.subscriptionLevelTier = tier;
+            return this;
+        }
+
+        public Builder resourceLevel(String throttleKey, String tier) {
+
+            this.resourceLevelThrottleKey = throttleKey;
+            this.resourceLevelTier = tier;
+            return this;
+        }
+
+        public Builder authorizedUser(String authorizedUser) {
+
+            this.authorizedUser = authorizedUser;
+            return this;
+        }
+
+        public Builder api(String apiContext, String apiVersion, String apiName) {
+
+            this.apiContext = apiContext;
+            this.apiVersion = apiVersion;
+            this.apiName = apiName;
+            return this;
+        }
+
+        public Builder tenants(String appTenant, String apiTenant) {
+
+            this.appTenant = appTenant;
+            this.apiTenant = apiTenant;
+            return this;
+        }
+
+        public Builder appId(String appId) {
+
+            this.appId = appId;
+            return this;
+        }
+
+        public Builder ipAddress(String ipAddress) {
+
+            this.ipAddress = ipAddress;
+            return this;
+        }
+
+        public Builder headers(Map<String, String> headers) {
+
+            this.headers = headers;
+            return this;
+        }
+
+        public Builder customProperties(Map<String, Object> customProperties) {
+
+            this.customProperties = customProperties;
+            return this;
+        }
+
+        public Builder queryString(String queryString) {
+
+            this.queryString = queryString;
+            return this;
+        }
+
+        public Builder callerToken(String callerToken) {
+
+            this.callerToken = callerToken;
+            return this;
+        }
+
+        public Builder contentAware(long messageSizeInBytes, String applicationName, String subscriptionType) {
+
+            this.contentAware = true;
+            this.messageSizeInBytes = messageSizeInBytes;
+            this.applicationName = applicationName;
+            this.subscriptionType = subscriptionType;
+            return this;
+        }
+
+        public Builder timestamp(long timestamp) {
+
+            this.timestamp = timestamp;
+            return this;
+        }
+
+        public ThrottleEvent build() {
+
+            return new ThrottleEvent(this);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.MessageContext;
+import org.apache.synapse.core.axis2.Axis2MessageContext;
+import org.json.simple.JSONObject;
+import org.wso2.carbon.apimgt.api.dto.ConditionGroupDTO;
+import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
+import org.wso2.carbon.apimgt.gateway.handlers.throttling.APIThrottleConstants;
+import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.gateway.throttling.ThrottleDataHolder;
+import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
+import org.wso2.carbon.apimgt.impl.dto.VerbInfoDTO;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sums up the requests of each throttle key over a short window and publishes them to the traffic manager as a
+ * single event, instead of publishing one event per request.
+ * <p>
+ * The aggregated event carries the number of requests it represents in the {@code requestCount} property and, for
+ * content aware policies, the total message size in the {@code messageSize} property. The traffic manager counts
+ * the requests through the {@code throttler:requestCount} function, hence the throttle policies have to be deployed
+ * with the templates using it before enabling aggregation.
+ * <p>
+ * Only requests whose throttle decision does not depend on per request attributes are aggregated, i.e. when no
+ * custom throttle policies are deployed and the invoked resource has no throttle conditions. Such requests are
+ * published as before. Aggregation delays the throttle decision of the traffic manager by up to one window.
+ */
+public class ThrottleEventAggregator {
+
+    private static final Log log = LogFactory.getLog(ThrottleEventAggregator.class);
+    private static final String STREAM_ID = "org.wso2.throttle.request.stream:1.0.0";
+
+    private final ConcurrentHashMap<AggregationKey, Aggregate> aggregates = new ConcurrentHashMap<>();
+    private final long window;
+    private final AtomicLong aggregatedRequestCount = new AtomicLong();
+    private final AtomicLong publishedEventCount = new AtomicLong();
+    private final AtomicLong failedEventCount = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    public ThrottleEventAggregator(ThrottleProperties.DataPublisherEventAggregation eventAggregationConfiguration) {
+
+        this.window = Math.max(1, eventAggregationConfiguration.getWindow());
+    }
+
+    public void start() {
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ThrottleEventAggregator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds the current request to the aggregate of its throttle keys, if the request can be aggregated.
+     *
+     * @return true if the request was aggregated, false if it has to be published on its own
+     */
+    public boolean aggregate(String applicationLevelThrottleKey, String applicationLevelTier,
+                             String apiLevelThrottleKey, String apiLevelTier,
+                             String subscriptionLevelThrottleKey, String subscriptionLevelTier,
+                             String resourceLevelThrottleKey, String resourceLevelTier,
+                             String authorizedUser, String apiContext, String apiVersion, String appTenant,
+                             String apiTenant, String appId, MessageContext messageContext,
+                             AuthenticationContext authenticationContext) {
+
+        if (!isAggregatable(messageContext)) {
+            return false;
+        }
+        if (!StringUtils.isEmpty(apiLevelTier)) {
+            resourceLevelTier = apiLevelTier;
+            resourceLevelThrottleKey = apiLevelThrottleKey;
+        }
+        ThrottleEvent.Builder builder = new ThrottleEvent.Builder()
+                .messageId(messageContext.getMessageID())
+                .applicationLevel(applicationLevelThrottleKey, applicationLevelTier)
+                .apiLevel(apiLevelThrottleKey, apiLevelTier)
+                .subscriptionLevel(subscriptionLevelThrottleKey, subscriptionLevelTier)
+                .resourceLevel(resourceLevelThrottleKey, resourceLevelTier)
+                .authorizedUser(authorizedUser)
+                .api(apiContext, apiVersion, GatewayUtils.getAPINameFromContextAndVersion(messageContext))
+                .tenants(appTenant, apiTenant)
+                .appId(appId);
+
+        List<VerbInfoDTO> verbInfoList = (List<VerbInfoDTO>) messageContext.getProperty(APIConstants.VERB_INFO_DTO);
+        boolean isVerbInfoContentAware = verbInfoList != null && !verbInfoList.isEmpty()
+                && verbInfoList.get(0).isContentAware();
+        if (authenticationContext.isContentAwareTierPresent() || isVerbInfoContentAware) {
+            long messageSize = getContentLength(messageContext);
+            if (messageSize < 0) {
+                // The message has to be built to find its size, which is left to the publisher
+                return false;
+            }
+            String subscriptionType = APIConstants.API_SUBSCRIPTION_TYPE;
+            if (!StringUtils.isEmpty(authenticationContext.getProductName()) && !StringUtils
+                    .isEmpty(authenticationContext.getProductProvider())) {
+                subscriptionType = APIConstants.API_PRODUCT_SUBSCRIPTION_TYPE;
+            }
+            builder.contentAware(messageSize, authenticationContext.getApplicationName(), subscriptionType);
+        }
+        add(builder.build());
+        return true;
+    }
+
+    /**
+     * Checks whether the throttle decision of the traffic manager for the current request depends only on its
+     * throttle keys. Custom policies and throttle conditions are evaluated against the request attributes, which
+     * would be lost by aggregation.
+     */
+    private boolean isAggregatable(MessageContext messageContext) {
+
+        ThrottleDataHolder throttleDataHolder = ServiceReferenceHolder.getInstance().getThrottleDataHolder();
+        if (throttleDataHolder == null || throttleDataHolder.isKeyTemplatesPresent()) {
+            return false;
+        }
+        Object customProperty = messageContext.getProperty(APIThrottleConstants.CUSTOM_PROPERTY);
+        if (customProperty instanceof Map && !((Map) customProperty).isEmpty()) {
+            return false;
+        }
+        List<VerbInfoDTO> verbInfoList = (List<VerbInfoDTO>) messageContext.getProperty(APIConstants.VERB_INFO_DTO);
+        if (verbInfoList != null) {
+            for (VerbInfoDTO verbInfoDTO : verbInfoList) {
+                ConditionGroupDTO[] conditionGroups = verbInfoDTO.getConditionGroups();
+                if (conditionGroups == null) {
+                    continue;
+                }
+                for (ConditionGroupDTO conditionGroup : conditionGroups) {
+                    if (conditionGroup.getConditions() != null && conditionGroup.getConditions().length > 0) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private long getContentLength(MessageContext messageContext) {
+
+        org.apache.axis2.context.MessageContext axis2MessageContext = ((Axis2MessageContext) messageContext)
+                .getAxis2MessageContext();
+        Map<String, String> transportHeaderMap = (Map<String, String>) axis2MessageContext
+                .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
+        if (transportHeaderMap == null) {
+            return -1;
+        }
+        String contentLength = transportHeaderMap.get(APIThrottleConstants.CONTENT_LENGTH);
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    void add(ThrottleEvent event) {
+
+        aggregates.compute(new AggregationKey(event), (key, aggregate) -> {
+            if (aggregate == null) {
+                aggregate = new Aggregate(event);
+            }
+            aggregate.requestCount++;
+            aggregate.messageSize += event.getMessageSizeInBytes();
+            return aggregate;
+        });
+        aggregatedRequestCount.incrementAndGet();
+    }
+
+    /**
+     * Publishes one event for each throttle key aggregated since the previous flush.
+     *
+     * @return number of events published
+     */
+    int flush() {
+
+        int published = 0;
+        try {
+            if (aggregates.isEmpty()) {
+                return 0;
+            }
+            DataPublisher dataPublisher = getDataPublisher();
+            JSONObject properties = new JSONObject();
+            for (AggregationKey key : aggregates.keySet()) {
+                Aggregate aggregate = aggregates.remove(key);
+                if (aggregate == null) {
+                    continue;
+                }
+                properties.clear();
+                if (dataPublisher != null && dataPublisher.tryPublish(toDatabridgeEvent(aggregate, properties))) {
+                    publishedEventCount.incrementAndGet();
+                    published++;
+                } else {
+                    failedEventCount.incrementAndGet();
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Published " + published + " aggregated throttle events to the traffic manager");
+            }
+        } catch (Throwable e) {
+            log.error("Error while publishing aggregated throttling events to global policy server", e);
+        }
+        return published;
+    }
+
+    Event toDatabridgeEvent(Aggregate aggregate, JSONObject properties) {
+
+        ThrottleEvent throttleEvent = aggregate.first;
+        properties.put(APIThrottleConstants.REQUEST_COUNT, aggregate.requestCount);
+        if (throttleEvent.isContentAware()) {
+            properties.put(APIThrottleConstants.MESSAGE_SIZE, aggregate.messageSize);
+            if (!StringUtils.isEmpty(throttleEvent.getApplicationName())) {
+                properties.put(APIThrottleConstants.APPLICATION_NAME, throttleEvent.getApplicationName());
+            }
+            properties.put(APIThrottleConstants.SUBSCRIPTION_TYPE, throttleEvent.getSubscriptionType());
+        }
+        Object[] payload = new Object[]{throttleEvent.getMessageId(),
+                throttleEvent.getApplicationLevelThrottleKey(), throttleEvent.getApplicationLevelTier(),
+                throttleEvent.getApiLevelThrottleKey(), throttleEvent.getApiLevelTier(),
+                throttleEvent.getSubscriptionLevelThrottleKey(), throttleEvent.getSubscriptionLevelTier(),
+                throttleEvent.getResourceLevelThrottleKey(), throttleEvent.getResourceLevelTier(),
+                throttleEvent.getAuthorizedUser(), throttleEvent.getApiContext(), throttleEvent.getApiVersion(),
+                throttleEvent.getAppTenant(), throttleEvent.getApiTenant(), throttleEvent.getAppId(),
+                throttleEvent.getApiName(), properties.toString()};
+        return new Event(STREAM_ID, throttleEvent.getTimestamp(), null, null, payload);
+    }
+
+    /**
+     * Stops the periodic flush and publishes the remaining aggregates.
+     */
+    public void shutdown() {
+
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(window, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    public long getAggregatedRequestCount() {
+
+        return aggregatedRequestCount.get();
+    }
+
+    public long getPublishedEventCount() {
+
+        return publishedEventCount.get();
+    }
+
+    public long getFailedEventCount() {
+
+        return failedEventCount.get();
+    }
+
+    public int getPendingAggregateCount() {
+
+        return aggregates.size();
+    }
+
+    protected DataPublisher getDataPublisher() {
+
+        return ThrottleDataPublisher.getDataPublisher();
+    }
+
+    /**
+     * Attributes of a throttle event which are published to the traffic manager, other than the message ID.
+     */
+    private static final class AggregationKey {
+
+        private final String[] attributes;
+        private final int hashCode;
+
+        AggregationKey(ThrottleEvent event) {
+
+            this.attributes = new String[]{event.getApplicationLevelThrottleKey(), event.getApplicationLevelTier(),
+                    event.getApiLevelThrottleKey(), event.getApiLevelTier(),
+                    event.getSubscriptionLevelThrottleKey(), event.getSubscriptionLevelTier(),
+                    event.getResourceLevelThrottleKey(), event.getResourceLevelTier(), event.getAuthorizedUser(),
+                    event.getApiContext(), event.getApiVersion(), event.getAppTenant(), event.getApiTenant(),
+                    event.getAppId(), event.getApiName(), event.getApplicationName(), event.getSubscriptionType()};
+            this.hashCode = Arrays.hashCode(attributes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AggregationKey)) {
+                return false;
+            }
+            AggregationKey that = (AggregationKey) o;
+            return hashCode == that.hashCode && Arrays.equals(attributes, that.attributes);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return hashCode;
+        }
+    }
+
+    /**
+     * Requests aggregated for a throttle key. Only modified within {@link ConcurrentHashMap#compute}.
+     */
+    static final class Aggregate {
+
+        private final ThrottleEvent first;
+        private long requestCount;
+        private long messageSize;
+
+        Aggregate(ThrottleEvent first) {
+
+            this.first = first;
+        }
+    }
+}
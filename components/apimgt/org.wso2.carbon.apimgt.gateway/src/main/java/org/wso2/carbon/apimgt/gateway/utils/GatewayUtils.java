@@ -215,7 +215,17 @@ public class GatewayUtils {
      */
     public static Map<String, String> getQueryParams(MessageContext messageContext) {
 
-        String queryString = (String) messageContext.getProperty(NhttpConstants.REST_URL_POSTFIX);
+        return getQueryParams((String) messageContext.getProperty(NhttpConstants.REST_URL_POSTFIX));
+    }
+
+    /**
+     * Extracts the query parameters of the given REST URL postfix.
+     *
+     * @param queryString REST URL postfix of the request
+     * @return map of query parameters or null if there is no query string
+     */
+    public static Map<String, String> getQueryParams(String queryString) {
+
         if (!StringUtils.isEmpty(queryString)) {
             if (queryString.indexOf("?") > -1) {
                 queryString = queryString.substring(queryString.indexOf("?") + 1);
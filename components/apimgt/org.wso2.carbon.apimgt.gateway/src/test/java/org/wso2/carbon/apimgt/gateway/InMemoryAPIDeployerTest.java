@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway;
+
+import org.apache.axis2.AxisFault;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.wso2.carbon.apimgt.api.gateway.GatewayAPIDTO;
+import org.wso2.carbon.apimgt.gateway.service.APIGatewayAdmin;
+import org.wso2.carbon.apimgt.impl.dto.GatewayArtifactSynchronizerProperties;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.ArtifactRetriever;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test cases for deploying the API artifacts of a tenant using {@link InMemoryAPIDeployer}.
+ */
+public class InMemoryAPIDeployerTest {
+
+    private static final int ARTIFACT_COUNT = 50;
+
+    private final AtomicInteger activeDeployments = new AtomicInteger();
+    private final AtomicInteger maxActiveDeployments = new AtomicInteger();
+    private final List<String> deployedAPIs = Collections.synchronizedList(new ArrayList<>());
+    private APIGatewayAdmin apiGatewayAdmin;
+    private InMemoryAPIDeployer inMemoryAPIDeployer;
+
+    @Before
+    public void init() throws Exception {
+
+        activeDeployments.set(0);
+        maxActiveDeployments.set(0);
+        deployedAPIs.clear();
+        apiGatewayAdmin = Mockito.mock(APIGatewayAdmin.class);
+        Mockito.when(apiGatewayAdmin.deployAPI(Mockito.any(GatewayAPIDTO.class))).thenAnswer(invocation -> {
+            int active = activeDeployments.incrementAndGet();
+            maxActiveDeployments.accumulateAndGet(active, Math::max);
+            Thread.sleep(1);
+            deployedAPIs.add(((GatewayAPIDTO) invocation.getArguments()[0]).getApiId());
+            activeDeployments.decrementAndGet();
+            return true;
+        });
+        GatewayArtifactSynchronizerProperties properties = new GatewayArtifactSynchronizerProperties();
+        properties.setDeploymentThreadCount(8);
+        inMemoryAPIDeployer = new InMemoryAPIDeployer(Mockito.mock(ArtifactRetriever.class), properties);
+    }
+
+    @Test
+    public void testArtifactsAreDeployedOneAtATimeInOrder() {
+
+        List<String> artifacts = createArtifacts("api");
+        Assert.assertEquals(0, inMemoryAPIDeployer.deployArtifacts(apiGatewayAdmin, artifacts, "carbon.super"));
+        Assert.assertEquals(1, maxActiveDeployments.get());
+        Assert.assertEquals(ARTIFACT_COUNT, deployedAPIs.size());
+        for (int i = 0; i < ARTIFACT_COUNT; i++) {
+            Assert.assertEquals("api-" + i, deployedAPIs.get(i));
+        }
+    }
+
+    @Test
+    public void testConcurrentDeploymentsDoNotChangeSynapseConfigurationConcurrently() throws Exception {
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> tenant1 = executorService.submit(() -> inMemoryAPIDeployer.deployArtifacts(
+                    apiGatewayAdmin, createArtifacts("tenant1"), "tenant1.com"));
+            Future<Integer> tenant2 = executorService.submit(() -> inMemoryAPIDeployer.deployArtifacts(
+                    apiGatewayAdmin, createArtifacts("tenant2"), "tenant2.com"));
+            Assert.assertEquals(Integer.valueOf(0), tenant1.get(30, TimeUnit.SECONDS));
+            Assert.assertEquals(Integer.valueOf(0), tenant2.get(30, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+        Assert.assertEquals(1, maxActiveDeployments.get());
+        Assert.assertEquals(2 * ARTIFACT_COUNT, deployedAPIs.size());
+    }
+
+    @Test
+    public void testFailedDeploymentsAreCounted() throws Exception {
+
+        Mockito.doAnswer(invocation -> {
+            String apiId = ((GatewayAPIDTO) invocation.getArguments()[0]).getApiId();
+            if (apiId.endsWith("0")) {
+                throw new AxisFault("Error while deploying " + apiId);
+            }
+            deployedAPIs.add(apiId);
+            return true;
+        }).when(apiGatewayAdmin).deployAPI(Mockito.any(GatewayAPIDTO.class));
+        List<String> artifacts = createArtifacts("api");
+        artifacts.add("{\"apiId\":");
+        Assert.assertEquals(ARTIFACT_COUNT / 10 + 1,
+                inMemoryAPIDeployer.deployArtifacts(apiGatewayAdmin, artifacts, "carbon.super"));
+        Assert.assertEquals(ARTIFACT_COUNT - ARTIFACT_COUNT / 10, deployedAPIs.size());
+    }
+
+    private static List<String> createArtifacts(String prefix) {
+
+        List<String> artifacts = new ArrayList<>();
+        for (int i = 0; i < ARTIFACT_COUNT; i++) {
+            artifacts.add("{\"apiId\":\"" + prefix + "-" + i + "\",\"name\":\"" + prefix + "-" + i
+                    + "\",\"tenantDomain\":\"" + prefix + "\"}");
+        }
+        return artifacts;
+    }
+}
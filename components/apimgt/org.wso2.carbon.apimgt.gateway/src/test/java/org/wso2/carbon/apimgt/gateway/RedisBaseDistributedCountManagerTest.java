@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test cases for {@link RedisBaseDistributedCountManager}. Redis is replaced by an in memory map behind a mocked
+ * {@link Jedis} connection and {@link Pipeline}.
+ */
+public class RedisBaseDistributedCountManagerTest {
+
+    private final Map<String, Long> redis = new ConcurrentHashMap<>();
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+    private final AtomicInteger incrByCount = new AtomicInteger();
+    private final AtomicInteger syncCount = new AtomicInteger();
+    private volatile CountDownLatch syncEntered;
+    private volatile CountDownLatch syncReleased;
+    private Jedis jedis;
+    private Pipeline pipeline;
+    private RedisBaseDistributedCountManager countManager;
+
+    @Before
+    public void init() {
+
+        redis.clear();
+        expiries.clear();
+        incrByCount.set(0);
+        syncCount.set(0);
+        syncEntered = new CountDownLatch(0);
+        syncReleased = new CountDownLatch(0);
+        jedis = Mockito.mock(Jedis.class);
+        Mockito.when(jedis.incrBy(Mockito.anyString(), Mockito.anyLong())).thenAnswer(
+                invocation -> redis.merge((String) invocation.getArguments()[0], (Long) invocation.getArguments()[1],
+                        Long::sum));
+        pipeline = Mockito.mock(Pipeline.class);
+        Mockito.when(jedis.pipelined()).thenReturn(pipeline);
+        Mockito.when(pipeline.incrBy(Mockito.anyString(), Mockito.anyLong())).thenAnswer(invocation -> {
+            incrByCount.incrementAndGet();
+            return response(redis.merge((String) invocation.getArguments()[0], (Long) invocation.getArguments()[1],
+                    Long::sum));
+        });
+        Mockito.when(pipeline.getSet(Mockito.anyString(), Mockito.anyString())).thenAnswer(invocation -> {
+            Long previous = redis.put((String) invocation.getArguments()[0],
+                    Long.parseLong((String) invocation.getArguments()[1]));
+            return response(previous != null ? String.valueOf(previous) : null);
+        });
+        Mockito.when(pipeline.pexpireAt(Mockito.anyString(), Mockito.anyLong())).thenAnswer(invocation -> {
+            expiries.put((String) invocation.getArguments()[0], (Long) invocation.getArguments()[1]);
+            return response(1L);
+        });
+        Mockito.when(pipeline.evalsha(Mockito.anyString(), Mockito.anyList(), Mockito.anyList())).thenAnswer(
+                invocation -> {
+                    String key = ((List<?>) invocation.getArguments()[1]).get(0).toString();
+                    List<?> args = (List<?>) invocation.getArguments()[2];
+                    Long count = redis.merge(key, Long.parseLong(args.get(0).toString()), Long::sum);
+                    expiries.put(key, Long.parseLong(args.get(1).toString()));
+                    return response(count);
+                });
+        Mockito.doAnswer(invocation -> {
+            syncCount.incrementAndGet();
+            syncEntered.countDown();
+            syncReleased.await();
+            Thread.sleep(1);
+            return null;
+        }).when(pipeline).sync();
+        JedisPool jedisPool = Mockito.mock(JedisPool.class);
+        Mockito.when(jedisPool.getResource()).thenReturn(jedis);
+        countManager = new RedisBaseDistributedCountManager(jedisPool);
+    }
+
+    @Test
+    public void testGetAndAddCounter() {
+
+        Assert.assertEquals(0, countManager.asyncGetAndAddCounter("key", 5));
+        Assert.assertEquals(5, countManager.asyncGetAndAddCounter("key", 3));
+        Assert.assertEquals(8, countManager.addAndGetCounter("key", 2) - 2);
+        Assert.assertEquals(Long.valueOf(10), redis.get("key"));
+    }
+
+    @Test
+    public void testGetAndAlterCounter() {
+
+        Assert.assertEquals(0, countManager.asyncGetAndAlterCounter("key", 5));
+        Assert.assertEquals(5, countManager.asyncGetAndAlterCounter("key", 2));
+        Assert.assertEquals(Long.valueOf(2), redis.get("key"));
+    }
+
+    @Test
+    public void testConcurrentIncrementsAreCoalesced() throws Exception {
+
+        int threads = 8;
+        final int incrementsPerThread = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executorService.submit(() -> {
+                List<Long> previousValues = new ArrayList<>();
+                for (int j = 0; j < incrementsPerThread; j++) {
+                    previousValues.add(countManager.asyncGetAndAddCounter("key", 1));
+                }
+                return previousValues;
+            }));
+        }
+        Set<Long> previousValues = new HashSet<>();
+        for (Future<List<Long>> future : futures) {
+            previousValues.addAll(future.get(30, TimeUnit.SECONDS));
+        }
+        executorService.shutdown();
+
+        int total = threads * incrementsPerThread;
+        Assert.assertEquals(Long.valueOf(total), redis.get("key"));
+        // Every caller observes a distinct previous value, as if the increments were sent one by one
+        Assert.assertEquals(total, previousValues.size());
+        Assert.assertTrue(incrByCount.get() < total);
+    }
+
+    @Test
+    public void testIncrementWithExpiryReloadsFlushedScript() {
+
+        Mockito.when(jedis.scriptLoad(RedisBaseDistributedCountManager.INCREMENT_WITH_EXPIRY_SCRIPT))
+                .thenReturn("sha1", "sha2");
+        Mockito.when(jedis.evalsha(Mockito.eq("sha1"), Mockito.anyList(), Mockito.anyList())).thenReturn(1L)
+                .thenThrow(new JedisDataException("NOSCRIPT No matching script. Please use EVAL."));
+        Mockito.when(jedis.evalsha(Mockito.eq("sha2"), Mockito.anyList(), Mockito.anyList())).thenReturn(2L);
+
+        Assert.assertEquals(1, countManager.addAndGetCounterWithExpiry("key", 1, 1000L));
+        Assert.assertEquals(2, countManager.addAndGetCounterWithExpiry("key", 1, 1000L));
+        Mockito.verify(jedis, Mockito.times(2))
+                .scriptLoad(RedisBaseDistributedCountManager.INCREMENT_WITH_EXPIRY_SCRIPT);
+        Mockito.verify(jedis).evalsha("sha2", Collections.singletonList("key"),
+                Arrays.asList("1", "1000"));
+    }
+
+    @Test
+    public void testCountersAreUpdatedInOnePipeline() {
+
+        redis.put("key1", 5L);
+        Map<String, Long> additions = new LinkedHashMap<>();
+        additions.put("key1", 1L);
+        additions.put("key2", 2L);
+        Map<String, Long> currentValues = countManager.asyncGetAndAddCounters(additions);
+        Assert.assertEquals(Long.valueOf(5), currentValues.get("key1"));
+        Assert.assertEquals(Long.valueOf(0), currentValues.get("key2"));
+
+        Map<String, Long> alterations = new LinkedHashMap<>();
+        alterations.put("key1", 0L);
+        alterations.put("key2", 0L);
+        currentValues = countManager.asyncGetAndAlterCounters(alterations);
+        Assert.assertEquals(Long.valueOf(6), currentValues.get("key1"));
+        Assert.assertEquals(Long.valueOf(2), currentValues.get("key2"));
+        Assert.assertEquals(2, syncCount.get());
+    }
+
+    @Test
+    public void testOperationsQueuedDuringAFlushAreSentInOnePipeline() throws Exception {
+
+        syncEntered = new CountDownLatch(1);
+        syncReleased = new CountDownLatch(1);
+        Thread flusher = new Thread(() -> countManager.asyncGetAndAddCounter("key1", 1));
+        flusher.start();
+        Assert.assertTrue(syncEntered.await(10, TimeUnit.SECONDS));
+
+        List<Thread> threads = Arrays.asList(new Thread(() -> countManager.asyncGetAndAddCounter("key2", 1)),
+                new Thread(() -> countManager.asyncGetAndAlterCounter("key3", 3)),
+                new Thread(() -> countManager.setExpiry("key4", 1000L)));
+        for (Thread thread : threads) {
+            thread.start();
+            awaitWaiting(thread);
+        }
+        syncReleased.countDown();
+        flusher.join(10000);
+        for (Thread thread : threads) {
+            thread.join(10000);
+        }
+
+        Assert.assertEquals(2, syncCount.get());
+        Assert.assertEquals(Long.valueOf(1), redis.get("key2"));
+        Assert.assertEquals(Long.valueOf(3), redis.get("key3"));
+        Assert.assertEquals(Long.valueOf(1000), expiries.get("key4"));
+    }
+
+    @Test
+    public void testExpiryIsSetWithPendingIncrement() throws Exception {
+
+        Mockito.when(jedis.scriptLoad(RedisBaseDistributedCountManager.INCREMENT_WITH_EXPIRY_SCRIPT))
+                .thenReturn("sha1");
+        syncEntered = new CountDownLatch(1);
+        syncReleased = new CountDownLatch(1);
+        Thread flusher = new Thread(() -> countManager.asyncGetAndAddCounter("key1", 1));
+        flusher.start();
+        Assert.assertTrue(syncEntered.await(10, TimeUnit.SECONDS));
+
+        Thread incrementer = new Thread(() -> countManager.asyncGetAndAddCounter("key2", 1));
+        incrementer.start();
+        awaitWaiting(incrementer);
+        Thread expirer = new Thread(() -> countManager.setExpiry("key2", 1000L));
+        expirer.start();
+        awaitWaiting(expirer);
+        syncReleased.countDown();
+        flusher.join(10000);
+        incrementer.join(10000);
+        expirer.join(10000);
+
+        Assert.assertEquals(Long.valueOf(1), redis.get("key2"));
+        Assert.assertEquals(Long.valueOf(1000), expiries.get("key2"));
+        Mockito.verify(pipeline).evalsha("sha1", Collections.singletonList("key2"), Arrays.asList("1", "1000"));
+        Mockito.verify(pipeline, Mockito.never()).pexpireAt(Mockito.anyString(), Mockito.anyLong());
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertEquals(Thread.State.WAITING, thread.getState());
+    }
+
+    private static <T> Response<T> response(T value) {
+
+        return new Response<T>(null) {
+            @Override
+            public T get() {
+
+                return value;
+            }
+        };
+    }
+}
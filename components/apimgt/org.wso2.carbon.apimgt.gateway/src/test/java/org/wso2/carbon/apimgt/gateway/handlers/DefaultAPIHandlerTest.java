@@ -32,10 +32,10 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.keymgt.model.entity.API;
+import org.wso2.carbon.apimgt.keymgt.model.impl.APIContextTrie;
 import org.wso2.carbon.inbound.endpoint.protocol.websocket.InboundWebsocketConstants;
 
 import java.util.Set;
-import java.util.TreeMap;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({ApiUtils.class, Utils.class, GatewayUtils.class})
@@ -58,10 +58,11 @@ public class DefaultAPIHandlerTest {
         PowerMockito.when(GatewayUtils.getTenantDomain()).thenReturn("carbon.super");
         PowerMockito.when(GatewayUtils.isOnDemandLoading()).thenReturn(false);
         PowerMockito.when(ApiUtils.getFullRequestPath(messageContext)).thenReturn("/api1/abc/cde?c=a");
-        TreeMap<String, API> apiTreeMap = new TreeMap<>();
-        apiTreeMap.put("/api1/abc", new API("1234566", 1, "admin", "API1", "1.0.0", "/api1/abc/1.0.0", null,
+        APIContextTrie apiContextTrie = new APIContextTrie();
+        apiContextTrie.add(new API("1234566", 1, "admin", "API1", "1.0.0", "/api1/abc/1.0.0", null,
                 "HTTP", "PUBLISHED", true,true));
-        PowerMockito.when(Utils.getSelectedAPIList("/api1/abc/cde?c=a", "carbon.super")).thenReturn(apiTreeMap);
+        PowerMockito.when(Utils.getSelectedAPI("/api1/abc/cde?c=a", "carbon.super"))
+                .thenReturn(apiContextTrie.match("/api1/abc/cde?c=a"));
         Mockito.doNothing().when(axis2MsgCntxt).setProperty(APIConstants.TRANSPORT_URL_IN, "/api1/abc/1.0.0/cde?c=a");
         Set<String> properties = Mockito.mock(Set.class);
         Mockito.when(messageContext.getPropertyKeySet()).thenReturn(properties);
@@ -83,8 +84,7 @@ public class DefaultAPIHandlerTest {
         PowerMockito.when(GatewayUtils.getTenantDomain()).thenReturn("carbon.super");
         PowerMockito.when(GatewayUtils.isOnDemandLoading()).thenReturn(false);
         PowerMockito.when(ApiUtils.getFullRequestPath(messageContext)).thenReturn("/api1/abc/cde?c=a");
-        TreeMap<String, API> apiTreeMap = new TreeMap<>();
-        PowerMockito.when(Utils.getSelectedAPIList("/api1/abc/cde?c=a", "carbon.super")).thenReturn(apiTreeMap);
+        PowerMockito.when(Utils.getSelectedAPI("/api1/abc/cde?c=a", "carbon.super")).thenReturn(null);
         DefaultAPIHandler defaultAPIHandler = new DefaultAPIHandler();
         Assert.assertTrue(defaultAPIHandler.handleRequestInFlow(messageContext));
         Mockito.verify(axis2MsgCntxt, Mockito.times(0)).setProperty(APIConstants.TRANSPORT_URL_IN, "/api1/abc/1.0" +
@@ -101,10 +101,11 @@ public class DefaultAPIHandlerTest {
         PowerMockito.when(GatewayUtils.getTenantDomain()).thenReturn("carbon.super");
         PowerMockito.when(GatewayUtils.isOnDemandLoading()).thenReturn(false);
         PowerMockito.when(ApiUtils.getFullRequestPath(messageContext)).thenReturn("/api1/abc/cde?c=a");
-        TreeMap<String, API> apiTreeMap = new TreeMap<>();
-        apiTreeMap.put("/api1/abc", new API("1234566", 1, "admin", "API1", "1.0.0", "/api1/abc/1.0.0", null,
+        APIContextTrie apiContextTrie = new APIContextTrie();
+        apiContextTrie.add(new API("1234566", 1, "admin", "API1", "1.0.0", "/api1/abc/1.0.0", null,
                 "HTTP", "PUBLISHED", true));
-        PowerMockito.when(Utils.getSelectedAPIList("/api1/abc/cde?c=a", "carbon.super")).thenReturn(apiTreeMap);
+        PowerMockito.when(Utils.getSelectedAPI("/api1/abc/cde?c=a", "carbon.super"))
+                .thenReturn(apiContextTrie.match("/api1/abc/cde?c=a"));
         Mockito.doNothing().when(axis2MsgCntxt).setProperty(APIConstants.TRANSPORT_URL_IN, "/api1/abc/1.0.0/cde?c=a");
         Set<String> properties = Mockito.mock(Set.class);
         Mockito.when(messageContext.getPropertyKeySet()).thenReturn(properties);
@@ -128,4 +128,32 @@ public class GraphQLAPIHandlerTest {
         graphQLAPIHandler.setApiUUID("12345");
         Assert.assertTrue(graphQLAPIHandler.handleRequest(messageContext));
     }
+
+    /**
+     * This method will test that a repeated Graphql Query is served with the operation mappings of the schema.
+     */
+    @Test
+    public void testHandleRepeatedRequestForGraphQLQueries() {
+        Mockito.when(messageContext.getProperty(APIConstants.GRAPHQL_SUBSCRIPTION_REQUEST)).thenReturn(false);
+        Mockito.when(axis2MessageContext.getProperty(HTTP_METHOD)).thenReturn("QUERY");
+        Mockito.when(omElement.getText()).thenReturn(("{allLifts{name}}"));
+        GraphQLAPIHandler graphQLAPIHandler = new GraphQLAPIHandler();
+        graphQLAPIHandler.setApiUUID("12345");
+        Assert.assertTrue(graphQLAPIHandler.handleRequest(messageContext));
+        Assert.assertTrue(graphQLAPIHandler.handleRequest(messageContext));
+        Mockito.verify(messageContext, Mockito.times(2)).setProperty(APIConstants.API_ELECTED_RESOURCE, "allLifts");
+        Mockito.verify(axis2MessageContext, Mockito.times(2)).setProperty(HTTP_METHOD, "QUERY");
+    }
+
+    /**
+     * This method will test the operation mappings decoded from the additional types of the schema.
+     */
+    @Test
+    public void testOperationMappings() {
+        GraphQLOperationMappings operationMappings =
+                new GraphQLOperationMappings(schemaDTOMap.get("12345").getGraphQLSchema());
+        Assert.assertEquals("Unlimited", operationMappings.getOperationThrottlingMappingList().get("allLifts"));
+        Assert.assertTrue(operationMappings.getOperationAuthSchemeMappingList().get("allLifts"));
+        Assert.assertNotNull(operationMappings.getGraphQLAccessControlPolicy());
+    }
 }
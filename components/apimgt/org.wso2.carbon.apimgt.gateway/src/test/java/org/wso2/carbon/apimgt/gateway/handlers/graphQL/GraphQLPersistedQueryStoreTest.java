@@ -0,0 +1,61 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.handlers.graphQL;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GraphQLPersistedQueryStoreTest {
+
+    private static final String QUERY = "query { hero { name } }";
+
+    @Test
+    public void testPutAndGetPersistedQuery() {
+
+        GraphQLPersistedQueryStore persistedQueryStore = new GraphQLPersistedQueryStore("api-uuid", 10, false);
+        String sha256Hash = DigestUtils.sha256Hex(QUERY);
+
+        Assert.assertNull(persistedQueryStore.get(sha256Hash));
+        Assert.assertTrue(persistedQueryStore.put(sha256Hash, QUERY));
+        Assert.assertEquals(QUERY, persistedQueryStore.get(sha256Hash));
+        Assert.assertEquals(QUERY, persistedQueryStore.get(sha256Hash.toUpperCase()));
+    }
+
+    @Test
+    public void testPutPersistedQueryWithMismatchingHash() {
+
+        GraphQLPersistedQueryStore persistedQueryStore = new GraphQLPersistedQueryStore("api-uuid", 10, false);
+        String sha256Hash = DigestUtils.sha256Hex("query { hero { id } }");
+
+        Assert.assertFalse(persistedQueryStore.put(sha256Hash, QUERY));
+        Assert.assertNull(persistedQueryStore.get(sha256Hash));
+    }
+
+    @Test
+    public void testGetEvictedPersistedQuery() {
+
+        GraphQLPersistedQueryStore persistedQueryStore = new GraphQLPersistedQueryStore("api-uuid", 1, false);
+        String otherQuery = "query { hero { id } }";
+
+        Assert.assertTrue(persistedQueryStore.put(DigestUtils.sha256Hex(QUERY), QUERY));
+        Assert.assertTrue(persistedQueryStore.put(DigestUtils.sha256Hex(otherQuery), otherQuery));
+        Assert.assertNull(persistedQueryStore.get(DigestUtils.sha256Hex(QUERY)));
+        Assert.assertEquals(otherQuery, persistedQueryStore.get(DigestUtils.sha256Hex(otherQuery)));
+    }
+}
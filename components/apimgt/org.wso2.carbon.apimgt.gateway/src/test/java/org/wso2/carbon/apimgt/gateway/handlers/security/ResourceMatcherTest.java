@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.handlers.security;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.dto.APIInfoDTO;
+import org.wso2.carbon.apimgt.impl.dto.ResourceInfoDTO;
+import org.wso2.carbon.apimgt.impl.dto.VerbInfoDTO;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+public class ResourceMatcherTest {
+
+    @Test
+    public void testMatchVerbsOfElectedResources() {
+
+        ResourceMatcher resourceMatcher = new ResourceMatcher(getAPIInfoDTO(), "/pizzashack", "1.0.0");
+
+        List<VerbInfoDTO> verbInfoList = resourceMatcher.match(Collections.singletonList("/menu"), "GET");
+        Assert.assertEquals(1, verbInfoList.size());
+        Assert.assertEquals("GET", verbInfoList.get(0).getHttpVerb());
+        Assert.assertEquals("/pizzashack/1.0.0/menu:GET", verbInfoList.get(0).getRequestKey());
+
+        verbInfoList = resourceMatcher.match(Arrays.asList("/MENU", "/order/{orderId}"), "GET");
+        Assert.assertEquals(2, verbInfoList.size());
+        Assert.assertEquals("/pizzashack/1.0.0/MENU:GET", verbInfoList.get(0).getRequestKey());
+        Assert.assertEquals("/pizzashack/1.0.0/order/{orderId}:GET", verbInfoList.get(1).getRequestKey());
+
+        Assert.assertTrue(resourceMatcher.match(Collections.singletonList("/menu"), "DELETE").isEmpty());
+        Assert.assertTrue(resourceMatcher.match(Collections.singletonList("/wrong-resource"), "GET").isEmpty());
+    }
+
+    @Test
+    public void testMatchResourceWithoutTrailingSlash() {
+
+        ResourceMatcher resourceMatcher = new ResourceMatcher(getAPIInfoDTO(), "/pizzashack", "1.0.0");
+
+        List<VerbInfoDTO> verbInfoList = resourceMatcher.match(Collections.singletonList("/order"), "POST");
+        Assert.assertEquals(1, verbInfoList.size());
+        Assert.assertEquals("/pizzashack/1.0.0/order:POST", verbInfoList.get(0).getRequestKey());
+        Assert.assertEquals("/pizzashack/1.0.0/order/:POST", resourceMatcher.getRequestKey("/order/", "POST"));
+        Assert.assertTrue(resourceMatcher.match(Collections.singletonList("/ord"), "POST").isEmpty());
+    }
+
+    @Test
+    public void testMatchDoesNotChangeVerbsOfOtherRequests() {
+
+        APIInfoDTO apiInfoDTO = getAPIInfoDTO();
+        ResourceMatcher resourceMatcher = new ResourceMatcher(apiInfoDTO, "/pizzashack", "1.0.0");
+
+        VerbInfoDTO verbInfoDTO = resourceMatcher.match(Collections.singletonList("/menu"), "GET").get(0);
+        VerbInfoDTO upperCaseVerbInfoDTO = resourceMatcher.match(Collections.singletonList("/MENU"), "GET").get(0);
+        Assert.assertEquals("/pizzashack/1.0.0/menu:GET", verbInfoDTO.getRequestKey());
+        Assert.assertEquals("/pizzashack/1.0.0/MENU:GET", upperCaseVerbInfoDTO.getRequestKey());
+        Assert.assertNull(apiInfoDTO.getResources().iterator().next().getHttpVerbs().iterator().next()
+                .getRequestKey());
+    }
+
+    private static APIInfoDTO getAPIInfoDTO() {
+
+        APIInfoDTO apiInfoDTO = new APIInfoDTO();
+        apiInfoDTO.setResources(new LinkedHashSet<>(Arrays.asList(getResourceInfoDTO("/menu", "GET", "PUT"),
+                getResourceInfoDTO("/order/", "POST"), getResourceInfoDTO("/order/{orderId}", "GET"))));
+        return apiInfoDTO;
+    }
+
+    private static ResourceInfoDTO getResourceInfoDTO(String urlPattern, String... httpVerbs) {
+
+        ResourceInfoDTO resourceInfoDTO = new ResourceInfoDTO();
+        resourceInfoDTO.setUrlPattern(urlPattern);
+        resourceInfoDTO.setHttpVerbs(new LinkedHashSet<>());
+        for (String httpVerb : httpVerbs) {
+            VerbInfoDTO verbInfoDTO = new VerbInfoDTO();
+            verbInfoDTO.setHttpVerb(httpVerb);
+            resourceInfoDTO.getHttpVerbs().add(verbInfoDTO);
+        }
+        return resourceInfoDTO;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.throttling;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.api.dto.ConditionDTO;
+import org.wso2.carbon.apimgt.api.dto.ConditionGroupDTO;
+import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
+import org.wso2.carbon.apimgt.impl.dto.ConditionDto;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test cases for {@link ThrottleConditionPlanCache}
+ */
+public class ThrottleConditionPlanCacheTest {
+
+    private ThrottleConditionPlanCache planCache;
+
+    @Before
+    public void init() {
+
+        planCache = ThrottleConditionPlanCache.getInstance();
+        planCache.invalidateAll();
+    }
+
+    @Test
+    public void testConditionGroupPlanIsCachedAndOrderedByCost() {
+
+        ConditionDTO jwtCondition = new ConditionDTO();
+        jwtCondition.setConditionType(PolicyConstants.JWT_CLAIMS_TYPE);
+        jwtCondition.setConditionName("sub");
+        jwtCondition.setConditionValue("admin");
+        ConditionDTO headerCondition = new ConditionDTO();
+        headerCondition.setConditionType(PolicyConstants.HEADER_TYPE);
+        headerCondition.setConditionName("User-Agent");
+        headerCondition.setConditionValue("Mozilla.*");
+        ConditionDTO ipRangeCondition = new ConditionDTO();
+        ipRangeCondition.setConditionType(PolicyConstants.IP_RANGE_TYPE);
+        ipRangeCondition.setConditionName("127.0.0.0");
+        ipRangeCondition.setConditionValue("127.0.0.2");
+        ConditionGroupDTO conditionGroupDTO = new ConditionGroupDTO();
+        conditionGroupDTO.setConditions(new ConditionDTO[]{jwtCondition, headerCondition, ipRangeCondition});
+
+        ThrottleConditionPlanCache.ConditionGroupPlan plan = planCache.getPlan(conditionGroupDTO);
+        Assert.assertSame(plan, planCache.getPlan(conditionGroupDTO));
+        ThrottleConditionPlanCache.CompiledCondition[] conditions = plan.getConditions();
+        Assert.assertEquals(PolicyConstants.IP_RANGE_TYPE, conditions[0].getType());
+        Assert.assertNotNull(conditions[0].getStartingIp());
+        Assert.assertEquals(PolicyConstants.HEADER_TYPE, conditions[1].getType());
+        Assert.assertTrue(conditions[1].getPattern().find("Mozilla/5.0"));
+        Assert.assertEquals(PolicyConstants.JWT_CLAIMS_TYPE, conditions[2].getType());
+
+        planCache.invalidateAll();
+        Assert.assertNotSame(plan, planCache.getPlan(conditionGroupDTO));
+    }
+
+    @Test
+    public void testConditionDtoPlanInvalidation() {
+
+        ConditionDto conditionDto = new ConditionDto();
+        ConditionDto.HeaderConditions headerConditions = new ConditionDto.HeaderConditions();
+        headerConditions.setValues(Collections.singletonMap("host", "localhost.*"));
+        conditionDto.setHeaderConditions(headerConditions);
+        List<ConditionDto> conditions = Collections.singletonList(conditionDto);
+
+        planCache.compile(conditions);
+        Assert.assertEquals(1, planCache.size());
+        ThrottleConditionPlanCache.ConditionDtoPlan plan = planCache.getPlan(conditionDto);
+        Assert.assertEquals("host", plan.getHeaderNames()[0]);
+        Assert.assertTrue(plan.getHeaderPatterns()[0].find("localhost:8243"));
+        Assert.assertEquals(0, plan.getJwtClaimNames().length);
+
+        planCache.invalidate(conditions);
+        Assert.assertEquals(0, planCache.size());
+    }
+
+    @Test
+    public void testConditionGroupPlanIsRebuiltWhenConditionsAreReplaced() {
+
+        ConditionDTO headerCondition = new ConditionDTO();
+        headerCondition.setConditionType(PolicyConstants.HEADER_TYPE);
+        headerCondition.setConditionName("User-Agent");
+        headerCondition.setConditionValue("Mozilla.*");
+        ConditionGroupDTO conditionGroupDTO = new ConditionGroupDTO();
+        conditionGroupDTO.setConditions(new ConditionDTO[]{headerCondition});
+        ThrottleConditionPlanCache.ConditionGroupPlan plan = planCache.getPlan(conditionGroupDTO);
+
+        ConditionDTO queryParamCondition = new ConditionDTO();
+        queryParamCondition.setConditionType(PolicyConstants.QUERY_PARAMETER_TYPE);
+        queryParamCondition.setConditionName("limit");
+        queryParamCondition.setConditionValue("10");
+        conditionGroupDTO.setConditions(new ConditionDTO[]{queryParamCondition});
+        ThrottleConditionPlanCache.ConditionGroupPlan rebuiltPlan = planCache.getPlan(conditionGroupDTO);
+        Assert.assertNotSame(plan, rebuiltPlan);
+        Assert.assertEquals(PolicyConstants.QUERY_PARAMETER_TYPE, rebuiltPlan.getConditions()[0].getType());
+    }
+
+    @Test
+    public void testInvalidRegularExpressionNeverMatches() {
+
+        ConditionDto conditionDto = new ConditionDto();
+        ConditionDto.HeaderConditions headerConditions = new ConditionDto.HeaderConditions();
+        headerConditions.setValues(Collections.singletonMap("host", "localhost(["));
+        conditionDto.setHeaderConditions(headerConditions);
+
+        planCache.compile(Collections.singletonList(conditionDto));
+        Assert.assertEquals(1, planCache.size());
+        ThrottleConditionPlanCache.ConditionPattern pattern = planCache.getPlan(conditionDto).getHeaderPatterns()[0];
+        Assert.assertFalse(pattern.find("localhost(["));
+        Assert.assertFalse(pattern.find("localhost"));
+    }
+
+    @Test
+    public void testInvalidRegularExpressionOfConditionGroupNeverMatches() {
+
+        ConditionDTO ipCondition = new ConditionDTO();
+        ipCondition.setConditionType(PolicyConstants.IP_SPECIFIC_TYPE);
+        ipCondition.setConditionValue("127.0.0.1");
+        ConditionDTO headerCondition = new ConditionDTO();
+        headerCondition.setConditionType(PolicyConstants.HEADER_TYPE);
+        headerCondition.setConditionName("User-Agent");
+        headerCondition.setConditionValue("Mozilla([");
+        ConditionGroupDTO conditionGroupDTO = new ConditionGroupDTO();
+        conditionGroupDTO.setConditions(new ConditionDTO[]{headerCondition, ipCondition});
+
+        // Building the plan does not compile the regular expression
+        ThrottleConditionPlanCache.CompiledCondition[] conditions = planCache.getPlan(conditionGroupDTO)
+                .getConditions();
+        Assert.assertEquals(PolicyConstants.IP_SPECIFIC_TYPE, conditions[0].getType());
+        Assert.assertFalse(conditions[1].getPattern().find("Mozilla(["));
+    }
+
+    @Test
+    public void testPlanCountIsBounded() {
+
+        for (int i = 0; i <= ThrottleConditionPlanCache.MAX_PLAN_COUNT; i++) {
+            planCache.getPlan(new ConditionDto());
+        }
+        Assert.assertEquals(ThrottleConditionPlanCache.MAX_PLAN_COUNT, planCache.size());
+    }
+}
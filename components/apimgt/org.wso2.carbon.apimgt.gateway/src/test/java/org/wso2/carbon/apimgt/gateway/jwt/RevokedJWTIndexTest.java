@@ -0,0 +1,88 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.jwt;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RevokedJWTIndexTest {
+
+    private static final long NOW = 1600000000000L;
+
+    @Test
+    public void testContains() {
+
+        RevokedJWTIndex index = new RevokedJWTIndex();
+        index.add("signature-1", NOW + 60000);
+        Assert.assertTrue(index.contains("signature-1"));
+        Assert.assertFalse(index.contains("signature-2"));
+        Assert.assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testRemoveExpired() {
+
+        RevokedJWTIndex index = new RevokedJWTIndex();
+        index.add("expired", NOW - 1);
+        index.add("expiring", NOW + 1);
+        index.add("valid", NOW + RevokedJWTIndex.EXPIRY_BUCKET_SIZE * 10);
+
+        Assert.assertEquals(1, index.removeExpired(NOW));
+        Assert.assertFalse(index.contains("expired"));
+        Assert.assertTrue(index.contains("expiring"));
+        Assert.assertTrue(index.contains("valid"));
+
+        Assert.assertEquals(1, index.removeExpired(NOW + 2));
+        Assert.assertFalse(index.contains("expiring"));
+        Assert.assertTrue(index.contains("valid"));
+        Assert.assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testRemoveExpiredAfterExpiryTimeChanged() {
+
+        RevokedJWTIndex index = new RevokedJWTIndex();
+        index.add("signature", NOW - 1);
+        index.add("signature", NOW + RevokedJWTIndex.EXPIRY_BUCKET_SIZE * 10);
+        Assert.assertEquals(1, index.size());
+
+        Assert.assertEquals(0, index.removeExpired(NOW));
+        Assert.assertTrue(index.contains("signature"));
+        Assert.assertEquals(1, index.removeExpired(NOW + RevokedJWTIndex.EXPIRY_BUCKET_SIZE * 11));
+        Assert.assertFalse(index.contains("signature"));
+    }
+
+    @Test
+    public void testMassRevocation() {
+
+        RevokedJWTIndex index = new RevokedJWTIndex();
+        int revokedTokens = 100000;
+        for (int i = 0; i < revokedTokens; i++) {
+            index.add("signature-" + i, NOW + (i % 2 == 0 ? -1 : RevokedJWTIndex.EXPIRY_BUCKET_SIZE * 10));
+        }
+        for (int i = 0; i < revokedTokens; i++) {
+            Assert.assertTrue(index.contains("signature-" + i));
+        }
+
+        Assert.assertEquals(revokedTokens / 2, index.removeExpired(NOW));
+        for (int i = 0; i < revokedTokens; i++) {
+            Assert.assertEquals(i % 2 != 0, index.contains("signature-" + i));
+        }
+    }
+}
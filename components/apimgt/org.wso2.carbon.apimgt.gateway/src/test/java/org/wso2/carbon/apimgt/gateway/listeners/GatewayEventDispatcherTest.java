@@ -0,0 +1,152 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.wso2.carbon.apimgt.gateway.listeners;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.wso2.carbon.metrics.manager.Counter;
+import org.wso2.carbon.metrics.manager.Timer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Unit test cases related GatewayEventDispatcher
+ */
+public class GatewayEventDispatcherTest {
+
+    private GatewayEventDispatcher eventDispatcher;
+
+    @Before
+    public void setup() {
+
+        Timer timer = Mockito.mock(Timer.class);
+        Mockito.when(timer.start()).thenReturn(Mockito.mock(Timer.Context.class));
+        Counter counter = Mockito.mock(Counter.class);
+        eventDispatcher = new GatewayEventDispatcher("TestEventDispatcher", 2) {
+
+            @Override
+            protected Timer getTimer(String name) {
+
+                return timer;
+            }
+
+            @Override
+            protected Counter getCounter(String name) {
+
+                return counter;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+
+        eventDispatcher.shutdown();
+    }
+
+    @Test
+    public void testEventsOfPartitionAreHandledInOrder() throws Exception {
+
+        int eventCount = 100;
+        List<Integer> handledEvents = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch handled = new CountDownLatch(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            int event = i;
+            eventDispatcher.dispatch("API:1", null, () -> {
+                handledEvents.add(event);
+                handled.countDown();
+            });
+        }
+        Assert.assertTrue(handled.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < eventCount; i++) {
+            Assert.assertEquals(Integer.valueOf(i), handledEvents.get(i));
+        }
+    }
+
+    @Test
+    public void testPartitionsAreHandledInParallel() throws Exception {
+
+        CountDownLatch released = new CountDownLatch(1);
+        CountDownLatch handled = new CountDownLatch(1);
+        eventDispatcher.dispatch("API:1", null, () -> {
+            try {
+                if (released.await(10, TimeUnit.SECONDS)) {
+                    handled.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        eventDispatcher.dispatch("Application:1", null, released::countDown);
+        Assert.assertTrue(handled.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPartitionIsHandledAfterHandlerError() throws Exception {
+
+        CountDownLatch released = new CountDownLatch(1);
+        CountDownLatch handled = new CountDownLatch(1);
+        eventDispatcher.dispatch("API:1", null, () -> {
+            try {
+                released.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new AssertionError("Error while handling the event");
+        });
+        eventDispatcher.dispatch("API:1", null, handled::countDown);
+        released.countDown();
+        Assert.assertTrue(handled.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testQueuedEventsAreCoalesced() throws Exception {
+
+        CountDownLatch released = new CountDownLatch(1);
+        CountDownLatch handled = new CountDownLatch(1);
+        List<String> handledEvents = Collections.synchronizedList(new ArrayList<>());
+        eventDispatcher.dispatch("API:1", null, () -> {
+            try {
+                released.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        eventDispatcher.dispatch("API:1", "DEPLOY:1", () -> handledEvents.add("deploy1"));
+        eventDispatcher.dispatch("API:1", "DEPLOY:1", () -> handledEvents.add("deploy2"));
+        eventDispatcher.dispatch("API:1", "UNDEPLOY:1", () -> handledEvents.add("undeploy"));
+        eventDispatcher.dispatch("API:1", "DEPLOY:1", () -> handledEvents.add("deploy3"));
+        eventDispatcher.dispatch("API:1", null, handled::countDown);
+        Assert.assertTrue(eventDispatcher.getQueueDepth() >= 4);
+        released.countDown();
+
+        Assert.assertTrue(handled.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(3, handledEvents.size());
+        Assert.assertEquals("deploy2", handledEvents.get(0));
+        Assert.assertEquals("undeploy", handledEvents.get(1));
+        Assert.assertEquals("deploy3", handledEvents.get(2));
+        Assert.assertEquals(0, eventDispatcher.getQueueDepth());
+    }
+}
@@ -30,7 +30,9 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 
 import javax.jms.Topic;
 import javax.jms.TextMessage;
-import javax.jms.JMSException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.wso2.andes.client.AMQTopic;
 import org.wso2.carbon.apimgt.impl.APIConstants;
@@ -40,12 +42,15 @@ import org.wso2.carbon.apimgt.impl.dto.EventHubConfigurationDto;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.impl.dto.GatewayArtifactSynchronizerProperties;
 import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.ArtifactRetriever;
+import org.wso2.carbon.metrics.manager.Counter;
+import org.wso2.carbon.metrics.manager.MetricManager;
+import org.wso2.carbon.metrics.manager.Timer;
 
 /*
  * Unit test cases related GatewayJMSMessageListener
  */
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({ServiceReferenceHolder.class})
+@PrepareForTest({ServiceReferenceHolder.class, MetricManager.class})
 public class GatewayJMSMessageListenerTest {
 
     private GatewayJMSMessageListener gatewayJMSMessageListener;
@@ -66,11 +71,17 @@ public class GatewayJMSMessageListenerTest {
                 .thenReturn(gatewayArtifactSynchronizerProperties);
         EventHubConfigurationDto eventHubConfigurationDto = Mockito.mock(EventHubConfigurationDto.class);
         Mockito.when(apiManagerConfiguration.getEventHubConfigurationDto()).thenReturn(eventHubConfigurationDto);
+        PowerMockito.mockStatic(MetricManager.class);
+        Timer timer = Mockito.mock(Timer.class);
+        Mockito.when(timer.start()).thenReturn(Mockito.mock(Timer.Context.class));
+        PowerMockito.when(MetricManager.timer(Mockito.any(), Mockito.any())).thenReturn(timer);
+        PowerMockito.when(MetricManager.counter(Mockito.any(), Mockito.any()))
+                .thenReturn(Mockito.mock(Counter.class));
         gatewayJMSMessageListener = new GatewayJMSMessageListener();
     }
 
     @Test
-    public void testSubscriptionPolicyUpdate() throws JMSException {
+    public void testSubscriptionPolicyUpdate() throws Exception {
         String messageBody = "{\"event\":{\"payloadData\":{\"eventType\"" +
                 ":\"POLICY_UPDATE\",\"timestamp\":1670477868131," +
                 "\"event\":\"eyJwb2xpY3lJZCI6NSwicG9saWN5TmFtZSI6IlVubGltaXRlZCIsInF1b3RhVHlwZSI6InJlcXVlc3RDb3" +
@@ -87,7 +98,19 @@ public class GatewayJMSMessageListenerTest {
         KeyManagerDataServiceImplWrapper keyManagerDataService = new KeyManagerDataServiceImplWrapper();
         PowerMockito.when(serviceReferenceHolder.getKeyManagerDataService()).thenReturn(keyManagerDataService);
         gatewayJMSMessageListener.onMessage(textMessage);
+        awaitSubscriptionDataEvents();
         assertTrue(keyManagerDataService.isSubscriptionPolicyUpdated());
     }
 
+    /**
+     * Waits until the subscription data events received before are handled, as they are handled in order.
+     */
+    private void awaitSubscriptionDataEvents() throws InterruptedException {
+
+        CountDownLatch handled = new CountDownLatch(1);
+        gatewayJMSMessageListener.subscriptionDataEventDispatcher.dispatch(
+                GatewayJMSMessageListener.SUBSCRIPTION_DATA_PARTITION, null, handled::countDown);
+        assertTrue(handled.await(10, TimeUnit.SECONDS));
+    }
+
 }
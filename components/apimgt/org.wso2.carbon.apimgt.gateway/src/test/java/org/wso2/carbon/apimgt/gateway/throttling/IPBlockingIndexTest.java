@@ -0,0 +1,114 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.gateway.dto.IPRange;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Test cases for {@link IPBlockingIndex}
+ */
+public class IPBlockingIndexTest {
+
+    @Test
+    public void testFixedIpBlocking() {
+
+        IPBlockingIndex index = new IPBlockingIndex(Collections.singleton(fixedIp(1, "10.0.0.1", false)));
+        Assert.assertTrue(index.isBlocked("10.0.0.1"));
+        Assert.assertFalse(index.isBlocked("10.0.0.2"));
+
+        index = new IPBlockingIndex(Collections.singleton(fixedIp(1, "10.0.0.1", true)));
+        Assert.assertFalse(index.isBlocked("10.0.0.1"));
+        Assert.assertTrue(index.isBlocked("10.0.0.2"));
+    }
+
+    @Test
+    public void testIpRangeBlockingWithExclusiveBounds() {
+
+        IPBlockingIndex index = new IPBlockingIndex(Arrays.asList(ipRange(1, "10.0.0.0", "10.0.0.10", false),
+                ipRange(2, "10.0.0.10", "10.0.0.20", false), ipRange(3, "10.0.0.5", "10.0.0.8", false),
+                ipRange(4, "192.168.0.0", "192.168.255.255", false)));
+        Assert.assertFalse(index.isBlocked("10.0.0.0"));
+        Assert.assertTrue(index.isBlocked("10.0.0.1"));
+        Assert.assertTrue(index.isBlocked("10.0.0.9"));
+        Assert.assertFalse(index.isBlocked("10.0.0.10"));
+        Assert.assertTrue(index.isBlocked("10.0.0.11"));
+        Assert.assertFalse(index.isBlocked("10.0.0.20"));
+        Assert.assertTrue(index.isBlocked("192.168.10.1"));
+        Assert.assertFalse(index.isBlocked("172.16.0.1"));
+    }
+
+    @Test
+    public void testInvertedIpRangeBlocking() {
+
+        IPBlockingIndex index = new IPBlockingIndex(Collections.singleton(ipRange(1, "10.0.0.0", "10.0.0.10", true)));
+        Assert.assertFalse(index.isBlocked("10.0.0.5"));
+        Assert.assertTrue(index.isBlocked("10.0.0.10"));
+        Assert.assertTrue(index.isBlocked("172.16.0.1"));
+    }
+
+    @Test
+    public void testIPv6RangeBlocking() {
+
+        IPBlockingIndex index = new IPBlockingIndex(Collections.singleton(ipRange(1, "2001:db8::", "2001:db8::ffff",
+                false)));
+        Assert.assertTrue(index.isBlocked("2001:db8::1"));
+        Assert.assertFalse(index.isBlocked("2001:db9::1"));
+        Assert.assertFalse(index.isBlocked("10.0.0.1"));
+    }
+
+    @Test
+    public void testParseMatchesBigIntegerConversion() {
+
+        for (String ip : new String[]{"0.0.0.0", "127.0.0.1", "255.255.255.255", "2001:db8::1", "::1"}) {
+            long[] parsed = IPBlockingIndex.parse(ip);
+            Assert.assertEquals(APIUtil.ipToBigInteger(ip).longValue(), parsed[1]);
+            Assert.assertEquals(APIUtil.ipToBigInteger(ip).shiftRight(Long.SIZE).longValue(), parsed[0]);
+        }
+    }
+
+    private IPRange fixedIp(int id, String ip, boolean invert) {
+
+        IPRange ipRange = new IPRange();
+        ipRange.setId(id);
+        ipRange.setType(APIConstants.BLOCKING_CONDITIONS_IP);
+        ipRange.setFixedIp(ip);
+        ipRange.setInvert(invert);
+        return ipRange;
+    }
+
+    private IPRange ipRange(int id, String startingIp, String endingIp, boolean invert) {
+
+        IPRange ipRange = new IPRange();
+        ipRange.setId(id);
+        ipRange.setType(APIConstants.BLOCK_CONDITION_IP_RANGE);
+        ipRange.setStartingIP(startingIp);
+        ipRange.setStartingIpBigIntValue(APIUtil.ipToBigInteger(startingIp));
+        ipRange.setEndingIp(endingIp);
+        ipRange.setEndingIpBigIntValue(APIUtil.ipToBigInteger(endingIp));
+        ipRange.setInvert(invert);
+        return ipRange;
+    }
+}
@@ -18,9 +18,12 @@
 
 package org.wso2.carbon.apimgt.gateway.throttling;
 
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
 
@@ -116,6 +119,18 @@ public class ThrottleDataHolderTest {
     public void getKeyTemplateMap() throws Exception {
     }
 
+    @Test
+    public void getKeyTemplatePlaceholders() throws Exception {
+        ThrottleDataHolder throttleDataHolder = new ThrottleDataHolder();
+        throttleDataHolder.addKeyTemplate("$userId:$apiContext", "$userId:$apiContext");
+        throttleDataHolder.addKeyTemplate("$appId:$X-Tenant-Id", "$appId:$X-Tenant-Id");
+        Assert.assertEquals(new HashSet<>(Arrays.asList("userId", "apiContext", "appId", "X-Tenant-Id")),
+                throttleDataHolder.getKeyTemplatePlaceholders());
+        throttleDataHolder.removeKeyTemplate("$appId:$X-Tenant-Id");
+        Assert.assertEquals(new HashSet<>(Arrays.asList("userId", "apiContext")),
+                throttleDataHolder.getKeyTemplatePlaceholders());
+    }
+
     @Test
     public void isThrottled() throws Exception {
     }
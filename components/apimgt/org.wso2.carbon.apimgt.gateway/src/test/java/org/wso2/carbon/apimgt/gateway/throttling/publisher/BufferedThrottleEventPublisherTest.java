@@ -0,0 +1,198 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.json.simple.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.wso2.carbon.apimgt.api.dto.ConditionDTO;
+import org.wso2.carbon.apimgt.api.dto.ConditionGroupDTO;
+import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
+import org.wso2.carbon.apimgt.gateway.throttling.ThrottleDataHolder;
+import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
+import org.wso2.carbon.apimgt.impl.dto.VerbInfoDTO;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test cases for {@link BufferedThrottleEventPublisher}
+ */
+public class BufferedThrottleEventPublisherTest {
+
+    @Test
+    public void testEventsAreDroppedWhenBufferIsFull() {
+
+        ThrottleProperties.DataPublisherEventBuffer configuration = new ThrottleProperties.DataPublisherEventBuffer();
+        configuration.setSize(2);
+        BufferedThrottleEventPublisher publisher = new BufferedThrottleEventPublisher(configuration);
+
+        Assert.assertTrue(publisher.offer(new ThrottleEvent.Builder().messageId("1").build()));
+        Assert.assertTrue(publisher.offer(new ThrottleEvent.Builder().messageId("2").build()));
+        Assert.assertFalse(publisher.offer(new ThrottleEvent.Builder().messageId("3").build()));
+        Assert.assertEquals(2, publisher.getAcceptedEventCount());
+        Assert.assertEquals(1, publisher.getDroppedEventCount());
+        Assert.assertEquals(2, publisher.getBufferedEventCount());
+    }
+
+    @Test
+    public void testBufferedEventsArePublished() throws InterruptedException {
+
+        final DataPublisher dataPublisher = Mockito.mock(DataPublisher.class);
+        Mockito.when(dataPublisher.tryPublish(Mockito.any(Event.class))).thenReturn(true);
+        ThrottleProperties.DataPublisherEventBuffer configuration = new ThrottleProperties.DataPublisherEventBuffer();
+        configuration.setBatchSize(10);
+        configuration.setFlushInterval(10);
+        BufferedThrottleEventPublisher publisher = new BufferedThrottleEventPublisher(configuration) {
+            @Override
+            protected DataPublisher getDataPublisher() {
+
+                return dataPublisher;
+            }
+        };
+        publisher.start();
+        for (int i = 0; i < 25; i++) {
+            publisher.offer(new ThrottleEvent.Builder().messageId(String.valueOf(i)).build());
+        }
+        publisher.shutdown();
+        Assert.assertEquals(25, publisher.getPublishedEventCount());
+        Assert.assertEquals(0, publisher.getBufferedEventCount());
+        Mockito.verify(dataPublisher, Mockito.times(25)).tryPublish(Mockito.any(Event.class));
+    }
+
+    @Test
+    public void testEventsPublishingSameAttributesAreMerged() {
+
+        final DataPublisher dataPublisher = Mockito.mock(DataPublisher.class);
+        Mockito.when(dataPublisher.tryPublish(Mockito.any(Event.class))).thenReturn(true);
+        ThrottleProperties.DataPublisherEventBuffer configuration = new ThrottleProperties.DataPublisherEventBuffer();
+        configuration.setBatchSize(10);
+        configuration.setFlushInterval(10);
+        BufferedThrottleEventPublisher publisher = new BufferedThrottleEventPublisher(configuration, true) {
+            @Override
+            protected DataPublisher getDataPublisher() {
+
+                return dataPublisher;
+            }
+        };
+        publisher.offer(new ThrottleEvent.Builder().messageId("1").applicationLevel("appKey", "Unlimited")
+                .ipAddress("127.0.0.1").build());
+        publisher.offer(new ThrottleEvent.Builder().messageId("2").applicationLevel("appKey", "Unlimited")
+                .ipAddress("127.0.0.1").build());
+        publisher.offer(new ThrottleEvent.Builder().messageId("3").applicationLevel("appKey", "Unlimited")
+                .ipAddress("127.0.0.2").build());
+        publisher.start();
+        publisher.shutdown();
+
+        ArgumentCaptor<Event> events = ArgumentCaptor.forClass(Event.class);
+        Mockito.verify(dataPublisher, Mockito.times(2)).tryPublish(events.capture());
+        Assert.assertEquals(3, publisher.getPublishedEventCount());
+        Object[] payload = events.getAllValues().get(0).getPayloadData();
+        Assert.assertEquals("1", payload[0]);
+        Assert.assertTrue(((String) payload[16]).contains("\"requestCount\":2"));
+        Assert.assertFalse(((String) events.getAllValues().get(1).getPayloadData()[16]).contains("requestCount"));
+    }
+
+    @Test
+    public void testDatabridgeEventConversion() {
+
+        BufferedThrottleEventPublisher publisher =
+                new BufferedThrottleEventPublisher(new ThrottleProperties.DataPublisherEventBuffer());
+        ThrottleEvent throttleEvent = new ThrottleEvent.Builder()
+                .messageId("urn:uuid:1")
+                .applicationLevel("appKey", "Unlimited")
+                .resourceLevel("resourceKey", "Gold")
+                .api("/pizzashack/1.0.0", "1.0.0", "PizzaShackAPI")
+                .ipAddress("127.0.0.1")
+                .headers(Collections.singletonMap("User-Agent", "Mozilla"))
+                .queryString("/menu?size=large")
+                .contentAware(100, "DefaultApplication", "API")
+                .build();
+
+        Event event = publisher.toDatabridgeEvent(throttleEvent, new JSONObject());
+        Object[] payload = event.getPayloadData();
+        Assert.assertEquals("urn:uuid:1", payload[0]);
+        Assert.assertEquals("appKey", payload[1]);
+        Assert.assertEquals("resourceKey", payload[7]);
+        Assert.assertEquals("PizzaShackAPI", payload[15]);
+        String properties = (String) payload[16];
+        Assert.assertTrue(properties.contains("\"ip\":2130706433"));
+        Assert.assertTrue(properties.contains("\"User-Agent\":\"Mozilla\""));
+        Assert.assertTrue(properties.contains("\"size\":\"large\""));
+        Assert.assertTrue(properties.contains("\"messageSize\":100"));
+    }
+
+    @Test
+    public void testOnlyHeadersReferencedByConditionsArePublished() {
+
+        BufferedThrottleEventPublisher publisher =
+                new BufferedThrottleEventPublisher(new ThrottleProperties.DataPublisherEventBuffer());
+
+        Map<String, String> headers = publisher.getRequiredHeaders(getTransportHeaders(),
+                getVerbInfoWithHeaderCondition("User-Agent"), new ThrottleDataHolder());
+        Assert.assertEquals(Collections.singletonMap("User-Agent", "Mozilla"), headers);
+        Assert.assertNull(publisher.getRequiredHeaders(getTransportHeaders(), null, new ThrottleDataHolder()));
+    }
+
+    @Test
+    public void testHeadersReferencedByCustomPoliciesArePublished() {
+
+        ThrottleProperties.DataPublisherEventBuffer configuration = new ThrottleProperties.DataPublisherEventBuffer();
+        configuration.setCustomPolicyHeaders(new String[]{"X-Client-Version"});
+        BufferedThrottleEventPublisher publisher = new BufferedThrottleEventPublisher(configuration);
+        ThrottleDataHolder throttleDataHolder = new ThrottleDataHolder();
+        throttleDataHolder.addKeyTemplate("$userId:$X-Tenant-Id", "$userId:$X-Tenant-Id");
+
+        Map<String, String> headers = publisher.getRequiredHeaders(getTransportHeaders(),
+                getVerbInfoWithHeaderCondition("User-Agent"), throttleDataHolder);
+        Assert.assertEquals(3, headers.size());
+        Assert.assertEquals("Mozilla", headers.get("User-Agent"));
+        Assert.assertEquals("tenant1", headers.get("X-Tenant-Id"));
+        Assert.assertEquals("2.0", headers.get("X-Client-Version"));
+    }
+
+    private static Map<String, String> getTransportHeaders() {
+
+        Map<String, String> transportHeaders = new HashMap<>();
+        transportHeaders.put("User-Agent", "Mozilla");
+        transportHeaders.put("X-Tenant-Id", "tenant1");
+        transportHeaders.put("X-Client-Version", "2.0");
+        transportHeaders.put("Accept", "application/json");
+        return transportHeaders;
+    }
+
+    private static List<VerbInfoDTO> getVerbInfoWithHeaderCondition(String headerName) {
+
+        ConditionDTO condition = new ConditionDTO();
+        condition.setConditionType(PolicyConstants.HEADER_TYPE);
+        condition.setConditionName(headerName);
+        condition.setConditionValue("Mozilla");
+        ConditionGroupDTO conditionGroup = new ConditionGroupDTO();
+        conditionGroup.setConditions(new ConditionDTO[]{condition});
+        VerbInfoDTO verbInfoDTO = new VerbInfoDTO();
+        verbInfoDTO.setConditionGroups(new ConditionGroupDTO[]{conditionGroup});
+        return Collections.singletonList(verbInfoDTO);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.util.List;
+
+/**
+ * Test cases for {@link ThrottleEventAggregator}
+ */
+public class ThrottleEventAggregatorTest {
+
+    @Test
+    public void testRequestsAreAggregatedPerThrottleKey() {
+
+        final DataPublisher dataPublisher = Mockito.mock(DataPublisher.class);
+        Mockito.when(dataPublisher.tryPublish(Mockito.any(Event.class))).thenReturn(true);
+        ThrottleEventAggregator aggregator = createAggregator(dataPublisher);
+
+        for (int i = 0; i < 100; i++) {
+            aggregator.add(event("urn:uuid:" + i, "resourceKey1").build());
+        }
+        aggregator.add(event("urn:uuid:100", "resourceKey2").build());
+        Assert.assertEquals(2, aggregator.getPendingAggregateCount());
+
+        Assert.assertEquals(2, aggregator.flush());
+        Assert.assertEquals(0, aggregator.getPendingAggregateCount());
+        Assert.assertEquals(101, aggregator.getAggregatedRequestCount());
+        Assert.assertEquals(2, aggregator.getPublishedEventCount());
+
+        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        Mockito.verify(dataPublisher, Mockito.times(2)).tryPublish(captor.capture());
+        List<Event> events = captor.getAllValues();
+        Event event = "resourceKey1".equals(events.get(0).getPayloadData()[7]) ? events.get(0) : events.get(1);
+        Assert.assertEquals("urn:uuid:0", event.getPayloadData()[0]);
+        Assert.assertEquals("{\"requestCount\":100}", event.getPayloadData()[16]);
+    }
+
+    @Test
+    public void testMessageSizeIsSummedForContentAwareRequests() {
+
+        final DataPublisher dataPublisher = Mockito.mock(DataPublisher.class);
+        Mockito.when(dataPublisher.tryPublish(Mockito.any(Event.class))).thenReturn(true);
+        ThrottleEventAggregator aggregator = createAggregator(dataPublisher);
+        aggregator.add(event("urn:uuid:1", "resourceKey").contentAware(100, "DefaultApplication", "API").build());
+        aggregator.add(event("urn:uuid:2", "resourceKey").contentAware(250, "DefaultApplication", "API").build());
+        Assert.assertEquals(1, aggregator.getPendingAggregateCount());
+        aggregator.flush();
+
+        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        Mockito.verify(dataPublisher).tryPublish(captor.capture());
+        String properties = (String) captor.getValue().getPayloadData()[16];
+        Assert.assertTrue(properties.contains("\"requestCount\":2"));
+        Assert.assertTrue(properties.contains("\"messageSize\":350"));
+        Assert.assertTrue(properties.contains("\"applicationName\":\"DefaultApplication\""));
+        Assert.assertTrue(properties.contains("\"subscriptionType\":\"API\""));
+    }
+
+    @Test
+    public void testFailedEventsAreCountedWhenPublisherIsNotAvailable() {
+
+        ThrottleEventAggregator aggregator = createAggregator(null);
+        aggregator.add(event("urn:uuid:1", "resourceKey").build());
+        Assert.assertEquals(0, aggregator.flush());
+        Assert.assertEquals(1, aggregator.getFailedEventCount());
+        Assert.assertEquals(0, aggregator.getPendingAggregateCount());
+    }
+
+    @Test
+    public void testRemainingAggregatesArePublishedOnShutdown() {
+
+        final DataPublisher dataPublisher = Mockito.mock(DataPublisher.class);
+        Mockito.when(dataPublisher.tryPublish(Mockito.any(Event.class))).thenReturn(true);
+        ThrottleEventAggregator aggregator = createAggregator(dataPublisher);
+        aggregator.start();
+        aggregator.add(event("urn:uuid:1", "resourceKey").build());
+        aggregator.shutdown();
+        Assert.assertEquals(0, aggregator.getPendingAggregateCount());
+        Assert.assertEquals(1, aggregator.getPublishedEventCount());
+    }
+
+    private ThrottleEventAggregator createAggregator(final DataPublisher dataPublisher) {
+
+        ThrottleProperties.DataPublisherEventAggregation configuration =
+                new ThrottleProperties.DataPublisherEventAggregation();
+        configuration.setWindow(60000);
+        return new ThrottleEventAggregator(configuration) {
+            @Override
+            protected DataPublisher getDataPublisher() {
+
+                return dataPublisher;
+            }
+        };
+    }
+
+    private ThrottleEvent.Builder event(String messageId, String resourceKey) {
+
+        return new ThrottleEvent.Builder()
+                .messageId(messageId)
+                .applicationLevel("appKey", "Unlimited")
+                .subscriptionLevel("subscriptionKey", "Gold")
+                .resourceLevel(resourceKey, "Unlimited")
+                .api("/pizzashack/1.0.0", "1.0.0", "PizzaShackAPI")
+                .tenants("carbon.super", "carbon.super");
+    }
+}
@@ -717,6 +717,8 @@ public final class APIConstants {
     public static final String CACHE_CONFIGS = "CacheConfigurations.";
     public static final String GATEWAY_TOKEN_CACHE_ENABLED = CACHE_CONFIGS + "EnableGatewayTokenCache";
     public static final String GATEWAY_RESOURCE_CACHE_ENABLED = CACHE_CONFIGS + "EnableGatewayResourceCache";
+    public static final String GATEWAY_GRAPHQL_PERSISTED_QUERY_CACHE_ENABLED = CACHE_CONFIGS
+            + "EnableGatewayGraphQLPersistedQueryCache";
     public static final String JWT_CLAIM_CACHE_EXPIRY = CACHE_CONFIGS + "JWTClaimCacheExpiry";
     public static final String ENABLED_JWT_CLAIM_CACHE = CACHE_CONFIGS + "EnableJWTClaimCache";
     public static final String KEY_MANAGER_TOKEN_CACHE = CACHE_CONFIGS + "EnableKeyManagerTokenCache";
@@ -1091,6 +1093,7 @@ public final class APIConstants {
     public static final String REST_API_TOKEN_CACHE_NAME = "RESTAPITokenCache";
     public static final String REST_API_INVALID_TOKEN_CACHE_NAME = "RESTAPIInvalidTokenCache";
     public static final String GATEWAY_JWT_TOKEN_CACHE = "GatewayJWTTokenCache";
+    public static final String GATEWAY_GRAPHQL_PERSISTED_QUERY_CACHE_NAME = "gatewayGraphQLPersistedQueryCache";
 
     public static final String KEY_CACHE_NAME = "keyCache";
     public static final String API_CONTEXT_CACHE = "apiContextCache";
@@ -1931,6 +1934,15 @@ public final class APIConstants {
         public static final String DATA_PUBLISHER_THREAD_POOL_CONFIGURATION_CORE_POOL_SIZE = "CorePoolSize";
         public static final String DATA_PUBLISHER_THREAD_POOL_CONFIGURATION_MAXMIMUM_POOL_SIZE = "MaxmimumPoolSize";
         public static final String DATA_PUBLISHER_THREAD_POOL_CONFIGURATION_KEEP_ALIVE_TIME = "KeepAliveTime";
+        public static final String DATA_PUBLISHER_EVENT_BUFFER_CONFIGURATION = "EventBuffer";
+        public static final String DATA_PUBLISHER_EVENT_BUFFER_CONFIGURATION_SIZE = "Size";
+        public static final String DATA_PUBLISHER_EVENT_BUFFER_CONFIGURATION_BATCH_SIZE = "BatchSize";
+        public static final String DATA_PUBLISHER_EVENT_BUFFER_CONFIGURATION_FLUSH_INTERVAL = "FlushInterval";
+        public static final String DATA_PUBLISHER_EVENT_BUFFER_CONFIGURATION_PUBLISH_ALL_HEADERS = "PublishAllHeaders";
+        public static final String DATA_PUBLISHER_EVENT_BUFFER_CONFIGURATION_CUSTOM_POLICY_HEADERS =
+                "CustomPolicyHeaders";
+        public static final String DATA_PUBLISHER_EVENT_AGGREGATION_CONFIGURATION = "EventAggregation";
+        public static final String DATA_PUBLISHER_EVENT_AGGREGATION_CONFIGURATION_WINDOW = "Window";
         public static final String BLOCK_CONDITION_RETRIEVER_INIT_DELAY = "InitDelay";
         public static final String BLOCK_CONDITION_RETRIEVER_PERIOD = "Period";
         public static final String ENABLE_SUBSCRIPTION_SPIKE_ARREST = "EnableSubscriptionSpikeArrest";
@@ -1946,6 +1958,7 @@ public final class APIConstants {
         public static final String TRUE = "true";
         public static final String ADD = "add";
         public static final String ENABLE_POLICY_DEPLOYMENT = "EnablePolicyDeployment";
+        public static final String ENABLE_CONSOLIDATED_POLICY_PLANS = "EnableConsolidatedPolicyPlans";
     }
 
     /**
@@ -2684,6 +2697,8 @@ public final class APIConstants {
         public static final String LABEL = "label";
         public static final String LABELS = "labels";
         public static final String EnableOnDemandLoadingAPIS = "EnableOnDemandLoadingAPIS";
+        public static final String DEPLOYMENT_THREAD_COUNT = "DeploymentThreadCount";
+        public static final String EVENT_DISPATCHER_THREAD_COUNT = "EventDispatcherThreadCount";
 
     }
 
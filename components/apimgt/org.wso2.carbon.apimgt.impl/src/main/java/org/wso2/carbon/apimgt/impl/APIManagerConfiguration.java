@@ -1156,6 +1156,13 @@ public class APIManagerConfiguration {
             if (enablePolicyDeployElement != null) {
                 throttleProperties.setEnablePolicyDeployment(Boolean.parseBoolean(enablePolicyDeployElement.getText()));
             }
+            OMElement enableConsolidatedPolicyPlansElement = throttleConfigurationElement
+                    .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                            .ENABLE_CONSOLIDATED_POLICY_PLANS));
+            if (enableConsolidatedPolicyPlansElement != null) {
+                throttleProperties.setEnableConsolidatedPolicyPlans(JavaUtils.isTrueExplicitly(
+                        enableConsolidatedPolicyPlansElement.getText()));
+            }
             // Check subscription spike arrest enable
             OMElement enabledSubscriptionLevelSpikeArrestElement = throttleConfigurationElement
                     .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
@@ -1280,6 +1287,82 @@ public class APIManagerConfiguration {
                         }
                     }
                     throttleProperties.setDataPublisherThreadPool(dataPublisherThreadPool);
+
+                    // Data publisher event buffer configuration
+
+                    OMElement dataPublisherEventBufferConfigurationElement = dataPublisherConfigurationElement
+                            .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                    .DATA_PUBLISHER_EVENT_BUFFER_CONFIGURATION));
+                    ThrottleProperties.DataPublisherEventBuffer dataPublisherEventBuffer = new ThrottleProperties
+                            .DataPublisherEventBuffer();
+                    if (dataPublisherEventBufferConfigurationElement != null) {
+                        OMElement eventBufferEnabledElement = dataPublisherEventBufferConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants.ENABLED));
+                        if (eventBufferEnabledElement != null) {
+                            dataPublisherEventBuffer.setEnabled(JavaUtils.isTrueExplicitly(eventBufferEnabledElement
+                                    .getText()));
+                        }
+                        OMElement eventBufferSizeElement = dataPublisherEventBufferConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                        .DATA_PUBLISHER_EVENT_BUFFER_CONFIGURATION_SIZE));
+                        if (eventBufferSizeElement != null) {
+                            dataPublisherEventBuffer.setSize(Integer.parseInt(eventBufferSizeElement.getText()));
+                        }
+                        OMElement eventBufferBatchSizeElement = dataPublisherEventBufferConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                        .DATA_PUBLISHER_EVENT_BUFFER_CONFIGURATION_BATCH_SIZE));
+                        if (eventBufferBatchSizeElement != null) {
+                            dataPublisherEventBuffer.setBatchSize(Integer.parseInt(eventBufferBatchSizeElement
+                                    .getText()));
+                        }
+                        OMElement eventBufferFlushIntervalElement = dataPublisherEventBufferConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                        .DATA_PUBLISHER_EVENT_BUFFER_CONFIGURATION_FLUSH_INTERVAL));
+                        if (eventBufferFlushIntervalElement != null) {
+                            dataPublisherEventBuffer.setFlushInterval(Long.parseLong(eventBufferFlushIntervalElement
+                                    .getText()));
+                        }
+                        OMElement eventBufferPublishAllHeadersElement = dataPublisherEventBufferConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                        .DATA_PUBLISHER_EVENT_BUFFER_CONFIGURATION_PUBLISH_ALL_HEADERS));
+                        if (eventBufferPublishAllHeadersElement != null) {
+                            dataPublisherEventBuffer.setPublishAllHeaders(JavaUtils.isTrueExplicitly(
+                                    eventBufferPublishAllHeadersElement.getText()));
+                        }
+                        OMElement eventBufferCustomPolicyHeadersElement = dataPublisherEventBufferConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                        .DATA_PUBLISHER_EVENT_BUFFER_CONFIGURATION_CUSTOM_POLICY_HEADERS));
+                        if (eventBufferCustomPolicyHeadersElement != null
+                                && !eventBufferCustomPolicyHeadersElement.getText().trim().isEmpty()) {
+                            dataPublisherEventBuffer.setCustomPolicyHeaders(eventBufferCustomPolicyHeadersElement
+                                    .getText().trim().split("\\s*" + APIConstants.DELEM_COMMA + "\\s*"));
+                        }
+                    }
+                    throttleProperties.setDataPublisherEventBuffer(dataPublisherEventBuffer);
+
+                    // Data publisher event aggregation configuration
+
+                    OMElement dataPublisherEventAggregationConfigurationElement = dataPublisherConfigurationElement
+                            .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                    .DATA_PUBLISHER_EVENT_AGGREGATION_CONFIGURATION));
+                    ThrottleProperties.DataPublisherEventAggregation dataPublisherEventAggregation = new
+                            ThrottleProperties.DataPublisherEventAggregation();
+                    if (dataPublisherEventAggregationConfigurationElement != null) {
+                        OMElement eventAggregationEnabledElement = dataPublisherEventAggregationConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants.ENABLED));
+                        if (eventAggregationEnabledElement != null) {
+                            dataPublisherEventAggregation.setEnabled(JavaUtils.isTrueExplicitly(
+                                    eventAggregationEnabledElement.getText()));
+                        }
+                        OMElement eventAggregationWindowElement = dataPublisherEventAggregationConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                        .DATA_PUBLISHER_EVENT_AGGREGATION_CONFIGURATION_WINDOW));
+                        if (eventAggregationWindowElement != null) {
+                            dataPublisherEventAggregation.setWindow(Long.parseLong(eventAggregationWindowElement
+                                    .getText()));
+                        }
+                    }
+                    throttleProperties.setDataPublisherEventAggregation(dataPublisherEventAggregation);
                 }
 
                 // Configuring JMSConnectionDetails
@@ -2162,6 +2245,28 @@ public class APIManagerConfiguration {
         if (enableEagerLoading != null){
             gatewayArtifactSynchronizerProperties.setOnDemandLoading(Boolean.parseBoolean(enableEagerLoading.getText()));
         }
+        OMElement deploymentThreadCountElement = omElement
+                .getFirstChildWithName(new QName(APIConstants.GatewayArtifactSynchronizer.DEPLOYMENT_THREAD_COUNT));
+        if (deploymentThreadCountElement != null) {
+            int deploymentThreadCount = Integer.parseInt(deploymentThreadCountElement.getText());
+            if (deploymentThreadCount > 0) {
+                gatewayArtifactSynchronizerProperties.setDeploymentThreadCount(deploymentThreadCount);
+            } else {
+                log.warn("Invalid gateway artifact deployment thread count " + deploymentThreadCount
+                        + ". Using the default value.");
+            }
+        }
+        OMElement eventDispatcherThreadCountElement = omElement.getFirstChildWithName(
+                new QName(APIConstants.GatewayArtifactSynchronizer.EVENT_DISPATCHER_THREAD_COUNT));
+        if (eventDispatcherThreadCountElement != null) {
+            int eventDispatcherThreadCount = Integer.parseInt(eventDispatcherThreadCountElement.getText());
+            if (eventDispatcherThreadCount > 0) {
+                gatewayArtifactSynchronizerProperties.setEventDispatcherThreadCount(eventDispatcherThreadCount);
+            } else {
+                log.warn("Invalid gateway event dispatcher thread count " + eventDispatcherThreadCount
+                        + ". Using the default value.");
+            }
+        }
     }
 
     public GatewayArtifactSynchronizerProperties getGatewayArtifactSynchronizerProperties() {
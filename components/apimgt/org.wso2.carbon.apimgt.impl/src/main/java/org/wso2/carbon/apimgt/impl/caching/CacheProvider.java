@@ -170,6 +170,13 @@ public class CacheProvider {
         return getCache(APIConstants.SystemScopeConstants.REST_API_SCOPE_CACHE);
     }
 
+    /**
+     * @return Gateway GraphQL persisted query cache
+     */
+    public static Cache getGatewayGraphQLPersistedQueryCache() {
+        return getCache(APIConstants.GATEWAY_GRAPHQL_PERSISTED_QUERY_CACHE_NAME);
+    }
+
     /**
      * @return Recommendations cache
      */
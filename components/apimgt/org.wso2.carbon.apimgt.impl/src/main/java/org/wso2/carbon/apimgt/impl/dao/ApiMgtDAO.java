@@ -674,7 +674,8 @@ public class ApiMgtDAO {
             preparedStForUpdate = conn.prepareStatement(sqlQuery);
             preparedStForUpdate.setString(1, requestedThrottlingTier);
             preparedStForUpdate.setString(2, status);
-            preparedStForUpdate.setString(3, inputSubscriptionUUId);
+            preparedStForUpdate.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+            preparedStForUpdate.setString(4, inputSubscriptionUUId);
             preparedStForUpdate.executeUpdate();
 
             // finally commit transaction
@@ -788,8 +789,10 @@ public class ApiMgtDAO {
             if (APIConstants.SubscriptionStatus.BLOCKED.equals(subStatus) || APIConstants.SubscriptionStatus
                     .PROD_ONLY_BLOCKED.equals(subStatus)) {
                 preparedStForUpdateOrDelete = conn.prepareStatement(updateQuery);
-                preparedStForUpdateOrDelete.setString(1, subscription.getUUID());
+                preparedStForUpdateOrDelete.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+                preparedStForUpdateOrDelete.setString(2, subscription.getUUID());
             } else {
+                addSubscriptionTombstone(conn, subscription.getUUID());
                 preparedStForUpdateOrDelete = conn.prepareStatement(deleteQuery);
                 preparedStForUpdateOrDelete.setString(1, subscription.getUUID());
             }
@@ -819,6 +822,7 @@ public class ApiMgtDAO {
             conn.setAutoCommit(false);
 
             String sqlQuery = SQLConstants.REMOVE_SUBSCRIPTION_BY_ID_SQL;
+            addSubscriptionTombstones(conn, SQLConstants.ADD_SUBSCRIPTION_TOMBSTONE_BY_ID_SQL, subscription_id);
 
             ps = conn.prepareStatement(sqlQuery);
             ps.setInt(1, subscription_id);
@@ -839,6 +843,60 @@ public class ApiMgtDAO {
         }
     }
 
+    /**
+     * Records the subscription as deleted so that gateways fetching subscription changes can remove it. Has to be
+     * called in the transaction deleting the subscription, before it is deleted.
+     *
+     * @param conn database connection
+     * @param uuid UUID of the subscription
+     * @throws SQLException
+     */
+    private void addSubscriptionTombstone(Connection conn, String uuid) throws SQLException {
+
+        try (PreparedStatement ps = conn.prepareStatement(SQLConstants.ADD_SUBSCRIPTION_TOMBSTONE_SQL)) {
+            ps.setString(1, uuid);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Records the subscriptions matched by the given query as deleted so that gateways fetching subscription changes
+     * can remove them. Has to be called in the transaction deleting the subscriptions, before they are deleted.
+     *
+     * @param conn           database connection
+     * @param tombstoneQuery one of the ADD_SUBSCRIPTION_TOMBSTONE queries
+     * @param ids            ids matched by the query
+     * @throws SQLException
+     */
+    private void addSubscriptionTombstones(Connection conn, String tombstoneQuery, int... ids) throws SQLException {
+
+        try (PreparedStatement ps = conn.prepareStatement(tombstoneQuery)) {
+            for (int i = 0; i < ids.length; i++) {
+                ps.setInt(i + 1, ids[i]);
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Removes the tombstones of the subscriptions deleted before the given time.
+     *
+     * @param deletedBefore time before which the subscriptions were deleted
+     * @throws APIManagementException if failed to remove the tombstones
+     */
+    public void removeExpiredSubscriptionTombstones(Timestamp deletedBefore) throws APIManagementException {
+
+        try (Connection connection = APIMgtDBUtil.getConnection(); PreparedStatement ps =
+                connection.prepareStatement(SQLConstants.REMOVE_EXPIRED_SUBSCRIPTION_TOMBSTONES_SQL)) {
+            connection.setAutoCommit(false);
+            ps.setTimestamp(1, deletedBefore);
+            ps.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            handleException("Error while deleting expired subscription tombstones.", e);
+        }
+    }
+
     public void removeAllSubscriptions(String uuid) throws APIManagementException {
 
         Connection conn = null;
@@ -851,6 +909,7 @@ public class ApiMgtDAO {
             apiId = getAPIID(uuid, conn);
 
             String sqlQuery = SQLConstants.REMOVE_ALL_SUBSCRIPTIONS_SQL;
+            addSubscriptionTombstones(conn, SQLConstants.ADD_SUBSCRIPTION_TOMBSTONES_BY_API_ID_SQL, apiId);
 
             ps = conn.prepareStatement(sqlQuery);
             ps.setInt(1, apiId);
@@ -2263,7 +2322,8 @@ public class ApiMgtDAO {
 
             ps = conn.prepareStatement(sqlQuery);
             ps.setString(1, status);
-            ps.setInt(2, subscriptionId);
+            ps.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+            ps.setInt(3, subscriptionId);
             ps.execute();
 
             //Commit transaction
@@ -2302,7 +2362,8 @@ public class ApiMgtDAO {
                 ps.setString(2, subscribedAPI.getRequestedTier().getName());
             }
             ps.setString(3, status);
-            ps.setInt(4, subscriptionId);
+            ps.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            ps.setInt(5, subscriptionId);
             ps.execute();
 
             //Commit transaction
@@ -4632,6 +4693,8 @@ public class ApiMgtDAO {
                         application.getName());
             }
 
+            addSubscriptionTombstones(connection, SQLConstants.ADD_SUBSCRIPTION_TOMBSTONES_BY_APPLICATION_ID_SQL,
+                    application.getId());
             deleteSubscription = connection.prepareStatement(deleteSubscriptionsQuery);
             deleteSubscription.setInt(1, application.getId());
             deleteSubscription.execute();
@@ -6940,6 +7003,7 @@ public class ApiMgtDAO {
             prepStmt.execute();
             prepStmt.close();//If exception occurs at execute, this statement will close in finally else here
 
+            addSubscriptionTombstones(connection, SQLConstants.ADD_SUBSCRIPTION_TOMBSTONES_BY_API_ID_SQL, id);
             prepStmt = connection.prepareStatement(deleteSubscriptionQuery);
             prepStmt.setInt(1, id);
             prepStmt.execute();
@@ -10194,6 +10258,8 @@ public class ApiMgtDAO {
         String deleteQuery = SQLConstants.REMOVE_SUBSCRIPTION_BY_APPLICATION_ID_SQL;
         PreparedStatement ps = null;
         try {
+            addSubscriptionTombstones(conn, SQLConstants.ADD_SUBSCRIPTION_TOMBSTONE_BY_API_ID_AND_APPLICATION_ID_SQL,
+                    apiId, appId);
             ps = conn.prepareStatement(deleteQuery);
             ps.setInt(1, apiId);
             ps.setInt(2, appId);
@@ -8,6 +8,7 @@ import org.wso2.carbon.apimgt.api.model.APIRevisionDeployment;
 import org.wso2.carbon.apimgt.impl.dao.constants.SQLConstants;
 import org.wso2.carbon.apimgt.impl.dto.APIRuntimeArtifactDto;
 import org.wso2.carbon.apimgt.impl.dto.APIArtifactPropertyValues;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.RuntimeArtifactCallback;
 import org.wso2.carbon.apimgt.impl.utils.APIMgtDBUtil;
 import org.wso2.carbon.apimgt.impl.utils.GatewayArtifactsMgtDBUtil;
 import org.wso2.carbon.apimgt.impl.utils.VHostUtils;
@@ -17,12 +18,14 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -213,6 +216,8 @@ public class GatewayArtifactsMgtDAO {
             statement.setString(4, revision);
             statement.executeUpdate();
         }
+        // Artifacts rendered from the previous artifact of the revision are no longer valid
+        removeRenderedGatewayArtifacts(connection, apiId, revision);
     }
 
     /**
@@ -312,6 +317,7 @@ public class GatewayArtifactsMgtDAO {
             connection.setAutoCommit(false);
             try {
                 removePublishedGatewayLabels(connection, apiId, revision);
+                removeRenderedGatewayArtifacts(connection, apiId, revision);
                 try (PreparedStatement preparedStatement = connection.prepareStatement(deleteGWPublishedArtifacts)) {
                     preparedStatement.setString(1, apiId);
                     preparedStatement.setString(2, revision);
@@ -333,6 +339,11 @@ public class GatewayArtifactsMgtDAO {
         try (Connection connection = GatewayArtifactsMgtDBUtil.getArtifactSynchronizerConnection()) {
             connection.setAutoCommit(false);
             try {
+                try (PreparedStatement preparedStatement = connection
+                        .prepareStatement(SQLConstants.DELETE_GW_RENDERED_API_ARTIFACTS_BY_API_ID)) {
+                    preparedStatement.setString(1, apiId);
+                    preparedStatement.executeUpdate();
+                }
                 try (PreparedStatement preparedStatement = connection.prepareStatement(deleteGWArtifact)) {
                     preparedStatement.setString(1, apiId);
                     preparedStatement.executeUpdate();
@@ -675,86 +686,137 @@ public class GatewayArtifactsMgtDAO {
     public List<APIRuntimeArtifactDto> retrieveGatewayArtifactsByLabel(String[] labels, String tenantDomain)
             throws APIManagementException {
 
+        List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList = new ArrayList<>();
+        streamGatewayArtifactsByLabel(labels, tenantDomain, getBufferingCallback(apiRuntimeArtifactDtoList));
+        return apiRuntimeArtifactDtoList;
+    }
+
+    /**
+     * Streams the runtime artifacts of a tenant deployed in the given gateway environments, reading one artifact from
+     * the database at a time.
+     *
+     * @param labels       gateway environments
+     * @param tenantDomain tenant domain
+     * @param callback     callback receiving the runtime artifacts
+     * @throws APIManagementException if failed to retrieve the runtime artifacts
+     */
+    public void streamGatewayArtifactsByLabel(String[] labels, String tenantDomain, RuntimeArtifactCallback callback)
+            throws APIManagementException {
+
         String query = SQLConstants.RETRIEVE_ARTIFACTS_BY_LABEL;
         query = query.replaceAll(SQLConstants.GATEWAY_LABEL_REGEX, String.join(",",Collections.nCopies(labels.length, "?")));
-        List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList = new ArrayList<>();
-        try (Connection connection = GatewayArtifactsMgtDBUtil.getArtifactSynchronizerConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            int index = 1;
-            for (String label : labels) {
-                preparedStatement.setString(index, label);
-                index++;
-            }
-            preparedStatement.setString(index, tenantDomain);
-            try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                while (resultSet.next()) {
-                    String apiId = resultSet.getString("API_ID");
-                    String label = resultSet.getString("LABEL");
-                    try {
-                        APIRuntimeArtifactDto apiRuntimeArtifactDto = new APIRuntimeArtifactDto();
-                        apiRuntimeArtifactDto.setTenantDomain(resultSet.getString("TENANT_DOMAIN"));
-                        apiRuntimeArtifactDto.setApiId(apiId);
-                        String resolvedVhost = VHostUtils.resolveIfNullToDefaultVhost(label,
-                                resultSet.getString("VHOST"));
-                        apiRuntimeArtifactDto.setLabel(label);
-                        apiRuntimeArtifactDto.setVhost(resolvedVhost);
-                        apiRuntimeArtifactDto.setName(resultSet.getString("API_NAME"));
-                        apiRuntimeArtifactDto.setVersion(resultSet.getString("API_VERSION"));
-                        apiRuntimeArtifactDto.setProvider(resultSet.getString("API_PROVIDER"));
-                        apiRuntimeArtifactDto.setRevision(resultSet.getString("REVISION_ID"));
-                        apiRuntimeArtifactDto.setType(resultSet.getString("API_TYPE"));
-                        apiRuntimeArtifactDto.setContext(resultSet.getString("CONTEXT"));
-                        InputStream artifact = resultSet.getBinaryStream("ARTIFACT");
-                        if (artifact != null) {
-                            byte[] artifactByte = APIMgtDBUtil.getBytesFromInputStream(artifact);
-                            try (InputStream newArtifact = new ByteArrayInputStream(artifactByte)) {
-                                apiRuntimeArtifactDto.setArtifact(newArtifact);
-                            }
-                        }
-                        apiRuntimeArtifactDto.setFile(true);
-                        apiRuntimeArtifactDtoList.add(apiRuntimeArtifactDto);
-                    } catch (APIManagementException e) {
-                        // handle exception inside the loop and continue with other API artifacts
-                        log.error(String.format("Error resolving vhost while retrieving runtime artifact for API %s, "
-                                + "gateway environment \"%s\", tenant: \"%s\"." +
-                                "Skipping runtime artifact for the API.", apiId, label, tenantDomain), e);
-                    } catch (IOException e) {
-                        // handle exception inside the loop and continue with other API artifacts
-                        log.error(String.format("Error occurred retrieving input stream from byte array of " +
-                                "API: %s, gateway environment \"%s\", tenant: \"%s\".", apiId, label, tenantDomain), e);
-                    } catch (SQLException e) {
-                        // handle exception inside the loop and continue with other API artifacts
-                        log.error(String.format("Failed to retrieve Gateway Artifact of API: %s, " +
-                                "gateway environment \"%s\", tenant: \"%s\".", apiId, label, tenantDomain), e);
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            handleException("Failed to retrieve Gateway Artifact for labels : " + StringUtils.join(",", labels), e);
-        }
+        List<String> parameters = new ArrayList<>(Arrays.asList(labels));
+        parameters.add(tenantDomain);
+        streamGatewayArtifacts(query, parameters, tenantDomain, callback,
+                "Failed to retrieve Gateway Artifact for labels : " + StringUtils.join(",", labels));
+    }
+
+    public List<APIRuntimeArtifactDto> retrieveAllGatewayArtifactsByLabel(String[] labels)
+            throws APIManagementException {
 
+        List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList = new ArrayList<>();
+        streamAllGatewayArtifactsByLabel(labels, getBufferingCallback(apiRuntimeArtifactDtoList));
         return apiRuntimeArtifactDtoList;
     }
 
-    public List<APIRuntimeArtifactDto> retrieveAllGatewayArtifactsByLabel(String[] labels)
+    /**
+     * Streams the runtime artifacts of all tenants deployed in the given gateway environments, reading one artifact
+     * from the database at a time.
+     *
+     * @param labels   gateway environments
+     * @param callback callback receiving the runtime artifacts
+     * @throws APIManagementException if failed to retrieve the runtime artifacts
+     */
+    public void streamAllGatewayArtifactsByLabel(String[] labels, RuntimeArtifactCallback callback)
             throws APIManagementException {
 
         String query = SQLConstants.RETRIEVE_ALL_ARTIFACTS_BY_LABEL;
         query = query.replaceAll(SQLConstants.GATEWAY_LABEL_REGEX, String.join(",",Collections.nCopies(labels.length, "?")));
+        streamGatewayArtifacts(query, Arrays.asList(labels), null, callback,
+                "Failed to retrieve Gateway Artifact for labels : " + StringUtils.join(",", labels));
+    }
+
+    public List<APIRuntimeArtifactDto> retrieveGatewayArtifacts(String tenantDomain)
+            throws APIManagementException {
+
+        List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList = new ArrayList<>();
+        streamGatewayArtifacts(tenantDomain, getBufferingCallback(apiRuntimeArtifactDtoList));
+        return apiRuntimeArtifactDtoList;
+    }
+
+    /**
+     * Streams the runtime artifacts of a tenant, reading one artifact from the database at a time.
+     *
+     * @param tenantDomain tenant domain
+     * @param callback     callback receiving the runtime artifacts
+     * @throws APIManagementException if failed to retrieve the runtime artifacts
+     */
+    public void streamGatewayArtifacts(String tenantDomain, RuntimeArtifactCallback callback)
+            throws APIManagementException {
+
+        streamGatewayArtifacts(SQLConstants.RETRIEVE_ARTIFACTS, Collections.singletonList(tenantDomain), tenantDomain,
+                callback, "Failed to retrieve Gateway Artifacts.");
+    }
+
+    public List<APIRuntimeArtifactDto> retrieveAllGatewayArtifacts() throws APIManagementException {
+
         List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList = new ArrayList<>();
+        streamAllGatewayArtifacts(getBufferingCallback(apiRuntimeArtifactDtoList));
+        return apiRuntimeArtifactDtoList;
+    }
+
+    /**
+     * Streams the runtime artifacts of all tenants, reading one artifact from the database at a time.
+     *
+     * @param callback callback receiving the runtime artifacts
+     * @throws APIManagementException if failed to retrieve the runtime artifacts
+     */
+    public void streamAllGatewayArtifacts(RuntimeArtifactCallback callback) throws APIManagementException {
+
+        streamGatewayArtifacts(SQLConstants.RETRIEVE_ALL_ARTIFACTS, Collections.emptyList(), null, callback,
+                "Failed to retrieve Gateway Artifacts.");
+    }
+
+    /**
+     * Passes the runtime artifacts selected by the query to the callback one at a time. The rows are streamed from the
+     * database, and the artifact of each row is read before it is passed to the callback, so that only the artifact
+     * being processed is kept in memory. Artifacts that cannot be read are logged and skipped, while failures of the
+     * callback stop the retrieval.
+     */
+    private void streamGatewayArtifacts(String query, List<String> parameters, String tenantDomain,
+                                        RuntimeArtifactCallback callback, String errorMessage)
+            throws APIManagementException {
+
+        String tenantMessage = tenantDomain != null ? ", tenant: \"" + tenantDomain + "\"" : "";
         try (Connection connection = GatewayArtifactsMgtDBUtil.getArtifactSynchronizerConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+             PreparedStatement preparedStatement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+                     ResultSet.CONCUR_READ_ONLY)) {
+            boolean initialAutoCommit = connection.getAutoCommit();
+            String driverName = connection.getMetaData().getDriverName();
+            if (driverName.contains("MySQL")) {
+                // MySQL reads the whole result set into memory, unless the rows are streamed one at a time
+                preparedStatement.setFetchSize(Integer.MIN_VALUE);
+            } else {
+                if (driverName.contains("PostgreSQL")) {
+                    // PostgreSQL only fetches the rows in batches within a transaction
+                    connection.setAutoCommit(false);
+                }
+                preparedStatement.setFetchSize(SQLConstants.GATEWAY_ARTIFACT_FETCH_SIZE);
+            }
             int index = 1;
-            for (String label : labels) {
-                preparedStatement.setString(index, label);
+            for (String parameter : parameters) {
+                preparedStatement.setString(index, parameter);
                 index++;
             }
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 while (resultSet.next()) {
                     String apiId = resultSet.getString("API_ID");
                     String label = resultSet.getString("LABEL");
+                    APIRuntimeArtifactDto apiRuntimeArtifactDto = new APIRuntimeArtifactDto();
                     try {
-                        APIRuntimeArtifactDto apiRuntimeArtifactDto = new APIRuntimeArtifactDto();
+                        if (tenantDomain != null) {
+                            apiRuntimeArtifactDto.setTenantDomain(resultSet.getString("TENANT_DOMAIN"));
+                        }
                         apiRuntimeArtifactDto.setApiId(apiId);
                         String resolvedVhost = VHostUtils.resolveIfNullToDefaultVhost(label,
                                 resultSet.getString("VHOST"));
@@ -766,148 +828,138 @@ public class GatewayArtifactsMgtDAO {
                         apiRuntimeArtifactDto.setRevision(resultSet.getString("REVISION_ID"));
                         apiRuntimeArtifactDto.setType(resultSet.getString("API_TYPE"));
                         apiRuntimeArtifactDto.setContext(resultSet.getString("CONTEXT"));
+                        apiRuntimeArtifactDto.setFile(true);
+                        // The artifact is read before the callback processes it, as streamed rows can not be read
+                        // while the callback uses the database
                         InputStream artifact = resultSet.getBinaryStream("ARTIFACT");
                         if (artifact != null) {
                             byte[] artifactByte = APIMgtDBUtil.getBytesFromInputStream(artifact);
-                            try (InputStream newArtifact = new ByteArrayInputStream(artifactByte)) {
-                                apiRuntimeArtifactDto.setArtifact(newArtifact);
-                            }
+                            apiRuntimeArtifactDto.setArtifact(new ByteArrayInputStream(artifactByte));
                         }
-                        apiRuntimeArtifactDto.setFile(true);
-                        apiRuntimeArtifactDtoList.add(apiRuntimeArtifactDto);
                     } catch (APIManagementException e) {
                         // handle exception inside the loop and continue with other API artifacts
                         log.error(String.format("Error resolving vhost while retrieving runtime artifact for API %s, "
-                                + "gateway environment \"%s\"." +
-                                "Skipping runtime artifact for the API.", apiId, label), e);
-                    } catch (IOException e) {
-                        // handle exception inside the loop and continue with other API artifacts
-                        log.error(String.format("Error occurred retrieving input stream from byte array of " +
-                                "API: %s, gateway environment \"%s\".", apiId, label), e);
+                                + "gateway environment \"%s\"%s." +
+                                "Skipping runtime artifact for the API.", apiId, label, tenantMessage), e);
+                        continue;
                     } catch (SQLException e) {
                         // handle exception inside the loop and continue with other API artifacts
                         log.error(String.format("Failed to retrieve Gateway Artifact of API: %s, " +
-                                "gateway environment \"%s\".", apiId, label), e);
+                                "gateway environment \"%s\"%s.", apiId, label, tenantMessage), e);
+                        continue;
                     }
+                    callback.onArtifact(apiRuntimeArtifactDto);
+                }
+            } finally {
+                if (initialAutoCommit && !connection.getAutoCommit()) {
+                    // Ends the transaction the rows were fetched in
+                    connection.commit();
+                    APIMgtDBUtil.setAutoCommit(connection, true);
                 }
             }
         } catch (SQLException e) {
-            handleException("Failed to retrieve Gateway Artifact for labels : " + StringUtils.join(",", labels), e);
+            handleException(errorMessage, e);
         }
+    }
 
-        return apiRuntimeArtifactDtoList;
+    /**
+     * Returns a callback adding the runtime artifacts to a list.
+     */
+    private RuntimeArtifactCallback getBufferingCallback(List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList) {
+
+        return apiRuntimeArtifactDtoList::add;
     }
 
-    public List<APIRuntimeArtifactDto> retrieveGatewayArtifacts(String tenantDomain)
-            throws APIManagementException {
+    /**
+     * Retrieves the gateway artifact rendered from an API revision for a gateway environment and gateway type.
+     *
+     * @param revisionId  UUID of the API revision
+     * @param label       name of the gateway environment
+     * @param gatewayType type of the gateway the artifact is rendered for
+     * @param contentHash hash of the inputs the artifact has to be rendered from
+     * @return rendered artifact, or null if the artifact is not rendered yet or was rendered from other inputs
+     * @throws APIManagementException if failed to retrieve the rendered artifact
+     */
+    public String retrieveRenderedGatewayArtifact(String revisionId, String label, String gatewayType,
+                                                  String contentHash) throws APIManagementException {
 
-        String query = SQLConstants.RETRIEVE_ARTIFACTS;
-        List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList = new ArrayList<>();
         try (Connection connection = GatewayArtifactsMgtDBUtil.getArtifactSynchronizerConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            preparedStatement.setString(1, tenantDomain);
+             PreparedStatement preparedStatement = connection
+                     .prepareStatement(SQLConstants.GET_GW_RENDERED_API_ARTIFACT)) {
+            preparedStatement.setString(1, revisionId);
+            preparedStatement.setString(2, label);
+            preparedStatement.setString(3, gatewayType);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                while (resultSet.next()) {
-                    String apiId = resultSet.getString("API_ID");
-                    String label = resultSet.getString("LABEL");
-                    try {
-                        APIRuntimeArtifactDto apiRuntimeArtifactDto = new APIRuntimeArtifactDto();
-                        apiRuntimeArtifactDto.setTenantDomain(resultSet.getString("TENANT_DOMAIN"));
-                        apiRuntimeArtifactDto.setApiId(apiId);
-                        String resolvedVhost = VHostUtils.resolveIfNullToDefaultVhost(label,
-                                resultSet.getString("VHOST"));
-                        apiRuntimeArtifactDto.setLabel(label);
-                        apiRuntimeArtifactDto.setVhost(resolvedVhost);
-                        apiRuntimeArtifactDto.setName(resultSet.getString("API_NAME"));
-                        apiRuntimeArtifactDto.setVersion(resultSet.getString("API_VERSION"));
-                        apiRuntimeArtifactDto.setProvider(resultSet.getString("API_PROVIDER"));
-                        apiRuntimeArtifactDto.setRevision(resultSet.getString("REVISION_ID"));
-                        apiRuntimeArtifactDto.setType(resultSet.getString("API_TYPE"));
-                        apiRuntimeArtifactDto.setContext(resultSet.getString("CONTEXT"));
-                        InputStream artifact = resultSet.getBinaryStream("ARTIFACT");
-                        if (artifact != null) {
-                            byte[] artifactByte = APIMgtDBUtil.getBytesFromInputStream(artifact);
-                            try (InputStream newArtifact = new ByteArrayInputStream(artifactByte)) {
-                                apiRuntimeArtifactDto.setArtifact(newArtifact);
-                            }
-                        }
-                        apiRuntimeArtifactDto.setFile(true);
-                        apiRuntimeArtifactDtoList.add(apiRuntimeArtifactDto);
-                    } catch (APIManagementException e) {
-                        // handle exception inside the loop and continue with other API artifacts
-                        log.error(String.format("Error resolving vhost while retrieving runtime artifact for API %s, "
-                                + "gateway environment \"%s\", tenant: \"%s\"." +
-                                "Skipping runtime artifact for the API.", apiId, label, tenantDomain), e);
-                    } catch (IOException e) {
-                        // handle exception inside the loop and continue with other API artifacts
-                        log.error(String.format("Error occurred retrieving input stream from byte array of " +
-                                "API: %s, gateway environment \"%s\", tenant: \"%s\".", apiId, label, tenantDomain), e);
-                    } catch (SQLException e) {
-                        // handle exception inside the loop and continue with other API artifacts
-                        log.error(String.format("Failed to retrieve Gateway Artifact of API: %s, " +
-                                "gateway environment \"%s\", tenant: \"%s\".", apiId, label, tenantDomain), e);
+                if (resultSet.next() && contentHash.equals(resultSet.getString("CONTENT_HASH"))) {
+                    InputStream artifact = resultSet.getBinaryStream("ARTIFACT");
+                    if (artifact != null) {
+                        return new String(APIMgtDBUtil.getBytesFromInputStream(artifact), StandardCharsets.UTF_8);
                     }
                 }
             }
         } catch (SQLException e) {
-            handleException("Failed to retrieve Gateway Artifacts.", e);
+            handleException("Failed to retrieve rendered Gateway Artifact of revision " + revisionId
+                    + " for gateway environment " + label, e);
         }
-
-        return apiRuntimeArtifactDtoList;
+        return null;
     }
 
-    public List<APIRuntimeArtifactDto> retrieveAllGatewayArtifacts() throws APIManagementException {
-        String query = SQLConstants.RETRIEVE_ALL_ARTIFACTS;
-        List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList = new ArrayList<>();
-        try (Connection connection = GatewayArtifactsMgtDBUtil.getArtifactSynchronizerConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                while (resultSet.next()) {
-                    String apiId = resultSet.getString("API_ID");
-                    String label = resultSet.getString("LABEL");
-                    try {
-                        APIRuntimeArtifactDto apiRuntimeArtifactDto = new APIRuntimeArtifactDto();
-                        apiRuntimeArtifactDto.setApiId(apiId);
-                        String resolvedVhost = VHostUtils.resolveIfNullToDefaultVhost(label,
-                                resultSet.getString("VHOST"));
-                        apiRuntimeArtifactDto.setLabel(label);
-                        apiRuntimeArtifactDto.setVhost(resolvedVhost);
-                        apiRuntimeArtifactDto.setName(resultSet.getString("API_NAME"));
-                        apiRuntimeArtifactDto.setVersion(resultSet.getString("API_VERSION"));
-                        apiRuntimeArtifactDto.setProvider(resultSet.getString("API_PROVIDER"));
-                        apiRuntimeArtifactDto.setRevision(resultSet.getString("REVISION_ID"));
-                        apiRuntimeArtifactDto.setType(resultSet.getString("API_TYPE"));
-                        apiRuntimeArtifactDto.setContext(resultSet.getString("CONTEXT"));
-                        InputStream artifact = resultSet.getBinaryStream("ARTIFACT");
-                        if (artifact != null) {
-                            byte[] artifactByte = APIMgtDBUtil.getBytesFromInputStream(artifact);
-                            try (InputStream newArtifact = new ByteArrayInputStream(artifactByte)) {
-                                apiRuntimeArtifactDto.setArtifact(newArtifact);
-                            }
-                        }
-                        apiRuntimeArtifactDto.setFile(true);
-                        apiRuntimeArtifactDtoList.add(apiRuntimeArtifactDto);
-                    } catch (APIManagementException e) {
-                        // handle exception inside the loop and continue with other API artifacts
-                        log.error(String.format("Error resolving vhost while retrieving runtime artifact for API %s, "
-                                + "gateway environment \"%s\"." +
-                                "Skipping runtime artifact for the API.", apiId, label), e);
-                    } catch (IOException e) {
-                        // handle exception inside the loop and continue with other API artifacts
-                        log.error(String.format("Error occurred retrieving input stream from byte array of " +
-                                "API: %s, gateway environment \"%s\".", apiId, label), e);
-                    } catch (SQLException e) {
-                        // handle exception inside the loop and continue with other API artifacts
-                        log.error(String.format("Failed to retrieve Gateway Artifact of API: %s, " +
-                                "gateway environment \"%s\".", apiId, label), e);
-                    }
+    /**
+     * Adds the gateway artifact rendered from an API revision for a gateway environment and gateway type, replacing
+     * the artifact rendered earlier.
+     *
+     * @param apiId       UUID of the API
+     * @param revisionId  UUID of the API revision
+     * @param label       name of the gateway environment
+     * @param gatewayType type of the gateway the artifact is rendered for
+     * @param contentHash hash of the inputs the artifact was rendered from
+     * @param artifact    rendered artifact
+     * @throws APIManagementException if failed to add the rendered artifact
+     */
+    public void addRenderedGatewayArtifact(String apiId, String revisionId, String label, String gatewayType,
+                                           String contentHash, String artifact) throws APIManagementException {
+
+        try (Connection connection = GatewayArtifactsMgtDBUtil.getArtifactSynchronizerConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement statement = connection
+                        .prepareStatement(SQLConstants.DELETE_GW_RENDERED_API_ARTIFACT)) {
+                    statement.setString(1, revisionId);
+                    statement.setString(2, label);
+                    statement.setString(3, gatewayType);
+                    statement.executeUpdate();
                 }
+                try (PreparedStatement statement = connection
+                        .prepareStatement(SQLConstants.ADD_GW_RENDERED_API_ARTIFACT)) {
+                    statement.setString(1, apiId);
+                    statement.setString(2, revisionId);
+                    statement.setString(3, label);
+                    statement.setString(4, gatewayType);
+                    statement.setString(5, contentHash);
+                    statement.setBinaryStream(6,
+                            new ByteArrayInputStream(artifact.getBytes(StandardCharsets.UTF_8)));
+                    statement.executeUpdate();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
             }
         } catch (SQLException e) {
-            handleException("Failed to retrieve Gateway Artifacts.", e);
+            handleException("Failed to add rendered Gateway Artifact of revision " + revisionId
+                    + " for gateway environment " + label, e);
         }
+    }
 
-        return apiRuntimeArtifactDtoList;
+    private void removeRenderedGatewayArtifacts(Connection connection, String apiId, String revision)
+            throws SQLException {
+
+        try (PreparedStatement preparedStatement = connection
+                .prepareStatement(SQLConstants.DELETE_GW_RENDERED_API_ARTIFACTS_BY_API_ID_REVISION_ID)) {
+            preparedStatement.setString(1, apiId);
+            preparedStatement.setString(2, revision);
+            preparedStatement.executeUpdate();
+        }
     }
 
     public void removePublishedGatewayLabels(String apiId, String apiRevisionId, Set<String> gatewayLabels) throws APIManagementException {
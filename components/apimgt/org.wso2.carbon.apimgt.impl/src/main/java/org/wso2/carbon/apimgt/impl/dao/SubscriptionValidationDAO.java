@@ -55,6 +55,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
@@ -474,6 +475,89 @@ public class SubscriptionValidationDAO {
         return subscriptions;
     }
 
+    /*
+     * This method can be used to retrieve the Subscriptions of a tenant which were added or updated after the given
+     * time, in the order of their ids
+     *
+     * @param tenantDomain : tenant domain
+     * @param since : time after which the subscriptions were changed
+     * @param afterId : only subscriptions with a larger id are returned, used to page through the changes
+     * @param limit : maximum number of subscriptions returned
+     * @return {@link List<Subscription>}
+     * */
+    public List<Subscription> getSubscriptionChanges(String tenantDomain, Timestamp since, int afterId, int limit)
+            throws APIManagementException {
+
+        List<Subscription> subscriptions = new ArrayList<>();
+        try (Connection conn = APIMgtDBUtil.getConnection();
+             PreparedStatement ps =
+                     conn.prepareStatement(SubscriptionValidationSQLConstants.GET_TENANT_SUBSCRIPTION_CHANGES_SQL)) {
+            ps.setInt(1, getTenantId(tenantDomain));
+            ps.setTimestamp(2, since);
+            ps.setTimestamp(3, since);
+            ps.setInt(4, afterId);
+            ps.setMaxRows(limit);
+
+            try (ResultSet resultSet = ps.executeQuery()) {
+                populateSubscriptionsList(subscriptions, resultSet);
+            }
+        } catch (SQLException e) {
+            throw new APIManagementException("Error in loading Subscription changes for tenant : " + tenantDomain, e);
+        }
+        return subscriptions;
+    }
+
+    /*
+     * This method can be used to retrieve the Subscriptions of a tenant which were deleted after the given time, in
+     * the order of their ids. Only the ids and UUIDs of the subscription, API and application are available for
+     * deleted subscriptions.
+     *
+     * @param tenantDomain : tenant domain
+     * @param since : time after which the subscriptions were deleted
+     * @param afterId : only subscriptions with a larger id are returned, used to page through the deletions
+     * @param limit : maximum number of subscriptions returned
+     * @return {@link List<Subscription>}
+     * */
+    public List<Subscription> getDeletedSubscriptions(String tenantDomain, Timestamp since, int afterId, int limit)
+            throws APIManagementException {
+
+        List<Subscription> subscriptions = new ArrayList<>();
+        try (Connection conn = APIMgtDBUtil.getConnection();
+             PreparedStatement ps =
+                     conn.prepareStatement(SubscriptionValidationSQLConstants.GET_TENANT_SUBSCRIPTION_TOMBSTONES_SQL)) {
+            ps.setInt(1, getTenantId(tenantDomain));
+            ps.setTimestamp(2, since);
+            ps.setInt(3, afterId);
+            ps.setMaxRows(limit);
+
+            try (ResultSet resultSet = ps.executeQuery()) {
+                while (resultSet.next()) {
+                    Subscription subscription = new Subscription();
+                    subscription.setSubscriptionUUID(resultSet.getString("SUBSCRIPTION_UUID"));
+                    subscription.setSubscriptionId(resultSet.getInt("SUB_ID"));
+                    subscription.setApiId(resultSet.getInt("API_ID"));
+                    subscription.setAppId(resultSet.getInt("APP_ID"));
+                    subscription.setApiUUID(resultSet.getString("API_UUID"));
+                    subscription.setApplicationUUID(resultSet.getString("APPLICATION_UUID"));
+                    subscriptions.add(subscription);
+                }
+            }
+        } catch (SQLException e) {
+            throw new APIManagementException("Error in loading deleted Subscriptions for tenant : " + tenantDomain, e);
+        }
+        return subscriptions;
+    }
+
+    private int getTenantId(String tenantDomain) throws APIManagementException {
+
+        try {
+            return ServiceReferenceHolder.getInstance().getRealmService().getTenantManager()
+                    .getTenantId(tenantDomain);
+        } catch (UserStoreException e) {
+            throw new APIManagementException("Error in getting tenant id of tenant : " + tenantDomain, e);
+        }
+    }
+
     private void populateSubscriptionsList(List<Subscription> subscriptions, ResultSet resultSet) throws SQLException {
 
         if (resultSet != null && subscriptions != null) {
@@ -266,6 +266,7 @@ public class SQLConstants {
             " UPDATE AM_SUBSCRIPTION " +
             " SET TIER_ID_PENDING = ? " +
             " , SUB_STATUS = ? " +
+            " , UPDATED_TIME = ? " +
             " WHERE UUID = ?";
 
     public static final String GET_SUBSCRIPTION_UUID_SQL =
@@ -292,8 +293,40 @@ public class SQLConstants {
     public static final String UPDATE_SUBSCRIPTION_SQL =
             " UPDATE AM_SUBSCRIPTION " +
             " SET SUBS_CREATE_STATE = '" + APIConstants.SubscriptionCreatedStatus.UN_SUBSCRIBE + "' " +
+            " , UPDATED_TIME = ? " +
             " WHERE UUID = ?";
 
+    public static final String ADD_SUBSCRIPTION_TOMBSTONES_SQL =
+            " INSERT INTO AM_SUBSCRIPTION_TOMBSTONE " +
+            "   (SUBSCRIPTION_ID, UUID, API_ID, APPLICATION_ID, API_UUID, APPLICATION_UUID, TENANT_ID, DELETED_TIME) " +
+            " SELECT " +
+            "   SUBS.SUBSCRIPTION_ID, SUBS.UUID, SUBS.API_ID, SUBS.APPLICATION_ID, API.API_UUID, APP.UUID, " +
+            "   SUB.TENANT_ID, CURRENT_TIMESTAMP " +
+            " FROM " +
+            "   AM_SUBSCRIPTION SUBS, AM_APPLICATION APP, AM_API API, AM_SUBSCRIBER SUB " +
+            " WHERE " +
+            "   SUBS.API_ID = API.API_ID " +
+            "   AND SUBS.APPLICATION_ID = APP.APPLICATION_ID " +
+            "   AND APP.SUBSCRIBER_ID = SUB.SUBSCRIBER_ID ";
+
+    public static final String ADD_SUBSCRIPTION_TOMBSTONE_SQL =
+            ADD_SUBSCRIPTION_TOMBSTONES_SQL + " AND SUBS.UUID = ?";
+
+    public static final String ADD_SUBSCRIPTION_TOMBSTONE_BY_ID_SQL =
+            ADD_SUBSCRIPTION_TOMBSTONES_SQL + " AND SUBS.SUBSCRIPTION_ID = ?";
+
+    public static final String ADD_SUBSCRIPTION_TOMBSTONES_BY_API_ID_SQL =
+            ADD_SUBSCRIPTION_TOMBSTONES_SQL + " AND SUBS.API_ID = ?";
+
+    public static final String ADD_SUBSCRIPTION_TOMBSTONES_BY_APPLICATION_ID_SQL =
+            ADD_SUBSCRIPTION_TOMBSTONES_SQL + " AND SUBS.APPLICATION_ID = ?";
+
+    public static final String ADD_SUBSCRIPTION_TOMBSTONE_BY_API_ID_AND_APPLICATION_ID_SQL =
+            ADD_SUBSCRIPTION_TOMBSTONES_SQL + " AND SUBS.API_ID = ? AND SUBS.APPLICATION_ID = ?";
+
+    public static final String REMOVE_EXPIRED_SUBSCRIPTION_TOMBSTONES_SQL =
+            " DELETE FROM AM_SUBSCRIPTION_TOMBSTONE WHERE DELETED_TIME < ?";
+
     public static final String REMOVE_SUBSCRIPTION_SQL =
             " DELETE FROM AM_SUBSCRIPTION WHERE UUID = ?";
 
@@ -744,6 +777,7 @@ public class SQLConstants {
     public static final String UPDATE_SUBSCRIPTION_STATUS_SQL =
             " UPDATE AM_SUBSCRIPTION " +
             " SET SUB_STATUS = ? " +
+            " , UPDATED_TIME = ? " +
             " WHERE SUBSCRIPTION_ID = ?";
 
     public static final String UPDATE_SUBSCRIPTION_STATUS_AND_TIER_SQL =
@@ -751,6 +785,7 @@ public class SQLConstants {
                     " SET TIER_ID_PENDING = ? " +
                     " , TIER_ID = ? " +
                     " , SUB_STATUS = ? " +
+                    " , UPDATED_TIME = ? " +
                     " WHERE SUBSCRIPTION_ID = ?";
 
     public static final String GET_REGISTRATION_APPROVAL_STATUS_SQL =
@@ -2849,6 +2884,16 @@ public class SQLConstants {
             "DELETE FROM AM_GW_API_DEPLOYMENTS WHERE API_ID = ?";
     public static final String DELETE_GW_PUBLISHED_API_DETAILS = "DELETE FROM AM_GW_PUBLISHED_API_DETAILS WHERE " +
             "API_ID = ?";
+    public static final String GET_GW_RENDERED_API_ARTIFACT = "SELECT CONTENT_HASH, ARTIFACT FROM " +
+            "AM_GW_API_RENDERED_ARTIFACTS WHERE REVISION_ID = ? AND LABEL = ? AND GATEWAY_TYPE = ?";
+    public static final String ADD_GW_RENDERED_API_ARTIFACT = "INSERT INTO AM_GW_API_RENDERED_ARTIFACTS (API_ID," +
+            "REVISION_ID,LABEL,GATEWAY_TYPE,CONTENT_HASH,ARTIFACT) VALUES (?,?,?,?,?,?)";
+    public static final String DELETE_GW_RENDERED_API_ARTIFACT = "DELETE FROM AM_GW_API_RENDERED_ARTIFACTS WHERE " +
+            "REVISION_ID = ? AND LABEL = ? AND GATEWAY_TYPE = ?";
+    public static final String DELETE_GW_RENDERED_API_ARTIFACTS_BY_API_ID_REVISION_ID =
+            "DELETE FROM AM_GW_API_RENDERED_ARTIFACTS WHERE API_ID = ? AND REVISION_ID = ?";
+    public static final String DELETE_GW_RENDERED_API_ARTIFACTS_BY_API_ID =
+            "DELETE FROM AM_GW_API_RENDERED_ARTIFACTS WHERE API_ID = ?";
     public static final String RETRIEVE_API_ARTIFACT_PROPERTY_VALUES =
             "SELECT AM_API.ORGANIZATION AS ORGANIZATION, " +
                     "AM_DEPLOYMENT_REVISION_MAPPING.DEPLOYED_TIME AS DEPLOYED_TIME " +
@@ -3055,6 +3100,7 @@ public class SQLConstants {
     public static final String API_ID_REGEX = "_API_IDS_";
     public static final String API_UUID_REGEX = "_API_UUIDS_";
     public static final int API_ID_CHUNK_SIZE = 25;
+    public static final int GATEWAY_ARTIFACT_FETCH_SIZE = 10;
 
     public static final String RETRIEVE_CORRELATION_CONFIGS = "SELECT AM_CORRELATION_CONFIGS.COMPONENT_NAME, " +
             "AM_CORRELATION_CONFIGS.ENABLED FROM AM_CORRELATION_CONFIGS";
@@ -271,6 +271,28 @@ public class SubscriptionValidationSQLConstants {
                     "   APP.SUBSCRIBER_ID = SUB.SUBSCRIBER_ID AND " +
                     "   SUB.TENANT_ID = ? ";
 
+    public static final String GET_TENANT_SUBSCRIPTION_CHANGES_SQL =
+            GET_TENANT_SUBSCRIPTIONS_SQL +
+                    " AND (SUBS.CREATED_TIME > ? OR SUBS.UPDATED_TIME > ?) " +
+                    " AND SUBS.SUBSCRIPTION_ID > ? " +
+                    " ORDER BY SUBS.SUBSCRIPTION_ID";
+
+    public static final String GET_TENANT_SUBSCRIPTION_TOMBSTONES_SQL =
+            "SELECT " +
+                    "   UUID AS SUBSCRIPTION_UUID," +
+                    "   SUBSCRIPTION_ID AS SUB_ID," +
+                    "   API_ID AS API_ID," +
+                    "   APPLICATION_ID AS APP_ID," +
+                    "   APPLICATION_UUID AS APPLICATION_UUID," +
+                    "   API_UUID AS API_UUID" +
+                    " FROM " +
+                    "   AM_SUBSCRIPTION_TOMBSTONE" +
+                    " WHERE " +
+                    "   TENANT_ID = ? AND " +
+                    "   DELETED_TIME > ? AND " +
+                    "   SUBSCRIPTION_ID > ? " +
+                    " ORDER BY SUBSCRIPTION_ID";
+
     public static final String GET_TENANT_SUBSCRIPTION_POLICIES_SQL =
             "SELECT " +
                     "   APS.POLICY_ID AS POLICY_ID," +
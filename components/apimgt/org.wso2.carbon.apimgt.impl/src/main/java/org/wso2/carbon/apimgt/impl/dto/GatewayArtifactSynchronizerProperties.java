@@ -19,6 +19,8 @@ public class GatewayArtifactSynchronizerProperties {
     private String gatewayStartup = "sync";
     private long eventWaitingTime = 1;
     private boolean onDemandLoading;
+    private int deploymentThreadCount = Runtime.getRuntime().availableProcessors();
+    private int eventDispatcherThreadCount = Runtime.getRuntime().availableProcessors();
 
 
     public String getSaverName() {
@@ -148,4 +150,24 @@ public class GatewayArtifactSynchronizerProperties {
     public boolean isOnDemandLoading() {
         return onDemandLoading;
     }
+
+    public int getDeploymentThreadCount() {
+
+        return deploymentThreadCount;
+    }
+
+    public void setDeploymentThreadCount(int deploymentThreadCount) {
+
+        this.deploymentThreadCount = deploymentThreadCount;
+    }
+
+    public int getEventDispatcherThreadCount() {
+
+        return eventDispatcherThreadCount;
+    }
+
+    public void setEventDispatcherThreadCount(int eventDispatcherThreadCount) {
+
+        this.eventDispatcherThreadCount = eventDispatcherThreadCount;
+    }
 }
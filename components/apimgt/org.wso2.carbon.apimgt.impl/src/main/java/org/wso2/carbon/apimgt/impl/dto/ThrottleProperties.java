@@ -26,6 +26,8 @@ public class ThrottleProperties {
     private GlobalEngineWSConnection globalEngineWSConnection;
     private DataPublisherPool dataPublisherPool;
     private DataPublisherThreadPool dataPublisherThreadPool;
+    private DataPublisherEventBuffer dataPublisherEventBuffer = new DataPublisherEventBuffer();
+    private DataPublisherEventAggregation dataPublisherEventAggregation = new DataPublisherEventAggregation();
     private JMSConnectionProperties jmsConnectionProperties;
     private boolean enableUnlimitedTier;
     private String throttleDataSourceName;
@@ -40,7 +42,18 @@ public class ThrottleProperties {
         this.enablePolicyDeployment = enablePolicyDeployment;
     }
 
+    public boolean isEnableConsolidatedPolicyPlans() {
+
+        return enableConsolidatedPolicyPlans;
+    }
+
+    public void setEnableConsolidatedPolicyPlans(boolean enableConsolidatedPolicyPlans) {
+
+        this.enableConsolidatedPolicyPlans = enableConsolidatedPolicyPlans;
+    }
+
     private boolean enablePolicyDeployment;
+    private boolean enableConsolidatedPolicyPlans;
     private PolicyDeployer policyDeployer;
     private BlockCondition blockCondition;
     private boolean enableHeaderConditions = false;
@@ -113,6 +126,22 @@ public class ThrottleProperties {
         this.globalEngineWSConnection = globalEngineWSConnection;
     }
 
+    public DataPublisherEventBuffer getDataPublisherEventBuffer() {
+        return dataPublisherEventBuffer;
+    }
+
+    public void setDataPublisherEventBuffer(DataPublisherEventBuffer dataPublisherEventBuffer) {
+        this.dataPublisherEventBuffer = dataPublisherEventBuffer;
+    }
+
+    public DataPublisherEventAggregation getDataPublisherEventAggregation() {
+        return dataPublisherEventAggregation;
+    }
+
+    public void setDataPublisherEventAggregation(DataPublisherEventAggregation dataPublisherEventAggregation) {
+        this.dataPublisherEventAggregation = dataPublisherEventAggregation;
+    }
+
     public DataPublisherPool getDataPublisherPool() {
         return dataPublisherPool;
     }
@@ -607,6 +636,100 @@ public class ThrottleProperties {
         }
     }
 
+    /**
+     * Configuration of the bounded event buffer used to batch throttle events instead of publishing them through
+     * the data publisher thread pool.
+     */
+    public static class DataPublisherEventBuffer {
+        private boolean enabled = false;
+        private int size = 16384;
+        private int batchSize = 500;
+        private long flushInterval = 50;
+        private boolean publishAllHeaders = false;
+        private String[] customPolicyHeaders = new String[]{};
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        /**
+         * Whether all transport headers are published, instead of only the headers referenced by the throttle
+         * conditions, the key templates and the custom policies.
+         */
+        public boolean isPublishAllHeaders() {
+            return publishAllHeaders;
+        }
+
+        public void setPublishAllHeaders(boolean publishAllHeaders) {
+            this.publishAllHeaders = publishAllHeaders;
+        }
+
+        /**
+         * Headers referenced by the Siddhi queries of custom policies, which are only deployed on the traffic
+         * manager.
+         */
+        public String[] getCustomPolicyHeaders() {
+            return customPolicyHeaders;
+        }
+
+        public void setCustomPolicyHeaders(String[] customPolicyHeaders) {
+            this.customPolicyHeaders = customPolicyHeaders;
+        }
+    }
+
+    /**
+     * Configuration of the gateway side aggregation which sums up the requests of a throttle key over a short
+     * window and publishes them to the traffic manager as a single weighted event.
+     */
+    public static class DataPublisherEventAggregation {
+        private boolean enabled = false;
+        private long window = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getWindow() {
+            return window;
+        }
+
+        public void setWindow(long window) {
+            this.window = window;
+        }
+    }
+
     public String[] getSkipRedeployingPolicies() {
         return skipRedeployingPolicies;
     }
@@ -18,6 +18,7 @@
 package org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer;
 
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.wso2.carbon.apimgt.api.APIManagementException;
 import org.wso2.carbon.apimgt.api.ExceptionCodes;
@@ -26,8 +27,10 @@ import org.wso2.carbon.apimgt.impl.dto.APIRuntimeArtifactDto;
 import org.wso2.carbon.apimgt.impl.dto.RuntimeArtifactDto;
 import org.wso2.carbon.apimgt.impl.internal.ServiceReferenceHolder;
 
+import java.io.File;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class APIArtifactGeneratorUtil {
 
@@ -48,14 +51,15 @@ public class APIArtifactGeneratorUtil {
                     gatewayArtifacts = gatewayArtifactsMgtDAO.
                             retrieveGatewayArtifactsByAPIIDs(apiUuids, gatewayLabels, tenantDomain);
                 } else {
-                    gatewayArtifacts =
-                            gatewayArtifactsMgtDAO.retrieveGatewayArtifactsByLabel(gatewayLabels, tenantDomain);
+                    return generateAPIArtifact(gatewayArtifactGenerator, callback -> gatewayArtifactsMgtDAO
+                            .streamGatewayArtifactsByLabel(gatewayLabels, tenantDomain, callback));
                 }
             } else if (apiUuids != null && !apiUuids.isEmpty()) {
                 gatewayArtifacts = gatewayArtifactsMgtDAO.
                         retrieveGatewayArtifactsOnlyByAPIIDs(apiUuids, tenantDomain);
             } else {
-                gatewayArtifacts = gatewayArtifactsMgtDAO.retrieveGatewayArtifacts(tenantDomain);
+                return generateAPIArtifact(gatewayArtifactGenerator,
+                        callback -> gatewayArtifactsMgtDAO.streamGatewayArtifacts(tenantDomain, callback));
             }
             if (gatewayArtifacts != null) {
                 if (gatewayArtifacts.isEmpty()) {
@@ -93,11 +97,11 @@ public class APIArtifactGeneratorUtil {
                     gatewayArtifacts = gatewayArtifactsMgtDAO.
                             retrieveAllGatewayArtifactsByAPIIDs(apiUuids, gatewayLabels);
                 } else {
-                    gatewayArtifacts =
-                            gatewayArtifactsMgtDAO.retrieveAllGatewayArtifactsByLabel(gatewayLabels);
+                    return generateAPIArtifact(gatewayArtifactGenerator, callback -> gatewayArtifactsMgtDAO
+                            .streamAllGatewayArtifactsByLabel(gatewayLabels, callback));
                 }
             } else {
-                gatewayArtifacts = gatewayArtifactsMgtDAO.retrieveAllGatewayArtifacts();
+                return generateAPIArtifact(gatewayArtifactGenerator, gatewayArtifactsMgtDAO::streamAllGatewayArtifacts);
             }
             if (gatewayArtifacts != null) {
                 if (gatewayArtifacts.isEmpty()) {
@@ -120,4 +124,27 @@ public class APIArtifactGeneratorUtil {
         }
     }
 
+    /**
+     * Generates the gateway artifact while streaming the API artifacts from the database, so that the API artifacts
+     * of a whole gateway label are not held in memory at once.
+     */
+    private static RuntimeArtifactDto generateAPIArtifact(GatewayArtifactGenerator gatewayArtifactGenerator,
+                                                          RuntimeArtifactSource gatewayArtifacts)
+            throws APIManagementException {
+
+        AtomicInteger artifactCount = new AtomicInteger();
+        RuntimeArtifactDto runtimeArtifactDto = gatewayArtifactGenerator.generateGatewayArtifact(
+                callback -> gatewayArtifacts.forEach(apiRuntimeArtifactDto -> {
+                    ArtifactSynchronizerUtil.setArtifactProperties(apiRuntimeArtifactDto);
+                    artifactCount.incrementAndGet();
+                    callback.onArtifact(apiRuntimeArtifactDto);
+                }));
+        if (artifactCount.get() == 0) {
+            if (runtimeArtifactDto != null && runtimeArtifactDto.isFile()) {
+                FileUtils.deleteQuietly((File) runtimeArtifactDto.getArtifact());
+            }
+            throw new APIManagementException("No API Artifacts", ExceptionCodes.NO_API_ARTIFACT_FOUND);
+        }
+        return runtimeArtifactDto;
+    }
 }
@@ -19,7 +19,11 @@ package org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer;
 import org.wso2.carbon.apimgt.api.APIManagementException;
 import org.wso2.carbon.apimgt.impl.dto.APIRuntimeArtifactDto;
 import org.wso2.carbon.apimgt.impl.dto.RuntimeArtifactDto;
+import org.wso2.carbon.apimgt.impl.utils.APIMgtDBUtil;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface GatewayArtifactGenerator {
@@ -27,6 +31,29 @@ public interface GatewayArtifactGenerator {
     RuntimeArtifactDto generateGatewayArtifact(List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList)
             throws APIManagementException;
 
+    /**
+     * Generates the gateway artifact from API runtime artifacts streamed from the database. Generators that process
+     * the runtime artifacts one at a time override this, so that the runtime artifacts are not held in memory at once.
+     *
+     * @param apiRuntimeArtifacts source of the API runtime artifacts
+     * @return generated gateway artifact
+     * @throws APIManagementException if the gateway artifact could not be generated
+     */
+    default RuntimeArtifactDto generateGatewayArtifact(RuntimeArtifactSource apiRuntimeArtifacts)
+            throws APIManagementException {
+
+        List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList = new ArrayList<>();
+        apiRuntimeArtifacts.forEach(apiRuntimeArtifactDto -> {
+            InputStream artifact = (InputStream) apiRuntimeArtifactDto.getArtifact();
+            if (artifact != null) {
+                apiRuntimeArtifactDto.setArtifact(
+                        new ByteArrayInputStream(APIMgtDBUtil.getBytesFromInputStream(artifact)));
+            }
+            apiRuntimeArtifactDtoList.add(apiRuntimeArtifactDto);
+        });
+        return generateGatewayArtifact(apiRuntimeArtifactDtoList);
+    }
+
     String getType();
 
 
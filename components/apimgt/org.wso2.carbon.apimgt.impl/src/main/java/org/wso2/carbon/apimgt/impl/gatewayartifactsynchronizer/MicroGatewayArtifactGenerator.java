@@ -38,11 +38,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Component(
         name = "microgateway.artifact.generator.service",
@@ -57,19 +57,37 @@ public class MicroGatewayArtifactGenerator implements GatewayArtifactGenerator {
     public RuntimeArtifactDto generateGatewayArtifact(List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList)
             throws APIManagementException {
 
+        return generateGatewayArtifact(callback -> {
+            for (APIRuntimeArtifactDto apiRuntimeArtifactDto : apiRuntimeArtifactDtoList) {
+                callback.onArtifact(apiRuntimeArtifactDto);
+            }
+        });
+    }
+
+    @Override
+    public RuntimeArtifactDto generateGatewayArtifact(RuntimeArtifactSource apiRuntimeArtifacts)
+            throws APIManagementException {
+
         try {
             DeploymentDescriptorDto descriptorDto = new DeploymentDescriptorDto();
             Map<String, ApiProjectDto> deploymentsMap = new HashMap<>();
+            List<String> apiIds = new ArrayList<>();
 
             // "tempDirectory" is the root artifact directory
             File tempDirectory = CommonUtil.createTempDirectory(null);
-            for (APIRuntimeArtifactDto apiRuntimeArtifactDto : apiRuntimeArtifactDtoList) {
+            // each artifact is copied to the directory as it is read, so that the artifacts are not held in memory
+            apiRuntimeArtifacts.forEach(apiRuntimeArtifactDto -> {
+                apiIds.add(apiRuntimeArtifactDto.getApiId());
                 if (apiRuntimeArtifactDto.isFile()) {
                     InputStream artifact = (InputStream) apiRuntimeArtifactDto.getArtifact();
                     String fileName = apiRuntimeArtifactDto.getApiId().concat("-").concat(apiRuntimeArtifactDto.getRevision())
                             .concat(APIConstants.ZIP_FILE_EXTENSION);
                     Path path = Paths.get(tempDirectory.getAbsolutePath(), fileName);
-                    FileUtils.copyInputStreamToFile(artifact, path.toFile());
+                    try {
+                        FileUtils.copyInputStreamToFile(artifact, path.toFile());
+                    } catch (IOException e) {
+                        throw new APIManagementException("Error while Generating API artifact", e);
+                    }
 
                     ApiProjectDto apiProjectDto = deploymentsMap.get(fileName);
                     if (apiProjectDto == null) {
@@ -87,7 +105,7 @@ public class MicroGatewayArtifactGenerator implements GatewayArtifactGenerator {
                     environment.setDeployedTimeStamp(apiRuntimeArtifactDto.getDeployedTimeStamp());
                     apiProjectDto.getEnvironments().add(environment); // ignored if the name of the environment is same
                 }
-            }
+            });
             descriptorDto.setDeployments(new HashSet<>(deploymentsMap.values()));
             String descriptorFile = Paths.get(tempDirectory.getAbsolutePath(),
                     APIConstants.GatewayArtifactConstants.DEPLOYMENT_DESCRIPTOR_FILE).toString();
@@ -96,7 +114,7 @@ public class MicroGatewayArtifactGenerator implements GatewayArtifactGenerator {
 
             // adding env_properties.json
             Map<String, Map<String, Environment>> environmentSpecificAPIProperties =
-                    getEnvironmentSpecificAPIProperties(apiRuntimeArtifactDtoList);
+                    getEnvironmentSpecificAPIProperties(apiIds);
             String environmentSpecificAPIPropertyFile = Paths.get(tempDirectory.getAbsolutePath(),
                     APIConstants.GatewayArtifactConstants.ENVIRONMENT_SPECIFIC_API_PROPERTY_FILE).toString();
             CommonUtil.writeDtoToFile(environmentSpecificAPIPropertyFile, ExportFormat.JSON,
@@ -115,11 +133,8 @@ public class MicroGatewayArtifactGenerator implements GatewayArtifactGenerator {
         }
     }
 
-    private Map<String, Map<String, Environment>> getEnvironmentSpecificAPIProperties(
-            List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList) throws APIManagementException {
-        List<String> apiIds = apiRuntimeArtifactDtoList.stream()
-                .map(APIRuntimeArtifactDto::getApiId)
-                .collect(Collectors.toList());
+    private Map<String, Map<String, Environment>> getEnvironmentSpecificAPIProperties(List<String> apiIds)
+            throws APIManagementException {
         return environmentSpecificAPIPropertyDao.getEnvironmentSpecificAPIPropertiesOfAPIs(apiIds);
     }
 
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer;
+
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.impl.dto.APIRuntimeArtifactDto;
+
+/**
+ * Receives API runtime artifacts one at a time as they are read from the database.
+ * <p>
+ * The artifact of an API runtime artifact is read into memory before the callback is invoked. The callback is invoked
+ * while the rows are being read from the database, so only the artifact being processed has to be kept in memory.
+ */
+@FunctionalInterface
+public interface RuntimeArtifactCallback {
+
+    void onArtifact(APIRuntimeArtifactDto apiRuntimeArtifactDto) throws APIManagementException;
+}
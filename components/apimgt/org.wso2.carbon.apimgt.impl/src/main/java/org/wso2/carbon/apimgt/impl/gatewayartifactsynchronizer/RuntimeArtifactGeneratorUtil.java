@@ -43,6 +43,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RuntimeArtifactGeneratorUtil {
 
@@ -57,8 +58,8 @@ public class RuntimeArtifactGeneratorUtil {
         GatewayArtifactGenerator gatewayArtifactGenerator =
                 ServiceReferenceHolder.getInstance().getGatewayArtifactGenerator(type);
         if (gatewayArtifactGenerator != null) {
-            List<APIRuntimeArtifactDto> gatewayArtifacts = getRuntimeArtifacts(apiId, gatewayLabel, tenantDomain);
-            return gatewayArtifactGenerator.generateGatewayArtifact(gatewayArtifacts);
+            return gatewayArtifactGenerator.generateGatewayArtifact(
+                    getRuntimeArtifactSource(apiId, gatewayLabel, tenantDomain));
         } else {
             Set<String> gatewayArtifactGeneratorTypes =
                     ServiceReferenceHolder.getInstance().getGatewayArtifactGeneratorTypes();
@@ -75,8 +76,7 @@ public class RuntimeArtifactGeneratorUtil {
         GatewayArtifactGenerator gatewayArtifactGenerator =
                 ServiceReferenceHolder.getInstance().getGatewayArtifactGenerator(type);
         if (gatewayArtifactGenerator != null) {
-            List<APIRuntimeArtifactDto> gatewayArtifacts = getAllRuntimeArtifacts(apiId, gatewayLabel);
-            return gatewayArtifactGenerator.generateGatewayArtifact(gatewayArtifacts);
+            return gatewayArtifactGenerator.generateGatewayArtifact(getAllRuntimeArtifactSource(apiId, gatewayLabel));
         } else {
             Set<String> gatewayArtifactGeneratorTypes =
                     ServiceReferenceHolder.getInstance().getGatewayArtifactGeneratorTypes();
@@ -191,12 +191,78 @@ public class RuntimeArtifactGeneratorUtil {
         }
     }
 
+    /**
+     * Returns the runtime artifacts of a tenant. Artifacts of all the APIs of the gateway labels or the tenant are
+     * streamed from the database, while the artifacts of a single API are read at once.
+     */
+    private static RuntimeArtifactSource getRuntimeArtifactSource(String apiId, String gatewayLabel,
+                                                                  String tenantDomain) {
+
+        if (StringUtils.isNotEmpty(gatewayLabel) && StringUtils.isNotEmpty(apiId)) {
+            return callback -> forEachRuntimeArtifact(getRuntimeArtifacts(apiId, gatewayLabel, tenantDomain),
+                    callback);
+        }
+        if (StringUtils.isNotEmpty(gatewayLabel)) {
+            String[] gatewayLabels = decodeGatewayLabels(gatewayLabel);
+            return callback -> streamRuntimeArtifacts(artifactCallback -> gatewayArtifactsMgtDAO
+                    .streamGatewayArtifactsByLabel(gatewayLabels, tenantDomain, artifactCallback), callback);
+        }
+        return callback -> streamRuntimeArtifacts(artifactCallback -> gatewayArtifactsMgtDAO
+                .streamGatewayArtifacts(tenantDomain, artifactCallback), callback);
+    }
+
+    /**
+     * Returns the runtime artifacts of all the tenants. Artifacts of all the APIs of the gateway labels or the
+     * deployment are streamed from the database, while the artifacts of a single API are read at once.
+     */
+    private static RuntimeArtifactSource getAllRuntimeArtifactSource(String apiId, String gatewayLabel) {
+
+        if (StringUtils.isNotEmpty(gatewayLabel) && StringUtils.isNotEmpty(apiId)) {
+            return callback -> forEachRuntimeArtifact(getAllRuntimeArtifacts(apiId, gatewayLabel), callback);
+        }
+        if (StringUtils.isNotEmpty(gatewayLabel)) {
+            String[] gatewayLabels = decodeGatewayLabels(gatewayLabel);
+            return callback -> streamRuntimeArtifacts(artifactCallback -> gatewayArtifactsMgtDAO
+                    .streamAllGatewayArtifactsByLabel(gatewayLabels, artifactCallback), callback);
+        }
+        return callback -> streamRuntimeArtifacts(gatewayArtifactsMgtDAO::streamAllGatewayArtifacts, callback);
+    }
+
+    private static void forEachRuntimeArtifact(List<APIRuntimeArtifactDto> gatewayArtifacts,
+                                               RuntimeArtifactCallback callback) throws APIManagementException {
+
+        if (gatewayArtifacts != null) {
+            for (APIRuntimeArtifactDto apiRuntimeArtifactDto : gatewayArtifacts) {
+                callback.onArtifact(apiRuntimeArtifactDto);
+            }
+        }
+    }
+
+    private static void streamRuntimeArtifacts(RuntimeArtifactSource gatewayArtifacts,
+                                               RuntimeArtifactCallback callback) throws APIManagementException {
+
+        AtomicInteger artifactCount = new AtomicInteger();
+        gatewayArtifacts.forEach(apiRuntimeArtifactDto -> {
+            ArtifactSynchronizerUtil.setArtifactProperties(apiRuntimeArtifactDto);
+            artifactCount.incrementAndGet();
+            callback.onArtifact(apiRuntimeArtifactDto);
+        });
+        if (artifactCount.get() == 0) {
+            log.info("No API Artifacts");
+        }
+    }
+
+    private static String[] decodeGatewayLabels(String gatewayLabel) {
+
+        byte[] decodedValue = Base64.decodeBase64(gatewayLabel.getBytes());
+        return new String(decodedValue).split("\\|");
+    }
+
     private static List<APIRuntimeArtifactDto> getRuntimeArtifacts(String apiId, String gatewayLabel,
                                                                    String tenantDomain) throws APIManagementException {
         List<APIRuntimeArtifactDto> gatewayArtifacts;
         if (StringUtils.isNotEmpty(gatewayLabel)) {
-            byte[] decodedValue = Base64.decodeBase64(gatewayLabel.getBytes());
-            String[] gatewayLabels = new String(decodedValue).split("\\|");
+            String[] gatewayLabels = decodeGatewayLabels(gatewayLabel);
             if (StringUtils.isNotEmpty(apiId)) {
                 gatewayArtifacts = gatewayArtifactsMgtDAO
                         .retrieveGatewayArtifactsByAPIIDAndLabel(apiId, gatewayLabels, tenantDomain);
@@ -222,8 +288,7 @@ public class RuntimeArtifactGeneratorUtil {
             throws APIManagementException {
         List<APIRuntimeArtifactDto> gatewayArtifacts;
         if (StringUtils.isNotEmpty(gatewayLabel)) {
-            byte[] decodedValue = Base64.decodeBase64(gatewayLabel.getBytes());
-            String[] gatewayLabels = new String(decodedValue).split("\\|");
+            String[] gatewayLabels = decodeGatewayLabels(gatewayLabel);
             if (StringUtils.isNotEmpty(apiId)) {
                 gatewayArtifacts = gatewayArtifactsMgtDAO
                         .retrieveAllGatewayArtifactsByAPIIDAndLabel(apiId, gatewayLabels);
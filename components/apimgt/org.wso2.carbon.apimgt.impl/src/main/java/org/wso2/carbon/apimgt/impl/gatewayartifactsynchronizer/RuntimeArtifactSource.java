@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer;
+
+import org.wso2.carbon.apimgt.api.APIManagementException;
+
+/**
+ * Source of API runtime artifacts that are streamed from the database instead of being loaded into memory at once.
+ */
+@FunctionalInterface
+public interface RuntimeArtifactSource {
+
+    /**
+     * Reads the API runtime artifacts, passing each of them to the callback.
+     *
+     * @param callback callback receiving the API runtime artifacts
+     * @throws APIManagementException if the artifacts could not be read, or the callback failed
+     */
+    void forEach(RuntimeArtifactCallback callback) throws APIManagementException;
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.utils.DateUtils;
+import org.wso2.carbon.apimgt.impl.utils.JWTUtil;
+import org.wso2.carbon.apimgt.impl.utils.LRUCache;
+
+import java.io.IOException;
+import java.security.interfaces.RSAPublicKey;
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Public keys of a token issuer, retrieved from its JWKS endpoint.
+ * <p>
+ * Keys are parsed once per retrieval and looked up by key ID without blocking. When the keys expire according to the
+ * cache headers of the JWKS endpoint, they are refreshed in the background while the current keys keep being served.
+ * Only one retrieval runs at a time, and requests that need the keys wait for that retrieval instead of starting
+ * their own. A key ID that is not in the keys triggers a retrieval at most once per {@link #MIN_REFRESH_INTERVAL},
+ * and a key ID that is still missing after a retrieval is not looked up again for {@link #UNKNOWN_KEY_ID_EXPIRY}.
+ */
+public class JWKSKeyStore {
+
+    private static final Log log = LogFactory.getLog(JWKSKeyStore.class);
+
+    static final long MIN_REFRESH_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    static final long DEFAULT_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(15);
+    static final long MAX_REFRESH_INTERVAL = TimeUnit.HOURS.toMillis(24);
+    static final long UNKNOWN_KEY_ID_EXPIRY = TimeUnit.MINUTES.toMillis(5);
+    private static final long RETRIEVAL_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+    private static final int MAX_UNKNOWN_KEY_IDS = 1000;
+    private static final Pattern MAX_AGE_PATTERN = Pattern.compile("max-age\\s*=\\s*(\\d+)");
+    private static final ExecutorService retrievalExecutor =
+            Executors.newCachedThreadPool(new RetrievalThreadFactory());
+
+    private final String jwksEndpoint;
+    private final Map<String, Long> unknownKeyIds = new LRUCache<>(MAX_UNKNOWN_KEY_IDS);
+    private final Object retrievalLock = new Object();
+    private volatile Keys keys;
+    private CompletableFuture<Keys> retrieval;
+    private long lastRetrievalTime;
+
+    public JWKSKeyStore(String jwksEndpoint) {
+
+        this.jwksEndpoint = jwksEndpoint;
+    }
+
+    public String getJwksEndpoint() {
+
+        return jwksEndpoint;
+    }
+
+    /**
+     * Returns the RSA public key with the key ID.
+     *
+     * @param keyId key ID of the token
+     * @return RSA public key, or null if the issuer has no RSA key with the key ID
+     * @throws IOException if the keys could not be retrieved from the JWKS endpoint
+     */
+    public RSAPublicKey getKey(String keyId) throws IOException {
+
+        Keys currentKeys = keys;
+        if (currentKeys == null) {
+            currentKeys = await(retrieveKeys(false));
+        }
+        if (currentKeys.keys.containsKey(keyId)) {
+            if (getCurrentTime() >= currentKeys.expiryTime) {
+                retrieveKeys(false);
+            }
+            return currentKeys.keys.get(keyId);
+        }
+        Long unknownSince = unknownKeyIds.get(keyId);
+        if (unknownSince != null && getCurrentTime() - unknownSince < UNKNOWN_KEY_ID_EXPIRY) {
+            return null;
+        }
+        CompletableFuture<Keys> pendingRetrieval = retrieveKeys(true);
+        if (pendingRetrieval == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Key ID " + keyId + " not found in the keys retrieved from " + jwksEndpoint);
+            }
+            return null;
+        }
+        currentKeys = await(pendingRetrieval);
+        if (!currentKeys.keys.containsKey(keyId)) {
+            unknownKeyIds.put(keyId, getCurrentTime());
+            if (log.isDebugEnabled()) {
+                log.debug("Key ID " + keyId + " not found in the keys retrieved from " + jwksEndpoint);
+            }
+        }
+        return currentKeys.keys.get(keyId);
+    }
+
+    /**
+     * Starts retrieving the keys unless a retrieval is already running, in which case that retrieval is returned.
+     *
+     * @param unknownKeyId whether the retrieval is for a key ID that is not in the current keys
+     * @return the running retrieval, or null if a retrieval for an unknown key ID is not allowed yet
+     */
+    private CompletableFuture<Keys> retrieveKeys(boolean unknownKeyId) {
+
+        synchronized (retrievalLock) {
+            if (retrieval != null) {
+                return retrieval;
+            }
+            long currentTime = getCurrentTime();
+            if (unknownKeyId && currentTime - lastRetrievalTime < MIN_REFRESH_INTERVAL) {
+                return null;
+            }
+            lastRetrievalTime = currentTime;
+            CompletableFuture<Keys> newRetrieval = new CompletableFuture<>();
+            retrieval = newRetrieval;
+            retrievalExecutor.execute(() -> completeRetrieval(newRetrieval));
+            return newRetrieval;
+        }
+    }
+
+    private void completeRetrieval(CompletableFuture<Keys> currentRetrieval) {
+
+        Keys retrievedKeys = null;
+        Exception error = null;
+        try {
+            retrievedKeys = fetchKeys();
+            keys = retrievedKeys;
+        } catch (IOException | RuntimeException e) {
+            error = e;
+            Keys currentKeys = keys;
+            if (currentKeys != null) {
+                log.error("Error while refreshing the keys from " + jwksEndpoint
+                        + ". Continuing with the previously retrieved keys.", e);
+                // Retry after the minimum interval rather than on every request
+                keys = new Keys(currentKeys.keys, getCurrentTime() + MIN_REFRESH_INTERVAL);
+            }
+        } finally {
+            synchronized (retrievalLock) {
+                if (retrieval == currentRetrieval) {
+                    retrieval = null;
+                }
+            }
+        }
+        if (error != null) {
+            currentRetrieval.completeExceptionally(error);
+        } else {
+            currentRetrieval.complete(retrievedKeys);
+        }
+    }
+
+    private Keys fetchKeys() throws IOException {
+
+        Map<String, String> responseHeaders = new HashMap<>();
+        String jwks = retrieveJWKS(responseHeaders);
+        if (jwks == null) {
+            throw new IOException("Error while retrieving the keys from " + jwksEndpoint);
+        }
+        JWKSet jwkSet;
+        try {
+            jwkSet = JWKSet.parse(jwks);
+        } catch (ParseException e) {
+            throw new IOException("Error while parsing the keys retrieved from " + jwksEndpoint, e);
+        }
+        Map<String, RSAPublicKey> rsaPublicKeys = new HashMap<>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (jwk.getKeyID() == null) {
+                continue;
+            }
+            RSAPublicKey rsaPublicKey = null;
+            if (jwk instanceof RSAKey) {
+                try {
+                    rsaPublicKey = ((RSAKey) jwk).toRSAPublicKey();
+                } catch (JOSEException e) {
+                    log.error("Error while parsing the key " + jwk.getKeyID() + " retrieved from " + jwksEndpoint, e);
+                }
+            }
+            // Keys that are not RSA keys are kept as known key IDs without a public key
+            rsaPublicKeys.put(jwk.getKeyID(), rsaPublicKey);
+        }
+        long refreshInterval = getRefreshInterval(responseHeaders);
+        if (log.isDebugEnabled()) {
+            log.debug("Retrieved " + rsaPublicKeys.size() + " keys from " + jwksEndpoint + ". Refreshing in "
+                    + refreshInterval + " ms.");
+        }
+        return new Keys(Collections.unmodifiableMap(rsaPublicKeys), getCurrentTime() + refreshInterval);
+    }
+
+    private long getRefreshInterval(Map<String, String> responseHeaders) {
+
+        String cacheControl = responseHeaders.get(HttpHeaders.CACHE_CONTROL);
+        if (StringUtils.isNotEmpty(cacheControl)) {
+            String directives = cacheControl.toLowerCase();
+            if (directives.contains("no-cache") || directives.contains("no-store")) {
+                return MIN_REFRESH_INTERVAL;
+            }
+            Matcher maxAge = MAX_AGE_PATTERN.matcher(directives);
+            if (maxAge.find()) {
+                try {
+                    return getBoundedRefreshInterval(TimeUnit.SECONDS.toMillis(Long.parseLong(maxAge.group(1))));
+                } catch (NumberFormatException e) {
+                    return MAX_REFRESH_INTERVAL;
+                }
+            }
+        }
+        String expires = responseHeaders.get(HttpHeaders.EXPIRES);
+        if (StringUtils.isNotEmpty(expires)) {
+            Date expiryDate = DateUtils.parseDate(expires);
+            if (expiryDate != null) {
+                return getBoundedRefreshInterval(expiryDate.getTime() - getCurrentTime());
+            }
+        }
+        return DEFAULT_REFRESH_INTERVAL;
+    }
+
+    private static long getBoundedRefreshInterval(long refreshInterval) {
+
+        return Math.min(Math.max(refreshInterval, MIN_REFRESH_INTERVAL), MAX_REFRESH_INTERVAL);
+    }
+
+    private Keys await(CompletableFuture<Keys> pendingRetrieval) throws IOException {
+
+        try {
+            return pendingRetrieval.get(RETRIEVAL_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error while retrieving the keys from " + jwksEndpoint, e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Timed out while retrieving the keys from " + jwksEndpoint, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while retrieving the keys from " + jwksEndpoint, e);
+        }
+    }
+
+    protected String retrieveJWKS(Map<String, String> responseHeaders) throws IOException {
+
+        return JWTUtil.retrieveJWKSConfiguration(jwksEndpoint, responseHeaders);
+    }
+
+    protected long getCurrentTime() {
+
+        return System.currentTimeMillis();
+    }
+
+    private static class Keys {
+
+        private final Map<String, RSAPublicKey> keys;
+        private final long expiryTime;
+
+        private Keys(Map<String, RSAPublicKey> keys, long expiryTime) {
+
+            this.keys = keys;
+            this.expiryTime = expiryTime;
+        }
+    }
+
+    private static class RetrievalThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, "JWKSKeyRetriever-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -18,9 +18,6 @@
 
 package org.wso2.carbon.apimgt.impl.jwt;
 
-import com.nimbusds.jose.JOSEException;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import com.nimbusds.jwt.util.DateUtils;
@@ -50,7 +47,7 @@ public class JWTValidatorImpl implements JWTValidator {
     TokenIssuerDto tokenIssuer;
     private Log log = LogFactory.getLog(JWTValidatorImpl.class);
     JWTTransformer jwtTransformer;
-    private JWKSet jwkSet;
+    private volatile JWKSKeyStore jwksKeyStore;
 
     @Override
     public JWTValidationInfo validateToken(SignedJWTInfo signedJWTInfo) throws APIManagementException {
@@ -139,22 +136,14 @@ public class JWTValidatorImpl implements JWTValidator {
             if (StringUtils.isNotEmpty(keyID)) {
                 if (tokenIssuer.getJwksConfigurationDTO().isEnabled() &&
                         StringUtils.isNotEmpty(tokenIssuer.getJwksConfigurationDTO().getUrl())) {
-                    // Check JWKSet Available in Cache
-                    if (jwkSet == null) {
-                        jwkSet = retrieveJWKSet();
-                    }
-                    if (jwkSet.getKeyByKeyId(keyID) == null) {
-                        jwkSet = retrieveJWKSet();
-                    }
-                    if (jwkSet.getKeyByKeyId(keyID) instanceof RSAKey) {
-                        RSAKey keyByKeyId = (RSAKey) jwkSet.getKeyByKeyId(keyID);
-                        RSAPublicKey rsaPublicKey = keyByKeyId.toRSAPublicKey();
-                        if (rsaPublicKey != null) {
-                            return JWTUtil.verifyTokenSignature(signedJWT, rsaPublicKey);
-                        }
+                    // Resolve the key from the keys retrieved from the JWKS endpoint
+                    RSAPublicKey rsaPublicKey =
+                            getJWKSKeyStore(tokenIssuer.getJwksConfigurationDTO().getUrl()).getKey(keyID);
+                    if (rsaPublicKey != null) {
+                        return JWTUtil.verifyTokenSignature(signedJWT, rsaPublicKey);
                     } else {
                         if (log.isDebugEnabled()) {
-                            log.debug("Key Algorithm not supported");
+                            log.debug("RSA public key not found for key ID " + keyID);
                         }
                         return false; // return false to produce 401 unauthenticated response
                     }
@@ -167,7 +156,7 @@ public class JWTValidatorImpl implements JWTValidator {
                 }
             }
             return JWTUtil.verifyTokenSignature(signedJWT, certificateAlias);
-        } catch (ParseException | JOSEException | IOException e) {
+        } catch (IOException e) {
             log.error("Error while parsing JWT", e);
             throw new APIManagementException("Error while parsing JWT", e);
         }
@@ -220,11 +209,18 @@ public class JWTValidatorImpl implements JWTValidator {
         jwtValidationInfo.setJti(jwtClaimsSet.getJWTID());
     }
 
-    private JWKSet retrieveJWKSet() throws IOException, ParseException {
+    private JWKSKeyStore getJWKSKeyStore(String jwksEndpoint) {
 
-        String jwksInfo = JWTUtil
-                .retrieveJWKSConfiguration(tokenIssuer.getJwksConfigurationDTO().getUrl());
-        jwkSet = JWKSet.parse(jwksInfo);
-        return jwkSet;
+        JWKSKeyStore keyStore = jwksKeyStore;
+        if (keyStore == null || !keyStore.getJwksEndpoint().equals(jwksEndpoint)) {
+            synchronized (this) {
+                keyStore = jwksKeyStore;
+                if (keyStore == null || !keyStore.getJwksEndpoint().equals(jwksEndpoint)) {
+                    keyStore = new JWKSKeyStore(jwksEndpoint);
+                    jwksKeyStore = keyStore;
+                }
+            }
+        }
+        return keyStore;
     }
 }
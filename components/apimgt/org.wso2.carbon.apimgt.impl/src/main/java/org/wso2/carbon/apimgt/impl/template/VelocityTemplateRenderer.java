@@ -0,0 +1,144 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.template;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.velocity.Template;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.exception.VelocityException;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+import org.wso2.carbon.utils.CarbonUtils;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides the Velocity templates of a template set, such as the API templates or the throttle policy templates.
+ * <p>
+ * Each template set has one Velocity engine, initialized on first use, and keeps its templates parsed in memory.
+ * A parsed template is reused until the template file in the Carbon home is modified, after which the template is
+ * parsed again on its next use.
+ */
+public final class VelocityTemplateRenderer {
+
+    public static final String API_TEMPLATES = "api_templates";
+    public static final String POLICY_TEMPLATES = "policy_templates";
+
+    private static final Log log = LogFactory.getLog(VelocityTemplateRenderer.class);
+    private static final Map<String, VelocityTemplateRenderer> renderers = new ConcurrentHashMap<>();
+
+    private final String templateSet;
+    private final Map<String, ParsedTemplate> templates = new ConcurrentHashMap<>();
+    private volatile VelocityEngine velocityEngine;
+
+    private VelocityTemplateRenderer(String templateSet) {
+
+        this.templateSet = templateSet;
+    }
+
+    /**
+     * Returns the renderer of a template set.
+     *
+     * @param templateSet name of the template set
+     * @return renderer of the template set
+     */
+    public static VelocityTemplateRenderer getInstance(String templateSet) {
+
+        return renderers.computeIfAbsent(templateSet, VelocityTemplateRenderer::new);
+    }
+
+    /**
+     * Returns a parsed template, parsing it if it was not parsed yet or was modified since it was parsed.
+     *
+     * @param templatePath path of the template relative to the Carbon home
+     * @return parsed template
+     * @throws APITemplateException if the template could not be loaded or parsed
+     */
+    public Template getTemplate(String templatePath) throws APITemplateException {
+
+        long lastModified = new File(CarbonUtils.getCarbonHome(), templatePath).lastModified();
+        ParsedTemplate parsedTemplate = templates.get(templatePath);
+        if (parsedTemplate != null && parsedTemplate.lastModified == lastModified) {
+            return parsedTemplate.template;
+        }
+        VelocityEngine engine = getVelocityEngine();
+        try {
+            if (parsedTemplate != null && log.isDebugEnabled()) {
+                log.debug("Template " + templatePath + " was modified. Parsing the template again.");
+            }
+            parsedTemplate = new ParsedTemplate(engine.getTemplate(templatePath), lastModified);
+        } catch (VelocityException e) {
+            throw new APITemplateException("Error while loading the template " + templatePath, e);
+        }
+        templates.put(templatePath, parsedTemplate);
+        return parsedTemplate.template;
+    }
+
+    private VelocityEngine getVelocityEngine() throws APITemplateException {
+
+        VelocityEngine engine = velocityEngine;
+        if (engine == null) {
+            synchronized (this) {
+                engine = velocityEngine;
+                if (engine == null) {
+                    engine = createVelocityEngine();
+                    velocityEngine = engine;
+                }
+            }
+        }
+        return engine;
+    }
+
+    private VelocityEngine createVelocityEngine() throws APITemplateException {
+
+        VelocityEngine engine = new VelocityEngine();
+        APIUtil.initializeVelocityContext(engine);
+        engine.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, CarbonUtils.getCarbonHome());
+
+        Thread thread = Thread.currentThread();
+        ClassLoader loader = thread.getContextClassLoader();
+        thread.setContextClassLoader(this.getClass().getClassLoader());
+        try {
+            engine.init();
+        } catch (Exception e) {
+            String msg = "Error while initiating the Velocity engine for " + templateSet;
+            log.error(msg, e);
+            throw new APITemplateException(msg, e);
+        } finally {
+            thread.setContextClassLoader(loader);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Initialized the Velocity engine for " + templateSet);
+        }
+        return engine;
+    }
+
+    private static final class ParsedTemplate {
+
+        private final Template template;
+        private final long lastModified;
+
+        private ParsedTemplate(Template template, long lastModified) {
+
+            this.template = template;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.impl.utils;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.impl.dao.ApiMgtDAO;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Class responsible for removing the tombstones of subscriptions deleted longer ago than the retention period from DB.
+ * Callers fetching subscription changes with an older watermark have to reload all subscriptions.
+ */
+public class ExpiredSubscriptionTombstoneCleaner implements Runnable {
+
+    private static final Log log = LogFactory.getLog(ExpiredSubscriptionTombstoneCleaner.class);
+    public static final long RETENTION_PERIOD = 7 * 24 * 3600000L;
+    private static long lastUpdatedTime;
+    private static final long DURATION = 3600000;
+
+    @Override
+    public void run() {
+
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - lastUpdatedTime < DURATION) { // double checked locking to avoid unnecessary locking
+            return;
+        }
+        synchronized (ExpiredSubscriptionTombstoneCleaner.class) {
+            // Only run the cleanup if the last cleanup was performed more than 1 hour ago
+            if (currentTime - lastUpdatedTime < DURATION) {
+                return;
+            }
+            cleanExpiredTombstones();
+        }
+    }
+
+    private void cleanExpiredTombstones() {
+
+        try {
+            ApiMgtDAO.getInstance().removeExpiredSubscriptionTombstones(
+                    new Timestamp(System.currentTimeMillis() - RETENTION_PERIOD));
+            lastUpdatedTime = System.currentTimeMillis();
+            if (log.isDebugEnabled()) {
+                log.debug("Last subscription tombstone cleanup performed at :" + new Date(lastUpdatedTime));
+            }
+        } catch (APIManagementException e) {
+            log.error("Unable to cleanup expired subscription tombstones", e);
+        }
+    }
+}
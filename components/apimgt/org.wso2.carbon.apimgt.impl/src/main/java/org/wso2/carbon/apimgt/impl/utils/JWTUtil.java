@@ -26,21 +26,38 @@ import com.nimbusds.jwt.SignedJWT;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.impl.internal.ServiceReferenceHolder;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.cert.Certificate;
 import java.security.interfaces.RSAPublicKey;
+import java.util.Map;
 
 public class JWTUtil {
 
     private static final Log log = LogFactory.getLog(JWTUtil.class);
+    private static final int MAX_VERIFIERS = 100;
+    private static final int MAX_VERIFIED_SIGNATURES = 10000;
+    private static final String SIGNING_INPUT_DIGEST_ALGORITHM = "SHA-256";
+
+    // Verifiers and trusted certificates of the keys tokens are verified with, which are a few per token issuer
+    private static final Map<RSAPublicKey, JWSVerifier> verifiers = new LRUCache<>(MAX_VERIFIERS);
+    private static final Map<String, TrustedCertificate> trustedCertificates = new LRUCache<>(MAX_VERIFIERS);
+    // Signatures that were verified, keyed by the signature as it appears in the token
+    private static final Map<String, VerifiedSignature> verifiedSignatures =
+            new LRUCache<>(MAX_VERIFIED_SIGNATURES);
 
     /**
      * This method used to retrieve JWKS keys from endpoint
@@ -51,12 +68,34 @@ public class JWTUtil {
      */
     public static String retrieveJWKSConfiguration(String jwksEndpoint) throws IOException {
 
+        return retrieveJWKSConfiguration(jwksEndpoint, null);
+    }
+
+    /**
+     * This method used to retrieve JWKS keys from endpoint along with the caching headers of the response
+     *
+     * @param jwksEndpoint    JWKS endpoint
+     * @param responseHeaders map to add the Cache-Control and Expires headers of the response to, or null
+     * @return JWKS keys, or null if the endpoint did not respond with the keys
+     * @throws IOException
+     */
+    public static String retrieveJWKSConfiguration(String jwksEndpoint, Map<String, String> responseHeaders)
+            throws IOException {
+
         URL url = new URL(jwksEndpoint);
         try (CloseableHttpClient httpClient = (CloseableHttpClient) APIUtil
                 .getHttpClient(url.getPort(), url.getProtocol())) {
             HttpGet httpGet = new HttpGet(jwksEndpoint);
             try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
                 if (response.getStatusLine().getStatusCode() == 200) {
+                    if (responseHeaders != null) {
+                        for (String headerName : new String[]{HttpHeaders.CACHE_CONTROL, HttpHeaders.EXPIRES}) {
+                            Header header = response.getFirstHeader(headerName);
+                            if (header != null) {
+                                responseHeaders.put(headerName, header.getValue());
+                            }
+                        }
+                    }
                     HttpEntity entity = response.getEntity();
                     try (InputStream content = entity.getContent()) {
                         return IOUtils.toString(content);
@@ -70,6 +109,11 @@ public class JWTUtil {
 
     /**
      * Verify the JWT token signature.
+     * <p>
+     * Signatures that were verified are remembered along with the key and a digest of the signed header and payload,
+     * so a token that is presented again is not verified again, while a token that reuses the signature with a
+     * different header, payload or key is. Only the signature is remembered: the expiry of the token, and whether it is
+     * revoked or was found invalid by the token caches of the gateway, are checked by the callers on every request.
      *
      * @param jwt SignedJwt Token
      * @param publicKey      public certificate
@@ -80,9 +124,20 @@ public class JWTUtil {
         JWSAlgorithm algorithm = jwt.getHeader().getAlgorithm();
         if ((JWSAlgorithm.RS256.equals(algorithm) || JWSAlgorithm.RS512.equals(algorithm) ||
                 JWSAlgorithm.RS384.equals(algorithm)) || JWSAlgorithm.PS256.equals(algorithm)) {
+            String signature = jwt.getSignature() != null ? jwt.getSignature().toString() : null;
+            byte[] signingInputDigest = signature != null ? getSigningInputDigest(jwt) : null;
+            if (signingInputDigest != null) {
+                VerifiedSignature verifiedSignature = verifiedSignatures.get(signature);
+                if (verifiedSignature != null && verifiedSignature.matches(publicKey, signingInputDigest)) {
+                    return true;
+                }
+            }
             try {
-                JWSVerifier jwsVerifier = new RSASSAVerifier(publicKey);
-                return jwt.verify(jwsVerifier);
+                boolean verified = jwt.verify(getVerifier(publicKey));
+                if (verified && signingInputDigest != null) {
+                    verifiedSignatures.put(signature, new VerifiedSignature(publicKey, signingInputDigest));
+                }
+                return verified;
             } catch (JOSEException e) {
                 log.error("Error while verifying JWT signature", e);
                 return false;
@@ -93,6 +148,38 @@ public class JWTUtil {
         }
     }
 
+    /**
+     * Forgets that a token signature was verified, so that the token is verified again if it is presented.
+     *
+     * @param signature token signature
+     */
+    public static void removeVerifiedSignature(String signature) {
+
+        if (signature != null) {
+            verifiedSignatures.remove(signature);
+        }
+    }
+
+    private static JWSVerifier getVerifier(RSAPublicKey publicKey) {
+
+        JWSVerifier jwsVerifier = verifiers.get(publicKey);
+        if (jwsVerifier == null) {
+            jwsVerifier = new RSASSAVerifier(publicKey);
+            verifiers.put(publicKey, jwsVerifier);
+        }
+        return jwsVerifier;
+    }
+
+    private static byte[] getSigningInputDigest(SignedJWT jwt) {
+
+        try {
+            return MessageDigest.getInstance(SIGNING_INPUT_DIGEST_ALGORITHM).digest(jwt.getSigningInput());
+        } catch (NoSuchAlgorithmException e) {
+            log.error("Error while computing the digest of the JWT signing input", e);
+            return null;
+        }
+    }
+
     /**
      * Verify the JWT token signature.
      *
@@ -106,7 +193,7 @@ public class JWTUtil {
         Certificate publicCert = null;
         //Read the client-truststore.jks into a KeyStore
         try {
-            publicCert = APIUtil.getCertificateFromParentTrustStore(alias);
+            publicCert = getTrustedCertificate(alias);
         } catch (APIManagementException e) {
             throw new APIManagementException("Error retrieving certificate from truststore ",e);
         }
@@ -127,4 +214,47 @@ public class JWTUtil {
         }
     }
 
+    private static Certificate getTrustedCertificate(String alias) throws APIManagementException {
+
+        KeyStore trustStore = ServiceReferenceHolder.getInstance().getTrustStore();
+        TrustedCertificate trustedCertificate = trustedCertificates.get(alias);
+        if (trustedCertificate != null && trustedCertificate.trustStore == trustStore) {
+            return trustedCertificate.certificate;
+        }
+        Certificate certificate = APIUtil.getCertificateFromParentTrustStore(alias);
+        if (certificate != null) {
+            trustedCertificates.put(alias, new TrustedCertificate(trustStore, certificate));
+        }
+        return certificate;
+    }
+
+    private static class TrustedCertificate {
+
+        private final KeyStore trustStore;
+        private final Certificate certificate;
+
+        private TrustedCertificate(KeyStore trustStore, Certificate certificate) {
+
+            this.trustStore = trustStore;
+            this.certificate = certificate;
+        }
+    }
+
+    private static class VerifiedSignature {
+
+        private final RSAPublicKey publicKey;
+        private final byte[] signingInputDigest;
+
+        private VerifiedSignature(RSAPublicKey publicKey, byte[] signingInputDigest) {
+
+            this.publicKey = publicKey;
+            this.signingInputDigest = signingInputDigest;
+        }
+
+        private boolean matches(RSAPublicKey publicKey, byte[] signingInputDigest) {
+
+            return this.publicKey.equals(publicKey) && MessageDigest.isEqual(this.signingInputDigest,
+                    signingInputDigest);
+        }
+    }
 }
@@ -21,7 +21,6 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.runtime.DeprecatedRuntimeConstants;
 import org.apache.velocity.runtime.RuntimeConstants;
 import org.json.simple.JSONArray;
@@ -29,7 +28,7 @@ import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.APIManagerConfigurationService;
 import org.wso2.carbon.apimgt.impl.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.impl.template.ConfigContext;
-import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+import org.wso2.carbon.apimgt.impl.template.VelocityTemplateRenderer;
 import org.wso2.carbon.apimgt.impl.wsdl.util.SOAPToRESTConstants;
 
 import java.io.File;
@@ -67,10 +66,8 @@ public class RESTToSOAPMsgTemplate {
             VelocityContext context = configcontext.getContext();
             context.internalGetKeys();
 
-            VelocityEngine velocityengine = new VelocityEngine();
-            APIUtil.initializeVelocityContext(velocityengine);
-            velocityengine.init();
-            org.apache.velocity.Template t = velocityengine.getTemplate(this.getInSeqTemplatePath());
+            Template t = VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.API_TEMPLATES)
+                    .getTemplate(this.getInSeqTemplatePath());
             t.merge(context, writer);
         } catch (Exception e) {
             log.error("Velocity Error", e);
@@ -91,10 +88,8 @@ public class RESTToSOAPMsgTemplate {
             VelocityContext context = configcontext.getContext();
             context.internalGetKeys();
 
-            VelocityEngine velocityengine = new VelocityEngine();
-            APIUtil.initializeVelocityContext(velocityengine);
-            velocityengine.init();
-            Template template = velocityengine.getTemplate(this.getOutSeqTemplatePath());
+            Template template = VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.API_TEMPLATES)
+                    .getTemplate(this.getOutSeqTemplatePath());
 
             template.merge(context, writer);
         } catch (Exception e) {
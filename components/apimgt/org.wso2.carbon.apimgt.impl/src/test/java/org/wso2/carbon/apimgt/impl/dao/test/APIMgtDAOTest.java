@@ -80,6 +80,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.*;
 
 import javax.naming.Context;
@@ -1237,6 +1238,57 @@ public class APIMgtDAOTest {
 
     }
 
+    @Test
+    public void testRemovedSubscriptionsAreRecordedAsTombstones() throws Exception {
+
+        Subscriber subscriber = new Subscriber("testRemovedSubscriptionsAreRecordedAsTombstones");
+        subscriber.setTenantId(-1234);
+        subscriber.setEmail("abc@wso2.com");
+        subscriber.setSubscribedDate(new Date(System.currentTimeMillis()));
+        apiMgtDAO.addSubscriber(subscriber, null);
+        Policy applicationPolicy = getApplicationPolicy("testRemovedSubscriptionsAreRecordedAsTombstones");
+        applicationPolicy.setTenantId(-1234);
+        apiMgtDAO.addApplicationPolicy((ApplicationPolicy) applicationPolicy);
+        Application application = new Application("testRemovedSubscriptionsAreRecordedAsTombstones", subscriber);
+        application.setTier("testRemovedSubscriptionsAreRecordedAsTombstones");
+        application.setId(apiMgtDAO.addApplication(application, subscriber.getName(), "testOrg"));
+        APIIdentifier apiId = new APIIdentifier("testRemovedSubscriptionsAreRecordedAsTombstones",
+                "testRemovedSubscriptionsAreRecordedAsTombstones", "1.0.0");
+        API api = new API(apiId);
+        api.setContext("/testRemovedSubscriptionsAreRecordedAsTombstones");
+        api.setContextTemplate("/testRemovedSubscriptionsAreRecordedAsTombstones/{version}");
+        api.setUUID(UUID.randomUUID().toString());
+        api.getId().setId(apiMgtDAO.addAPI(api, -1234, "testOrg"));
+        int subsId = apiMgtDAO.addSubscription(new ApiTypeWrapper(api), application,
+                APIConstants.SubscriptionStatus.UNBLOCKED, subscriber.getName());
+        assertFalse(isSubscriptionTombstoneRecorded(subsId));
+
+        apiMgtDAO.removeSubscriptionById(subsId);
+        assertTrue(isSubscriptionTombstoneRecorded(subsId));
+        apiMgtDAO.removeExpiredSubscriptionTombstones(new Timestamp(System.currentTimeMillis() - 60000));
+        assertTrue(isSubscriptionTombstoneRecorded(subsId));
+        apiMgtDAO.removeExpiredSubscriptionTombstones(new Timestamp(System.currentTimeMillis() + 60000));
+        assertFalse(isSubscriptionTombstoneRecorded(subsId));
+
+        apiMgtDAO.deleteAPI(api.getUuid());
+        apiMgtDAO.deleteApplication(application);
+        apiMgtDAO.removeThrottlePolicy(PolicyConstants.POLICY_LEVEL_APP,
+                "testRemovedSubscriptionsAreRecordedAsTombstones", -1234);
+        deleteSubscriber(subscriber.getId());
+    }
+
+    private boolean isSubscriptionTombstoneRecorded(int subscriptionId) throws SQLException {
+
+        try (Connection conn = APIMgtDBUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT TENANT_ID FROM AM_SUBSCRIPTION_TOMBSTONE WHERE SUBSCRIPTION_ID = ?")) {
+            ps.setInt(1, subscriptionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt("TENANT_ID") == -1234;
+            }
+        }
+    }
+
     private void deleteSubscriber(int subscriberId) throws APIManagementException {
         Connection conn = null;
         ResultSet rs = null;
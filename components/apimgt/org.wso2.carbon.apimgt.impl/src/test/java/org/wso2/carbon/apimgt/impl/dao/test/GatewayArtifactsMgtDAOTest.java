@@ -58,6 +58,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -206,4 +207,75 @@ public class GatewayArtifactsMgtDAOTest {
         Assert.assertNotNull(artifact);
         Assert.assertEquals(context, artifacts.get(0).getContext());
     }
+
+    @Test
+    public void testStreamGatewayArtifactsByLabel() throws Exception {
+        String uuid = UUID.randomUUID().toString();
+        String name = "streamedapiname";
+        String version = "1.0.0";
+        String revision = UUID.randomUUID().toString();
+        URL resource = getClass().getClassLoader().getResource("admin-PizzaShackAPI-1.0.0.zip");
+        File file = new File(resource.getPath());
+        gatewayArtifactsMgtDAO.addGatewayAPIArtifactAndMetaData(uuid, name, version, revision, "carbon.super",
+                APIConstants.HTTP_PROTOCOL, file);
+        Map<String, String> gatewayVhosts = new HashMap<>();
+        gatewayVhosts.put("streamlabel", "dev.wso2.com");
+        gatewayArtifactsMgtDAO.addAndRemovePublishedGatewayLabels(uuid, revision, Collections.asSet("streamlabel"),
+                gatewayVhosts);
+
+        byte[] expectedArtifact = FileUtils.readFileToByteArray(file);
+        List<String> streamedApiIds = new ArrayList<>();
+        gatewayArtifactsMgtDAO.streamGatewayArtifactsByLabel(new String[]{"streamlabel"}, "carbon.super",
+                apiRuntimeArtifactDto -> {
+                    streamedApiIds.add(apiRuntimeArtifactDto.getApiId());
+                    try {
+                        Assert.assertArrayEquals(expectedArtifact,
+                                IOUtils.toByteArray((InputStream) apiRuntimeArtifactDto.getArtifact()));
+                    } catch (IOException e) {
+                        throw new APIManagementException(e);
+                    }
+                });
+        Assert.assertEquals(1, streamedApiIds.size());
+        Assert.assertEquals(uuid, streamedApiIds.get(0));
+
+        List<APIRuntimeArtifactDto> artifacts =
+                gatewayArtifactsMgtDAO.retrieveGatewayArtifactsByLabel(new String[]{"streamlabel"}, "carbon.super");
+        Assert.assertEquals(1, artifacts.size());
+        Assert.assertArrayEquals(expectedArtifact,
+                IOUtils.toByteArray((InputStream) artifacts.get(0).getArtifact()));
+    }
+
+    @Test
+    public void testAddAndRetrieveRenderedGatewayArtifact() throws APIManagementException {
+        String uuid = UUID.randomUUID().toString();
+        String name = "renderedapiname";
+        String version = "1.0.0";
+        String revision = UUID.randomUUID().toString();
+        URL resource = getClass().getClassLoader().getResource("admin-PizzaShackAPI-1.0.0.zip");
+        File file = new File(resource.getPath());
+        gatewayArtifactsMgtDAO.addGatewayAPIArtifactAndMetaData(uuid, name, version, revision, "carbon.super",
+                APIConstants.HTTP_PROTOCOL, file);
+
+        Assert.assertNull(gatewayArtifactsMgtDAO.retrieveRenderedGatewayArtifact(revision, "label1", "Synapse",
+                "hash1"));
+        gatewayArtifactsMgtDAO.addRenderedGatewayArtifact(uuid, revision, "label1", "Synapse", "hash1", "artifact1");
+        Assert.assertEquals("artifact1", gatewayArtifactsMgtDAO.retrieveRenderedGatewayArtifact(revision, "label1",
+                "Synapse", "hash1"));
+        Assert.assertNull(gatewayArtifactsMgtDAO.retrieveRenderedGatewayArtifact(revision, "label1", "Synapse",
+                "hash2"));
+        Assert.assertNull(gatewayArtifactsMgtDAO.retrieveRenderedGatewayArtifact(revision, "label2", "Synapse",
+                "hash1"));
+
+        gatewayArtifactsMgtDAO.addRenderedGatewayArtifact(uuid, revision, "label1", "Synapse", "hash2", "artifact2");
+        Assert.assertNull(gatewayArtifactsMgtDAO.retrieveRenderedGatewayArtifact(revision, "label1", "Synapse",
+                "hash1"));
+        Assert.assertEquals("artifact2", gatewayArtifactsMgtDAO.retrieveRenderedGatewayArtifact(revision, "label1",
+                "Synapse", "hash2"));
+
+        // Redeploying the revision invalidates the rendered artifacts
+        gatewayArtifactsMgtDAO.addGatewayAPIArtifactAndMetaData(uuid, name, version, revision, "carbon.super",
+                APIConstants.HTTP_PROTOCOL, file);
+        Assert.assertNull(gatewayArtifactsMgtDAO.retrieveRenderedGatewayArtifact(revision, "label1", "Synapse",
+                "hash2"));
+    }
 }
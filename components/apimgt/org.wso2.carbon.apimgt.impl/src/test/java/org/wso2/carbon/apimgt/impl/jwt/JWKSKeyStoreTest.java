@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.jwt;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class JWKSKeyStoreTest {
+
+    @Test
+    public void testGetKeyRetrievesKeysOnce() throws Exception {
+
+        RSAPublicKey publicKey = generatePublicKey();
+        TestJWKSKeyStore keyStore = new TestJWKSKeyStore(getJWKS("kid1", publicKey));
+
+        Assert.assertEquals(publicKey, keyStore.getKey("kid1"));
+        Assert.assertEquals(publicKey, keyStore.getKey("kid1"));
+        Assert.assertEquals(1, keyStore.retrievals.get());
+    }
+
+    @Test
+    public void testUnknownKeyIdRetrievalIsRateLimited() throws Exception {
+
+        TestJWKSKeyStore keyStore = new TestJWKSKeyStore(getJWKS("kid1", generatePublicKey()));
+        Assert.assertNotNull(keyStore.getKey("kid1"));
+
+        // Within the minimum refresh interval, unknown key IDs do not retrieve the keys
+        Assert.assertNull(keyStore.getKey("kid2"));
+        Assert.assertNull(keyStore.getKey("kid3"));
+        Assert.assertEquals(1, keyStore.retrievals.get());
+
+        // After the interval, the keys are retrieved once for the unknown key ID
+        keyStore.currentTime += JWKSKeyStore.MIN_REFRESH_INTERVAL;
+        RSAPublicKey rotatedKey = generatePublicKey();
+        keyStore.jwks = getJWKS("kid2", rotatedKey);
+        Assert.assertEquals(rotatedKey, keyStore.getKey("kid2"));
+        Assert.assertEquals(2, keyStore.retrievals.get());
+    }
+
+    @Test
+    public void testUnknownKeyIdIsCached() throws Exception {
+
+        TestJWKSKeyStore keyStore = new TestJWKSKeyStore(getJWKS("kid1", generatePublicKey()));
+        Assert.assertNotNull(keyStore.getKey("kid1"));
+
+        keyStore.currentTime += JWKSKeyStore.MIN_REFRESH_INTERVAL;
+        Assert.assertNull(keyStore.getKey("kid2"));
+        Assert.assertEquals(2, keyStore.retrievals.get());
+
+        // The key ID stays unknown even after the minimum refresh interval
+        keyStore.currentTime += JWKSKeyStore.MIN_REFRESH_INTERVAL;
+        Assert.assertNull(keyStore.getKey("kid2"));
+        Assert.assertEquals(2, keyStore.retrievals.get());
+
+        keyStore.currentTime += JWKSKeyStore.UNKNOWN_KEY_ID_EXPIRY;
+        Assert.assertNull(keyStore.getKey("kid2"));
+        Assert.assertEquals(3, keyStore.retrievals.get());
+    }
+
+    @Test
+    public void testExpiredKeysAreRefreshedInBackground() throws Exception {
+
+        RSAPublicKey publicKey = generatePublicKey();
+        TestJWKSKeyStore keyStore = new TestJWKSKeyStore(getJWKS("kid1", publicKey));
+        keyStore.cacheControl = "public, max-age=60";
+        Assert.assertEquals(publicKey, keyStore.getKey("kid1"));
+
+        keyStore.currentTime += TimeUnit.SECONDS.toMillis(59);
+        Assert.assertEquals(publicKey, keyStore.getKey("kid1"));
+        Assert.assertEquals(1, keyStore.retrievals.get());
+
+        // Expired keys are served while the keys are refreshed
+        keyStore.retrievalBlocked = new CountDownLatch(1);
+        keyStore.currentTime += TimeUnit.SECONDS.toMillis(1);
+        RSAPublicKey rotatedKey = generatePublicKey();
+        keyStore.jwks = getJWKS("kid1", rotatedKey);
+        Assert.assertEquals(publicKey, keyStore.getKey("kid1"));
+        Assert.assertEquals(publicKey, keyStore.getKey("kid1"));
+        keyStore.retrievalBlocked.countDown();
+
+        long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (keyStore.getKey("kid1") != rotatedKey && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(rotatedKey, keyStore.getKey("kid1"));
+        Assert.assertEquals(2, keyStore.retrievals.get());
+    }
+
+    @Test
+    public void testFailedRefreshKeepsKeys() throws Exception {
+
+        RSAPublicKey publicKey = generatePublicKey();
+        TestJWKSKeyStore keyStore = new TestJWKSKeyStore(getJWKS("kid1", publicKey));
+        Assert.assertEquals(publicKey, keyStore.getKey("kid1"));
+
+        keyStore.jwks = null;
+        keyStore.currentTime += JWKSKeyStore.DEFAULT_REFRESH_INTERVAL;
+        Assert.assertEquals(publicKey, keyStore.getKey("kid1"));
+        long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (keyStore.retrievals.get() < 2 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        Assert.assertEquals(publicKey, keyStore.getKey("kid1"));
+        Assert.assertEquals(2, keyStore.retrievals.get());
+    }
+
+    @Test(expected = IOException.class)
+    public void testGetKeyWhenKeysCannotBeRetrieved() throws Exception {
+
+        new TestJWKSKeyStore(null).getKey("kid1");
+    }
+
+    private static RSAPublicKey generatePublicKey() throws NoSuchAlgorithmException {
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        return (RSAPublicKey) keyPairGenerator.generateKeyPair().getPublic();
+    }
+
+    private static String getJWKS(String keyId, RSAPublicKey publicKey) {
+
+        return new JWKSet(new RSAKey.Builder(publicKey).keyID(keyId).build()).toString();
+    }
+
+    private static class TestJWKSKeyStore extends JWKSKeyStore {
+
+        private final AtomicInteger retrievals = new AtomicInteger();
+        private volatile String jwks;
+        private volatile String cacheControl;
+        private volatile CountDownLatch retrievalBlocked;
+        private volatile long currentTime = System.currentTimeMillis();
+
+        private TestJWKSKeyStore(String jwks) {
+
+            super("https://localhost:9443/oauth2/jwks");
+            this.jwks = jwks;
+        }
+
+        @Override
+        protected String retrieveJWKS(Map<String, String> responseHeaders) throws IOException {
+
+            if (retrievalBlocked != null) {
+                try {
+                    retrievalBlocked.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            retrievals.incrementAndGet();
+            if (cacheControl != null) {
+                responseHeaders.put("Cache-Control", cacheControl);
+            }
+            return jwks;
+        }
+
+        @Override
+        protected long getCurrentTime() {
+
+            return currentTime;
+        }
+    }
+}
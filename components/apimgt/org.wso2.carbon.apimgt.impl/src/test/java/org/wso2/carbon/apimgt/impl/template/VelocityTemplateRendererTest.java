@@ -0,0 +1,67 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.template;
+
+import org.apache.velocity.Template;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+public class VelocityTemplateRendererTest {
+
+    private static final String TEMPLATE_PATH = "repository" + File.separator + "resources" + File.separator
+            + "api_templates" + File.separator + "soap_to_rest_out_seq_template.xml";
+
+    @Before
+    public void setUp() {
+
+        System.setProperty("carbon.home", VelocityTemplateRendererTest.class.getResource("/").getFile());
+    }
+
+    @Test
+    public void testGetTemplateReusesParsedTemplate() throws Exception {
+
+        VelocityTemplateRenderer renderer =
+                VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.API_TEMPLATES);
+        Assert.assertSame(renderer, VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.API_TEMPLATES));
+        Template template = renderer.getTemplate(TEMPLATE_PATH);
+        Assert.assertSame(template, renderer.getTemplate(TEMPLATE_PATH));
+    }
+
+    @Test
+    public void testGetTemplateReloadsModifiedTemplate() throws Exception {
+
+        VelocityTemplateRenderer renderer =
+                VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.API_TEMPLATES);
+        Template template = renderer.getTemplate(TEMPLATE_PATH);
+        File templateFile = new File(System.getProperty("carbon.home"), TEMPLATE_PATH);
+        Assert.assertTrue(templateFile.setLastModified(templateFile.lastModified() + 1000));
+        Template reloadedTemplate = renderer.getTemplate(TEMPLATE_PATH);
+        Assert.assertNotSame(template, reloadedTemplate);
+        Assert.assertSame(reloadedTemplate, renderer.getTemplate(TEMPLATE_PATH));
+    }
+
+    @Test(expected = APITemplateException.class)
+    public void testGetTemplateThatDoesNotExist() throws Exception {
+
+        VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.API_TEMPLATES)
+                .getTemplate("repository" + File.separator + "resources" + File.separator + "api_templates"
+                        + File.separator + "missing_template.xml");
+    }
+}
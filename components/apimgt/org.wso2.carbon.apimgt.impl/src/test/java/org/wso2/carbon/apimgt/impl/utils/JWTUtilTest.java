@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.utils;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.UUID;
+
+public class JWTUtilTest {
+
+    @Test
+    public void testVerifyTokenSignatureSkipsVerifiedSignatures() throws Exception {
+
+        KeyPair keyPair = generateKeyPair();
+        String token = signToken(keyPair, "admin");
+        SignedJWT signedJWT = SignedJWT.parse(token);
+        Assert.assertTrue(JWTUtil.verifyTokenSignature(signedJWT, (RSAPublicKey) keyPair.getPublic()));
+        Assert.assertEquals(SignedJWT.State.VERIFIED, signedJWT.getState());
+
+        SignedJWT repeatedJWT = SignedJWT.parse(token);
+        Assert.assertTrue(JWTUtil.verifyTokenSignature(repeatedJWT, (RSAPublicKey) keyPair.getPublic()));
+        Assert.assertEquals(SignedJWT.State.SIGNED, repeatedJWT.getState());
+    }
+
+    @Test
+    public void testVerifyTokenSignatureRejectsVerifiedSignatureOfOtherPayload() throws Exception {
+
+        KeyPair keyPair = generateKeyPair();
+        SignedJWT signedJWT = SignedJWT.parse(signToken(keyPair, "admin"));
+        Assert.assertTrue(JWTUtil.verifyTokenSignature(signedJWT, (RSAPublicKey) keyPair.getPublic()));
+
+        SignedJWT otherJWT = SignedJWT.parse(signToken(keyPair, "user"));
+        SignedJWT forgedJWT = new SignedJWT(signedJWT.getHeader().toBase64URL(),
+                otherJWT.getPayload().toBase64URL(), signedJWT.getSignature());
+        Assert.assertFalse(JWTUtil.verifyTokenSignature(forgedJWT, (RSAPublicKey) keyPair.getPublic()));
+    }
+
+    @Test
+    public void testVerifyTokenSignatureRejectsVerifiedSignatureOfOtherKey() throws Exception {
+
+        KeyPair keyPair = generateKeyPair();
+        String token = signToken(keyPair, "admin");
+        Assert.assertTrue(JWTUtil.verifyTokenSignature(SignedJWT.parse(token), (RSAPublicKey) keyPair.getPublic()));
+        Assert.assertFalse(JWTUtil.verifyTokenSignature(SignedJWT.parse(token),
+                (RSAPublicKey) generateKeyPair().getPublic()));
+    }
+
+    @Test
+    public void testRemoveVerifiedSignature() throws Exception {
+
+        KeyPair keyPair = generateKeyPair();
+        String token = signToken(keyPair, "admin");
+        Assert.assertTrue(JWTUtil.verifyTokenSignature(SignedJWT.parse(token), (RSAPublicKey) keyPair.getPublic()));
+
+        SignedJWT signedJWT = SignedJWT.parse(token);
+        JWTUtil.removeVerifiedSignature(signedJWT.getSignature().toString());
+        Assert.assertTrue(JWTUtil.verifyTokenSignature(signedJWT, (RSAPublicKey) keyPair.getPublic()));
+        Assert.assertEquals(SignedJWT.State.VERIFIED, signedJWT.getState());
+    }
+
+    @Test
+    public void testVerifyTokenSignatureRejectsInvalidSignature() throws Exception {
+
+        KeyPair keyPair = generateKeyPair();
+        SignedJWT signedJWT = SignedJWT.parse(signToken(keyPair, "admin"));
+        SignedJWT invalidJWT = new SignedJWT(signedJWT.getHeader().toBase64URL(),
+                signedJWT.getPayload().toBase64URL(), Base64URL.encode(new byte[256]));
+        Assert.assertFalse(JWTUtil.verifyTokenSignature(invalidJWT, (RSAPublicKey) keyPair.getPublic()));
+        Assert.assertFalse(JWTUtil.verifyTokenSignature(invalidJWT, (RSAPublicKey) keyPair.getPublic()));
+    }
+
+    private static KeyPair generateKeyPair() throws Exception {
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    private static String signToken(KeyPair keyPair, String subject) throws Exception {
+
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder().subject(subject).jwtID(UUID.randomUUID().toString())
+                .build();
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claimsSet);
+        signedJWT.sign(new RSASSASigner(keyPair.getPrivate()));
+        return signedJWT.serialize();
+    }
+}
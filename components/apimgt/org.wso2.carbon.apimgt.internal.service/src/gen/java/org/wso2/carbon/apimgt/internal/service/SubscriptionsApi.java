@@ -43,8 +43,9 @@ SubscriptionsApiService delegate = new SubscriptionsApiServiceImpl();
     @ApiOperation(value = "Get all subscriptions", notes = "This will provide access to subscriptions in database. ", response = SubscriptionListDTO.class, tags={ "Subscription Validation" })
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "An array of subscriptions in the database", response = SubscriptionListDTO.class),
+        @ApiResponse(code = 410, message = "Gone. The watermark is older than the retention period of deleted subscriptions.", response = Void.class),
         @ApiResponse(code = 200, message = "Unexpected error", response = ErrorDTO.class) })
-    public Response subscriptionsGet(@ApiParam(value = "This is used to specify the tenant domain, where the resource need to be   retrieved from. " ,required=true)@HeaderParam("xWSO2Tenant") String xWSO2Tenant,  @ApiParam(value = "**Search condition**.   Api ID  of the subscription ")  @QueryParam("apiId") Integer apiId,  @ApiParam(value = "**Search condition**.   Application ID  of the subscription ")  @QueryParam("appId") Integer appId,  @ApiParam(value = "**Search condition**.   Api UUID  of the subscription ")  @QueryParam("apiUUID") String apiUUID,  @ApiParam(value = "**Search condition**.   Application UUID  of the subscription ")  @QueryParam("applicationUUID") String applicationUUID) throws APIManagementException{
-        return delegate.subscriptionsGet(xWSO2Tenant, apiId, appId, apiUUID, applicationUUID, securityContext);
+    public Response subscriptionsGet(@ApiParam(value = "This is used to specify the tenant domain, where the resource need to be   retrieved from. " ,required=true)@HeaderParam("xWSO2Tenant") String xWSO2Tenant,  @ApiParam(value = "**Search condition**.   Api ID  of the subscription ")  @QueryParam("apiId") Integer apiId,  @ApiParam(value = "**Search condition**.   Application ID  of the subscription ")  @QueryParam("appId") Integer appId,  @ApiParam(value = "**Search condition**.   Api UUID  of the subscription ")  @QueryParam("apiUUID") String apiUUID,  @ApiParam(value = "**Search condition**.   Application UUID  of the subscription ")  @QueryParam("applicationUUID") String applicationUUID,  @ApiParam(value = "Watermark returned by a previous call. Only the subscriptions of the tenant added, updated or deleted after it are returned. Deleted subscriptions are kept for seven days, so a watermark older than that is rejected with 410, and the caller has to retrieve all the subscriptions instead. ")  @QueryParam("since") Long since,  @ApiParam(value = "Only the changed and deleted subscriptions with a larger subscription id are returned. Used together with `since` to page through the changes. ")  @QueryParam("after") Integer after,  @ApiParam(value = "Maximum number of changed subscriptions, and of deleted subscriptions, returned. Used together with `since`. ")  @QueryParam("limit") Integer limit) throws APIManagementException{
+        return delegate.subscriptionsGet(xWSO2Tenant, apiId, appId, apiUUID, applicationUUID, since, after, limit, securityContext);
     }
 }
@@ -22,6 +22,8 @@ public class SubscriptionListDTO   {
   
     private Integer count = null;
     private List<SubscriptionDTO> list = new ArrayList<>();
+    private List<SubscriptionDTO> deleted = new ArrayList<>();
+    private Long watermark = null;
     private PaginationDTO pagination = null;
 
   /**
@@ -59,6 +61,42 @@ public class SubscriptionListDTO   {
     this.list = list;
   }
 
+  /**
+   * Subscriptions deleted after the requested watermark, to be removed before applying the list. Paged together with the list. 
+   **/
+  public SubscriptionListDTO deleted(List<SubscriptionDTO> deleted) {
+    this.deleted = deleted;
+    return this;
+  }
+
+  
+  @ApiModelProperty(value = "Subscriptions deleted after the requested watermark, to be removed before applying the list. Paged together with the list. ")
+  @JsonProperty("deleted")
+  public List<SubscriptionDTO> getDeleted() {
+    return deleted;
+  }
+  public void setDeleted(List<SubscriptionDTO> deleted) {
+    this.deleted = deleted;
+  }
+
+  /**
+   * Watermark to be passed as &#x60;since&#x60; to retrieve the changes after this response. It is taken from the clock of the node serving the request, and changes committed up to a minute before it are returned again. 
+   **/
+  public SubscriptionListDTO watermark(Long watermark) {
+    this.watermark = watermark;
+    return this;
+  }
+
+  
+  @ApiModelProperty(value = "Watermark to be passed as `since` to retrieve the changes after this response. It is taken from the clock of the node serving the request, and changes committed up to a minute before it are returned again. ")
+  @JsonProperty("watermark")
+  public Long getWatermark() {
+    return watermark;
+  }
+  public void setWatermark(Long watermark) {
+    this.watermark = watermark;
+  }
+
   /**
    **/
   public SubscriptionListDTO pagination(PaginationDTO pagination) {
@@ -88,12 +126,14 @@ public class SubscriptionListDTO   {
     SubscriptionListDTO subscriptionList = (SubscriptionListDTO) o;
     return Objects.equals(count, subscriptionList.count) &&
         Objects.equals(list, subscriptionList.list) &&
+        Objects.equals(deleted, subscriptionList.deleted) &&
+        Objects.equals(watermark, subscriptionList.watermark) &&
         Objects.equals(pagination, subscriptionList.pagination);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(count, list, pagination);
+    return Objects.hash(count, list, deleted, watermark, pagination);
   }
 
   @Override
@@ -103,6 +143,8 @@ public class SubscriptionListDTO   {
     
     sb.append("    count: ").append(toIndentedString(count)).append("\n");
     sb.append("    list: ").append(toIndentedString(list)).append("\n");
+    sb.append("    deleted: ").append(toIndentedString(deleted)).append("\n");
+    sb.append("    watermark: ").append(toIndentedString(watermark)).append("\n");
     sb.append("    pagination: ").append(toIndentedString(pagination)).append("\n");
     sb.append("}");
     return sb.toString();
@@ -24,21 +24,31 @@ import org.wso2.carbon.apimgt.api.APIManagementException;
 import org.wso2.carbon.apimgt.api.model.subscription.Subscription;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dao.SubscriptionValidationDAO;
+import org.wso2.carbon.apimgt.impl.utils.ExpiredSubscriptionTombstoneCleaner;
 import org.wso2.carbon.apimgt.internal.service.SubscriptionsApiService;
 import org.wso2.carbon.apimgt.internal.service.utils.SubscriptionValidationDataUtil;
 import org.wso2.carbon.apimgt.rest.api.util.utils.RestApiUtil;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import javax.ws.rs.core.Response;
 
 public class SubscriptionsApiServiceImpl implements SubscriptionsApiService {
 
+    private static final int DEFAULT_CHANGES_LIMIT = 1000;
+    // Subscription timestamps are taken from the clocks of the nodes writing them, and the watermark from the clock of
+    // the node serving the request. Changes made shortly before the requested watermark are returned again to tolerate
+    // clock skew and transactions committed late. A change committed more than this overlap after its timestamp was
+    // taken, or written by a node whose clock is behind by more than it, is not returned by the delta and is only
+    // picked up by the next full reload of the subscriptions.
+    private static final long WATERMARK_OVERLAP = 60000;
+
     @Override
     public Response subscriptionsGet(String xWSO2Tenant, Integer apiId, Integer appId, String apiUUID,
-                                     String applicationUUID, MessageContext messageContext) throws
-            APIManagementException {
+                                     String applicationUUID, Long since, Integer after, Integer limit,
+                                     MessageContext messageContext) throws APIManagementException {
 
         Response result;
 
@@ -60,6 +70,8 @@ public class SubscriptionsApiServiceImpl implements SubscriptionsApiService {
             }
             result = Response.ok().entity(
                     SubscriptionValidationDataUtil.fromSubscriptionToSubscriptionListDTO(subscriptionList)).build();
+        } else if (since != null && StringUtils.isNotEmpty(xWSO2Tenant)) {
+            result = getSubscriptionChanges(subscriptionValidationDAO, xWSO2Tenant, since, after, limit);
         } else if (StringUtils.isNotEmpty(organization) &&
                 !organization.equalsIgnoreCase(APIConstants.ORG_ALL_QUERY_PARAM)) {
             result = Response.ok().entity(SubscriptionValidationDataUtil.fromSubscriptionToSubscriptionListDTO(
@@ -78,4 +90,31 @@ public class SubscriptionsApiServiceImpl implements SubscriptionsApiService {
 
         return result;
     }
+
+    private Response getSubscriptionChanges(SubscriptionValidationDAO subscriptionValidationDAO, String tenantDomain,
+                                            long since, Integer after, Integer limit) throws APIManagementException {
+
+        // Taken before querying, so that changes committed while querying are returned again by the next call
+        long watermark = System.currentTimeMillis();
+        Timestamp changedAfter = new Timestamp(Math.max(0, since - WATERMARK_OVERLAP));
+        if (changedAfter.getTime() < watermark - ExpiredSubscriptionTombstoneCleaner.RETENTION_PERIOD) {
+            // The tombstones of the subscriptions deleted after the watermark may have been removed already
+            return Response.status(Response.Status.GONE.getStatusCode(),
+                    "Watermark is older than the retention period of deleted subscriptions. "
+                            + "Retrieve all the subscriptions instead.").build();
+        }
+        int pageSize = limit != null && limit > 0 ? limit : DEFAULT_CHANGES_LIMIT;
+        int afterId = after != null ? after : 0;
+        List<Subscription> changed =
+                subscriptionValidationDAO.getSubscriptionChanges(tenantDomain, changedAfter, afterId, pageSize);
+        List<Subscription> deleted =
+                subscriptionValidationDAO.getDeletedSubscriptions(tenantDomain, changedAfter, afterId, pageSize);
+        if (afterId == 0) {
+            // Cleanup the tombstones which are older than the retention period from db.
+            Thread cleanupThread = new Thread(new ExpiredSubscriptionTombstoneCleaner());
+            cleanupThread.start();
+        }
+        return Response.ok().entity(SubscriptionValidationDataUtil.fromSubscriptionChangesToSubscriptionListDTO(
+                changed, deleted, since, watermark, pageSize)).build();
+    }
 }
@@ -55,6 +55,7 @@ import org.wso2.carbon.apimgt.internal.service.dto.EventCountLimitDTO;
 import org.wso2.carbon.apimgt.internal.service.dto.GlobalPolicyDTO;
 import org.wso2.carbon.apimgt.internal.service.dto.GlobalPolicyListDTO;
 import org.wso2.carbon.apimgt.internal.service.dto.GroupIdDTO;
+import org.wso2.carbon.apimgt.internal.service.dto.PaginationDTO;
 import org.wso2.carbon.apimgt.internal.service.dto.RequestCountLimitDTO;
 import org.wso2.carbon.apimgt.internal.service.dto.ScopeDTO;
 import org.wso2.carbon.apimgt.internal.service.dto.ScopesListDTO;
@@ -197,18 +198,7 @@ public class SubscriptionValidationDataUtil {
         SubscriptionListDTO subscriptionListDTO = new SubscriptionListDTO();
         if (model != null) {
             for (Subscription subsModel : model) {
-                SubscriptionDTO subscriptionDTO = new SubscriptionDTO();
-                subscriptionDTO.setSubscriptionUUID(subsModel.getSubscriptionUUID());
-                subscriptionDTO.setApplicationUUID(subsModel.getApplicationUUID());
-                subscriptionDTO.setApiUUID(subsModel.getApiUUID());
-                subscriptionDTO.setApiId(subsModel.getApiId());
-                subscriptionDTO.setAppId(subsModel.getAppId());
-                subscriptionDTO.setSubscriptionId(subsModel.getSubscriptionId());
-                subscriptionDTO.setPolicyId(subsModel.getPolicyId());
-                subscriptionDTO.setSubscriptionState(subsModel.getSubscriptionState());
-
-                subscriptionListDTO.getList().add(subscriptionDTO);
-
+                subscriptionListDTO.getList().add(fromSubscriptionToSubscriptionDTO(subsModel));
             }
             subscriptionListDTO.setCount(model.size());
 
@@ -218,6 +208,66 @@ public class SubscriptionValidationDataUtil {
         return subscriptionListDTO;
     }
 
+    /**
+     * Builds a page of subscription changes.
+     *
+     * @param changed   subscriptions added or updated after the requested watermark
+     * @param deleted   subscriptions deleted after the requested watermark
+     * @param since     requested watermark
+     * @param watermark watermark to be used by the next call
+     * @param limit     page size
+     * @return page of subscription changes, linking to the next page if the page is full
+     */
+    public static SubscriptionListDTO fromSubscriptionChangesToSubscriptionListDTO(List<Subscription> changed,
+                                                                                   List<Subscription> deleted,
+                                                                                   long since, long watermark,
+                                                                                   int limit) {
+
+        // The changed and deleted subscriptions are paged by the same subscription id. A full page may stop before
+        // the other list does, so the page only holds the subscriptions up to the smallest last id of a full page.
+        int nextAfterId = Integer.MAX_VALUE;
+        if (changed.size() >= limit) {
+            nextAfterId = changed.get(changed.size() - 1).getSubscriptionId();
+        }
+        if (deleted.size() >= limit) {
+            nextAfterId = Math.min(nextAfterId, deleted.get(deleted.size() - 1).getSubscriptionId());
+        }
+        List<Subscription> changedPage = new ArrayList<>(changed.size());
+        for (Subscription subsModel : changed) {
+            if (subsModel.getSubscriptionId() <= nextAfterId) {
+                changedPage.add(subsModel);
+            }
+        }
+        SubscriptionListDTO subscriptionListDTO = fromSubscriptionToSubscriptionListDTO(changedPage);
+        for (Subscription subsModel : deleted) {
+            if (subsModel.getSubscriptionId() <= nextAfterId) {
+                subscriptionListDTO.getDeleted().add(fromSubscriptionToSubscriptionDTO(subsModel));
+            }
+        }
+        subscriptionListDTO.setWatermark(watermark);
+        PaginationDTO paginationDTO = new PaginationDTO();
+        paginationDTO.setLimit(limit);
+        if (nextAfterId != Integer.MAX_VALUE) {
+            paginationDTO.setNext("/subscriptions?since=" + since + "&after=" + nextAfterId + "&limit=" + limit);
+        }
+        subscriptionListDTO.setPagination(paginationDTO);
+        return subscriptionListDTO;
+    }
+
+    private static SubscriptionDTO fromSubscriptionToSubscriptionDTO(Subscription subsModel) {
+
+        SubscriptionDTO subscriptionDTO = new SubscriptionDTO();
+        subscriptionDTO.setSubscriptionUUID(subsModel.getSubscriptionUUID());
+        subscriptionDTO.setApplicationUUID(subsModel.getApplicationUUID());
+        subscriptionDTO.setApiUUID(subsModel.getApiUUID());
+        subscriptionDTO.setApiId(subsModel.getApiId());
+        subscriptionDTO.setAppId(subsModel.getAppId());
+        subscriptionDTO.setSubscriptionId(subsModel.getSubscriptionId());
+        subscriptionDTO.setPolicyId(subsModel.getPolicyId());
+        subscriptionDTO.setSubscriptionState(subsModel.getSubscriptionState());
+        return subscriptionDTO;
+    }
+
     public static SubscriptionPolicyListDTO fromSubscriptionPolicyToSubscriptionPolicyListDTO(
             List<SubscriptionPolicy> model) {
 
@@ -0,0 +1,66 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.internal.service.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.api.model.subscription.Subscription;
+import org.wso2.carbon.apimgt.internal.service.dto.SubscriptionListDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class SubscriptionValidationDataUtilTest {
+
+    @Test
+    public void testSubscriptionChangesArePagedTogetherWithDeletions() {
+
+        SubscriptionListDTO page = SubscriptionValidationDataUtil.fromSubscriptionChangesToSubscriptionListDTO(
+                getSubscriptions(1, 2, 7), getSubscriptions(3, 4, 5), 100L, 200L, 3);
+
+        // Deletions stop at subscription 5, so the changes after it are returned with the next page
+        Assert.assertEquals(2, page.getList().size());
+        Assert.assertEquals(3, page.getDeleted().size());
+        Assert.assertEquals(Long.valueOf(200L), page.getWatermark());
+        Assert.assertEquals("/subscriptions?since=100&after=5&limit=3", page.getPagination().getNext());
+    }
+
+    @Test
+    public void testLastPageOfSubscriptionChanges() {
+
+        SubscriptionListDTO page = SubscriptionValidationDataUtil.fromSubscriptionChangesToSubscriptionListDTO(
+                getSubscriptions(6, 7), Collections.emptyList(), 100L, 200L, 3);
+
+        Assert.assertEquals(2, page.getList().size());
+        Assert.assertTrue(page.getDeleted().isEmpty());
+        Assert.assertNull(page.getPagination().getNext());
+    }
+
+    private static List<Subscription> getSubscriptions(int... subscriptionIds) {
+
+        List<Subscription> subscriptions = new ArrayList<>();
+        for (int subscriptionId : subscriptionIds) {
+            Subscription subscription = new Subscription();
+            subscription.setSubscriptionId(subscriptionId);
+            subscriptions.add(subscription);
+        }
+        return subscriptions;
+    }
+}
@@ -26,6 +26,7 @@ import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationPolicy;
 import org.wso2.carbon.apimgt.keymgt.model.entity.Scope;
 import org.wso2.carbon.apimgt.keymgt.model.entity.Subscription;
 import org.wso2.carbon.apimgt.keymgt.model.entity.SubscriptionPolicy;
+import org.wso2.carbon.apimgt.keymgt.model.impl.APIContextTrie;
 
 import java.util.List;
 import java.util.Map;
@@ -164,6 +165,14 @@ public interface SubscriptionDataStore {
 
     Map<String,API> getAllAPIsByContextList();
 
+    /**
+     * Finds the API with the longest context, or default version context, matching the request path.
+     *
+     * @param path request path
+     * @return matched context and API, or null if there is no matching API
+     */
+    APIContextTrie.Match getApiByRequestPath(String path);
+
     boolean isScopesInitialized();
 
     Subscription getSubscriptionBySubscriptionUUID(String subscriptionUUID);
@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.wso2.carbon.apimgt.keymgt.model.entity.API;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Index of the API contexts of a tenant, used to find the API serving a request path.
+ * <p>
+ * Contexts are split into path segments and kept in a trie, so the API with the longest context matching a request
+ * path is found in a single pass over the path without allocating objects. Default version APIs are indexed with
+ * their versionless context as well. Lookups do not lock; updates are serialized and replace the child tables they
+ * change instead of modifying them in place.
+ */
+public class APIContextTrie {
+
+    private final Node root = new Node();
+
+    /**
+     * Adds the contexts of the API, replacing the APIs previously indexed with the same contexts.
+     */
+    public synchronized void add(API api) {
+
+        put(api.getContext(), api);
+        String defaultVersionContext = getDefaultVersionContext(api);
+        if (defaultVersionContext != null) {
+            put(defaultVersionContext, api);
+        }
+    }
+
+    /**
+     * Removes the contexts of the API, leaving the contexts which have since been taken over by other APIs.
+     */
+    public synchronized void remove(API api) {
+
+        remove(api.getContext(), api);
+        String defaultVersionContext = getDefaultVersionContext(api);
+        if (defaultVersionContext != null) {
+            remove(defaultVersionContext, api);
+        }
+    }
+
+    /**
+     * Returns the API with the longest context matching the request path, following the rules of
+     * {@code ApiUtils.matchApiPath}.
+     *
+     * @param path request path, optionally with the query string
+     * @return the matched context and API, or null if no context matches the path
+     */
+    public Match match(String path) {
+
+        Node node = root;
+        Match match = node.match;
+        if (path == null || path.isEmpty() || path.charAt(0) != '/') {
+            return match;
+        }
+        int length = path.indexOf('?');
+        if (length < 0) {
+            length = path.length();
+        }
+        int start = 1;
+        while (true) {
+            int end = path.indexOf('/', start);
+            if (end < 0 || end > length) {
+                end = length;
+            }
+            node = node.children.get(path, start, end);
+            if (node == null) {
+                return match;
+            }
+            if (node.match != null) {
+                match = node.match;
+            }
+            if (end == length) {
+                return match;
+            }
+            start = end + 1;
+        }
+    }
+
+    private void put(String context, API api) {
+
+        if (context == null || !context.startsWith("/")) {
+            return;
+        }
+        Node node = root;
+        if (!"/".equals(context)) {
+            int start = 1;
+            while (true) {
+                int end = context.indexOf('/', start);
+                if (end < 0) {
+                    end = context.length();
+                }
+                Node child = node.children.get(context, start, end);
+                if (child == null) {
+                    child = new Node();
+                    node.children = node.children.with(context.substring(start, end), child);
+                }
+                node = child;
+                if (end == context.length()) {
+                    break;
+                }
+                start = end + 1;
+            }
+        }
+        node.match = new Match(context, api);
+    }
+
+    private void remove(String context, API api) {
+
+        if (context == null || !context.startsWith("/")) {
+            return;
+        }
+        if ("/".equals(context)) {
+            if (isOwnedBy(root, api)) {
+                root.match = null;
+            }
+            return;
+        }
+        Deque<Node> nodes = new ArrayDeque<>();
+        Deque<String> segments = new ArrayDeque<>();
+        Node node = root;
+        int start = 1;
+        while (true) {
+            int end = context.indexOf('/', start);
+            if (end < 0) {
+                end = context.length();
+            }
+            Node child = node.children.get(context, start, end);
+            if (child == null) {
+                return;
+            }
+            nodes.push(node);
+            segments.push(context.substring(start, end));
+            node = child;
+            if (end == context.length()) {
+                break;
+            }
+            start = end + 1;
+        }
+        if (!isOwnedBy(node, api)) {
+            return;
+        }
+        node.match = null;
+        // Prune the nodes which no longer lead to any context
+        while (!nodes.isEmpty() && node.match == null && node.children.size == 0) {
+            Node parent = nodes.pop();
+            parent.children = parent.children.without(segments.pop());
+            node = parent;
+        }
+    }
+
+    private static boolean isOwnedBy(Node node, API api) {
+
+        return node.match != null && node.match.api.getCacheKey().equals(api.getCacheKey());
+    }
+
+    private static String getDefaultVersionContext(API api) {
+
+        if (!api.isDefaultVersion() || api.getContext() == null || api.getApiVersion() == null) {
+            return null;
+        }
+        int index = api.getContext().lastIndexOf("/" + api.getApiVersion());
+        return index > 0 ? api.getContext().substring(0, index) : null;
+    }
+
+    /**
+     * Context of an API matched by a request path. For default version APIs this may be the versionless context.
+     */
+    public static final class Match {
+
+        private final String context;
+        private final API api;
+
+        private Match(String context, API api) {
+
+            this.context = context;
+            this.api = api;
+        }
+
+        public String getContext() {
+
+            return context;
+        }
+
+        public API getApi() {
+
+            return api;
+        }
+    }
+
+    private static final class Node {
+
+        private volatile Match match;
+        private volatile Children children = Children.EMPTY;
+    }
+
+    /**
+     * Immutable open addressing table of the child nodes, looked up by a region of a path without creating a key.
+     */
+    private static final class Children {
+
+        private static final Children EMPTY = new Children(new String[0], new Node[0], 0);
+
+        private final String[] segments;
+        private final Node[] nodes;
+        private final int size;
+
+        private Children(String[] segments, Node[] nodes, int size) {
+
+            this.segments = segments;
+            this.nodes = nodes;
+            this.size = size;
+        }
+
+        private Node get(String path, int start, int end) {
+
+            if (size == 0) {
+                return null;
+            }
+            int mask = segments.length - 1;
+            int length = end - start;
+            int index = hash(path, start, end) & mask;
+            String segment;
+            while ((segment = segments[index]) != null) {
+                if (segment.length() == length && segment.regionMatches(0, path, start, length)) {
+                    return nodes[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        private Children with(String segment, Node node) {
+
+            Children children = new Children(new String[capacityFor(size + 1)], new Node[capacityFor(size + 1)],
+                    size + 1);
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i] != null) {
+                    children.insert(segments[i], nodes[i]);
+                }
+            }
+            children.insert(segment, node);
+            return children;
+        }
+
+        private Children without(String segment) {
+
+            if (size <= 1) {
+                return EMPTY;
+            }
+            Children children = new Children(new String[capacityFor(size - 1)], new Node[capacityFor(size - 1)],
+                    size - 1);
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i] != null && !segments[i].equals(segment)) {
+                    children.insert(segments[i], nodes[i]);
+                }
+            }
+            return children;
+        }
+
+        private void insert(String segment, Node node) {
+
+            int mask = segments.length - 1;
+            int index = hash(segment, 0, segment.length()) & mask;
+            while (segments[index] != null) {
+                index = (index + 1) & mask;
+            }
+            segments[index] = segment;
+            nodes[index] = node;
+        }
+
+        private static int capacityFor(int size) {
+
+            int capacity = 2;
+            while (capacity < size * 2) {
+                capacity <<= 1;
+            }
+            return capacity;
+        }
+
+        private static int hash(String path, int start, int end) {
+
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Loads entities missing in the subscription data store so that concurrent misses of the same key share a single
+ * call to the internal API, while misses of different keys are loaded in parallel.
+ * <p>
+ * The first thread missing a key loads it and the others wait for its result, up to the configured timeout. Keys
+ * which do not exist are remembered for a short time so that repeated requests with an unknown key do not reach the
+ * internal API every time. Failures are not remembered.
+ *
+ * @param <K> key type
+ * @param <V> entity type
+ */
+class SingleFlightLoader<K, V> {
+
+    private static final Log log = LogFactory.getLog(SingleFlightLoader.class);
+    static final int MAX_NEGATIVE_ENTRIES = 10000;
+
+    private final String entityName;
+    private final long timeout;
+    private final long negativeCacheTimeout;
+    private final Map<K, CompletableFuture<V>> inFlightLoads = new ConcurrentHashMap<>();
+    private final Map<K, Long> missingKeys = new ConcurrentHashMap<>();
+
+    /**
+     * @param entityName           name of the loaded entity, used in logs
+     * @param timeout              maximum time in milliseconds to wait for a load started by another thread
+     * @param negativeCacheTimeout time in milliseconds for which a missing key is not loaded again
+     */
+    SingleFlightLoader(String entityName, long timeout, long negativeCacheTimeout) {
+
+        this.entityName = entityName;
+        this.timeout = timeout;
+        this.negativeCacheTimeout = negativeCacheTimeout;
+    }
+
+    /**
+     * Loads the entity of the given key, or waits for the load already started by another thread.
+     *
+     * @param key    key of the entity
+     * @param loader loads the entity and adds it to the store; returns null if the entity does not exist
+     * @return loaded entity, or null if it does not exist or the load did not complete within the timeout
+     * @throws DataLoadingException if the load failed
+     */
+    V load(K key, Loader<V> loader) throws DataLoadingException {
+
+        Long missingUntil = missingKeys.get(key);
+        if (missingUntil != null) {
+            if (missingUntil > System.currentTimeMillis()) {
+                return null;
+            }
+            missingKeys.remove(key, missingUntil);
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlightLoad = inFlightLoads.putIfAbsent(key, future);
+        if (inFlightLoad != null) {
+            return await(key, inFlightLoad);
+        }
+        try {
+            V value = loader.load();
+            if (value == null) {
+                markMissing(key);
+            }
+            future.complete(value);
+            return value;
+        } catch (DataLoadingException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(key, future);
+        }
+    }
+
+    private V await(K key, CompletableFuture<V> inFlightLoad) throws DataLoadingException {
+
+        try {
+            return inFlightLoad.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Timed out while waiting for " + entityName + " " + key + " to be loaded");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DataLoadingException) {
+                throw (DataLoadingException) e.getCause();
+            }
+            throw new DataLoadingException("Error while loading " + entityName + " " + key, e.getCause());
+        }
+        return null;
+    }
+
+    private void markMissing(K key) {
+
+        if (missingKeys.size() >= MAX_NEGATIVE_ENTRIES) {
+            long now = System.currentTimeMillis();
+            missingKeys.values().removeIf(missingUntil -> missingUntil <= now);
+            if (missingKeys.size() >= MAX_NEGATIVE_ENTRIES) {
+                missingKeys.clear();
+            }
+        }
+        missingKeys.put(key, System.currentTimeMillis() + negativeCacheTimeout);
+    }
+
+    /**
+     * Forgets that the entity of the given key does not exist. Called when the entity is added to the store.
+     */
+    void invalidate(K key) {
+
+        missingKeys.remove(key);
+    }
+
+    int getMissingKeyCount() {
+
+        return missingKeys.size();
+    }
+
+    /**
+     * Loads an entity from the internal API.
+     */
+    interface Loader<V> {
+
+        V load() throws DataLoadingException;
+    }
+}
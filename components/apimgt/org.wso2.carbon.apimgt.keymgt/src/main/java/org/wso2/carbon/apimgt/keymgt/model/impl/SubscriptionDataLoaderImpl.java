@@ -18,9 +18,13 @@
 package org.wso2.carbon.apimgt.keymgt.model.impl;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpEntity;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -43,14 +47,16 @@ import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationList;
 import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationPolicy;
 import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationPolicyList;
 import org.wso2.carbon.apimgt.keymgt.model.entity.Scope;
-import org.wso2.carbon.apimgt.keymgt.model.entity.ScopesList;
 import org.wso2.carbon.apimgt.keymgt.model.entity.Subscription;
 import org.wso2.carbon.apimgt.keymgt.model.entity.SubscriptionList;
 import org.wso2.carbon.apimgt.keymgt.model.entity.SubscriptionPolicy;
 import org.wso2.carbon.apimgt.keymgt.model.entity.SubscriptionPolicyList;
 import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
 import java.net.URLEncoder;
@@ -58,6 +64,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
 
@@ -65,6 +72,8 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
     private EventHubConfigurationDto getEventHubConfigurationDto;
     private GatewayArtifactSynchronizerProperties gatewayArtifactSynchronizerProperties;
     public static final String UTF8 = "UTF-8";
+    private static final String LIST = "list";
+    private static final Gson gson = new Gson();
 
     public SubscriptionDataLoaderImpl() {
 
@@ -79,88 +88,85 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
     @Override
     public List<Subscription> loadAllSubscriptions(String tenantDomain) throws DataLoadingException {
 
-        String subscriptionsEP = APIConstants.SubscriptionValidationResources.SUBSCRIPTIONS;
         List<Subscription> subscriptions = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(subscriptionsEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + subscriptionsEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            subscriptions = (new Gson().fromJson(responseString, SubscriptionList.class)).getList();
-        }
+        loadAllSubscriptions(tenantDomain, subscriptions::add);
         return subscriptions;
     }
 
+    /**
+     * Loads all subscriptions of the tenant, handing each subscription to the consumer as soon as it is read from
+     * the response.
+     */
+    public void loadAllSubscriptions(String tenantDomain, Consumer<Subscription> consumer)
+            throws DataLoadingException {
+
+        invokeService(APIConstants.SubscriptionValidationResources.SUBSCRIPTIONS, tenantDomain, Subscription.class,
+                consumer);
+    }
+
     @Override
     public List<Application> loadAllApplications(String tenantDomain) throws DataLoadingException {
 
-        String applicationsEP = APIConstants.SubscriptionValidationResources.APPLICATIONS;
         List<Application> applications = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(applicationsEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + applicationsEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            applications = (new Gson().fromJson(responseString, ApplicationList.class)).getList();
-        }
+        loadAllApplications(tenantDomain, applications::add);
         return applications;
     }
 
+    /**
+     * Loads all applications of the tenant, handing each application to the consumer as soon as it is read from
+     * the response.
+     */
+    public void loadAllApplications(String tenantDomain, Consumer<Application> consumer)
+            throws DataLoadingException {
+
+        invokeService(APIConstants.SubscriptionValidationResources.APPLICATIONS, tenantDomain, Application.class,
+                consumer);
+    }
+
     @Override
     public List<ApplicationKeyMapping> loadAllKeyMappings(String tenantDomain) throws DataLoadingException {
 
-        String applicationsEP = APIConstants.SubscriptionValidationResources.APPLICATION_KEY_MAPPINGS;
         List<ApplicationKeyMapping> applicationKeyMappings = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(applicationsEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + applicationsEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            applicationKeyMappings = (new Gson().fromJson(responseString, ApplicationKeyMappingList.class)).getList();
-        }
+        loadAllKeyMappings(tenantDomain, applicationKeyMappings::add);
         return applicationKeyMappings;
     }
 
+    /**
+     * Loads all key mappings of the tenant, handing each key mapping to the consumer as soon as it is read from
+     * the response.
+     */
+    public void loadAllKeyMappings(String tenantDomain, Consumer<ApplicationKeyMapping> consumer)
+            throws DataLoadingException {
+
+        invokeService(APIConstants.SubscriptionValidationResources.APPLICATION_KEY_MAPPINGS, tenantDomain,
+                ApplicationKeyMapping.class, consumer);
+    }
+
     @Override
     public List<API> loadAllApis(String tenantDomain) throws DataLoadingException {
 
-        Set<String> gatewayLabels = gatewayArtifactSynchronizerProperties.getGatewayLabels();
         List<API> apis = new ArrayList<>();
+        loadAllApis(tenantDomain, apis::add);
+        if (log.isDebugEnabled() && !apis.isEmpty()) {
+            log.debug("apis :" + apis.get(0).toString());
+        }
+        return apis;
+    }
+
+    /**
+     * Loads all APIs of the tenant deployed in the gateway labels of this node, handing each API to the consumer as
+     * soon as it is read from the response.
+     */
+    public void loadAllApis(String tenantDomain, Consumer<API> consumer) throws DataLoadingException {
+
+        Set<String> gatewayLabels = gatewayArtifactSynchronizerProperties.getGatewayLabels();
         if (gatewayLabels != null && gatewayLabels.size() > 0) {
             for (String gatewayLabel : gatewayLabels) {
                 String apisEP =
                         APIConstants.SubscriptionValidationResources.APIS + "?gatewayLabel=" + getEncodedLabel(gatewayLabel);
-                String responseString = null;
-                try {
-                    responseString = invokeService(apisEP, tenantDomain);
-                } catch (IOException e) {
-                    String msg = "Error while executing the http client " + apisEP;
-                    log.error(msg, e);
-                    throw new DataLoadingException(msg, e);
-                }
-                if (responseString != null && !responseString.isEmpty()) {
-                    APIList apiList = new Gson().fromJson(responseString, APIList.class);
-                    apis.addAll(apiList.getList());
-                }
-                if (log.isDebugEnabled()) {
-                    log.debug("apis :" + apis.get(0).toString());
-                }
+                invokeService(apisEP, tenantDomain, API.class, consumer);
             }
         }
-
-        return apis;
     }
 
     @Override
@@ -172,19 +178,8 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
             for (String gatewayLabel : gatewayLabels) {
                 String apisEP =
                         APIConstants.SubscriptionValidationResources.APIS + "?gatewayLabel=" + getEncodedLabel(gatewayLabel);
-                String responseString;
-                try {
-                    responseString = invokeService(apisEP, APIConstants.ORG_ALL_QUERY_PARAM);
-                } catch (IOException e) {
-                    String msg = "Error while executing the http client " + apisEP;
-                    log.error(msg, e);
-                    throw new DataLoadingException(msg, e);
-                }
-                if (responseString != null && !responseString.isEmpty()) {
-                    APIList apiList = new Gson().fromJson(responseString, APIList.class);
-                    apis.addAll(apiList.getList());
-                }
-                if (log.isDebugEnabled()) {
+                invokeService(apisEP, APIConstants.ORG_ALL_QUERY_PARAM, API.class, apis::add);
+                if (log.isDebugEnabled() && !apis.isEmpty()) {
                     log.debug("apis :" + apis.get(0).toString());
                 }
             }
@@ -196,60 +191,59 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
     @Override
     public List<SubscriptionPolicy> loadAllSubscriptionPolicies(String tenantDomain) throws DataLoadingException {
 
-        String subscriptionPoliciesEP = APIConstants.SubscriptionValidationResources.SUBSCRIPTION_POLICIES;
         List<SubscriptionPolicy> subscriptionPolicies = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(subscriptionPoliciesEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + subscriptionPoliciesEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            subscriptionPolicies = (new Gson().fromJson(responseString, SubscriptionPolicyList.class)).getList();
-        }
+        loadAllSubscriptionPolicies(tenantDomain, subscriptionPolicies::add);
         return subscriptionPolicies;
     }
 
+    /**
+     * Loads all subscription policies of the tenant, handing each policy to the consumer as soon as it is read from
+     * the response.
+     */
+    public void loadAllSubscriptionPolicies(String tenantDomain, Consumer<SubscriptionPolicy> consumer)
+            throws DataLoadingException {
+
+        invokeService(APIConstants.SubscriptionValidationResources.SUBSCRIPTION_POLICIES, tenantDomain,
+                SubscriptionPolicy.class, consumer);
+    }
+
     @Override
     public List<ApiPolicy> loadAllAPIPolicies(String tenantDomain) throws DataLoadingException {
 
-        String apiPoliciesEP = APIConstants.SubscriptionValidationResources.API_POLICIES;
         List<ApiPolicy> apiPolicies = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(apiPoliciesEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + apiPoliciesEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            apiPolicies = (new Gson().fromJson(responseString, APIPolicyList.class)).getList();
-        }
+        loadAllAPIPolicies(tenantDomain, apiPolicies::add);
         return apiPolicies;
     }
 
+    /**
+     * Loads all API policies of the tenant, handing each policy to the consumer as soon as it is read from the
+     * response.
+     */
+    public void loadAllAPIPolicies(String tenantDomain, Consumer<ApiPolicy> consumer) throws DataLoadingException {
+
+        invokeService(APIConstants.SubscriptionValidationResources.API_POLICIES, tenantDomain, ApiPolicy.class,
+                consumer);
+    }
+
     @Override
     public List<ApplicationPolicy> loadAllAppPolicies(String tenantDomain) throws DataLoadingException {
 
-        String applicationsEP = APIConstants.SubscriptionValidationResources.APPLICATION_POLICIES;
         List<ApplicationPolicy> applicationPolicies = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(applicationsEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + applicationsEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            applicationPolicies = (new Gson().fromJson(responseString, ApplicationPolicyList.class)).getList();
-        }
+        loadAllAppPolicies(tenantDomain, applicationPolicies::add);
         return applicationPolicies;
     }
 
+    /**
+     * Loads all application policies of the tenant, handing each policy to the consumer as soon as it is read from
+     * the response.
+     */
+    public void loadAllAppPolicies(String tenantDomain, Consumer<ApplicationPolicy> consumer)
+            throws DataLoadingException {
+
+        invokeService(APIConstants.SubscriptionValidationResources.APPLICATION_POLICIES, tenantDomain,
+                ApplicationPolicy.class, consumer);
+    }
+
     @Override
     public Subscription getSubscriptionById(String apiId, String appId) throws DataLoadingException {
 
@@ -265,7 +259,7 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
             throw new DataLoadingException(msg, e);
         }
         if (responseString != null && !responseString.isEmpty()) {
-            SubscriptionList list = new Gson().fromJson(responseString, SubscriptionList.class);
+            SubscriptionList list = gson.fromJson(responseString, SubscriptionList.class);
             if (list.getList() != null && !list.getList().isEmpty()) {
                 subscription = list.getList().get(0);
             }
@@ -287,7 +281,7 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
             throw new DataLoadingException(msg, e);
         }
         if (responseString != null && !responseString.isEmpty()) {
-            ApplicationList list = new Gson().fromJson(responseString, ApplicationList.class);
+            ApplicationList list = gson.fromJson(responseString, ApplicationList.class);
             if (list.getList() != null && !list.getList().isEmpty()) {
                 application = list.getList().get(0);
             }
@@ -314,7 +308,7 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
             throw new DataLoadingException(msg, e);
         }
         if (responseString != null && !responseString.isEmpty()) {
-            ApplicationKeyMappingList list = new Gson().fromJson(responseString, ApplicationKeyMappingList.class);
+            ApplicationKeyMappingList list = gson.fromJson(responseString, ApplicationKeyMappingList.class);
             if (list.getList() != null && !list.getList().isEmpty()) {
                 application = list.getList().get(0);
             }
@@ -340,7 +334,7 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
                     throw new DataLoadingException(msg, e);
                 }
                 if (responseString != null && !responseString.isEmpty()) {
-                    APIList list = new Gson().fromJson(responseString, APIList.class);
+                    APIList list = gson.fromJson(responseString, APIList.class);
                     if (list.getList() != null && !list.getList().isEmpty()) {
                         api = list.getList().get(0);
                     }
@@ -371,7 +365,7 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
             throw new DataLoadingException(msg, e);
         }
         if (responseString != null && !responseString.isEmpty()) {
-            SubscriptionPolicyList list = new Gson().fromJson(responseString, SubscriptionPolicyList.class);
+            SubscriptionPolicyList list = gson.fromJson(responseString, SubscriptionPolicyList.class);
             if (list.getList() != null && !list.getList().isEmpty()) {
                 subscriptionPolicy = list.getList().get(0);
             }
@@ -397,7 +391,7 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
             throw new DataLoadingException(msg, e);
         }
         if (responseString != null && !responseString.isEmpty()) {
-            ApplicationPolicyList list = new Gson().fromJson(responseString, ApplicationPolicyList.class);
+            ApplicationPolicyList list = gson.fromJson(responseString, ApplicationPolicyList.class);
             if (list.getList() != null && !list.getList().isEmpty()) {
                 applicationPolicy = list.getList().get(0);
             }
@@ -423,7 +417,7 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
             throw new DataLoadingException(msg, e);
         }
         if (responseString != null && !responseString.isEmpty()) {
-            APIPolicyList list = new Gson().fromJson(responseString, APIPolicyList.class);
+            APIPolicyList list = gson.fromJson(responseString, APIPolicyList.class);
             if (list.getList() != null && !list.getList().isEmpty()) {
                 apiPolicy = list.getList().get(0);
             }
@@ -433,50 +427,119 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
 
     @Override
     public List<Scope> loadAllScopes(String tenantDomain) throws DataLoadingException {
-        String scopesEp = APIConstants.SubscriptionValidationResources.SCOPES;
+
         List<Scope> scopes = new ArrayList<>();
+        loadAllScopes(tenantDomain, scopes::add);
+        return scopes;
+    }
+
+    /**
+     * Loads all scopes of the tenant, handing each scope to the consumer as soon as it is read from the response.
+     */
+    public void loadAllScopes(String tenantDomain, Consumer<Scope> consumer) throws DataLoadingException {
+
+        invokeService(APIConstants.SubscriptionValidationResources.SCOPES, tenantDomain, Scope.class, consumer);
+    }
+
+    private String invokeService(String path, String tenantDomain) throws DataLoadingException, IOException {
+
         String responseString;
-        try {
-            responseString = invokeService(scopesEp, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the HTTP client " + scopesEp;
+        try (CloseableHttpResponse httpResponse = executeRequest(path, tenantDomain)) {
+            responseString = EntityUtils.toString(httpResponse.getEntity(), UTF8);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Response : " + responseString);
+        }
+        return responseString;
+    }
+
+    /**
+     * Invokes the service and reads the entities of the list in the response one at a time, so that the response
+     * never has to be held in memory as a whole.
+     */
+    private <T> void invokeService(String path, String tenantDomain, Class<T> entityType, Consumer<T> consumer)
+            throws DataLoadingException {
+
+        int count;
+        try (CloseableHttpResponse httpResponse = executeRequest(path, tenantDomain)) {
+            HttpEntity entity = httpResponse.getEntity();
+            if (entity == null) {
+                return;
+            }
+            try (Reader reader = new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8)) {
+                count = readList(reader, entityType, consumer);
+            }
+        } catch (IOException | JsonParseException e) {
+            String msg = "Error while executing the http client " + path;
             log.error(msg, e);
             throw new DataLoadingException(msg, e);
         }
-        if (responseString != null && !responseString.isEmpty()) {
-            scopes = new Gson().fromJson(responseString, ScopesList.class).getList();
+        if (log.isDebugEnabled()) {
+            log.debug("Loaded " + count + " entries from " + path);
         }
-        return scopes;
-
     }
 
-    private String invokeService(String path, String tenantDomain) throws DataLoadingException, IOException {
+    private CloseableHttpResponse executeRequest(String path, String tenantDomain)
+            throws DataLoadingException, IOException {
 
         String serviceURLStr = getEventHubConfigurationDto.getServiceUrl().concat(APIConstants.INTERNAL_WEB_APP_EP);
         HttpGet method = new HttpGet(serviceURLStr + path);
 
-            URL serviceURL = new URL(serviceURLStr + path);
-            byte[] credentials = getServiceCredentials(getEventHubConfigurationDto);
-            int servicePort = serviceURL.getPort();
-            String serviceProtocol = serviceURL.getProtocol();
-            method.setHeader(APIConstants.AUTHORIZATION_HEADER_DEFAULT,
-                    APIConstants.AUTHORIZATION_BASIC +
-                            new String(credentials, StandardCharsets.UTF_8));
-            if (tenantDomain != null) {
-                method.setHeader(APIConstants.HEADER_TENANT, tenantDomain);
-            }
-            HttpClient httpClient = APIUtil.getHttpClient(servicePort, serviceProtocol);
-            String responseString;
-            try (CloseableHttpResponse httpResponse = APIUtil.executeHTTPRequestWithRetries(method, httpClient)) {
-                responseString = EntityUtils.toString(httpResponse.getEntity(), UTF8);
-            } catch (APIManagementException e) {
-                throw new DataLoadingException("Error while retrieving subscriptions", e);
-            }
+        URL serviceURL = new URL(serviceURLStr + path);
+        byte[] credentials = getServiceCredentials(getEventHubConfigurationDto);
+        int servicePort = serviceURL.getPort();
+        String serviceProtocol = serviceURL.getProtocol();
+        method.setHeader(APIConstants.AUTHORIZATION_HEADER_DEFAULT,
+                APIConstants.AUTHORIZATION_BASIC +
+                        new String(credentials, StandardCharsets.UTF_8));
+        if (tenantDomain != null) {
+            method.setHeader(APIConstants.HEADER_TENANT, tenantDomain);
+        }
+        HttpClient httpClient = APIUtil.getHttpClient(servicePort, serviceProtocol);
+        try {
+            return APIUtil.executeHTTPRequestWithRetries(method, httpClient);
+        } catch (APIManagementException e) {
+            throw new DataLoadingException("Error while retrieving subscriptions", e);
+        }
+    }
 
-            if (log.isDebugEnabled()) {
-                log.debug("Response : " + responseString);
+    /**
+     * Reads the entities of the {@code list} attribute of a list response and hands them to the consumer one by
+     * one. Other attributes are skipped.
+     *
+     * @return number of entities read
+     */
+    static <T> int readList(Reader reader, Class<T> entityType, Consumer<T> consumer) throws IOException {
+
+        JsonReader jsonReader = new JsonReader(reader);
+        jsonReader.setLenient(true);
+        try {
+            if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+                return 0;
             }
-            return responseString;
+        } catch (EOFException e) {
+            // Empty response
+            return 0;
+        }
+        int count = 0;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            if (LIST.equals(jsonReader.nextName()) && jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+                jsonReader.beginArray();
+                while (jsonReader.hasNext()) {
+                    T entity = gson.fromJson(jsonReader, entityType);
+                    if (entity != null) {
+                        consumer.accept(entity);
+                        count++;
+                    }
+                }
+                jsonReader.endArray();
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        return count;
     }
 
     private byte[] getServiceCredentials(EventHubConfigurationDto eventHubConfigurationDto) {
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the tasks populating the subscription data stores of all tenants on a single bounded set of threads.
+ * <p>
+ * Tasks are queued per tenant and the tenants with pending tasks are served in round robin order, so that a tenant
+ * with many pending tasks does not delay the others. The number of worker threads caps the number of concurrent
+ * calls to the internal API made by the tasks, and the same number caps the loads made on request threads. A tenant
+ * can be moved to the head of the queue when one of its requests is waiting for data which has not been loaded yet.
+ * <p>
+ * The tasks of a tenant are changed through {@link ConcurrentHashMap#compute}, so that cancelling the tasks of a
+ * tenant and scheduling its tasks again are atomic with respect to each other. The global lock only guards the order
+ * in which the tenants are served.
+ */
+public class SubscriptionDataLoadingScheduler {
+
+    private static final Log log = LogFactory.getLog(SubscriptionDataLoadingScheduler.class);
+
+    private final ConcurrentHashMap<String, TenantTasks> tenantTasks = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition tasksAvailable = lock.newCondition();
+    // Guarded by lock
+    private final ArrayDeque<String> readyTenants = new ArrayDeque<>();
+    private final ScheduledExecutorService delayScheduler;
+    private final Semaphore requestThreadLoads;
+    private volatile boolean running = true;
+
+    private static class SubscriptionDataLoadingSchedulerHolder {
+
+        private static final SubscriptionDataLoadingScheduler INSTANCE =
+                new SubscriptionDataLoadingScheduler(SubscriptionDataStoreImpl.LOADING_POOL_SIZE);
+    }
+
+    public static SubscriptionDataLoadingScheduler getInstance() {
+
+        return SubscriptionDataLoadingSchedulerHolder.INSTANCE;
+    }
+
+    SubscriptionDataLoadingScheduler(int maxConcurrentLoads) {
+
+        requestThreadLoads = new Semaphore(maxConcurrentLoads);
+        delayScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SubscriptionDataLoadingScheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < maxConcurrentLoads; i++) {
+            Thread worker = new Thread(this::runTasks, "SubscriptionDataLoader-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues the task of the tenant after the given delay. The task is dropped if the tasks of the tenant are
+     * cancelled before the delay expires.
+     */
+    public void schedule(final String tenantDomain, final Runnable task, long delay, TimeUnit unit) {
+
+        tenantTasks.compute(tenantDomain, (key, tasks) -> {
+            TenantTasks owner = tasks != null ? tasks : new TenantTasks();
+            owner.delayedTasks.removeIf(ScheduledFuture::isDone);
+            owner.delayedTasks.add(delayScheduler.schedule(() -> submit(key, owner, task), delay, unit));
+            return owner;
+        });
+    }
+
+    /**
+     * Queues the task of the tenant.
+     */
+    public void submit(String tenantDomain, Runnable task) {
+
+        tenantTasks.compute(tenantDomain, (key, tasks) -> {
+            TenantTasks owner = tasks != null ? tasks : new TenantTasks();
+            enqueue(key, owner, task);
+            return owner;
+        });
+    }
+
+    /**
+     * Moves the pending tasks of the tenant ahead of the tasks of other tenants.
+     */
+    public void prioritize(String tenantDomain) {
+
+        TenantTasks tasks = tenantTasks.get(tenantDomain);
+        if (tasks == null || !tasks.ready) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (!tenantDomain.equals(readyTenants.peekFirst()) && readyTenants.remove(tenantDomain)) {
+                readyTenants.addFirst(tenantDomain);
+                if (log.isDebugEnabled()) {
+                    log.debug("Prioritized loading subscription data of tenant " + tenantDomain);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads data of the tenant which a request is waiting for on the calling thread, after moving the pending tasks
+     * of the tenant ahead. At most as many loads as there are worker threads run on request threads at a time.
+     *
+     * @param tenantDomain tenant of the request
+     * @param loader       loads the data
+     * @param timeout      maximum time in milliseconds to wait for another load to finish
+     * @return loaded data
+     * @throws DataLoadingException if the load failed or could not start within the timeout
+     */
+    <V> V loadOnRequestThread(String tenantDomain, SingleFlightLoader.Loader<V> loader, long timeout)
+            throws DataLoadingException {
+
+        prioritize(tenantDomain);
+        try {
+            if (!requestThreadLoads.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw new DataLoadingException("Timed out while waiting to load subscription data of tenant "
+                        + tenantDomain);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataLoadingException("Interrupted while waiting to load subscription data of tenant "
+                    + tenantDomain, e);
+        }
+        try {
+            return loader.load();
+        } finally {
+            requestThreadLoads.release();
+        }
+    }
+
+    /**
+     * Drops the pending and delayed tasks of the tenant. Tasks which have already started are not interrupted.
+     */
+    public void cancel(String tenantDomain) {
+
+        tenantTasks.computeIfPresent(tenantDomain, (key, tasks) -> {
+            for (ScheduledFuture<?> delayedTask : tasks.delayedTasks) {
+                delayedTask.cancel(false);
+            }
+            if (tasks.ready) {
+                lock.lock();
+                try {
+                    readyTenants.remove(key);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return null;
+        });
+    }
+
+    public int getPendingTaskCount(String tenantDomain) {
+
+        TenantTasks tasks = tenantTasks.get(tenantDomain);
+        return tasks != null ? tasks.queue.size() : 0;
+    }
+
+    void shutdown() {
+
+        running = false;
+        delayScheduler.shutdownNow();
+        lock.lock();
+        try {
+            tasksAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a delayed task, unless the tasks of the tenant have been cancelled since the task was scheduled.
+     */
+    private void submit(String tenantDomain, TenantTasks owner, Runnable task) {
+
+        tenantTasks.computeIfPresent(tenantDomain, (key, tasks) -> {
+            if (tasks == owner) {
+                enqueue(key, tasks, task);
+            }
+            return tasks;
+        });
+    }
+
+    // Called within compute of the tenant
+    private void enqueue(String tenantDomain, TenantTasks tasks, Runnable task) {
+
+        tasks.queue.add(task);
+        if (!tasks.ready) {
+            tasks.ready = true;
+            lock.lock();
+            try {
+                readyTenants.addLast(tenantDomain);
+                tasksAvailable.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private String takeTenant() throws InterruptedException {
+
+        lock.lock();
+        try {
+            while (running && readyTenants.isEmpty()) {
+                tasksAvailable.await();
+            }
+            if (!running) {
+                return null;
+            }
+            return readyTenants.pollFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Runnable takeTask(String tenantDomain) {
+
+        Runnable[] task = new Runnable[1];
+        tenantTasks.computeIfPresent(tenantDomain, (key, tasks) -> {
+            task[0] = tasks.queue.poll();
+            if (tasks.queue.isEmpty()) {
+                tasks.ready = false;
+            } else {
+                lock.lock();
+                try {
+                    readyTenants.addLast(key);
+                    tasksAvailable.signal();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return tasks;
+        });
+        return task[0];
+    }
+
+    private void runTasks() {
+
+        while (running) {
+            try {
+                String tenantDomain = takeTenant();
+                Runnable task = tenantDomain != null ? takeTask(tenantDomain) : null;
+                if (task != null) {
+                    task.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable e) {
+                log.error("Error while loading subscription data", e);
+            }
+        }
+    }
+
+    /**
+     * Pending and delayed tasks of a tenant. Changed only within compute of the tenant.
+     */
+    private static final class TenantTasks {
+
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final List<ScheduledFuture<?>> delayedTasks = new ArrayList<>();
+        // Whether the tenant is in the ready tenants
+        private volatile boolean ready;
+    }
+}
@@ -43,20 +43,21 @@ import org.wso2.carbon.apimgt.keymgt.model.util.SubscriptionDataStoreUtil;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Supplier;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
     public static final String DELEM_PERIOD = ":";
     public static final int LOADING_POOL_SIZE = 7;
+    public static final long LOADER_TIMEOUT = 10000;
+    public static final long MISSING_ENTITY_CACHE_TIMEOUT = 5000;
     private static final Log log = LogFactory.getLog(SubscriptionDataStoreImpl.class);
     private final EventHubConfigurationDto eventHubConfiguration;
     private boolean scopesInitialized;
@@ -66,6 +67,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     private Map<String, API> apiMap;
     private Map<String, API> apiNameVersionMap;
     private Map<String, API> apiByUUIDMap;
+    private final APIContextTrie apiContextTrie = new APIContextTrie();
     private Map<String, ApiPolicy> apiPolicyMap;
     private Map<String, SubscriptionPolicy> subscriptionPolicyMap;
     private Map<String, ApplicationPolicy> appPolicyMap;
@@ -74,7 +76,15 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     private boolean apisInitialized;
     private boolean apiPoliciesInitialized;
     private String tenantDomain;
-    private ScheduledExecutorService executorService = Executors.newScheduledThreadPool(LOADING_POOL_SIZE);
+    private final SubscriptionDataLoadingScheduler loadingScheduler = SubscriptionDataLoadingScheduler.getInstance();
+    private final SingleFlightLoader<Integer, Application> applicationLoader =
+            new SingleFlightLoader<>("Application", LOADER_TIMEOUT, MISSING_ENTITY_CACHE_TIMEOUT);
+    private final SingleFlightLoader<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> keyMappingLoader =
+            new SingleFlightLoader<>("KeyMapping", LOADER_TIMEOUT, MISSING_ENTITY_CACHE_TIMEOUT);
+    private final SingleFlightLoader<String, API> apiLoader =
+            new SingleFlightLoader<>("API", LOADER_TIMEOUT, MISSING_ENTITY_CACHE_TIMEOUT);
+    private final SingleFlightLoader<String, Subscription> subscriptionLoader =
+            new SingleFlightLoader<>("Subscription", LOADER_TIMEOUT, MISSING_ENTITY_CACHE_TIMEOUT);
 
     public SubscriptionDataStoreImpl(String tenantDomain) {
 
@@ -106,27 +116,30 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public Application getApplicationById(int appId) {
 
-        String synchronizeKey = "SubscriptionDataStoreImpl-Application-" + appId;
         Application application = applicationMap.get(appId);
         if (application == null) {
-            synchronized (synchronizeKey.intern()) {
-                application = applicationMap.get(appId);
-                if (application != null) {
-                    return application;
-                }
-            }
             try {
-                application = new SubscriptionDataLoaderImpl().getApplicationById(appId);
+                application = applicationLoader.load(appId, () -> {
+                    Application loadedApplication = applicationMap.get(appId);
+                    if (loadedApplication != null) {
+                        return loadedApplication;
+                    }
+                    loadedApplication = loadingScheduler.loadOnRequestThread(tenantDomain,
+                            () -> new SubscriptionDataLoaderImpl().getApplicationById(appId), LOADER_TIMEOUT);
+                    if (loadedApplication != null && loadedApplication.getId() != null
+                            && loadedApplication.getId() != 0) {
+                        // load to the memory
+                        log.debug("Loading Application to the in-memory datastore. applicationId = "
+                                + loadedApplication.getId());
+                        addOrUpdateApplication(loadedApplication);
+                        return loadedApplication;
+                    }
+                    log.debug("Application not found. applicationId = " + appId);
+                    return null;
+                });
             } catch (DataLoadingException e) {
                 log.error("Error while Retrieving Application Metadata From Internal API.", e);
             }
-            if (application != null && application.getId() != null && application.getId() != 0) {
-                // load to the memory
-                log.debug("Loading Application to the in-memory datastore. applicationId = " + application.getId());
-                addOrUpdateApplication(application);
-            } else {
-                log.debug("Application not found. applicationId = " + appId);
-            }
         }
 
         if (log.isDebugEnabled()) {
@@ -145,26 +158,29 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
         ApplicationKeyMappingCacheKey applicationKeyMappingCacheKey = new ApplicationKeyMappingCacheKey(key,
                 keyManager);
-        String synchronizeKey = "SubscriptionDataStoreImpl-KeyMapping-" + applicationKeyMappingCacheKey;
 
         ApplicationKeyMapping applicationKeyMapping = applicationKeyMappingMap.get(applicationKeyMappingCacheKey);
         if (applicationKeyMapping == null) {
-            synchronized (synchronizeKey.intern()) {
-                applicationKeyMapping = applicationKeyMappingMap.get(applicationKeyMappingCacheKey);
-                if (applicationKeyMapping != null) {
-                    return applicationKeyMapping;
-                }
-                try {
-                    applicationKeyMapping = new SubscriptionDataLoaderImpl()
-                            .getKeyMapping(key, keyManager, tenantDomain);
-                } catch (DataLoadingException e) {
-                    log.error("Error while Loading KeyMapping Information from Internal API.", e);
-                }
-                if (applicationKeyMapping != null && !StringUtils.isEmpty(applicationKeyMapping.getConsumerKey())) {
-                    // load to the memory
-                    log.debug("Loading Keymapping to the in-memory datastore.");
-                    addOrUpdateApplicationKeyMapping(applicationKeyMapping);
-                }
+            try {
+                applicationKeyMapping = keyMappingLoader.load(applicationKeyMappingCacheKey, () -> {
+                    ApplicationKeyMapping loadedKeyMapping =
+                            applicationKeyMappingMap.get(applicationKeyMappingCacheKey);
+                    if (loadedKeyMapping != null) {
+                        return loadedKeyMapping;
+                    }
+                    loadedKeyMapping = loadingScheduler.loadOnRequestThread(tenantDomain,
+                            () -> new SubscriptionDataLoaderImpl().getKeyMapping(key, keyManager, tenantDomain),
+                            LOADER_TIMEOUT);
+                    if (loadedKeyMapping != null && !StringUtils.isEmpty(loadedKeyMapping.getConsumerKey())) {
+                        // load to the memory
+                        log.debug("Loading Keymapping to the in-memory datastore.");
+                        addOrUpdateApplicationKeyMapping(loadedKeyMapping);
+                        return loadedKeyMapping;
+                    }
+                    return null;
+                });
+            } catch (DataLoadingException e) {
+                log.error("Error while Loading KeyMapping Information from Internal API.", e);
             }
         }
 
@@ -183,24 +199,26 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     public API getApiByContextAndVersion(String context, String version) {
 
         String key = context + DELEM_PERIOD + version;
-        String synchronizeKey = "SubscriptionDataStoreImpl-API-" + key;
         API api = apiMap.get(key);
         if (api == null) {
-            synchronized (synchronizeKey.intern()) {
-                api = apiMap.get(key);
-                if (api != null) {
-                    return api;
-                }
-                try {
-                    api = new SubscriptionDataLoaderImpl().getApi(context, version);
-                } catch (DataLoadingException e) {
-                    log.error("Error while Retrieving Data From Internal Rest API", e);
-                }
-                if (api != null && api.getApiId() != 0) {
-                    // load to the memory
-                    log.debug("Loading API to the in-memory datastore.");
-                    addOrUpdateAPI(api);
-                }
+            try {
+                api = apiLoader.load(key, () -> {
+                    API loadedApi = apiMap.get(key);
+                    if (loadedApi != null) {
+                        return loadedApi;
+                    }
+                    loadedApi = loadingScheduler.loadOnRequestThread(tenantDomain,
+                            () -> new SubscriptionDataLoaderImpl().getApi(context, version), LOADER_TIMEOUT);
+                    if (loadedApi != null && loadedApi.getApiId() != 0) {
+                        // load to the memory
+                        log.debug("Loading API to the in-memory datastore.");
+                        addOrUpdateAPI(loadedApi);
+                        return loadedApi;
+                    }
+                    return null;
+                });
+            } catch (DataLoadingException e) {
+                log.error("Error while Retrieving Data From Internal Rest API", e);
             }
         }
         if (log.isDebugEnabled()) {
@@ -249,25 +267,27 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     public Subscription getSubscriptionById(int appId, int apiId) {
 
         String subscriptionCacheKey = SubscriptionDataStoreUtil.getSubscriptionCacheKey(appId, apiId);
-        String synchronizeKey = "SubscriptionDataStoreImpl-Subscription-" + subscriptionCacheKey;
         Subscription subscription = subscriptionMap.get(subscriptionCacheKey);
         if (subscription == null) {
-            synchronized (synchronizeKey.intern()) {
-                subscription = subscriptionMap.get(subscriptionCacheKey);
-                if (subscription != null) {
-                    return subscription;
-                }
-                try {
-                    subscription = new SubscriptionDataLoaderImpl().getSubscriptionById(Integer.toString(apiId),
-                            Integer.toString(appId));
-                } catch (DataLoadingException e) {
-                    log.error("Error while Retrieving Subscription Data From Internal API", e);
-                }
-                if (subscription != null && !StringUtils.isEmpty(subscription.getSubscriptionId())) {
-                    // load to the memory
-                    log.debug("Loading Subscription to the in-memory datastore.");
-                    subscriptionMap.put(subscription.getCacheKey(), subscription);
-                }
+            try {
+                subscription = subscriptionLoader.load(subscriptionCacheKey, () -> {
+                    Subscription loadedSubscription = subscriptionMap.get(subscriptionCacheKey);
+                    if (loadedSubscription != null) {
+                        return loadedSubscription;
+                    }
+                    loadedSubscription = loadingScheduler.loadOnRequestThread(tenantDomain,
+                            () -> new SubscriptionDataLoaderImpl().getSubscriptionById(Integer.toString(apiId),
+                                    Integer.toString(appId)), LOADER_TIMEOUT);
+                    if (loadedSubscription != null && !StringUtils.isEmpty(loadedSubscription.getSubscriptionId())) {
+                        // load to the memory
+                        log.debug("Loading Subscription to the in-memory datastore.");
+                        subscriptionMap.put(loadedSubscription.getCacheKey(), loadedSubscription);
+                        return loadedSubscription;
+                    }
+                    return null;
+                });
+            } catch (DataLoadingException e) {
+                log.error("Error while Retrieving Subscription Data From Internal API", e);
             }
         }
         if (log.isDebugEnabled()) {
@@ -293,127 +313,102 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
     public void initializeLoadingTasks() {
 
-        Runnable apiTask = new PopulateTask<>(apiMap,
-                () -> {
-                    try {
-                        log.debug("Calling loadAllApis. ");
-                        List<API> apiList = new SubscriptionDataLoaderImpl().loadAllApis(tenantDomain);
-                        apiByUUIDMap.clear();
-                        for (API api : apiList) {
-                            apiByUUIDMap.put(api.getUuid(), api);
-                            String key = api.getApiName().concat(":").concat(api.getApiVersion());
-                            apiNameVersionMap.put(key, api);
+        Runnable apiTask = new PopulateTask<>(apiMap, "APIs",
+                consumer -> {
+                    log.debug("Calling loadAllApis. ");
+                    Set<String> loadedUUIDs = new HashSet<>();
+                    Set<String> loadedKeys = new HashSet<>();
+                    new SubscriptionDataLoaderImpl().loadAllApis(tenantDomain, api -> {
+                        apiByUUIDMap.put(api.getUuid(), api);
+                        loadedUUIDs.add(api.getUuid());
+                        loadedKeys.add(api.getCacheKey());
+                        String key = api.getApiName().concat(":").concat(api.getApiVersion());
+                        apiNameVersionMap.put(key, api);
+                        updateApiContextTrie(apiMap.get(api.getCacheKey()), api);
+                        consumer.accept(api);
+                    });
+                    apiByUUIDMap.keySet().retainAll(loadedUUIDs);
+                    if (!loadedKeys.isEmpty()) {
+                        for (API api : apiMap.values()) {
+                            if (!loadedKeys.contains(api.getCacheKey())) {
+                                apiContextTrie.remove(api);
+                            }
                         }
-                        apisInitialized = true;
-                        return apiList;
-                    } catch (APIManagementException e) {
-                        log.error("Exception while loading APIs " + e);
                     }
-                    return null;
+                    apisInitialized = true;
                 });
 
-        executorService.schedule(apiTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        loadingScheduler.schedule(tenantDomain, apiTask, eventHubConfiguration.getInitDelay(),
+                TimeUnit.MILLISECONDS);
 
-        Runnable subscriptionLoadingTask = new PopulateTask<>(subscriptionMap,
-                () -> {
-                    try {
-                        log.debug("Calling loadAllSubscriptions.");
-                        return new SubscriptionDataLoaderImpl().loadAllSubscriptions(tenantDomain);
-                    } catch (APIManagementException e) {
-                        log.error("Exception while loading Subscriptions " + e);
-                    }
-                    return null;
+        Runnable subscriptionLoadingTask = new PopulateTask<>(subscriptionMap, "Subscriptions",
+                consumer -> {
+                    log.debug("Calling loadAllSubscriptions.");
+                    new SubscriptionDataLoaderImpl().loadAllSubscriptions(tenantDomain, consumer);
                 });
 
-        executorService.schedule(subscriptionLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        loadingScheduler.schedule(tenantDomain, subscriptionLoadingTask, eventHubConfiguration.getInitDelay(),
+                TimeUnit.MILLISECONDS);
 
-        Runnable applicationLoadingTask = new PopulateTask<>(applicationMap,
-                () -> {
-                    try {
-                        log.debug("Calling loadAllApplications.");
-                        return new SubscriptionDataLoaderImpl().loadAllApplications(tenantDomain);
-                    } catch (APIManagementException e) {
-                        log.error("Exception while loading Applications " + e);
-                    }
-                    return null;
+        Runnable applicationLoadingTask = new PopulateTask<>(applicationMap, "Applications",
+                consumer -> {
+                    log.debug("Calling loadAllApplications.");
+                    new SubscriptionDataLoaderImpl().loadAllApplications(tenantDomain, consumer);
                 });
 
-        executorService.schedule(applicationLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        loadingScheduler.schedule(tenantDomain, applicationLoadingTask, eventHubConfiguration.getInitDelay(),
+                TimeUnit.MILLISECONDS);
 
         Runnable keyMappingsTask =
-                new PopulateTask<>(applicationKeyMappingMap,
-                        () -> {
-                            try {
-                                log.debug("Calling loadAllKeyMappings.");
-                                return new SubscriptionDataLoaderImpl().loadAllKeyMappings(tenantDomain);
-                            } catch (APIManagementException e) {
-                                log.error("Exception while loading ApplicationKeyMapping " + e);
-                            }
-                            return null;
+                new PopulateTask<>(applicationKeyMappingMap, "ApplicationKeyMapping",
+                        consumer -> {
+                            log.debug("Calling loadAllKeyMappings.");
+                            new SubscriptionDataLoaderImpl().loadAllKeyMappings(tenantDomain, consumer);
                         });
 
-        executorService.schedule(keyMappingsTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        loadingScheduler.schedule(tenantDomain, keyMappingsTask, eventHubConfiguration.getInitDelay(),
+                TimeUnit.MILLISECONDS);
 
         Runnable apiPolicyLoadingTask =
-                new PopulateTask<>(apiPolicyMap,
-                        () -> {
-                            try {
-                                log.debug("Calling loadAllSubscriptionPolicies.");
-                                List<ApiPolicy> apiPolicyList =
-                                        new SubscriptionDataLoaderImpl().loadAllAPIPolicies(tenantDomain);
-                                apiPoliciesInitialized = true;
-                                return apiPolicyList;
-                            } catch (APIManagementException e) {
-                                log.error("Exception while loading api Policies " + e);
-                            }
-                            return null;
+                new PopulateTask<>(apiPolicyMap, "api Policies",
+                        consumer -> {
+                            log.debug("Calling loadAllSubscriptionPolicies.");
+                            new SubscriptionDataLoaderImpl().loadAllAPIPolicies(tenantDomain, consumer);
+                            apiPoliciesInitialized = true;
                         });
 
-        executorService.schedule(apiPolicyLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        loadingScheduler.schedule(tenantDomain, apiPolicyLoadingTask, eventHubConfiguration.getInitDelay(),
+                TimeUnit.MILLISECONDS);
 
         Runnable subPolicyLoadingTask =
-                new PopulateTask<>(subscriptionPolicyMap,
-                        () -> {
-                            try {
-                                log.debug("Calling loadAllSubscriptionPolicies.");
-                                return new SubscriptionDataLoaderImpl().loadAllSubscriptionPolicies(tenantDomain);
-                            } catch (APIManagementException e) {
-                                log.error("Exception while loading Subscription Policies " + e);
-                            }
-                            return null;
+                new PopulateTask<>(subscriptionPolicyMap, "Subscription Policies",
+                        consumer -> {
+                            log.debug("Calling loadAllSubscriptionPolicies.");
+                            new SubscriptionDataLoaderImpl().loadAllSubscriptionPolicies(tenantDomain, consumer);
                         });
 
-        executorService.schedule(subPolicyLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        loadingScheduler.schedule(tenantDomain, subPolicyLoadingTask, eventHubConfiguration.getInitDelay(),
+                TimeUnit.MILLISECONDS);
 
         Runnable appPolicyLoadingTask =
-                new PopulateTask<>(appPolicyMap,
-                        () -> {
-                            try {
-                                log.debug("Calling loadAllAppPolicies.");
-                                return new SubscriptionDataLoaderImpl().loadAllAppPolicies(tenantDomain);
-                            } catch (APIManagementException e) {
-                                log.error("Exception while loading Application Policies " + e);
-                            }
-                            return null;
+                new PopulateTask<>(appPolicyMap, "Application Policies",
+                        consumer -> {
+                            log.debug("Calling loadAllAppPolicies.");
+                            new SubscriptionDataLoaderImpl().loadAllAppPolicies(tenantDomain, consumer);
                         });
 
-        executorService.schedule(appPolicyLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        loadingScheduler.schedule(tenantDomain, appPolicyLoadingTask, eventHubConfiguration.getInitDelay(),
+                TimeUnit.MILLISECONDS);
         Runnable scopesLoadingTask =
-                new PopulateTask<>(scopesMap,
-                        () -> {
-                            try {
-                                log.debug("Calling loadAllScopes.");
-                                List<Scope> scopeList =
-                                        new SubscriptionDataLoaderImpl().loadAllScopes(tenantDomain);
-                                scopesInitialized = true;
-                                return scopeList;
-                            } catch (APIManagementException e) {
-                                log.error("Exception while loading Scopes " + e);
-                            }
-                            return null;
+                new PopulateTask<>(scopesMap, "Scopes",
+                        consumer -> {
+                            log.debug("Calling loadAllScopes.");
+                            new SubscriptionDataLoaderImpl().loadAllScopes(tenantDomain, consumer);
+                            scopesInitialized = true;
                         });
 
-        executorService.schedule(scopesLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
+        loadingScheduler.schedule(tenantDomain, scopesLoadingTask, eventHubConfiguration.getInitDelay(),
+                TimeUnit.MILLISECONDS);
     }
 
     public boolean isApisInitialized() {
@@ -430,6 +425,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     public void addOrUpdateSubscription(Subscription subscription) {
         String synchronizeKey = "SubscriptionDataStoreImpl-API-" + subscription.getCacheKey();
 
+        subscriptionLoader.invalidate(subscription.getCacheKey());
         synchronized (synchronizeKey.intern()) {
             Subscription retrievedSubscription = subscriptionMap.get(subscription.getCacheKey());
             if (retrievedSubscription == null) {
@@ -473,7 +469,8 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         String key = api.getApiName().concat(":").concat(api.getApiVersion());
         apiByUUIDMap.put(api.getUuid(), api);
         apiNameVersionMap.put(key, api);
-        apiMap.put(api.getCacheKey(), api);
+        updateApiContextTrie(apiMap.put(api.getCacheKey(), api), api);
+        apiLoader.invalidate(api.getCacheKey());
     }
 
     @Override
@@ -482,7 +479,8 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         try {
             API newAPI = new SubscriptionDataLoaderImpl().getApi(api.getContext(), api.getApiVersion());
             if (newAPI != null) {
-                apiMap.put(api.getCacheKey(), newAPI);
+                updateApiContextTrie(apiMap.put(api.getCacheKey(), newAPI), newAPI);
+                apiLoader.invalidate(api.getCacheKey());
                 String key = newAPI.getApiName().concat(":").concat(newAPI.getApiVersion());
                 apiNameVersionMap.put(key, newAPI);
                 apiByUUIDMap.put(newAPI.getUuid(), newAPI);
@@ -499,7 +497,16 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         String key = api.getApiName().concat(":").concat(api.getApiVersion());
         apiByUUIDMap.remove(api.getUuid());
         apiNameVersionMap.remove(key);
-        apiMap.remove(api.getCacheKey());
+        API removedAPI = apiMap.remove(api.getCacheKey());
+        apiContextTrie.remove(removedAPI != null ? removedAPI : api);
+    }
+
+    private void updateApiContextTrie(API oldAPI, API newAPI) {
+
+        if (oldAPI != null) {
+            apiContextTrie.remove(oldAPI);
+        }
+        apiContextTrie.add(newAPI);
     }
 
     @Override
@@ -507,6 +514,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
         applicationKeyMappingMap.remove(applicationKeyMapping.getCacheKey());
         applicationKeyMappingMap.put(applicationKeyMapping.getCacheKey(), applicationKeyMapping);
+        keyMappingLoader.invalidate(applicationKeyMapping.getCacheKey());
     }
 
     @Override
@@ -546,6 +554,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
         applicationMap.remove(application.getId());
         applicationMap.put(application.getId(), application);
+        applicationLoader.invalidate(application.getId());
     }
 
     @Override
@@ -682,7 +691,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
     @Override
     public void destroy() {
-        executorService.shutdown();
+        loadingScheduler.cancel(tenantDomain);
     }
 
     @Override
@@ -718,6 +727,12 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         return apiContextAPIMap;
     }
 
+    @Override
+    public APIContextTrie.Match getApiByRequestPath(String path) {
+
+        return apiContextTrie.match(path);
+    }
+
     @Override
     public void addOrUpdateAPIRevisionWithUrlTemplates(DeployAPIInGatewayEvent event) {
 
@@ -766,40 +781,48 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         API
     }
 
+    /**
+     * Loads all entities of a type and adds them to the store as they are read from the internal API response.
+     * Entries of the store which are not part of a successful, non empty response are removed afterwards.
+     */
     private static class PopulateTask<K, V extends CacheableEntity<K>> implements Runnable {
 
         private Map<K, V> entityMap;
-        private Supplier<List<V>> supplier;
+        private String entityName;
+        private EntityLoader<V> loader;
 
-        PopulateTask(Map<K, V> entityMap, Supplier<List<V>> supplier) {
+        PopulateTask(Map<K, V> entityMap, String entityName, EntityLoader<V> loader) {
 
             this.entityMap = entityMap;
-            this.supplier = supplier;
+            this.entityName = entityName;
+            this.loader = loader;
         }
 
         public void run() {
 
-            List<V> list = supplier.get();
-            HashMap<K, V> tempMap = new HashMap<>();
-
-            if (list != null) {
-                for (V v : list) {
-                    tempMap.put(v.getCacheKey(), v);
+            Set<K> loadedKeys = new HashSet<>();
+            try {
+                loader.load(v -> {
+                    entityMap.put(v.getCacheKey(), v);
+                    loadedKeys.add(v.getCacheKey());
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Adding entry Key : %s Value : %s", v.getCacheKey(), v));
                     }
-
-                    if (!tempMap.isEmpty()) {
-                        entityMap.clear();
-                        entityMap.putAll(tempMap);
-                    }
-                }
-
-            } else {
-                if (log.isDebugEnabled()) {
-                    log.debug("List is null for " + supplier.getClass());
-                }
+                });
+            } catch (APIManagementException e) {
+                log.error("Exception while loading " + entityName + " " + e);
+                return;
+            }
+            if (!loadedKeys.isEmpty()) {
+                entityMap.keySet().retainAll(loadedKeys);
+            } else if (log.isDebugEnabled()) {
+                log.debug("No " + entityName + " loaded for the tenant");
             }
         }
     }
+
+    private interface EntityLoader<V> {
+
+        void load(Consumer<V> consumer) throws APIManagementException;
+    }
 }
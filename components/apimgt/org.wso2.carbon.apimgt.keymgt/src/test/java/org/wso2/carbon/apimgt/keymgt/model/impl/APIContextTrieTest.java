@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.keymgt.model.entity.API;
+
+public class APIContextTrieTest {
+
+    private static final API API1 = new API("1234566", 1, "admin", "API1", "1.0.0", "/api1/1.0.0", null,
+            "HTTP", "PUBLISHED", true);
+    private static final API API2 = new API("56321313131313", 2, "admin", "API2", "1.0.0", "/api1/abc/1.0.0", null,
+            "HTTP", "PUBLISHED", true);
+
+    @Test
+    public void testLongestContextIsMatched() {
+
+        APIContextTrie apiContextTrie = new APIContextTrie();
+        apiContextTrie.add(API1);
+        apiContextTrie.add(API2);
+
+        assertMatch(apiContextTrie, "/api1/cde?c=y", "/api1", API1);
+        assertMatch(apiContextTrie, "/api1/abc/cde?c=y", "/api1/abc", API2);
+        assertMatch(apiContextTrie, "/api1/1.0.0/cde?c=y", "/api1/1.0.0", API1);
+        assertMatch(apiContextTrie, "/api1/abc/1.0.0/cde?c=y", "/api1/abc/1.0.0", API2);
+        assertMatch(apiContextTrie, "/api1/abc/1.0.0", "/api1/abc/1.0.0", API2);
+        assertMatch(apiContextTrie, "/api1/abc?c=y/1.0.0", "/api1/abc", API2);
+        Assert.assertNull(apiContextTrie.match("/api12/abc"));
+        Assert.assertNull(apiContextTrie.match("/api"));
+        Assert.assertNull(apiContextTrie.match(""));
+    }
+
+    @Test
+    public void testRemovedContextsAreNotMatched() {
+
+        APIContextTrie apiContextTrie = new APIContextTrie();
+        apiContextTrie.add(API1);
+        apiContextTrie.add(API2);
+        apiContextTrie.remove(API2);
+
+        assertMatch(apiContextTrie, "/api1/abc/1.0.0/cde", "/api1", API1);
+        apiContextTrie.remove(API1);
+        Assert.assertNull(apiContextTrie.match("/api1/1.0.0/cde"));
+    }
+
+    @Test
+    public void testDefaultVersionContextIsKeptByNewDefaultVersion() {
+
+        API oldVersion = new API("1234566", 1, "admin", "API1", "1.0.0", "/api1/1.0.0", null,
+                "HTTP", "PUBLISHED", true);
+        API newVersion = new API("7891011", 3, "admin", "API1", "2.0.0", "/api1/2.0.0", null,
+                "HTTP", "PUBLISHED", true);
+        APIContextTrie apiContextTrie = new APIContextTrie();
+        apiContextTrie.add(oldVersion);
+        apiContextTrie.add(newVersion);
+        apiContextTrie.remove(oldVersion);
+
+        assertMatch(apiContextTrie, "/api1/cde", "/api1", newVersion);
+        assertMatch(apiContextTrie, "/api1/1.0.0/cde", "/api1", newVersion);
+    }
+
+    private static void assertMatch(APIContextTrie apiContextTrie, String path, String context, API api) {
+
+        APIContextTrie.Match match = apiContextTrie.match(path);
+        Assert.assertNotNull(match);
+        Assert.assertEquals(context, match.getContext());
+        Assert.assertSame(api, match.getApi());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightLoaderTest {
+
+    @Test
+    public void testConcurrentMissesShareSingleLoad() throws Exception {
+
+        final SingleFlightLoader<String, String> loader = new SingleFlightLoader<>("Test", 10000, 5000);
+        final AtomicInteger loadCount = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(5);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(executorService.submit(() -> loader.load("key", () -> {
+                loadCount.incrementAndGet();
+                awaitQuietly(release);
+                return "value";
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<String> future : futures) {
+            Assert.assertEquals("value", future.get(10, TimeUnit.SECONDS));
+        }
+        executorService.shutdown();
+        Assert.assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void testMissingKeysAreNotReloaded() throws Exception {
+
+        SingleFlightLoader<String, String> loader = new SingleFlightLoader<>("Test", 10000, 60000);
+        AtomicInteger loadCount = new AtomicInteger();
+        Assert.assertNull(loader.load("key", () -> {
+            loadCount.incrementAndGet();
+            return null;
+        }));
+        Assert.assertNull(loader.load("key", () -> {
+            loadCount.incrementAndGet();
+            return "value";
+        }));
+        Assert.assertEquals(1, loadCount.get());
+
+        loader.invalidate("key");
+        Assert.assertEquals("value", loader.load("key", () -> "value"));
+        Assert.assertEquals(0, loader.getMissingKeyCount());
+    }
+
+    @Test
+    public void testFailuresArePropagatedAndNotCached() throws Exception {
+
+        SingleFlightLoader<String, String> loader = new SingleFlightLoader<>("Test", 10000, 60000);
+        try {
+            loader.load("key", () -> {
+                throw new DataLoadingException("Internal API unavailable");
+            });
+            Assert.fail("Expected DataLoadingException");
+        } catch (DataLoadingException e) {
+            Assert.assertEquals("Internal API unavailable", e.getMessage());
+        }
+        Assert.assertEquals("value", loader.load("key", () -> "value"));
+    }
+
+    @Test
+    public void testWaitIsBoundedByTimeout() throws Exception {
+
+        final SingleFlightLoader<String, String> loader = new SingleFlightLoader<>("Test", 100, 5000);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        Future<String> slowLoad = executorService.submit(() -> loader.load("key", () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return "value";
+        }));
+        started.await();
+        Assert.assertNull(loader.load("key", () -> "other"));
+        release.countDown();
+        Assert.assertEquals("value", slowLoad.get(10, TimeUnit.SECONDS));
+        executorService.shutdown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Scope;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SubscriptionDataLoaderImplTest {
+
+    @Test
+    public void testReadListStreamsEntities() throws Exception {
+
+        String response = "{\"count\":2,\"list\":[{\"name\":\"read\",\"roles\":[\"admin\"],\"unknown\":{\"a\":1}},"
+                + "{\"name\":\"write\",\"roles\":[]}],\"pagination\":{\"offset\":0}}";
+        List<Scope> scopes = new ArrayList<>();
+        int count = SubscriptionDataLoaderImpl.readList(new StringReader(response), Scope.class, scopes::add);
+
+        Assert.assertEquals(2, count);
+        Assert.assertEquals("read", scopes.get(0).getName());
+        Assert.assertEquals(Arrays.asList("admin"), scopes.get(0).getRoles());
+        Assert.assertEquals("write", scopes.get(1).getName());
+    }
+
+    @Test
+    public void testReadListOfEmptyResponse() throws Exception {
+
+        List<Scope> scopes = new ArrayList<>();
+        Assert.assertEquals(0, SubscriptionDataLoaderImpl.readList(new StringReader(""), Scope.class, scopes::add));
+        Assert.assertEquals(0,
+                SubscriptionDataLoaderImpl.readList(new StringReader("{\"count\":0,\"list\":[]}"), Scope.class,
+                        scopes::add));
+        Assert.assertTrue(scopes.isEmpty());
+    }
+}
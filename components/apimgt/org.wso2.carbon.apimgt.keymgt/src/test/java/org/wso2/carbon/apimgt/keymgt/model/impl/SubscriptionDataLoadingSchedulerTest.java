@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class SubscriptionDataLoadingSchedulerTest {
+
+    @Test
+    public void testTenantsAreServedInRoundRobinOrder() throws Exception {
+
+        SubscriptionDataLoadingScheduler scheduler = new SubscriptionDataLoadingScheduler(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> executed = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(4);
+        scheduler.submit("blocker", () -> {
+            blocked.countDown();
+            awaitQuietly(release);
+        });
+        blocked.await();
+        scheduler.submit("a.com", task(executed, done, "a1"));
+        scheduler.submit("a.com", task(executed, done, "a2"));
+        scheduler.submit("a.com", task(executed, done, "a3"));
+        scheduler.submit("b.com", task(executed, done, "b1"));
+        release.countDown();
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList("a1", "b1", "a2", "a3"), executed);
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testPrioritizedTenantIsServedFirst() throws Exception {
+
+        SubscriptionDataLoadingScheduler scheduler = new SubscriptionDataLoadingScheduler(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> executed = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(2);
+        scheduler.submit("blocker", () -> {
+            blocked.countDown();
+            awaitQuietly(release);
+        });
+        blocked.await();
+        scheduler.submit("a.com", task(executed, done, "a1"));
+        scheduler.submit("b.com", task(executed, done, "b1"));
+        scheduler.prioritize("b.com");
+        release.countDown();
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList("b1", "a1"), executed);
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testCancelledTenantTasksAreDropped() throws Exception {
+
+        SubscriptionDataLoadingScheduler scheduler = new SubscriptionDataLoadingScheduler(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> executed = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        scheduler.submit("blocker", () -> {
+            blocked.countDown();
+            awaitQuietly(release);
+        });
+        blocked.await();
+        scheduler.submit("a.com", task(executed, done, "a1"));
+        scheduler.schedule("a.com", task(executed, done, "a2"), 1, TimeUnit.MINUTES);
+        scheduler.submit("b.com", task(executed, done, "b1"));
+        Assert.assertEquals(1, scheduler.getPendingTaskCount("a.com"));
+        scheduler.cancel("a.com");
+        Assert.assertEquals(0, scheduler.getPendingTaskCount("a.com"));
+        release.countDown();
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(Collections.singletonList("b1"), executed);
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testDelayedTaskIsDroppedWhenTenantIsCancelledAndScheduledAgain() throws Exception {
+
+        SubscriptionDataLoadingScheduler scheduler = new SubscriptionDataLoadingScheduler(1);
+        final List<String> executed = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(2);
+        scheduler.schedule("a.com", task(executed, done, "stale"), 200, TimeUnit.MILLISECONDS);
+        scheduler.cancel("a.com");
+        scheduler.schedule("a.com", task(executed, done, "a1"), 0, TimeUnit.MILLISECONDS);
+        scheduler.schedule("a.com", task(executed, done, "a2"), 400, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList("a1", "a2"), executed);
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testLoadsOnRequestThreadsAreCapped() throws Exception {
+
+        SubscriptionDataLoadingScheduler scheduler = new SubscriptionDataLoadingScheduler(1);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Thread requestThread = new Thread(() -> {
+            try {
+                scheduler.loadOnRequestThread("a.com", () -> {
+                    loading.countDown();
+                    awaitQuietly(release);
+                    return null;
+                }, 10000);
+            } catch (DataLoadingException e) {
+                Assert.fail(e.getMessage());
+            }
+        });
+        requestThread.start();
+        Assert.assertTrue(loading.await(10, TimeUnit.SECONDS));
+        try {
+            scheduler.loadOnRequestThread("b.com", () -> "loaded", 100);
+            Assert.fail("Load should not start while the other request thread load is running");
+        } catch (DataLoadingException e) {
+            // Expected
+        }
+        release.countDown();
+        requestThread.join(10000);
+        Assert.assertEquals("loaded", scheduler.loadOnRequestThread("b.com", () -> "loaded", 100));
+        scheduler.shutdown();
+    }
+
+    private static Runnable task(final List<String> executed, final CountDownLatch done, final String name) {
+
+        return () -> {
+            executed.add(name);
+            done.countDown();
+        };
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
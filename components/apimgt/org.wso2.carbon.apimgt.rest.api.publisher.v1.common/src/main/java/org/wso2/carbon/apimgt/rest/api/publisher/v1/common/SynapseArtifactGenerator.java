@@ -18,7 +18,10 @@
 package org.wso2.carbon.apimgt.rest.api.publisher.v1.common;
 
 import com.google.gson.Gson;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.service.component.annotations.Component;
@@ -32,22 +35,32 @@ import org.wso2.carbon.apimgt.api.model.Environment;
 import org.wso2.carbon.apimgt.api.model.SwaggerData;
 import org.wso2.carbon.apimgt.api.model.graphql.queryanalysis.GraphqlComplexityInfo;
 import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dao.GatewayArtifactsMgtDAO;
 import org.wso2.carbon.apimgt.impl.definitions.GraphQLSchemaDefinition;
 import org.wso2.carbon.apimgt.impl.definitions.OAS3Parser;
 import org.wso2.carbon.apimgt.impl.dto.APIRuntimeArtifactDto;
 import org.wso2.carbon.apimgt.impl.dto.RuntimeArtifactDto;
 import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.GatewayArtifactGenerator;
+import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.RuntimeArtifactSource;
 import org.wso2.carbon.apimgt.impl.importexport.utils.CommonUtil;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 import org.wso2.carbon.apimgt.rest.api.publisher.v1.common.mappings.APIMappingUtil;
 import org.wso2.carbon.apimgt.rest.api.publisher.v1.common.mappings.ImportUtils;
 import org.wso2.carbon.apimgt.rest.api.publisher.v1.dto.APIDTO;
 import org.wso2.carbon.apimgt.rest.api.publisher.v1.dto.APIProductDTO;
+import org.wso2.carbon.utils.CarbonUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class used to generate Synapse Artifact.
@@ -60,85 +73,58 @@ import java.util.List;
 public class SynapseArtifactGenerator implements GatewayArtifactGenerator {
 
     private static final Log log = LogFactory.getLog(SynapseArtifactGenerator.class);
+    private static final String API_MANAGER_CONFIG_FILE = "api-manager.xml";
 
     @Override
     public RuntimeArtifactDto generateGatewayArtifact(List<APIRuntimeArtifactDto> apiRuntimeArtifactDtoList)
             throws APIManagementException {
 
+        return generateGatewayArtifact(callback -> {
+            for (APIRuntimeArtifactDto apiRuntimeArtifactDto : apiRuntimeArtifactDtoList) {
+                callback.onArtifact(apiRuntimeArtifactDto);
+            }
+        });
+    }
+
+    @Override
+    public RuntimeArtifactDto generateGatewayArtifact(RuntimeArtifactSource apiRuntimeArtifacts)
+            throws APIManagementException {
+
         RuntimeArtifactDto runtimeArtifactDto = new RuntimeArtifactDto();
         List<String> synapseArtifacts = new ArrayList<>();
-        for (APIRuntimeArtifactDto runTimeArtifact : apiRuntimeArtifactDtoList) {
+        // Inputs shared by all the artifacts are hashed once per generation
+        String templatesHash = getTemplatesHash();
+        Map<String, String> environmentHashes = new HashMap<>();
+        // each artifact is generated as it is read, so that only the generated artifacts are held in memory
+        apiRuntimeArtifacts.forEach(runTimeArtifact -> {
             if (runTimeArtifact.isFile()) {
                 String tenantDomain = runTimeArtifact.getTenantDomain();
                 String label = runTimeArtifact.getLabel();
                 Environment environment = APIUtil.getEnvironments(tenantDomain).get(label);
-                GatewayAPIDTO gatewayAPIDTO = null;
                 if (environment != null) {
                     try (InputStream artifact = (InputStream) runTimeArtifact.getArtifact()) {
-                        File baseDirectory = CommonUtil.createTempDirectory(null);
-                        try {
-                            String extractedFolderPath =
-                                    ImportUtils.getArchivePathOfExtractedDirectory(baseDirectory.getAbsolutePath(),
-                                            artifact);
-                            if (APIConstants.API_PRODUCT.equals(runTimeArtifact.getType())) {
-                                APIProductDTO apiProductDTO = ImportUtils.retrieveAPIProductDto(extractedFolderPath);
-                                apiProductDTO.setId(runTimeArtifact.getApiId());
-                                APIProduct apiProduct = APIMappingUtil.fromDTOtoAPIProduct(apiProductDTO,
-                                        apiProductDTO.getProvider());
-                                APIDefinitionValidationResponse apiDefinitionValidationResponse =
-                                        ImportUtils.retrieveValidatedSwaggerDefinitionFromArchive(extractedFolderPath);
-                                apiProduct.setDefinition(apiDefinitionValidationResponse.getContent());
-                                gatewayAPIDTO = TemplateBuilderUtil.retrieveGatewayAPIDto(apiProduct, environment,
-                                        tenantDomain, extractedFolderPath);
-                            } else {
-                                APIDTO apidto = ImportUtils.retrievedAPIDto(extractedFolderPath);
-                                API api = APIMappingUtil.fromDTOtoAPI(apidto, apidto.getProvider());
-                                api.setUUID(apidto.getId());
-                                if (APIConstants.APITransportType.GRAPHQL.toString().equals(api.getType())) {
-                                    APIDefinition parser = new OAS3Parser();
-                                    SwaggerData swaggerData = new SwaggerData(api);
-                                    String apiDefinition = parser.generateAPIDefinition(swaggerData);
-                                    api.setSwaggerDefinition(apiDefinition);
-                                    GraphqlComplexityInfo graphqlComplexityInfo = APIUtil.getComplexityDetails(api);
-                                    String graphqlSchema =
-                                            ImportUtils.retrieveValidatedGraphqlSchemaFromArchive(extractedFolderPath);
-                                    api.setGraphQLSchema(graphqlSchema);
-                                    GraphQLSchemaDefinition graphQLSchemaDefinition = new GraphQLSchemaDefinition();
-                                    graphqlSchema = graphQLSchemaDefinition
-                                            .buildSchemaWithAdditionalInfo(api, graphqlComplexityInfo);
-                                    api.setGraphQLSchema(graphqlSchema);
-                                    gatewayAPIDTO = TemplateBuilderUtil.retrieveGatewayAPIDto(api, environment,
-                                            tenantDomain, apidto, extractedFolderPath);
-                                } else if (api.getType() != null &&
-                                        (APIConstants.APITransportType.HTTP.toString().equals(api.getType())
-                                                || APIConstants.API_TYPE_SOAP.equals(api.getType())
-                                                || APIConstants.API_TYPE_SOAPTOREST.equals(api.getType())
-                                                || APIConstants.APITransportType.WEBHOOK.toString()
-                                                        .equals(api.getType()))) {
-                                    APIDefinitionValidationResponse apiDefinitionValidationResponse = ImportUtils
-                                            .retrieveValidatedSwaggerDefinitionFromArchive(extractedFolderPath);
-                                    api.setSwaggerDefinition(apiDefinitionValidationResponse.getContent());
-                                    gatewayAPIDTO = TemplateBuilderUtil.retrieveGatewayAPIDto(api, environment,
-                                            tenantDomain, apidto, extractedFolderPath, apiDefinitionValidationResponse);
-                                } else if (api.getType() != null &&
-                                        (APIConstants.APITransportType.WS.toString().equals(api.getType()) ||
-                                                APIConstants.APITransportType.SSE.toString().equals(api.getType()) ||
-                                                APIConstants.APITransportType.WEBSUB.toString()
-                                                        .equals(api.getType()))) {
-                                    APIDefinitionValidationResponse asyncApiDefinition =
-                                            ImportUtils.retrieveValidatedAsyncApiDefinitionFromArchive(
-                                                    extractedFolderPath);
-                                    api.setAsyncApiDefinition(asyncApiDefinition.getContent());
-                                    gatewayAPIDTO = TemplateBuilderUtil.retrieveGatewayAPIDtoForStreamingAPI(api,
-                                            environment, tenantDomain, apidto, extractedFolderPath);
-                                }
+                        byte[] artifactContent = IOUtils.toByteArray(artifact);
+                        String contentHash = null;
+                        if (templatesHash != null && runTimeArtifact.getRevision() != null) {
+                            String environmentKey = tenantDomain + ":" + label;
+                            String environmentHash = environmentHashes.get(environmentKey);
+                            if (environmentHash == null) {
+                                environmentHash = getEnvironmentHash(tenantDomain, environment, templatesHash);
+                                environmentHashes.put(environmentKey, environmentHash);
                             }
+                            contentHash = getContentHash(runTimeArtifact, artifactContent, environmentHash);
+                        }
+                        String content = getRenderedArtifact(runTimeArtifact, contentHash);
+                        if (content == null) {
+                            GatewayAPIDTO gatewayAPIDTO = generateGatewayAPIDTO(runTimeArtifact, environment,
+                                    new ByteArrayInputStream(artifactContent));
                             if (gatewayAPIDTO != null) {
-                                String content = new Gson().toJson(gatewayAPIDTO);
-                                synapseArtifacts.add(content);
+                                content = new Gson().toJson(gatewayAPIDTO);
+                                addRenderedArtifact(runTimeArtifact, contentHash, content);
                             }
-                        } finally {
-                            FileUtils.deleteQuietly(baseDirectory);
+                        }
+                        if (content != null) {
+                            synapseArtifacts.add(content);
                         }
                     } catch (Exception e) {
                         // only do error since we need to continue for other apis
@@ -147,12 +133,184 @@ public class SynapseArtifactGenerator implements GatewayArtifactGenerator {
                     }
                 }
             }
-        }
+        });
         runtimeArtifactDto.setFile(false);
         runtimeArtifactDto.setArtifact(synapseArtifacts);
         return runtimeArtifactDto;
     }
 
+    private GatewayAPIDTO generateGatewayAPIDTO(APIRuntimeArtifactDto runTimeArtifact, Environment environment,
+                                                InputStream artifact) throws Exception {
+
+        String tenantDomain = runTimeArtifact.getTenantDomain();
+        GatewayAPIDTO gatewayAPIDTO = null;
+        File baseDirectory = CommonUtil.createTempDirectory(null);
+        try {
+            String extractedFolderPath =
+                    ImportUtils.getArchivePathOfExtractedDirectory(baseDirectory.getAbsolutePath(),
+                            artifact);
+            if (APIConstants.API_PRODUCT.equals(runTimeArtifact.getType())) {
+                APIProductDTO apiProductDTO = ImportUtils.retrieveAPIProductDto(extractedFolderPath);
+                apiProductDTO.setId(runTimeArtifact.getApiId());
+                APIProduct apiProduct = APIMappingUtil.fromDTOtoAPIProduct(apiProductDTO,
+                        apiProductDTO.getProvider());
+                APIDefinitionValidationResponse apiDefinitionValidationResponse =
+                        ImportUtils.retrieveValidatedSwaggerDefinitionFromArchive(extractedFolderPath);
+                apiProduct.setDefinition(apiDefinitionValidationResponse.getContent());
+                gatewayAPIDTO = TemplateBuilderUtil.retrieveGatewayAPIDto(apiProduct, environment,
+                        tenantDomain, extractedFolderPath);
+            } else {
+                APIDTO apidto = ImportUtils.retrievedAPIDto(extractedFolderPath);
+                API api = APIMappingUtil.fromDTOtoAPI(apidto, apidto.getProvider());
+                api.setUUID(apidto.getId());
+                if (APIConstants.APITransportType.GRAPHQL.toString().equals(api.getType())) {
+                    APIDefinition parser = new OAS3Parser();
+                    SwaggerData swaggerData = new SwaggerData(api);
+                    String apiDefinition = parser.generateAPIDefinition(swaggerData);
+                    api.setSwaggerDefinition(apiDefinition);
+                    GraphqlComplexityInfo graphqlComplexityInfo = APIUtil.getComplexityDetails(api);
+                    String graphqlSchema =
+                            ImportUtils.retrieveValidatedGraphqlSchemaFromArchive(extractedFolderPath);
+                    api.setGraphQLSchema(graphqlSchema);
+                    GraphQLSchemaDefinition graphQLSchemaDefinition = new GraphQLSchemaDefinition();
+                    graphqlSchema = graphQLSchemaDefinition
+                            .buildSchemaWithAdditionalInfo(api, graphqlComplexityInfo);
+                    api.setGraphQLSchema(graphqlSchema);
+                    gatewayAPIDTO = TemplateBuilderUtil.retrieveGatewayAPIDto(api, environment,
+                            tenantDomain, apidto, extractedFolderPath);
+                } else if (api.getType() != null &&
+                        (APIConstants.APITransportType.HTTP.toString().equals(api.getType())
+                                || APIConstants.API_TYPE_SOAP.equals(api.getType())
+                                || APIConstants.API_TYPE_SOAPTOREST.equals(api.getType())
+                                || APIConstants.APITransportType.WEBHOOK.toString()
+                                        .equals(api.getType()))) {
+                    APIDefinitionValidationResponse apiDefinitionValidationResponse = ImportUtils
+                            .retrieveValidatedSwaggerDefinitionFromArchive(extractedFolderPath);
+                    api.setSwaggerDefinition(apiDefinitionValidationResponse.getContent());
+                    gatewayAPIDTO = TemplateBuilderUtil.retrieveGatewayAPIDto(api, environment,
+                            tenantDomain, apidto, extractedFolderPath, apiDefinitionValidationResponse);
+                } else if (api.getType() != null &&
+                        (APIConstants.APITransportType.WS.toString().equals(api.getType()) ||
+                                APIConstants.APITransportType.SSE.toString().equals(api.getType()) ||
+                                APIConstants.APITransportType.WEBSUB.toString()
+                                        .equals(api.getType()))) {
+                    APIDefinitionValidationResponse asyncApiDefinition =
+                            ImportUtils.retrieveValidatedAsyncApiDefinitionFromArchive(
+                                    extractedFolderPath);
+                    api.setAsyncApiDefinition(asyncApiDefinition.getContent());
+                    gatewayAPIDTO = TemplateBuilderUtil.retrieveGatewayAPIDtoForStreamingAPI(api,
+                            environment, tenantDomain, apidto, extractedFolderPath);
+                }
+            }
+        } finally {
+            FileUtils.deleteQuietly(baseDirectory);
+        }
+        return gatewayAPIDTO;
+    }
+
+    /**
+     * Returns the artifact rendered earlier from the same inputs, if any.
+     */
+    private String getRenderedArtifact(APIRuntimeArtifactDto runTimeArtifact, String contentHash) {
+
+        if (contentHash == null) {
+            return null;
+        }
+        try {
+            String renderedArtifact = GatewayArtifactsMgtDAO.getInstance().retrieveRenderedGatewayArtifact(
+                    runTimeArtifact.getRevision(), runTimeArtifact.getLabel(), getType(), contentHash);
+            if (renderedArtifact != null && log.isDebugEnabled()) {
+                log.debug("Using the rendered Synapse artifact of revision " + runTimeArtifact.getRevision()
+                        + " of API " + runTimeArtifact.getApiId() + " for gateway environment "
+                        + runTimeArtifact.getLabel());
+            }
+            return renderedArtifact;
+        } catch (APIManagementException e) {
+            // The artifact is rendered again if the rendered artifact cannot be retrieved
+            log.warn("Error while retrieving the rendered Synapse artifact of API " + runTimeArtifact.getApiId(), e);
+            return null;
+        }
+    }
+
+    private void addRenderedArtifact(APIRuntimeArtifactDto runTimeArtifact, String contentHash, String content) {
+
+        if (contentHash == null) {
+            return;
+        }
+        try {
+            GatewayArtifactsMgtDAO.getInstance().addRenderedGatewayArtifact(runTimeArtifact.getApiId(),
+                    runTimeArtifact.getRevision(), runTimeArtifact.getLabel(), getType(), contentHash, content);
+        } catch (APIManagementException e) {
+            // Another node may have added the same artifact concurrently
+            log.warn("Error while storing the rendered Synapse artifact of API " + runTimeArtifact.getApiId(), e);
+        }
+    }
+
+    private static String getContentHash(APIRuntimeArtifactDto runTimeArtifact, byte[] artifactContent,
+                                          String environmentHash) {
+
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        digest.update(artifactContent);
+        updateDigest(digest, runTimeArtifact.getType());
+        updateDigest(digest, runTimeArtifact.getVhost());
+        updateDigest(digest, environmentHash);
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Hashes the gateway environment and the tenant configuration the artifacts of an environment are rendered with.
+     */
+    private static String getEnvironmentHash(String tenantDomain, Environment environment, String templatesHash)
+            throws APIManagementException {
+
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        updateDigest(digest, tenantDomain);
+        updateDigest(digest, new Gson().toJson(environment));
+        updateDigest(digest, APIUtil.getTenantConfig(tenantDomain).toJSONString());
+        updateDigest(digest, templatesHash);
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Hashes the API templates and the API Manager configuration the artifacts are rendered with, so that artifacts
+     * rendered before they changed are rendered again.
+     *
+     * @return hash of the templates and the configuration, or null if they could not be read
+     */
+    private static String getTemplatesHash() {
+
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        File templatesDirectory = new File(CarbonUtils.getCarbonHome() + File.separator + "repository"
+                + File.separator + "resources" + File.separator + "api_templates");
+        List<File> files = new ArrayList<>();
+        if (templatesDirectory.isDirectory()) {
+            files.addAll(FileUtils.listFiles(templatesDirectory, null, true));
+        }
+        files.sort(Comparator.comparing(File::getPath));
+        files.add(new File(CarbonUtils.getCarbonConfigDirPath() + File.separator + API_MANAGER_CONFIG_FILE));
+        try {
+            for (File file : files) {
+                updateDigest(digest, file.getPath());
+                if (file.isFile()) {
+                    digest.update(FileUtils.readFileToByteArray(file));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Error while reading the API templates. Synapse artifacts will not be reused.", e);
+            return null;
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private static void updateDigest(MessageDigest digest, String value) {
+
+        // Values are separated so that adjacent values cannot run into each other
+        digest.update((byte) 0);
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
     @Override
     public String getType() {
 
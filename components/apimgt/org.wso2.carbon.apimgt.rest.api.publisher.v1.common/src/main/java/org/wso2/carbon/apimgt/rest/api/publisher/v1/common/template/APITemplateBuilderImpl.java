@@ -21,8 +21,6 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
-import org.apache.velocity.runtime.RuntimeConstants;
 import org.wso2.carbon.apimgt.api.model.API;
 import org.wso2.carbon.apimgt.api.model.APIProduct;
 import org.wso2.carbon.apimgt.api.model.Environment;
@@ -32,13 +30,12 @@ import org.wso2.carbon.apimgt.impl.dto.SoapToRestMediationDto;
 import org.wso2.carbon.apimgt.impl.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.impl.template.APITemplateBuilder;
 import org.wso2.carbon.apimgt.impl.template.APITemplateException;
-import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+import org.wso2.carbon.apimgt.impl.template.VelocityTemplateRenderer;
 import org.wso2.carbon.apimgt.impl.wsdl.util.SOAPToRESTConstants;
 import org.wso2.carbon.apimgt.rest.api.publisher.v1.common.SequenceUtils;
 import org.wso2.carbon.apimgt.rest.api.publisher.v1.dto.APIDTO;
 import org.wso2.carbon.registry.api.RegistryException;
 import org.wso2.carbon.user.api.UserStoreException;
-import org.wso2.carbon.utils.CarbonUtils;
 
 import java.io.File;
 import java.io.StringWriter;
@@ -115,17 +112,13 @@ public class APITemplateBuilderImpl implements APITemplateBuilder {
 
             context.internalGetKeys();
 
-            /*  first, initialize velocity engine  */
-            VelocityEngine velocityengine = new VelocityEngine();
-            APIUtil.initializeVelocityContext(velocityengine);
-
-            velocityengine.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, CarbonUtils.getCarbonHome());
-            initVelocityEngine(velocityengine);
+            VelocityTemplateRenderer templateRenderer =
+                    VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.API_TEMPLATES);
 
             Template t = null;
 
             if (api != null) {
-                t = velocityengine.getTemplate(getTemplatePath());
+                t = templateRenderer.getTemplate(getTemplatePath());
 
                 if (APIConstants.APITransportType.WS.toString().equals(api.getType())) {
                     context.put("topicMappings", this.api.getWebSocketTopicMappingConfiguration().getMappings());
@@ -152,7 +145,7 @@ public class APITemplateBuilderImpl implements APITemplateBuilder {
                     context.put(APIConstants.VELOCITY_GRAPHQL_API_SUBSCRIPTION_AVAILABLE, isSubscriptionAvailable);
                 }
             } else {
-                t = velocityengine.getTemplate(getApiProductTemplatePath());
+                t = templateRenderer.getTemplate(getApiProductTemplatePath());
             }
 
             t.merge(context, writer);
@@ -191,14 +184,10 @@ public class APITemplateBuilderImpl implements APITemplateBuilder {
 
             context.internalGetKeys();
 
-            /*  first, initialize velocity engine  */
-            VelocityEngine velocityengine = new VelocityEngine();
-            APIUtil.initializeVelocityContext(velocityengine);
-
-            velocityengine.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, CarbonUtils.getCarbonHome());
-            initVelocityEngine(velocityengine);
+            VelocityTemplateRenderer templateRenderer =
+                    VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.API_TEMPLATES);
 
-            Template t = velocityengine.getTemplate(this.getPrototypeTemplatePath());
+            Template t = templateRenderer.getTemplate(this.getPrototypeTemplatePath());
 
             t.merge(context, writer);
 
@@ -232,15 +221,12 @@ public class APITemplateBuilderImpl implements APITemplateBuilder {
 
             context.internalGetKeys();
 
-            VelocityEngine velocityengine = new VelocityEngine();
-            APIUtil.initializeVelocityContext(velocityengine);
-
-            velocityengine.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, CarbonUtils.getCarbonHome());
-            initVelocityEngine(velocityengine);
+            VelocityTemplateRenderer templateRenderer =
+                    VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.API_TEMPLATES);
 
             context.put("type", endpointType);
 
-            Template template = velocityengine.getTemplate(this.getEndpointTemplatePath());
+            Template template = templateRenderer.getTemplate(this.getEndpointTemplatePath());
 
             template.merge(context, writer);
 
@@ -270,17 +256,14 @@ public class APITemplateBuilderImpl implements APITemplateBuilder {
 
             context.internalGetKeys();
 
-            VelocityEngine velocityengine = new VelocityEngine();
-            APIUtil.initializeVelocityContext(velocityengine);
-
-            velocityengine.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, CarbonUtils.getCarbonHome());
-            initVelocityEngine(velocityengine);
+            VelocityTemplateRenderer templateRenderer =
+                    VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.API_TEMPLATES);
 
             context.put("type", endpointType + "_endpoints");
             context.put("websocketResourceKey", resourceKey);
             context.put("endpointUrl", endpointUrl);
 
-            Template template = velocityengine.getTemplate(this.getEndpointTemplatePath());
+            Template template = templateRenderer.getTemplate(this.getEndpointTemplatePath());
 
             template.merge(context, writer);
 
@@ -400,27 +383,4 @@ public class APITemplateBuilderImpl implements APITemplateBuilder {
             return this.velocityLogPath;
         }
     }
-
-    /**
-     * Initialize velocity engine.
-     *
-     * @param velocityengine velocity engine object reference
-     * @throws APITemplateException in case of an error
-     */
-    private void initVelocityEngine(VelocityEngine velocityengine) throws APITemplateException {
-
-        Thread thread = Thread.currentThread();
-        ClassLoader loader = thread.getContextClassLoader();
-        thread.setContextClassLoader(this.getClass().getClassLoader());
-
-        try {
-            velocityengine.init();
-        } catch (Exception e) {
-            String msg = "Error while initiating the Velocity engine";
-            log.error(msg, e);
-            throw new APITemplateException(msg, e);
-        } finally {
-            thread.setContextClassLoader(loader);
-        }
-    }
 }
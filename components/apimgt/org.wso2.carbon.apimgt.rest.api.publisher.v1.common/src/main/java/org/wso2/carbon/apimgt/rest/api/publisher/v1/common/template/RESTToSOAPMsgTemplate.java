@@ -19,14 +19,14 @@ package org.wso2.carbon.apimgt.rest.api.publisher.v1.common.template;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
 import org.json.simple.JSONArray;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.APIManagerConfigurationService;
 import org.wso2.carbon.apimgt.impl.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.impl.template.ConfigContext;
-import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+import org.wso2.carbon.apimgt.impl.template.VelocityTemplateRenderer;
 import org.wso2.carbon.apimgt.impl.wsdl.util.SOAPToRESTConstants;
 
 import java.io.File;
@@ -65,10 +65,8 @@ public class RESTToSOAPMsgTemplate {
             VelocityContext context = configcontext.getContext();
             context.internalGetKeys();
 
-            VelocityEngine velocityengine = new VelocityEngine();
-            APIUtil.initializeVelocityContext(velocityengine);
-            velocityengine.init();
-            org.apache.velocity.Template t = velocityengine.getTemplate(this.getInSeqTemplatePath());
+            Template t = VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.API_TEMPLATES)
+                    .getTemplate(this.getInSeqTemplatePath());
             t.merge(context, writer);
         } catch (Exception e) {
             log.error("Velocity Error", e);
@@ -89,11 +87,8 @@ public class RESTToSOAPMsgTemplate {
             VelocityContext context = configcontext.getContext();
             context.internalGetKeys();
 
-            VelocityEngine velocityengine = new VelocityEngine();
-            APIUtil.initializeVelocityContext(velocityengine);
-
-            velocityengine.init();
-            org.apache.velocity.Template template = velocityengine.getTemplate(this.getOutSeqTemplatePath());
+            Template template = VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.API_TEMPLATES)
+                    .getTemplate(this.getOutSeqTemplatePath());
 
             template.merge(context, writer);
         } catch (Exception e) {
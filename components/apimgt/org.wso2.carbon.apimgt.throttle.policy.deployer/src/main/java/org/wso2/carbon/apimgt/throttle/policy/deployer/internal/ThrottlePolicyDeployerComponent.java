@@ -35,6 +35,7 @@ import org.wso2.carbon.apimgt.throttle.policy.deployer.utils.ThrottlePolicyStart
 import org.wso2.carbon.core.ServerShutdownHandler;
 import org.wso2.carbon.core.ServerStartupObserver;
 import org.wso2.carbon.event.processor.core.EventProcessorService;
+import org.wso2.carbon.event.stream.core.EventStreamService;
 
 /**
  * Throttle policy deployer component.
@@ -106,6 +107,24 @@ public class ThrottlePolicyDeployerComponent {
         ServiceReferenceHolder.getInstance().setEventProcessorService(null);
     }
 
+    @Reference(
+            name = "event.stream.service",
+            service = EventStreamService.class,
+            cardinality = ReferenceCardinality.MANDATORY,
+            policy = ReferencePolicy.DYNAMIC,
+            unbind = "unsetEventStreamService")
+    protected void setEventStreamService(EventStreamService eventStreamService) {
+
+        log.debug("Setting EventStream Service");
+        ServiceReferenceHolder.getInstance().setEventStreamService(eventStreamService);
+    }
+
+    protected void unsetEventStreamService(EventStreamService eventStreamService) {
+
+        log.debug("Unsetting EventStream Service");
+        ServiceReferenceHolder.getInstance().setEventStreamService(null);
+    }
+
     @Deactivate
     protected void deactivate(ComponentContext componentContext) {
 
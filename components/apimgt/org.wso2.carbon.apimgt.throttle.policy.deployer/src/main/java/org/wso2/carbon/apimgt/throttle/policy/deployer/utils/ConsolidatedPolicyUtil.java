@@ -0,0 +1,337 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.throttle.policy.deployer.utils;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
+import org.wso2.carbon.apimgt.impl.template.APITemplateException;
+import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.ApplicationPolicy;
+import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.Policy;
+import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.QuotaPolicy;
+import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.SubscriptionPolicy;
+import org.wso2.carbon.apimgt.throttle.policy.deployer.internal.ServiceReferenceHolder;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.event.processor.core.EventProcessorService;
+import org.wso2.carbon.event.processor.core.exception.ExecutionPlanConfigurationException;
+import org.wso2.carbon.event.processor.core.exception.ExecutionPlanDependencyValidationException;
+import org.wso2.carbon.event.stream.core.EventStreamService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An Utility class for deploying subscription and application policies in consolidated execution plans.
+ * <p>
+ * Instead of deploying an execution plan per policy, all the policies of a level sharing the same quota type and
+ * time window are throttled by a single execution plan. The limits of the policies are kept in a policy table of the
+ * plan, which is updated by publishing the limits to the policy limit stream. Therefore adding, updating or removing
+ * a policy only updates the policy table, unless the policy needs a time window no other policy uses yet.
+ */
+public class ConsolidatedPolicyUtil {
+
+    private static final Log log = LogFactory.getLog(ConsolidatedPolicyUtil.class);
+    private static final String POLICY_LIMIT_STREAM_ID = "org.wso2.throttle.policy.limit.stream:1.0.0";
+    private static final String PLAN_NAME_PREFIX = "consolidated";
+    private static final long PLAN_ACTIVATION_CHECK_INTERVAL = 1000;
+    private static final int PLAN_ACTIVATION_MAX_CHECKS = 60;
+
+    // Limits of the deployed policies, keyed by the policy level, tenant domain and policy name
+    private static final Map<String, PolicyLimit> policyLimits = new ConcurrentHashMap<>();
+    private static final Set<String> deployedPlans = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private static final ScheduledExecutorService planActivationScheduler =
+            Executors.newSingleThreadScheduledExecutor(new PolicyRetrieverThreadFactory());
+
+    private ConsolidatedPolicyUtil() {
+    }
+
+    /**
+     * Checks whether the given policy is deployed in a consolidated execution plan. Only the subscription and
+     * application policies with a request count or bandwidth quota are consolidated, when enabled.
+     *
+     * @param policy policy object
+     * @return true if the policy is deployed in a consolidated execution plan
+     */
+    public static boolean isConsolidated(Policy policy) {
+
+        APIManagerConfiguration apiManagerConfiguration =
+                ServiceReferenceHolder.getInstance().getAPIMConfiguration();
+        if (apiManagerConfiguration == null
+                || !apiManagerConfiguration.getThrottleProperties().isEnableConsolidatedPolicyPlans()) {
+            return false;
+        }
+        if (!(policy instanceof SubscriptionPolicy || policy instanceof ApplicationPolicy)) {
+            return false;
+        }
+        QuotaPolicy quotaPolicy = policy.getDefaultLimit();
+        if (quotaPolicy == null || quotaPolicy.getLimit() == null) {
+            return false;
+        }
+        return (PolicyConstants.REQUEST_COUNT_TYPE.equals(quotaPolicy.getQuotaType())
+                && quotaPolicy.getRequestCount() != null)
+                || (PolicyConstants.BANDWIDTH_TYPE.equals(quotaPolicy.getQuotaType())
+                && quotaPolicy.getBandwidth() != null);
+    }
+
+    /**
+     * Returns the name of the consolidated execution plan of a policy.
+     *
+     * @param policyLevel level of the policy
+     * @param quotaPolicy quota policy of the policy
+     * @return name of the execution plan
+     */
+    public static String getPlanName(String policyLevel, QuotaPolicy quotaPolicy) {
+
+        return String.join(APIConstants.DELEM_UNDERSCORE, PLAN_NAME_PREFIX, policyLevel, quotaPolicy.getQuotaType(),
+                String.valueOf(quotaPolicy.getLimit().getUnitTime()), quotaPolicy.getLimit().getTimeUnit());
+    }
+
+    /**
+     * Deploy the given subscription or application policy in its consolidated execution plan. The execution plan is
+     * deployed if it is not deployed yet, and the limits of the policy are added to the policy table of the plan.
+     *
+     * @param policy policy object
+     * @throws APITemplateException if failed to generate the execution plan
+     * @throws ExecutionPlanConfigurationException if failed to deploy the execution plan
+     * @throws ExecutionPlanDependencyValidationException if failed to deploy the execution plan
+     */
+    public static synchronized void deployPolicy(Policy policy) throws APITemplateException,
+            ExecutionPlanConfigurationException, ExecutionPlanDependencyValidationException {
+
+        String policyLevel = getPolicyLevel(policy);
+        QuotaPolicy quotaPolicy = policy.getDefaultLimit();
+        String planName = getPlanName(policyLevel, quotaPolicy);
+        long requestCount = 0;
+        long dataAmount = 0;
+        if (PolicyConstants.REQUEST_COUNT_TYPE.equals(quotaPolicy.getQuotaType())) {
+            requestCount = quotaPolicy.getRequestCount().getRequestCount();
+        } else {
+            dataAmount = quotaPolicy.getBandwidth().getStandardDataAmount();
+        }
+        PolicyLimit policyLimit = new PolicyLimit(policyLevel, planName, policy.getTenantDomain(), policy.getName(),
+                requestCount, dataAmount);
+        PolicyLimit previousPolicyLimit = policyLimits.put(policyLimit.getKey(), policyLimit);
+
+        if (!deployedPlans.contains(planName)) {
+            if (!isPlanActive(planName)) {
+                ThrottlePolicyTemplateBuilder policyTemplateBuilder = new ThrottlePolicyTemplateBuilder();
+                ServiceReferenceHolder.getInstance().getEventProcessorService().deployExecutionPlan(
+                        policyTemplateBuilder.getConsolidatedThrottlePolicy(policyLevel, planName, quotaPolicy));
+                if (log.isDebugEnabled()) {
+                    log.debug("Deployed consolidated execution plan " + planName);
+                }
+            }
+            deployedPlans.add(planName);
+            // Execution plans are deployed asynchronously, so the policy table is filled once the plan is active
+            publishPolicyLimitsOnActivation(planName, 1);
+        }
+        // Also removes the policy from the policy table of the plan it was previously deployed in
+        publishPolicyLimit(policyLimit);
+        if (previousPolicyLimit != null && !planName.equals(previousPolicyLimit.planName)) {
+            undeployPlanIfUnused(previousPolicyLimit.planName);
+        }
+    }
+
+    /**
+     * Undeploy the given policy from its consolidated execution plan. The limits of the policy are removed from the
+     * policy table of the plan, and the plan is undeployed if no other policy is deployed in it.
+     *
+     * @param policyLevel  level of the policy
+     * @param tenantDomain tenant domain of the policy
+     * @param policyName   name of the policy
+     */
+    public static synchronized void undeployPolicy(String policyLevel, String tenantDomain, String policyName) {
+
+        PolicyLimit policyLimit = policyLimits.remove(getKey(policyLevel, tenantDomain, policyName));
+        if (policyLimit != null) {
+            publishPolicyLimit(new PolicyLimit(policyLevel, "", tenantDomain, policyName, 0, 0));
+            undeployPlanIfUnused(policyLimit.planName);
+        }
+    }
+
+    /**
+     * Checks whether the given execution plan is a consolidated execution plan. Consolidated execution plans are kept
+     * deployed when all the policies are redeployed, as they are updated through their policy tables.
+     *
+     * @param planName name of the execution plan
+     * @return true if the execution plan is a consolidated execution plan
+     */
+    public static boolean isConsolidatedPlan(String planName) {
+
+        return planName.startsWith(PLAN_NAME_PREFIX + APIConstants.DELEM_UNDERSCORE);
+    }
+
+    /**
+     * Undeploy the consolidated execution plans no policy is deployed in, such as the plans of time windows no
+     * longer used by any policy when the Traffic Manager was restarted.
+     */
+    public static synchronized void undeployUnusedPlans() {
+
+        EventProcessorService eventProcessorService =
+                ServiceReferenceHolder.getInstance().getEventProcessorService();
+        List<String> unusedPlans = new ArrayList<>();
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                    .setTenantDomain(APIConstants.SUPER_TENANT_DOMAIN, true);
+            for (String planName : eventProcessorService.getAllActiveExecutionConfigurations().keySet()) {
+                if (isConsolidatedPlan(planName) && !deployedPlans.contains(planName)) {
+                    unusedPlans.add(planName);
+                }
+            }
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+        PolicyUtil.undeployPolicies(unusedPlans);
+    }
+
+    private static String getPolicyLevel(Policy policy) {
+
+        if (policy instanceof SubscriptionPolicy) {
+            return PolicyConstants.POLICY_LEVEL_SUB;
+        }
+        return PolicyConstants.POLICY_LEVEL_APP;
+    }
+
+    private static String getKey(String policyLevel, String tenantDomain, String policyName) {
+
+        return String.join(APIConstants.DELEM_COLON, policyLevel, tenantDomain, policyName);
+    }
+
+    private static boolean isPlanActive(String planName) {
+
+        EventProcessorService eventProcessorService =
+                ServiceReferenceHolder.getInstance().getEventProcessorService();
+        try {
+            return eventProcessorService.getActiveExecutionPlan(planName) != null;
+        } catch (ExecutionPlanConfigurationException e) {
+            // Execution plan is not deployed, or not active yet
+            return false;
+        }
+    }
+
+    private static void undeployPlanIfUnused(String planName) {
+
+        for (PolicyLimit policyLimit : policyLimits.values()) {
+            if (planName.equals(policyLimit.planName)) {
+                return;
+            }
+        }
+        deployedPlans.remove(planName);
+        PolicyUtil.undeployPolicies(Collections.singletonList(planName));
+        if (log.isDebugEnabled()) {
+            log.debug("Undeployed consolidated execution plan " + planName + " as no policy is deployed in it");
+        }
+    }
+
+    /**
+     * Publish the limits of all the policies of an execution plan once the plan is active.
+     *
+     * @param planName name of the execution plan
+     * @param attempt  number of times the plan is checked for being active
+     */
+    private static void publishPolicyLimitsOnActivation(String planName, int attempt) {
+
+        planActivationScheduler.schedule(() -> {
+            try {
+                PrivilegedCarbonContext.startTenantFlow();
+                PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                        .setTenantDomain(APIConstants.SUPER_TENANT_DOMAIN, true);
+                synchronized (ConsolidatedPolicyUtil.class) {
+                    if (!deployedPlans.contains(planName)) {
+                        return;
+                    }
+                    if (isPlanActive(planName)) {
+                        for (PolicyLimit policyLimit : policyLimits.values()) {
+                            if (planName.equals(policyLimit.planName)) {
+                                publishPolicyLimit(policyLimit);
+                            }
+                        }
+                    } else if (attempt < PLAN_ACTIVATION_MAX_CHECKS) {
+                        publishPolicyLimitsOnActivation(planName, attempt + 1);
+                    } else {
+                        log.warn("Consolidated execution plan " + planName + " is not active. Policies deployed in "
+                                + "the plan will be applied once they are deployed again.");
+                    }
+                }
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        }, PLAN_ACTIVATION_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private static void publishPolicyLimit(PolicyLimit policyLimit) {
+
+        EventStreamService eventStreamService = ServiceReferenceHolder.getInstance().getEventStreamService();
+        if (eventStreamService == null) {
+            log.warn("Event stream service is not available. Limits of policy " + policyLimit.policyName
+                    + " are not published.");
+            return;
+        }
+        Object[] payloadData = new Object[]{policyLimit.policyLevel, policyLimit.planName, policyLimit.tenantDomain,
+                policyLimit.policyName, policyLimit.requestCount, policyLimit.dataAmount};
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                    .setTenantDomain(APIConstants.SUPER_TENANT_DOMAIN, true);
+            eventStreamService.publish(new Event(POLICY_LIMIT_STREAM_ID, System.currentTimeMillis(), null, null,
+                    payloadData));
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    /**
+     * Limits of a policy deployed in a consolidated execution plan.
+     */
+    private static final class PolicyLimit {
+
+        private final String policyLevel;
+        private final String planName;
+        private final String tenantDomain;
+        private final String policyName;
+        private final long requestCount;
+        private final long dataAmount;
+
+        private PolicyLimit(String policyLevel, String planName, String tenantDomain, String policyName,
+                            long requestCount, long dataAmount) {
+
+            this.policyLevel = policyLevel;
+            this.planName = planName;
+            this.tenantDomain = tenantDomain;
+            this.policyName = policyName;
+            this.requestCount = requestCount;
+            this.dataAmount = dataAmount;
+        }
+
+        private String getKey() {
+
+            return ConsolidatedPolicyUtil.getKey(policyLevel, tenantDomain, policyName);
+        }
+    }
+}
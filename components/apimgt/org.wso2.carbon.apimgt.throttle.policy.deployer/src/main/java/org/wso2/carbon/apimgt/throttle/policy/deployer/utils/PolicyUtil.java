@@ -84,14 +84,31 @@ public class PolicyUtil {
                 // Add Subscription policy
                 policyFile = String.join(APIConstants.DELEM_UNDERSCORE,
                         policy.getTenantDomain(), PolicyConstants.POLICY_LEVEL_SUB, policy.getName());
-                policyString = policyTemplateBuilder.getThrottlePolicyForSubscriptionLevel((SubscriptionPolicy) policy);
-                policiesToDeploy.put(policyFile, policyString);
+                if (ConsolidatedPolicyUtil.isConsolidated(policy)) {
+                    // Limits of the policy are kept in the policy table of a consolidated execution plan
+                    ConsolidatedPolicyUtil.deployPolicy(policy);
+                    policiesToUndeploy.add(policyFile);
+                } else {
+                    ConsolidatedPolicyUtil.undeployPolicy(PolicyConstants.POLICY_LEVEL_SUB, policy.getTenantDomain(),
+                            policy.getName());
+                    policyString =
+                            policyTemplateBuilder.getThrottlePolicyForSubscriptionLevel((SubscriptionPolicy) policy);
+                    policiesToDeploy.put(policyFile, policyString);
+                }
             } else if (Policy.PolicyType.APPLICATION.equals(policy.getType()) && policy instanceof ApplicationPolicy) {
                 // Add Application policy
                 policyFile = String.join(APIConstants.DELEM_UNDERSCORE,
                         policy.getTenantDomain(), PolicyConstants.POLICY_LEVEL_APP, policy.getName());
-                policyString = policyTemplateBuilder.getThrottlePolicyForAppLevel((ApplicationPolicy) policy);
-                policiesToDeploy.put(policyFile, policyString);
+                if (ConsolidatedPolicyUtil.isConsolidated(policy)) {
+                    // Limits of the policy are kept in the policy table of a consolidated execution plan
+                    ConsolidatedPolicyUtil.deployPolicy(policy);
+                    policiesToUndeploy.add(policyFile);
+                } else {
+                    ConsolidatedPolicyUtil.undeployPolicy(PolicyConstants.POLICY_LEVEL_APP, policy.getTenantDomain(),
+                            policy.getName());
+                    policyString = policyTemplateBuilder.getThrottlePolicyForAppLevel((ApplicationPolicy) policy);
+                    policiesToDeploy.put(policyFile, policyString);
+                }
             } else if (Policy.PolicyType.API.equals(policy.getType()) && policy instanceof ApiPolicy) {
                 // Add API policy
                 policiesToDeploy = policyTemplateBuilder.getThrottlePolicyForAPILevel((ApiPolicy) policy);
@@ -186,6 +203,7 @@ public class PolicyUtil {
             for (GlobalPolicy globalPolicy : globalPolicies.getList()) {
                 deployPolicy(globalPolicy, null);
             }
+            ConsolidatedPolicyUtil.undeployUnusedPlans();
         } catch (ThrottlePolicyDeployerException e) {
             log.error("Error in retrieving throttle policies", e);
         }
@@ -209,7 +227,7 @@ public class PolicyUtil {
             // Undeploy all the policies except the skip ones provided
             for (Map.Entry<String, ExecutionPlanConfiguration> pair : executionPlanConfigurationMap.entrySet()) {
                 String policyPlanName = pair.getKey();
-                boolean skiped = false;
+                boolean skiped = ConsolidatedPolicyUtil.isConsolidatedPlan(policyPlanName);
                 for (String skipPolicyName :
                         apiManagerConfiguration.getThrottleProperties().getSkipRedeployingPolicies()) {
                     if (skipPolicyName.equalsIgnoreCase(policyPlanName)) {
@@ -240,6 +258,8 @@ public class PolicyUtil {
                 policyEvent.getPolicyName();
         policyFileNames.add(policyFile);
         undeployPolicies(policyFileNames);
+        ConsolidatedPolicyUtil.undeployPolicy(PolicyConstants.POLICY_LEVEL_SUB, policyEvent.getTenantDomain(),
+                policyEvent.getPolicyName());
     }
 
     /**
@@ -254,6 +274,8 @@ public class PolicyUtil {
                 policyEvent.getPolicyName();
         policyFileNames.add(policyFile);
         undeployPolicies(policyFileNames);
+        ConsolidatedPolicyUtil.undeployPolicy(PolicyConstants.POLICY_LEVEL_APP, policyEvent.getTenantDomain(),
+                policyEvent.getPolicyName());
     }
 
     /**
@@ -292,7 +314,7 @@ public class PolicyUtil {
      *
      * @param policyFileNames list of policy file names
      */
-    private static void undeployPolicies(List<String> policyFileNames) {
+    static void undeployPolicies(List<String> policyFileNames) {
 
         try {
             PrivilegedCarbonContext.startTenantFlow();
@@ -24,9 +24,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.exception.VelocityException;
-import org.apache.velocity.runtime.RuntimeConstants;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.wso2.carbon.apimgt.api.model.policy.HeaderCondition;
@@ -36,14 +34,15 @@ import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
 import org.wso2.carbon.apimgt.api.model.policy.QueryParameterCondition;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.template.APITemplateException;
+import org.wso2.carbon.apimgt.impl.template.VelocityTemplateRenderer;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.APIPolicyConditionGroup;
 import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.ApiPolicy;
 import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.ApplicationPolicy;
 import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.Condition;
 import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.GlobalPolicy;
+import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.QuotaPolicy;
 import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.SubscriptionPolicy;
-import org.wso2.carbon.utils.CarbonUtils;
 
 import java.io.File;
 import java.io.StringWriter;
@@ -67,6 +66,7 @@ public class ThrottlePolicyTemplateBuilder {
     private static final String POLICY_VELOCITY_APP = "throttle_policy_template_app";
     private static final String POLICY_VELOCITY_SUB = "throttle_policy_template_sub";
     private static final String POLICY_VELOCITY_ASYNC_SUB = "throttle_policy_template_async_sub";
+    private static final String POLICY_VELOCITY_CONSOLIDATED = "throttle_policy_template_consolidated";
     private final String policyTemplateLocation = "repository" + File.separator + "resources" + File.separator
             + "policy_templates" + File.separator;
 
@@ -244,12 +244,9 @@ public class ThrottlePolicyTemplateBuilder {
         Map<String, String> policyArray = new HashMap<>();
 
         try {
-            VelocityEngine velocityengine = new VelocityEngine();
-            APIUtil.initializeVelocityContext(velocityengine);
-
-            velocityengine.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, CarbonUtils.getCarbonHome());
-            velocityengine.init();
-            Template template = velocityengine.getTemplate(getTemplatePathForAPI());
+            VelocityTemplateRenderer templateRenderer =
+                    VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.POLICY_TEMPLATES);
+            Template template = templateRenderer.getTemplate(getTemplatePathForAPI());
             StringWriter writer;
             VelocityContext context;
 
@@ -307,12 +304,9 @@ public class ThrottlePolicyTemplateBuilder {
         Set<String> conditionsSet = new HashSet<>();
 
         try {
-            VelocityEngine velocityengine = new VelocityEngine();
-            APIUtil.initializeVelocityContext(velocityengine);
-
-            velocityengine.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, CarbonUtils.getCarbonHome());
-            velocityengine.init();
-            Template template = velocityengine.getTemplate(getTemplatePathForAPIDefaultPolicy());
+            VelocityTemplateRenderer templateRenderer =
+                    VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.POLICY_TEMPLATES);
+            Template template = templateRenderer.getTemplate(getTemplatePathForAPIDefaultPolicy());
             StringWriter writer;
             VelocityContext context;
 
@@ -371,13 +365,9 @@ public class ThrottlePolicyTemplateBuilder {
             log.debug("Generating policy for global level :" + policy.toString());
         }
         try {
-            VelocityEngine velocityengine = new VelocityEngine();
-            APIUtil.initializeVelocityContext(velocityengine);
-
-            velocityengine.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, CarbonUtils.getCarbonHome());
-            velocityengine.init();
-
-            Template template = velocityengine.getTemplate(getTemplatePathForGlobal());
+            VelocityTemplateRenderer templateRenderer =
+                    VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.POLICY_TEMPLATES);
+            Template template = templateRenderer.getTemplate(getTemplatePathForGlobal());
 
             VelocityContext context = new VelocityContext();
             setConstantContext(context);
@@ -410,12 +400,9 @@ public class ThrottlePolicyTemplateBuilder {
         }
 
         try {
-            VelocityEngine velocityengine = new VelocityEngine();
-            APIUtil.initializeVelocityContext(velocityengine);
-
-            velocityengine.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, CarbonUtils.getCarbonHome());
-            velocityengine.init();
-            Template template = velocityengine.getTemplate(getTemplatePathForApplication());
+            VelocityTemplateRenderer templateRenderer =
+                    VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.POLICY_TEMPLATES);
+            Template template = templateRenderer.getTemplate(getTemplatePathForApplication());
 
             VelocityContext context = new VelocityContext();
             setConstantContext(context);
@@ -449,16 +436,13 @@ public class ThrottlePolicyTemplateBuilder {
         }
 
         try {
-            VelocityEngine velocityengine = new VelocityEngine();
-            velocityengine.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_PATH, CarbonUtils.getCarbonHome());
-            APIUtil.initializeVelocityContext(velocityengine);
-
-            velocityengine.init();
+            VelocityTemplateRenderer templateRenderer =
+                    VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.POLICY_TEMPLATES);
             Template template;
             if (PolicyConstants.EVENT_COUNT_TYPE.equals(policy.getDefaultLimit().getQuotaType())) {
-                template = velocityengine.getTemplate(getTemplatePathForAsyncSubscription());
+                template = templateRenderer.getTemplate(getTemplatePathForAsyncSubscription());
             } else {
-                template = velocityengine.getTemplate(getTemplatePathForSubscription());
+                template = templateRenderer.getTemplate(getTemplatePathForSubscription());
             }
             VelocityContext context = new VelocityContext();
             setConstantContext(context);
@@ -475,6 +459,48 @@ public class ThrottlePolicyTemplateBuilder {
         return writer.toString();
     }
 
+    /**
+     * Generate a consolidated execution plan, which throttles the requests of all the policies of a level sharing the
+     * same quota type and time window. The limits of the policies are read from a policy table of the plan, which is
+     * updated through the policy limit stream.
+     *
+     * @param policyLevel level of the policies, 'sub' or 'app'
+     * @param planName    name of the execution plan
+     * @param quotaPolicy quota policy defining the quota type and the time window of the plan
+     * @return the generated execution plan
+     * @throws APITemplateException if failed to generate the execution plan
+     */
+    public String getConsolidatedThrottlePolicy(String policyLevel, String planName, QuotaPolicy quotaPolicy)
+            throws APITemplateException {
+        StringWriter writer = new StringWriter();
+
+        if (log.isDebugEnabled()) {
+            log.debug("Generating consolidated policy " + planName + " for " + policyLevel + " level");
+        }
+
+        try {
+            VelocityTemplateRenderer templateRenderer =
+                    VelocityTemplateRenderer.getInstance(VelocityTemplateRenderer.POLICY_TEMPLATES);
+            Template template = templateRenderer.getTemplate(getTemplatePathForConsolidatedPolicy());
+
+            VelocityContext context = new VelocityContext();
+            setConstantContext(context);
+            context.put("planName", planName);
+            context.put("policyLevel", policyLevel);
+            context.put("quotaType", quotaPolicy.getQuotaType());
+            context.put("unitTime", quotaPolicy.getLimit().getUnitTime());
+            context.put("timeUnit", quotaPolicy.getLimit().getTimeUnit());
+            template.merge(context, writer);
+            if (log.isDebugEnabled()) {
+                log.debug("Policy : " + writer.toString());
+            }
+        } catch (VelocityException e) {
+            log.error("Velocity Error", e);
+            throw new APITemplateException("Velocity Error", e);
+        }
+        return writer.toString();
+    }
+
     private String getTemplatePathForAPI() {
         return policyTemplateLocation + ThrottlePolicyTemplateBuilder.POLICY_VELOCITY_RESOURCE + ".xml";
     }
@@ -498,4 +524,8 @@ public class ThrottlePolicyTemplateBuilder {
     private String getTemplatePathForAsyncSubscription() {
         return policyTemplateLocation + ThrottlePolicyTemplateBuilder.POLICY_VELOCITY_ASYNC_SUB + ".xml";
     }
+
+    private String getTemplatePathForConsolidatedPolicy() {
+        return policyTemplateLocation + ThrottlePolicyTemplateBuilder.POLICY_VELOCITY_CONSOLIDATED + ".xml";
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.wso2.carbon.apimgt.throttle.policy.deployer.utils;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.core.classloader.annotations.SuppressStaticInitializationFor;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
+import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
+import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.SubscriptionPolicy;
+import org.wso2.carbon.apimgt.throttle.policy.deployer.internal.ServiceReferenceHolder;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.event.processor.core.EventProcessorService;
+import org.wso2.carbon.event.processor.core.exception.ExecutionPlanConfigurationException;
+import org.wso2.carbon.event.stream.core.EventStreamService;
+
+import java.util.List;
+
+/**
+ * Test cases for adding, updating and removing policies deployed in consolidated execution plans. Deployed policies
+ * are kept across the test cases, so each test case uses its own policies and time windows.
+ */
+@RunWith(PowerMockRunner.class)
+@SuppressStaticInitializationFor("org.wso2.carbon.context.PrivilegedCarbonContext")
+@PrepareForTest({ServiceReferenceHolder.class, PrivilegedCarbonContext.class})
+public class ConsolidatedPolicyUtilTest {
+
+    private EventProcessorService eventProcessorService;
+    private EventStreamService eventStreamService;
+
+    @Before
+    public void setUp() throws Exception {
+        System.setProperty("carbon.home", ConsolidatedPolicyUtilTest.class.getResource("/").getFile());
+        PowerMockito.mockStatic(PrivilegedCarbonContext.class);
+        PrivilegedCarbonContext privilegedCarbonContext = Mockito.mock(PrivilegedCarbonContext.class);
+        PowerMockito.when(PrivilegedCarbonContext.getThreadLocalCarbonContext()).thenReturn(privilegedCarbonContext);
+
+        eventProcessorService = Mockito.mock(EventProcessorService.class);
+        Mockito.when(eventProcessorService.getActiveExecutionPlan(Mockito.anyString()))
+                .thenThrow(Mockito.mock(ExecutionPlanConfigurationException.class));
+        eventStreamService = Mockito.mock(EventStreamService.class);
+        PowerMockito.mockStatic(ServiceReferenceHolder.class);
+        ServiceReferenceHolder serviceReferenceHolder = Mockito.mock(ServiceReferenceHolder.class);
+        Mockito.when(serviceReferenceHolder.getEventProcessorService()).thenReturn(eventProcessorService);
+        Mockito.when(serviceReferenceHolder.getEventStreamService()).thenReturn(eventStreamService);
+
+        APIManagerConfiguration apiManagerConfiguration = Mockito.mock(APIManagerConfiguration.class);
+        ThrottleProperties throttleProperties = Mockito.mock(ThrottleProperties.class);
+        Mockito.when(throttleProperties.isEnableConsolidatedPolicyPlans()).thenReturn(true);
+        Mockito.when(apiManagerConfiguration.getThrottleProperties()).thenReturn(throttleProperties);
+        Mockito.when(apiManagerConfiguration.getFirstProperty(APIConstants.VELOCITY_LOGGER)).thenReturn(null);
+        Mockito.when(serviceReferenceHolder.getAPIMConfiguration()).thenReturn(apiManagerConfiguration);
+        PowerMockito.when(ServiceReferenceHolder.getInstance()).thenReturn(serviceReferenceHolder);
+    }
+
+    @Test
+    public void testAddPolicies() throws Exception {
+        SubscriptionPolicy policy1 = getPolicy("addPolicy1", 2, 10);
+        SubscriptionPolicy policy2 = getPolicy("addPolicy2", 2, 20);
+        String planName = ConsolidatedPolicyUtil.getPlanName(PolicyConstants.POLICY_LEVEL_SUB,
+                policy1.getDefaultLimit());
+        Assert.assertTrue(ConsolidatedPolicyUtil.isConsolidated(policy1));
+
+        ConsolidatedPolicyUtil.deployPolicy(policy1);
+        ConsolidatedPolicyUtil.deployPolicy(policy2);
+
+        // Policies sharing the time window are deployed in the same execution plan
+        Mockito.verify(eventProcessorService, Mockito.times(1)).deployExecutionPlan(Mockito.anyString());
+        List<Event> events = getPublishedEvents(2);
+        assertPolicyLimit(events.get(0), planName, "addPolicy1", 10);
+        assertPolicyLimit(events.get(1), planName, "addPolicy2", 20);
+    }
+
+    @Test
+    public void testUpdatePolicy() throws Exception {
+        String planName = ConsolidatedPolicyUtil.getPlanName(PolicyConstants.POLICY_LEVEL_SUB,
+                getPolicy("updatePolicy", 3, 10).getDefaultLimit());
+        String newPlanName = ConsolidatedPolicyUtil.getPlanName(PolicyConstants.POLICY_LEVEL_SUB,
+                getPolicy("updatePolicy", 4, 10).getDefaultLimit());
+        ConsolidatedPolicyUtil.deployPolicy(getPolicy("updatePolicy", 3, 10));
+        Mockito.doReturn("EXECUTION_PLAN").when(eventProcessorService).getActiveExecutionPlan(planName);
+
+        // Updating the limit of the policy only updates the policy table of the plan
+        ConsolidatedPolicyUtil.deployPolicy(getPolicy("updatePolicy", 3, 15));
+        Mockito.verify(eventProcessorService, Mockito.times(1)).deployExecutionPlan(Mockito.anyString());
+        assertPolicyLimit(getPublishedEvents(2).get(1), planName, "updatePolicy", 15);
+
+        // Changing the time window of the policy moves it to another plan, and the unused plan is undeployed
+        ConsolidatedPolicyUtil.deployPolicy(getPolicy("updatePolicy", 4, 15));
+        Mockito.verify(eventProcessorService, Mockito.times(2)).deployExecutionPlan(Mockito.anyString());
+        assertPolicyLimit(getPublishedEvents(3).get(2), newPlanName, "updatePolicy", 15);
+        Mockito.verify(eventProcessorService).undeployActiveExecutionPlan(planName);
+    }
+
+    @Test
+    public void testRemovePolicies() throws Exception {
+        String planName = ConsolidatedPolicyUtil.getPlanName(PolicyConstants.POLICY_LEVEL_SUB,
+                getPolicy("removePolicy1", 5, 10).getDefaultLimit());
+        ConsolidatedPolicyUtil.deployPolicy(getPolicy("removePolicy1", 5, 10));
+        ConsolidatedPolicyUtil.deployPolicy(getPolicy("removePolicy2", 5, 20));
+        Mockito.doReturn("EXECUTION_PLAN").when(eventProcessorService).getActiveExecutionPlan(planName);
+
+        // The plan is kept while another policy is deployed in it
+        ConsolidatedPolicyUtil.undeployPolicy(PolicyConstants.POLICY_LEVEL_SUB, "carbon.super", "removePolicy1");
+        assertPolicyLimit(getPublishedEvents(3).get(2), "", "removePolicy1", 0);
+        Mockito.verify(eventProcessorService, Mockito.never()).undeployActiveExecutionPlan(planName);
+
+        ConsolidatedPolicyUtil.undeployPolicy(PolicyConstants.POLICY_LEVEL_SUB, "carbon.super", "removePolicy2");
+        assertPolicyLimit(getPublishedEvents(4).get(3), "", "removePolicy2", 0);
+        Mockito.verify(eventProcessorService).undeployActiveExecutionPlan(planName);
+
+        // Removing a policy which is not deployed does not publish anything
+        ConsolidatedPolicyUtil.undeployPolicy(PolicyConstants.POLICY_LEVEL_SUB, "carbon.super", "removePolicy2");
+        getPublishedEvents(4);
+    }
+
+    private List<Event> getPublishedEvents(int count) {
+        ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+        Mockito.verify(eventStreamService, Mockito.times(count)).publish(eventCaptor.capture());
+        return eventCaptor.getAllValues();
+    }
+
+    private static void assertPolicyLimit(Event event, String planName, String policyName, long requestCount) {
+        Object[] payloadData = event.getPayloadData();
+        Assert.assertEquals(PolicyConstants.POLICY_LEVEL_SUB, payloadData[0]);
+        Assert.assertEquals(planName, payloadData[1]);
+        Assert.assertEquals("carbon.super", payloadData[2]);
+        Assert.assertEquals(policyName, payloadData[3]);
+        Assert.assertEquals(requestCount, payloadData[4]);
+    }
+
+    private static SubscriptionPolicy getPolicy(String name, int unitTime, int requestCount) {
+        SubscriptionPolicy policy = TestUtil.getPolicySubLevel();
+        policy.setName(name);
+        policy.getDefaultLimit().getRequestCount().setUnitTime(unitTime);
+        policy.getDefaultLimit().getRequestCount().setRequestCount(requestCount);
+        return policy;
+    }
+}
@@ -26,6 +26,7 @@ import org.mockito.Mockito;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
 import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.ApiPolicy;
@@ -33,7 +34,15 @@ import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.ApplicationPolicy;
 import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.GlobalPolicy;
 import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.SubscriptionPolicy;
 import org.wso2.carbon.apimgt.throttle.policy.deployer.internal.ServiceReferenceHolder;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.stream.output.StreamCallback;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 @RunWith(PowerMockRunner.class)
@@ -88,4 +97,82 @@ public class ThrottlingPolicyTemplateBuilderTest {
         String policyString = templateBuilder.getThrottlePolicyForSubscriptionLevel(policy);
         Assert.assertNotNull(policyString);
     }
+
+    @Test
+    public void testGetConsolidatedThrottlePolicy() throws Exception {
+        SubscriptionPolicy policy = TestUtil.getPolicySubLevel();
+        String planName = ConsolidatedPolicyUtil.getPlanName(PolicyConstants.POLICY_LEVEL_SUB,
+                policy.getDefaultLimit());
+        Assert.assertEquals("consolidated_sub_requestCount_1_min", planName);
+
+        String policyString = templateBuilder.getConsolidatedThrottlePolicy(PolicyConstants.POLICY_LEVEL_SUB,
+                planName, policy.getDefaultLimit());
+        Assert.assertNotNull(policyString);
+        Assert.assertTrue(policyString.contains(planName));
+
+        ExecutionPlanRuntime executionPlanRuntime = new SiddhiManager().createExecutionPlanRuntime(policyString);
+        executionPlanRuntime.shutdown();
+        ApplicationPolicy applicationPolicy = TestUtil.getPolicyAppLevel();
+        String appPlanName = ConsolidatedPolicyUtil.getPlanName(PolicyConstants.POLICY_LEVEL_APP,
+                applicationPolicy.getDefaultLimit());
+        executionPlanRuntime = new SiddhiManager().createExecutionPlanRuntime(templateBuilder
+                .getConsolidatedThrottlePolicy(PolicyConstants.POLICY_LEVEL_APP, appPlanName,
+                        applicationPolicy.getDefaultLimit()));
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void testConsolidatedThrottlePolicyAppliesPolicyLimits() throws Exception {
+        SubscriptionPolicy policy = TestUtil.getPolicySubLevel();
+        String planName = ConsolidatedPolicyUtil.getPlanName(PolicyConstants.POLICY_LEVEL_SUB,
+                policy.getDefaultLimit());
+        String policyString = templateBuilder.getConsolidatedThrottlePolicy(PolicyConstants.POLICY_LEVEL_SUB,
+                planName, policy.getDefaultLimit());
+        ExecutionPlanRuntime executionPlanRuntime = new SiddhiManager().createExecutionPlanRuntime(policyString);
+        List<String> throttledKeys = Collections.synchronizedList(new ArrayList<>());
+        executionPlanRuntime.addCallback("GlobalThrottleStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    if ((Boolean) event.getData(1)) {
+                        throttledKeys.add((String) event.getData(0));
+                    }
+                }
+            }
+        });
+        InputHandler policyLimitStream = executionPlanRuntime.getInputHandler("PolicyLimitStream");
+        InputHandler requestStream = executionPlanRuntime.getInputHandler("RequestStream");
+        executionPlanRuntime.start();
+        try {
+            // The limit of the policy is replaced, so a request is joined with a single limit of the policy
+            policyLimitStream.send(new Object[]{PolicyConstants.POLICY_LEVEL_SUB, planName, "carbon.super",
+                    "policy1", 10L, 0L});
+            policyLimitStream.send(new Object[]{PolicyConstants.POLICY_LEVEL_SUB, planName, "carbon.super",
+                    "policy1", 5L, 0L});
+            sendRequests(requestStream, "key1", "policy1", 4);
+            Thread.sleep(100);
+            Assert.assertTrue(throttledKeys.isEmpty());
+            sendRequests(requestStream, "key1", "policy1", 1);
+            Thread.sleep(100);
+            Assert.assertEquals(Collections.singletonList("key1"), throttledKeys);
+
+            // A policy moved to another plan is removed from the policy table
+            policyLimitStream.send(new Object[]{PolicyConstants.POLICY_LEVEL_SUB, "", "carbon.super",
+                    "policy1", 0L, 0L});
+            sendRequests(requestStream, "key2", "policy1", 10);
+            Thread.sleep(100);
+            Assert.assertEquals(Collections.singletonList("key1"), throttledKeys);
+        } finally {
+            executionPlanRuntime.shutdown();
+        }
+    }
+
+    private void sendRequests(InputHandler requestStream, String subscriptionKey, String subscriptionTier,
+                              int count) throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            requestStream.send(new Object[]{"messageID" + i, "appKey", "appTier", subscriptionKey, "apiKey",
+                    "apiTier", subscriptionTier, "resourceKey", "resourceTier", "userId", "/api", "1.0.0",
+                    "carbon.super", "carbon.super", "1", "api", "{}"});
+        }
+    }
 }
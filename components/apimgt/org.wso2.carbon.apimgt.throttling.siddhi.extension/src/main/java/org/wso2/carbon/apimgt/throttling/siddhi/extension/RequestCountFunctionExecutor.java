@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.throttling.siddhi.extension;
+
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.function.FunctionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.exception.ExecutionPlanValidationException;
+
+/**
+ * Returns the number of requests represented by a throttle request event.
+ * <p>
+ * Gateways which pre-aggregate throttle events publish a single event per throttle key and micro window, carrying
+ * the number of requests as the {@code requestCount} property of the properties map. Events published per request
+ * do not have this property and are counted as a single request. Throttle policies therefore use
+ * {@code sum(throttler:requestCount(propertiesMap))} instead of {@code count(messageID)}.
+ */
+public class RequestCountFunctionExecutor extends FunctionExecutor {
+
+    static final String REQUEST_COUNT_PROPERTY = "\"requestCount\":";
+    private Attribute.Type returnType = Attribute.Type.LONG;
+
+    @Override
+    protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
+        if (attributeExpressionExecutors.length != 1) {
+            throw new ExecutionPlanValidationException("Invalid no of arguments passed to the function, "
+                    + "required 1 parameter, but found " + attributeExpressionExecutors.length);
+        }
+        if (attributeExpressionExecutors[0].getReturnType() != Attribute.Type.STRING) {
+            throw new ExecutionPlanValidationException("Request count function's parameter should be the string "
+                    + "properties map, but found " + attributeExpressionExecutors[0].getReturnType());
+        }
+    }
+
+    @Override
+    protected Object execute(Object[] data) {
+        return null;
+    }
+
+    @Override
+    protected Object execute(Object data) {
+        return getRequestCount((String) data);
+    }
+
+    /**
+     * Extracts the request count from the JSON properties map without parsing the whole map.
+     *
+     * @param propertiesMap properties map of the throttle request event
+     * @return request count of the event, 1 if the event represents a single request
+     */
+    static long getRequestCount(String propertiesMap) {
+        if (propertiesMap == null) {
+            return 1L;
+        }
+        int index = propertiesMap.indexOf(REQUEST_COUNT_PROPERTY);
+        if (index < 0) {
+            return 1L;
+        }
+        index += REQUEST_COUNT_PROPERTY.length();
+        while (index < propertiesMap.length() && propertiesMap.charAt(index) == ' ') {
+            index++;
+        }
+        long count = 0;
+        boolean digitFound = false;
+        while (index < propertiesMap.length() && Character.isDigit(propertiesMap.charAt(index))) {
+            count = count * 10 + (propertiesMap.charAt(index) - '0');
+            digitFound = true;
+            index++;
+        }
+        return digitFound ? count : 1L;
+    }
+
+    @Override
+    public void start() {
+        //Nothing to start
+    }
+
+    @Override
+    public void stop() {
+        //Nothing to stop
+    }
+
+    @Override
+    public Attribute.Type getReturnType() {
+        return returnType;
+    }
+
+    @Override
+    public Object[] currentState() {
+        return null;    //No need to maintain a state.
+    }
+
+    @Override
+    public void restoreState(Object[] state) {
+        //Since there's no need to maintain a state, nothing needs to be done here.
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.throttling.siddhi.extension;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.stream.output.StreamCallback;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiles the default policy execution plans shipped with the throttling Siddhi extension feature.
+ */
+public class DefaultExecutionPlansTestCase {
+
+    private static final Path EXECUTION_PLANS_DIRECTORY = Paths.get("..", "..", "..", "features", "apimgt",
+            "org.wso2.carbon.apimgt.throttling.siddhi.extension.feature", "src", "main", "resources", "conf",
+            "executionplans");
+
+    @Test
+    public void defaultExecutionPlansCompileTest() throws Exception {
+
+        int planCount = 0;
+        try (DirectoryStream<Path> executionPlans = Files.newDirectoryStream(EXECUTION_PLANS_DIRECTORY,
+                "carbon.super_*.siddhiql")) {
+            for (Path executionPlan : executionPlans) {
+                ExecutionPlanRuntime executionPlanRuntime = new SiddhiManager().createExecutionPlanRuntime(
+                        readExecutionPlan(executionPlan.getFileName().toString()));
+                executionPlanRuntime.start();
+                executionPlanRuntime.shutdown();
+                planCount++;
+            }
+        }
+        Assert.assertEquals(10, planCount);
+    }
+
+    @Test
+    public void defaultExecutionPlanCountsAggregatedRequestsTest() throws Exception {
+
+        ExecutionPlanRuntime executionPlanRuntime = new SiddhiManager().createExecutionPlanRuntime(
+                readExecutionPlan("carbon.super_app_10PerMin.siddhiql"));
+        List<String> throttledKeys = Collections.synchronizedList(new ArrayList<>());
+        executionPlanRuntime.addCallback("GlobalThrottleStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    if ((Boolean) event.getData(1)) {
+                        throttledKeys.add((String) event.getData(0));
+                    }
+                }
+            }
+        });
+        InputHandler requestStream = executionPlanRuntime.getInputHandler("RequestStream");
+        executionPlanRuntime.start();
+        try {
+            sendRequest(requestStream, "appKey1", "{\"requestCount\":9}");
+            Thread.sleep(100);
+            Assert.assertTrue(throttledKeys.isEmpty());
+            sendRequest(requestStream, "appKey1", "{}");
+            Thread.sleep(100);
+            Assert.assertEquals(Collections.singletonList("appKey1"), throttledKeys);
+        } finally {
+            executionPlanRuntime.shutdown();
+        }
+    }
+
+    private static String readExecutionPlan(String fileName) throws Exception {
+
+        return new String(Files.readAllBytes(EXECUTION_PLANS_DIRECTORY.resolve(fileName)), StandardCharsets.UTF_8);
+    }
+
+    private static void sendRequest(InputHandler requestStream, String appKey, String propertiesMap)
+            throws InterruptedException {
+
+        requestStream.send(new Object[]{"messageID", appKey, "10PerMin", "subscriptionKey", "apiKey", "apiTier",
+                "subscriptionTier", "resourceKey", "resourceTier", "userId", "/api", "1.0.0", "carbon.super",
+                "carbon.super", "1", "api", propertiesMap});
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.throttling.siddhi.extension;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+
+public class RequestCountFunctionTestCase {
+    private long lastRequestCount;
+
+    @Test
+    public void requestCountParsingTest() {
+        Assert.assertEquals(1L, RequestCountFunctionExecutor.getRequestCount(null));
+        Assert.assertEquals(1L, RequestCountFunctionExecutor.getRequestCount("{\"ip\":2130706433}"));
+        Assert.assertEquals(25L, RequestCountFunctionExecutor.getRequestCount("{\"requestCount\":25,\"ip\":0}"));
+        Assert.assertEquals(3L, RequestCountFunctionExecutor.getRequestCount("{\"requestCount\": 3}"));
+        Assert.assertEquals(1L, RequestCountFunctionExecutor.getRequestCount("{\"requestCount\":\"abc\"}"));
+    }
+
+    @Test
+    public void weightedEventsAreSummedTest() throws InterruptedException {
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String requestStream = "" +
+                "define stream RequestStream (throttleKey string, propertiesMap string);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from RequestStream#throttler:timeBatch(5 sec, 0) " +
+                "select throttleKey, sum(throttler:requestCount(propertiesMap)) as requestCount " +
+                "group by throttleKey " +
+                "insert into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(requestStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    lastRequestCount = (Long) inEvents[inEvents.length - 1].getData(1);
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("RequestStream");
+        executionPlanRuntime.start();
+        inputHandler.send(new Object[]{"appKey", "{\"ip\":2130706433}"});
+        inputHandler.send(new Object[]{"appKey", "{\"requestCount\":40}"});
+        inputHandler.send(new Object[]{"appKey", "{\"requestCount\":9,\"messageSize\":100}"});
+        Thread.sleep(100);
+        Assert.assertEquals(50L, lastRequestCount);
+        executionPlanRuntime.shutdown();
+    }
+}
@@ -1649,6 +1649,19 @@ CREATE OR REPLACE TRIGGER AM_API_SUBSCRIPTION_TRIGGER
     END;
 /
 
+CREATE TABLE AM_SUBSCRIPTION_TOMBSTONE (
+    SUBSCRIPTION_ID INTEGER NOT NULL,
+    UUID VARCHAR2(256),
+    API_ID INTEGER,
+    APPLICATION_ID INTEGER,
+    API_UUID VARCHAR2(256),
+    APPLICATION_UUID VARCHAR2(256),
+    TENANT_ID INTEGER,
+    DELETED_TIME DATE,
+    PRIMARY KEY (SUBSCRIPTION_ID)
+)
+/
+
 --TODO: Have to add ON UPDATE CASCADE for the FOREIGN KEY(APPLICATION_ID) relation
 CREATE TABLE AM_APPLICATION_KEY_MAPPING (
     UUID VARCHAR2(100),
@@ -2144,6 +2157,18 @@ CREATE TABLE AM_GW_API_DEPLOYMENTS (
 )
 /
 
+CREATE TABLE AM_GW_API_RENDERED_ARTIFACTS (
+  API_ID VARCHAR(255) NOT NULL,
+  REVISION_ID VARCHAR(255) NOT NULL,
+  LABEL VARCHAR(255) NOT NULL,
+  GATEWAY_TYPE VARCHAR(50) NOT NULL,
+  CONTENT_HASH VARCHAR(64) NOT NULL,
+  ARTIFACT blob,
+  PRIMARY KEY (REVISION_ID, LABEL, GATEWAY_TYPE),
+  FOREIGN KEY (API_ID) REFERENCES AM_GW_PUBLISHED_API_DETAILS(API_ID)
+)
+/
+
 -- Tenant Themes Table --
 CREATE TABLE AM_TENANT_THEMES (
   TENANT_ID INTEGER NOT NULL,
@@ -2475,6 +2500,7 @@ CREATE or REPLACE TRIGGER TRG_DEL_AM_GW_PUBLISHED_API_DETAILS
       BEGIN
         DELETE FROM AM_GW_API_ARTIFACTS WHERE API_ID = :OLD.API_ID;
         DELETE FROM AM_GW_API_DEPLOYMENTS WHERE API_ID = :OLD.API_ID;
+        DELETE FROM AM_GW_API_RENDERED_ARTIFACTS WHERE API_ID = :OLD.API_ID;
       END;
 /
 
@@ -2386,6 +2386,18 @@ CREATE TABLE AM_SUBSCRIPTION (
             UNIQUE (UUID)
 )/
 
+CREATE TABLE AM_SUBSCRIPTION_TOMBSTONE (
+            SUBSCRIPTION_ID INTEGER NOT NULL,
+            UUID VARCHAR(256),
+            API_ID INTEGER,
+            APPLICATION_ID INTEGER,
+            API_UUID VARCHAR(256),
+            APPLICATION_UUID VARCHAR(256),
+            TENANT_ID INTEGER,
+            DELETED_TIME TIMESTAMP,
+            PRIMARY KEY (SUBSCRIPTION_ID)
+)/
+
 CREATE TABLE AM_APPLICATION_KEY_MAPPING (
             UUID VARCHAR(100),
             APPLICATION_ID INTEGER NOT NULL,
@@ -2881,6 +2893,18 @@ CREATE TABLE AM_GW_API_DEPLOYMENTS (
 )
    /
 
+CREATE TABLE AM_GW_API_RENDERED_ARTIFACTS (
+  API_ID VARCHAR(255) NOT NULL,
+  REVISION_ID VARCHAR(255) NOT NULL,
+  LABEL VARCHAR(255) NOT NULL,
+  GATEWAY_TYPE VARCHAR(50) NOT NULL,
+  CONTENT_HASH VARCHAR(64) NOT NULL,
+  ARTIFACT blob,
+  PRIMARY KEY (REVISION_ID, LABEL, GATEWAY_TYPE),
+  FOREIGN KEY (API_ID) REFERENCES AM_GW_PUBLISHED_API_DETAILS(API_ID) ON DELETE CASCADE
+)
+   /
+
 -- Tenant Themes Table --
 CREATE TABLE AM_TENANT_THEMES (
   TENANT_ID INTEGER NOT NULL,
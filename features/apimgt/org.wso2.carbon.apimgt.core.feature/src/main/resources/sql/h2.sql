@@ -1624,6 +1624,18 @@ CREATE TABLE IF NOT EXISTS AM_SUBSCRIPTION (
     UNIQUE (UUID)
 );
 
+CREATE TABLE IF NOT EXISTS AM_SUBSCRIPTION_TOMBSTONE (
+    SUBSCRIPTION_ID INTEGER NOT NULL,
+    UUID VARCHAR(256),
+    API_ID INTEGER,
+    APPLICATION_ID INTEGER,
+    API_UUID VARCHAR(256),
+    APPLICATION_UUID VARCHAR(256),
+    TENANT_ID INTEGER,
+    DELETED_TIME TIMESTAMP,
+    PRIMARY KEY (SUBSCRIPTION_ID)
+);
+
 
 
 CREATE TABLE IF NOT EXISTS AM_APPLICATION_KEY_MAPPING (
@@ -2110,6 +2122,17 @@ CREATE TABLE IF NOT EXISTS AM_GW_API_DEPLOYMENTS (
   FOREIGN KEY (API_ID) REFERENCES AM_GW_PUBLISHED_API_DETAILS(API_ID) ON UPDATE CASCADE ON DELETE CASCADE
 );
 
+CREATE TABLE IF NOT EXISTS AM_GW_API_RENDERED_ARTIFACTS (
+  API_ID VARCHAR(255) NOT NULL,
+  REVISION_ID VARCHAR(255) NOT NULL,
+  LABEL VARCHAR(255) NOT NULL,
+  GATEWAY_TYPE VARCHAR(50) NOT NULL,
+  CONTENT_HASH VARCHAR(64) NOT NULL,
+  ARTIFACT blob,
+  PRIMARY KEY (REVISION_ID, LABEL, GATEWAY_TYPE),
+  FOREIGN KEY (API_ID) REFERENCES AM_GW_PUBLISHED_API_DETAILS(API_ID) ON UPDATE CASCADE ON DELETE CASCADE
+);
+
 -- Tenant Themes Table --
 CREATE TABLE IF NOT EXISTS AM_TENANT_THEMES (
   TENANT_ID INTEGER NOT NULL,
@@ -1786,6 +1786,20 @@ CREATE TABLE AM_SUBSCRIPTION (
     UNIQUE (UUID)
 );
 
+IF NOT  EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[AM_SUBSCRIPTION_TOMBSTONE]') AND TYPE IN (N'U'))
+
+CREATE TABLE AM_SUBSCRIPTION_TOMBSTONE (
+    SUBSCRIPTION_ID INTEGER NOT NULL,
+    UUID VARCHAR(256),
+    API_ID INTEGER,
+    APPLICATION_ID INTEGER,
+    API_UUID VARCHAR(256),
+    APPLICATION_UUID VARCHAR(256),
+    TENANT_ID INTEGER,
+    DELETED_TIME DATETIME,
+    PRIMARY KEY (SUBSCRIPTION_ID)
+);
+
 
 IF NOT  EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[AM_APPLICATION_KEY_MAPPING]') AND TYPE IN (N'U'))
 
@@ -2345,6 +2359,18 @@ CREATE TABLE AM_GW_API_DEPLOYMENTS (
   PRIMARY KEY (REVISION_ID, API_ID,LABEL),
   FOREIGN KEY (API_ID) REFERENCES AM_GW_PUBLISHED_API_DETAILS(API_ID) ON UPDATE CASCADE ON DELETE CASCADE
 ) ;
+
+IF NOT  EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[AM_GW_API_RENDERED_ARTIFACTS]') AND TYPE IN (N'U'))
+CREATE TABLE AM_GW_API_RENDERED_ARTIFACTS (
+  API_ID VARCHAR(255) NOT NULL,
+  REVISION_ID VARCHAR(255) NOT NULL,
+  LABEL VARCHAR(255) NOT NULL,
+  GATEWAY_TYPE VARCHAR(50) NOT NULL,
+  CONTENT_HASH VARCHAR(64) NOT NULL,
+  ARTIFACT VARBINARY(MAX),
+  PRIMARY KEY (REVISION_ID, LABEL, GATEWAY_TYPE),
+  FOREIGN KEY (API_ID) REFERENCES AM_GW_PUBLISHED_API_DETAILS(API_ID) ON UPDATE CASCADE ON DELETE CASCADE
+) ;
 -- Tenant Themes Table --
 IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[AM_TENANT_THEMES]') AND TYPE IN (N'U'))
 CREATE TABLE AM_TENANT_THEMES (
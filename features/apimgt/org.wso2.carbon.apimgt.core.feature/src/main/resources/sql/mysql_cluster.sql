@@ -1752,6 +1752,18 @@ CREATE TABLE IF NOT EXISTS AM_SUBSCRIPTION (
     UNIQUE (UUID)
 )ENGINE NDB;
 
+CREATE TABLE IF NOT EXISTS AM_SUBSCRIPTION_TOMBSTONE (
+    SUBSCRIPTION_ID INTEGER NOT NULL,
+    UUID VARCHAR(256),
+    API_ID INTEGER,
+    APPLICATION_ID INTEGER,
+    API_UUID VARCHAR(256),
+    APPLICATION_UUID VARCHAR(256),
+    TENANT_ID INTEGER,
+    DELETED_TIME TIMESTAMP NULL,
+    PRIMARY KEY (SUBSCRIPTION_ID)
+)ENGINE NDB;
+
 
 
 CREATE TABLE IF NOT EXISTS AM_APPLICATION_KEY_MAPPING (
@@ -2244,6 +2256,17 @@ CREATE TABLE IF NOT EXISTS AM_GW_API_DEPLOYMENTS (
   FOREIGN KEY (API_ID) REFERENCES AM_GW_PUBLISHED_API_DETAILS(API_ID) ON UPDATE CASCADE ON DELETE NO ACTION
 ) ENGINE=InnoDB;
 
+CREATE TABLE IF NOT EXISTS AM_GW_API_RENDERED_ARTIFACTS (
+  API_ID VARCHAR(255) NOT NULL,
+  REVISION_ID VARCHAR(255) NOT NULL,
+  LABEL VARCHAR(255) NOT NULL,
+  GATEWAY_TYPE VARCHAR(50) NOT NULL,
+  CONTENT_HASH VARCHAR(64) NOT NULL,
+  ARTIFACT MEDIUMBLOB,
+  PRIMARY KEY (REVISION_ID, LABEL, GATEWAY_TYPE),
+  FOREIGN KEY (API_ID) REFERENCES AM_GW_PUBLISHED_API_DETAILS(API_ID) ON UPDATE CASCADE ON DELETE NO ACTION
+) ENGINE=InnoDB;
+
 -- Tenant Themes Table --
 CREATE TABLE IF NOT EXISTS AM_TENANT_THEMES (
   TENANT_ID INTEGER NOT NULL,
@@ -2560,6 +2560,19 @@ CREATE TABLE AM_SUBSCRIPTION (
 )
 /
 
+CREATE TABLE AM_SUBSCRIPTION_TOMBSTONE (
+    SUBSCRIPTION_ID INTEGER NOT NULL,
+    UUID VARCHAR2(256),
+    API_ID INTEGER,
+    APPLICATION_ID INTEGER,
+    API_UUID VARCHAR2(256),
+    APPLICATION_UUID VARCHAR2(256),
+    TENANT_ID INTEGER,
+    DELETED_TIME DATE,
+    PRIMARY KEY (SUBSCRIPTION_ID)
+)
+/
+
 CREATE OR REPLACE TRIGGER AM_API_SUBSCRIPTION_TRIGGER
  AFTER UPDATE OF API_ID ON AM_API FOR EACH ROW
     BEGIN
@@ -3353,6 +3366,18 @@ CREATE TABLE AM_GW_API_DEPLOYMENTS (
 )
 /
 
+CREATE TABLE AM_GW_API_RENDERED_ARTIFACTS (
+  API_ID VARCHAR(255) NOT NULL,
+  REVISION_ID VARCHAR(255) NOT NULL,
+  LABEL VARCHAR(255) NOT NULL,
+  GATEWAY_TYPE VARCHAR(50) NOT NULL,
+  CONTENT_HASH VARCHAR(64) NOT NULL,
+  ARTIFACT blob,
+  PRIMARY KEY (REVISION_ID, LABEL, GATEWAY_TYPE),
+  FOREIGN KEY (API_ID) REFERENCES AM_GW_PUBLISHED_API_DETAILS(API_ID) ON DELETE CASCADE
+)
+/
+
 -- Tenant Themes Table --
 CREATE TABLE AM_TENANT_THEMES (
   TENANT_ID INTEGER NOT NULL,
@@ -1357,6 +1357,18 @@ CREATE TABLE IF NOT EXISTS AM_SUBSCRIPTION (
     UNIQUE (UUID)
 );
 
+CREATE TABLE IF NOT EXISTS AM_SUBSCRIPTION_TOMBSTONE (
+    SUBSCRIPTION_ID INTEGER NOT NULL,
+    UUID VARCHAR(256),
+    API_ID INTEGER,
+    APPLICATION_ID INTEGER,
+    API_UUID VARCHAR(256),
+    APPLICATION_UUID VARCHAR(256),
+    TENANT_ID INTEGER,
+    DELETED_TIME TIMESTAMP,
+    PRIMARY KEY (SUBSCRIPTION_ID)
+);
+
 CREATE TABLE IF NOT EXISTS AM_APPLICATION_KEY_MAPPING (
     APPLICATION_ID INTEGER,
     CONSUMER_KEY VARCHAR(512),